@@ -0,0 +1,8 @@
+/*
+ * Generated by saveVersion.sh
+ */
+@HiveVersionAnnotation(version="0.13.0-SNAPSHOT", shortVersion="0.13.0",
+                         revision="da1bc8aee387e7fdacb8caccfefeed2fb744f8e8", branch="master",
+                         user="root", date="Sat Oct 17 12:05:44 UTC 2026", url="git://vm/root/project",
+                         srcChecksum="9bacfb002c2d211761253f811890f433")
+package org.apache.hive.common;
@@ -344,6 +344,10 @@ public static enum ConfVars {
     METASTORE_TRY_DIRECT_SQL_DDL("hive.metastore.try.direct.sql.ddl", true),
     METASTORE_DISALLOW_INCOMPATIBLE_COL_TYPE_CHANGES(
         "hive.metastore.disallow.incompatible.col.type.changes", false),
+    // cache of tables and partitions in the metastore server
+    METASTORE_CACHE_ENABLED("hive.metastore.cache.enabled", false),
+    METASTORE_CACHE_MAX_PARTITIONS("hive.metastore.cache.max.partitions", 100000),
+    METASTORE_CACHE_TTL("hive.metastore.cache.ttl", 600L),
 
     // Default parameters for creating tables
     NEWTABLEDEFAULTPARA("hive.table.parameters.default", ""),
@@ -432,6 +436,8 @@ public static enum ConfVars {
     HIVEMAPJOINFOLLOWEDBYMAPAGGRHASHMEMORY("hive.mapjoin.followby.map.aggr.hash.percentmemory", (float) 0.3),
     HIVEMAPAGGRMEMORYTHRESHOLD("hive.map.aggr.hash.force.flush.memory.threshold", (float) 0.9),
     HIVEMAPAGGRHASHMINREDUCTION("hive.map.aggr.hash.min.reduction", (float) 0.5),
+    HIVEMAPAGGRHASHSPILL("hive.map.aggr.hash.spill", false),
+    HIVEMAPAGGRHASHSPILLPARTITIONS("hive.map.aggr.hash.spill.partitions", 16),
     HIVEMULTIGROUPBYSINGLEREDUCER("hive.multigroupby.singlereducer", true),
     HIVE_MAP_GROUPBY_SORT("hive.map.groupby.sorted", false),
     HIVE_MAP_GROUPBY_SORT_TESTMODE("hive.map.groupby.sorted.testmode", false),
@@ -513,6 +519,8 @@ public static enum ConfVars {
         256L * 1024 * 1024),
 
     HIVE_ORC_DICTIONARY_KEY_SIZE_THRESHOLD("hive.exec.orc.dictionary.key.size.threshold", 0.8f),
+    // Number of ORC files whose parsed footers are kept per process, 0 to disable
+    HIVE_ORC_FOOTER_CACHE_ENTRIES("hive.exec.orc.footer.cache.entries", 10000),
 
     HIVESKEWJOIN("hive.optimize.skewjoin", false),
     HIVECONVERTJOIN("hive.auto.convert.join", true),
@@ -522,6 +530,12 @@ public static enum ConfVars {
     HIVESKEWJOINKEY("hive.skewjoin.key", 100000),
     HIVESKEWJOINMAPJOINNUMMAPTASK("hive.skewjoin.mapjoin.map.tasks", 10000),
     HIVESKEWJOINMAPJOINMINSPLIT("hive.skewjoin.mapjoin.min.split", 33554432L), //32M
+    // spread the rows of heavy join keys over reducers within the join job
+    HIVESKEWJOINSALTING("hive.optimize.skewjoin.salting", false),
+    HIVESKEWJOINSALTINGTHRESHOLD("hive.optimize.skewjoin.salting.threshold", 0.01f),
+    HIVESKEWJOINSALTINGBUCKETS("hive.optimize.skewjoin.salting.buckets", 16),
+    HIVESKEWJOINSALTINGSAMPLES("hive.optimize.skewjoin.salting.samples", 10000),
+    HIVESKEWJOINSALTINGSAMPLEPERCENT("hive.optimize.skewjoin.salting.sample.percent", 0.1f),
 
     HIVESENDHEARTBEAT("hive.heartbeat.interval", 1000),
     HIVELIMITMAXROWSIZE("hive.limit.row.max.size", 100000L),
@@ -535,12 +549,21 @@ public static enum ConfVars {
     HIVEHASHTABLEFOLLOWBYGBYMAXMEMORYUSAGE("hive.mapjoin.followby.gby.localtask.max.memory.usage", (float) 0.55),
     HIVEHASHTABLEMAXMEMORYUSAGE("hive.mapjoin.localtask.max.memory.usage", (float) 0.90),
     HIVEHASHTABLESCALE("hive.mapjoin.check.memory.rows", (long)100000),
+    HIVEMAPJOINLOCALTASKINPROCESS("hive.mapjoin.localtask.inprocess", false),
+    HIVEHASHTABLEINPROCESSMAXMEMORYUSAGE("hive.mapjoin.localtask.inprocess.max.memory.usage", (float) 0.50),
+    HIVEMAPJOINLOCALTASKTHREADS("hive.mapjoin.localtask.threads", 4),
+    HIVEMAPJOINUSEOPTIMIZEDTABLE("hive.mapjoin.optimized.hashtable", false),
+    HIVEMAPJOINOPTIMIZEDTABLEOFFHEAP("hive.mapjoin.optimized.hashtable.offheap", false),
+    HIVEMAPJOINOPTIMIZEDTABLEWBSIZE("hive.mapjoin.optimized.hashtable.wbsize", 8 * 1024 * 1024),
+    HIVEMAPJOINBINARYDUMP("hive.mapjoin.hashtable.binary.format", true),
 
     HIVEDEBUGLOCALTASK("hive.debug.localtask",false),
 
     HIVEJOBPROGRESS("hive.task.progress", false),
 
     HIVEINPUTFORMAT("hive.input.format", "org.apache.hadoop.hive.ql.io.CombineHiveInputFormat"),
+    // Threads used to list input directories and compute their splits, 1 to do it serially
+    HIVE_SPLIT_GENERATION_THREADS("hive.exec.input.split.threads", 10),
 
     HIVEENFORCEBUCKETING("hive.enforce.bucketing", false),
     HIVEENFORCESORTING("hive.enforce.sorting", false),
@@ -575,6 +598,9 @@ public static enum ConfVars {
     HIVEOPTSORTMERGEBUCKETMAPJOIN("hive.optimize.bucketmapjoin.sortedmerge", false), // try to use sorted merge bucket map join
     HIVEOPTREDUCEDEDUPLICATION("hive.optimize.reducededuplication", true),
     HIVEOPTREDUCEDEDUPLICATIONMINREDUCER("hive.optimize.reducededuplication.min.reducer", 4),
+    // shuffle and sort dynamic partition inserts on the partition columns, so that
+    // each file sink keeps a single partition open
+    HIVEOPTSORTDYNAMICPARTITION("hive.optimize.sort.dynamic.partition", false),
 
     HIVESAMPLINGFORORDERBY("hive.optimize.sampling.orderby", false),
     HIVESAMPLINGNUMBERFORORDERBY("hive.optimize.sampling.orderby.number", 1000),
@@ -585,6 +611,9 @@ public static enum ConfVars {
     // where MAPREDUCE-1501 is not present
     HIVE_OPTIMIZE_UNION_REMOVE("hive.optimize.union.remove", false),
     HIVEOPTCORRELATION("hive.optimize.correlation", false), // exploit intra-query correlations
+    // reorder inner joins using the statistics of the tables
+    HIVE_OPTIMIZE_JOIN_REORDER("hive.optimize.join.reorder", false),
+    HIVE_OPTIMIZE_JOIN_REORDER_DP_THRESHOLD("hive.optimize.join.reorder.dp.threshold", 10),
 
     // whether hadoop map-reduce supports sub-directories. It was added by MAPREDUCE-1501.
     // Some optimizations can only be performed if the version of hadoop being used supports
@@ -651,6 +680,7 @@ public static enum ConfVars {
     HIVE_UNLOCK_NUMRETRIES("hive.unlock.numretries", 10),
     HIVE_LOCK_SLEEP_BETWEEN_RETRIES("hive.lock.sleep.between.retries", 60),
     HIVE_LOCK_MAPRED_ONLY("hive.lock.mapred.only.operation", false),
+    HIVE_LOCK_ESCALATION_THRESHOLD("hive.lock.escalation.threshold", 0),
 
     HIVE_ZOOKEEPER_QUORUM("hive.zookeeper.quorum", ""),
     HIVE_ZOOKEEPER_CLIENT_PORT("hive.zookeeper.client.port", "2181"),
@@ -766,6 +796,9 @@ public static enum ConfVars {
         new StringsValidator("auth", "auth-int", "auth-conf")),
     HIVE_SERVER2_THRIFT_MIN_WORKER_THREADS("hive.server2.thrift.min.worker.threads", 5),
     HIVE_SERVER2_THRIFT_MAX_WORKER_THREADS("hive.server2.thrift.max.worker.threads", 500),
+    // threadpool: a worker thread per connection; selector: a worker thread per call in flight
+    HIVE_SERVER2_THRIFT_SERVER_TYPE("hive.server2.thrift.server.type", "threadpool",
+        new StringsValidator("threadpool", "selector")),
 
     // Configuration for async thread pool in SessionManager
     // Number of async threads
@@ -793,6 +826,12 @@ public static enum ConfVars {
     HIVE_SERVER2_TABLE_TYPE_MAPPING("hive.server2.table.type.mapping", "CLASSIC",
         new StringsValidator("CLASSIC", "HIVE")),
     HIVE_SERVER2_SESSION_HOOK("hive.server2.session.hook", ""),
+    HIVE_SERVER2_METRICS_ENABLED("hive.server2.metrics.enabled", false),
+    HIVE_DRIVER_PARALLEL_COMPILATION("hive.driver.parallel.compilation", false),
+    HIVE_PLAN_CACHE_SCOPE("hive.plan.cache.scope", "none",
+        new StringsValidator("none", "session", "user")),
+    HIVE_PLAN_CACHE_SIZE("hive.plan.cache.size", 100),
+    HIVE_PLAN_CACHE_STATEMENT("hive.plan.cache.statement", false),
     HIVE_SERVER2_USE_SSL("hive.server2.use.SSL", false),
     HIVE_SERVER2_SSL_KEYSTORE_PATH("hive.server2.keystore.path", ""),
     HIVE_SERVER2_SSL_KEYSTORE_PASSWORD("hive.server2.keystore.password", ""),
@@ -841,6 +880,7 @@ public static enum ConfVars {
 
     //Vectorization enabled
     HIVE_VECTORIZATION_ENABLED("hive.vectorized.execution.enabled", false),
+    HIVE_VECTORIZATION_REDUCE_ENABLED("hive.vectorized.execution.reduce.enabled", false),
     HIVE_VECTORIZATION_GROUPBY_CHECKINTERVAL("hive.vectorized.groupby.checkinterval", 100000),
     HIVE_VECTORIZATION_GROUPBY_MAXENTRIES("hive.vectorized.groupby.maxentries", 1000000),
     HIVE_VECTORIZATION_GROUPBY_FLUSH_PERCENT("hive.vectorized.groupby.flush.percent", (float) 0.1),
@@ -157,7 +157,11 @@ public static void main(String[] args) {
     // -p
     String perms = (String) cmdLine.getOptionValue('p');
     if (perms != null) {
-      validatePermissions(ss, conf, perms);
+      String hcatPerms = validatePermissions(ss, perms);
+      if (hcatPerms == null) {
+        System.exit(1);
+      }
+      conf.set(HCatConstants.HCAT_PERMS, hcatPerms);
     }
 
     // -g
@@ -169,12 +173,12 @@ public static void main(String[] args) {
     // all done parsing, let's run stuff!
 
     if (execString != null) {
-      System.exit(processLine(execString));
+      System.exit(processLine(ss, execString));
     }
 
     try {
       if (fileName != null) {
-        System.exit(processFile(fileName));
+        System.exit(processFile(ss, fileName));
       }
     } catch (FileNotFoundException e) {
       ss.err.println("Input file not found. (" + e.getMessage() + ")");
@@ -194,7 +198,12 @@ private static void setConfProperties(HiveConf conf, Properties props) {
       conf.set((String) e.getKey(), (String) e.getValue());
   }
 
-  private static int processLine(String line) {
+  /**
+   * Run each command of the line on the session, stopping at the first one
+   * the driver fails to run.
+   * @return the exit code of hcat for the line
+   */
+  public static int processLine(SessionState ss, String line) {
     int ret = 0;
 
     String command = "";
@@ -210,13 +219,19 @@ private static int processLine(String line) {
         continue;
       }
 
-      ret = processCmd(command);
+      ret = processCmd(ss, command);
+      if (ret < 0) {
+        return -ret;
+      }
       command = "";
     }
     return ret;
   }
 
-  private static int processFile(String fileName) throws IOException {
+  /**
+   * Run the commands of the file on the session, like processLine.
+   */
+  public static int processFile(SessionState ss, String fileName) throws IOException {
     FileReader fileReader = null;
     BufferedReader reader = null;
     try {
@@ -229,7 +244,7 @@ private static int processFile(String fileName) throws IOException {
         qsb.append(line + "\n");
       }
 
-      return (processLine(qsb.toString()));
+      return (processLine(ss, qsb.toString()));
     } finally {
       if (fileReader != null) {
         fileReader.close();
@@ -240,9 +255,11 @@ private static int processFile(String fileName) throws IOException {
     }
   }
 
-  private static int processCmd(String cmd) {
-
-    SessionState ss = SessionState.get();
+  /**
+   * Run one command.
+   * @return the result of the command, negated if the driver failed to run it
+   */
+  private static int processCmd(SessionState ss, String cmd) {
     long start = System.currentTimeMillis();
 
     cmd = cmd.trim();
@@ -260,7 +277,7 @@ private static int processCmd(String cmd) {
 
     if (ret != 0) {
       driver.close();
-      System.exit(ret);
+      return -Math.abs(ret);
     }
 
     ArrayList<String> res = new ArrayList<String>();
@@ -303,7 +320,12 @@ private static void printUsage(Options options, OutputStream os) {
     pw.flush();
   }
 
-  private static void validatePermissions(CliSessionState ss, HiveConf conf, String perms) {
+  /**
+   * Check permissions given as rwxr-x--- or 750.
+   * @return the value of HCatConstants.HCAT_PERMS for them, or null after
+   * printing why they are not valid to the error stream of the session
+   */
+  public static String validatePermissions(SessionState ss, String perms) {
     perms = perms.trim();
     FsPermission fp = null;
 
@@ -313,26 +335,25 @@ private static void validatePermissions(CliSessionState ss, HiveConf conf, Strin
       fp = new FsPermission(Short.decode("0" + perms));
     } else {
       ss.err.println("Invalid permission specification: " + perms);
-      System.exit(1);
+      return null;
     }
 
     if (!HCatUtil.validateMorePermissive(fp.getUserAction(), fp.getGroupAction())) {
       ss.err.println("Invalid permission specification: " + perms + " : user permissions must be more permissive than group permission ");
-      System.exit(1);
+      return null;
     }
     if (!HCatUtil.validateMorePermissive(fp.getGroupAction(), fp.getOtherAction())) {
       ss.err.println("Invalid permission specification: " + perms + " : group permissions must be more permissive than other permission ");
-      System.exit(1);
+      return null;
     }
     if ((!HCatUtil.validateExecuteBitPresentIfReadOrWrite(fp.getUserAction())) ||
       (!HCatUtil.validateExecuteBitPresentIfReadOrWrite(fp.getGroupAction())) ||
       (!HCatUtil.validateExecuteBitPresentIfReadOrWrite(fp.getOtherAction()))) {
       ss.err.println("Invalid permission specification: " + perms + " : permissions must have execute permissions if read or write permissions are specified ");
-      System.exit(1);
+      return null;
     }
 
-    conf.set(HCatConstants.HCAT_PERMS, "d" + fp.toString());
-
+    return "d" + fp.toString();
   }
 
 
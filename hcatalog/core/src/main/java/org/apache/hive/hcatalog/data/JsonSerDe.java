@@ -18,7 +18,6 @@
  */
 package org.apache.hive.hcatalog.data;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +32,7 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.SerDeStats;
@@ -84,6 +84,12 @@ public class JsonSerDe implements SerDe {
 
   private HCatRecordObjectInspector cachedObjectInspector;
 
+  // the columns the query reads, or null if it reads all of them
+  private boolean[] readColumns;
+  private int numReadColumns;
+  // the columns found in the row being read
+  private boolean[] foundColumns;
+
   @Override
   public void initialize(Configuration conf, Properties tbl)
     throws SerDeException {
@@ -127,6 +133,22 @@ public void initialize(Configuration conf, Properties tbl)
       throw new SerDeException(e);
     }
 
+    readColumns = null;
+    numReadColumns = columnNames.size();
+    if (conf != null && !ColumnProjectionUtils.isReadAllColumns(conf)) {
+      readColumns = new boolean[columnNames.size()];
+      numReadColumns = 0;
+      for (int id : ColumnProjectionUtils.getReadColumnIDs(conf)) {
+        if (id < readColumns.length && !readColumns[id]) {
+          readColumns[id] = true;
+          numReadColumns++;
+        }
+      }
+      LOG.debug("reading {} of {} columns", numReadColumns, columnNames.size());
+    }
+
+    foundColumns = new boolean[columnNames.size()];
+
     jsonFactory = new JsonFactory();
   }
 
@@ -136,22 +158,35 @@ public void initialize(Configuration conf, Properties tbl)
    *
    * For this implementation, since we're using the jackson parser, we can construct
    * our own object implementation, and we use HCatRecord for it
+   *
+   * Only the columns the query reads are built, the values of the others are
+   * skipped over and left null, and the rest of the text is not parsed once all
+   * the columns that are read have been found.
    */
   @Override
   public Object deserialize(Writable blob) throws SerDeException {
 
     Text t = (Text) blob;
-    JsonParser p;
+    JsonParser p = null;
     List<Object> r = new ArrayList<Object>(Collections.nCopies(columnNames.size(), null));
     try {
-      p = jsonFactory.createJsonParser(new ByteArrayInputStream((t.getBytes())));
+      // parsing the bytes directly lets jackson reuse its buffers across rows,
+      // once the parser is closed
+      p = jsonFactory.createJsonParser(t.getBytes(), 0, t.getLength());
       if (p.nextToken() != JsonToken.START_OBJECT) {
         throw new IOException("Start token not found where expected");
       }
       JsonToken token;
-      while (((token = p.nextToken()) != JsonToken.END_OBJECT) && (token != null)) {
+      int found = 0;
+      Arrays.fill(foundColumns, false);
+      while (found < numReadColumns
+        && ((token = p.nextToken()) != JsonToken.END_OBJECT) && (token != null)) {
         // iterate through each token, and create appropriate object here.
-        populateRecord(r, token, p, schema);
+        int fpos = populateRecord(r, token, p, schema, readColumns);
+        if (fpos >= 0 && fpos < foundColumns.length && !foundColumns[fpos]) {
+          foundColumns[fpos] = true;
+          found++;
+        }
       }
     } catch (JsonParseException e) {
       LOG.warn("Error [{}] parsing json text [{}].", e, t);
@@ -161,12 +196,32 @@ public Object deserialize(Writable blob) throws SerDeException {
       LOG.warn("Error [{}] parsing json text [{}].", e, t);
       LOG.debug(null, e);
       throw new SerDeException(e);
+    } finally {
+      closeParser(p);
     }
 
     return new DefaultHCatRecord(r);
   }
 
-  private void populateRecord(List<Object> r, JsonToken token, JsonParser p, HCatSchema s) throws IOException {
+  private static void closeParser(JsonParser p) {
+    if (p != null) {
+      try {
+        p.close();
+      } catch (IOException e) {
+        LOG.debug("Error closing json parser", e);
+      }
+    }
+  }
+
+  /**
+   * Read the value of the field the parser is at into the record.
+   *
+   * @param included the fields to read, or null to read all of them. The values
+   * of the other fields are skipped.
+   * @return the position of the field that was read, or -1 if none was
+   */
+  private int populateRecord(List<Object> r, JsonToken token, JsonParser p, HCatSchema s,
+                  boolean[] included) throws IOException {
     if (token != JsonToken.FIELD_NAME) {
       throw new IOException("Field name expected");
     }
@@ -183,12 +238,19 @@ private void populateRecord(List<Object> r, JsonToken token, JsonParser p, HCatS
         throw npe;
       }
       if (fpos == -1) {
-        return; // unknown field, we return.
+        return -1; // unknown field, we return.
       }
     }
+    if (included != null && fpos < included.length && !included[fpos]) {
+      // skip the value, including anything nested in it
+      p.nextToken();
+      p.skipChildren();
+      return -1;
+    }
     HCatFieldSchema hcatFieldSchema = s.getFields().get(fpos);
     Object currField = extractCurrentField(p, null, hcatFieldSchema, false);
     r.set(fpos, currField);
+    return fpos;
   }
 
   public String getHiveInternalColumnName(int fpos) {
@@ -317,7 +379,7 @@ private Object extractCurrentField(JsonParser p, Type t,
 
       List<Object> struct = new ArrayList<Object>(Collections.nCopies(sz, null));
       while ((valueToken = p.nextToken()) != JsonToken.END_OBJECT) {
-        populateRecord(struct, valueToken, p, subSchema);
+        populateRecord(struct, valueToken, p, subSchema, null);
       }
       val = struct;
       break;
@@ -19,6 +19,7 @@
 package org.apache.hive.hcatalog.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,7 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.io.Writable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -194,6 +196,36 @@ public void testRobustRead() throws Exception {
 
   }
 
+  public void testReadColumns() throws Exception {
+    // only the int, string and nested complex columns are read
+    Configuration conf = new Configuration();
+    ColumnProjectionUtils.appendReadColumns(conf, Arrays.asList(2, 6, 12));
+
+    for (Pair<Properties, HCatRecord> e : getData()) {
+      Properties tblProps = e.first;
+      HCatRecord r = e.second;
+
+      JsonSerDe wjsd = new JsonSerDe();
+      wjsd.initialize(new Configuration(), tblProps);
+
+      JsonSerDe rjsd = new JsonSerDe();
+      rjsd.initialize(conf, tblProps);
+
+      Writable s = wjsd.serialize(r, wjsd.getObjectInspector());
+      HCatRecord o = (HCatRecord) rjsd.deserialize(s);
+      LOG.info("deserialized read columns : {} ", o);
+
+      assertEquals(r.size(), o.size());
+      for (int i = 0; i < r.size(); i++) {
+        if (i == 2 || i == 6 || i == 12) {
+          assertEquals(r.get(i), o.get(i));
+        } else {
+          assertNull(o.get(i));
+        }
+      }
+    }
+  }
+
   String getInternalNames(String columnNames) {
     if (columnNames == null) {
       return null;
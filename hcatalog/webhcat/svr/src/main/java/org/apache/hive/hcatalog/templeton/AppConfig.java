@@ -88,6 +88,9 @@ public class AppConfig extends Configuration {
   public static final String HADOOP_NAME         = "templeton.hadoop";
   public static final String HADOOP_CONF_DIR     = "templeton.hadoop.conf.dir";
   public static final String HCAT_NAME           = "templeton.hcat";
+  public static final String HCAT_INPROCESS_NAME = "templeton.hcat.inprocess";
+  public static final String HCAT_INPROCESS_MAX_IDLE_NAME
+    = "templeton.hcat.inprocess.max-idle-sessions";
   public static final String PYTHON_NAME         = "templeton.python";
   public static final String HIVE_ARCHIVE_NAME   = "templeton.hive.archive";
   public static final String HIVE_PATH_NAME      = "templeton.hive.path";
@@ -194,6 +197,7 @@ private boolean loadOneClasspathConfig(String fname) {
   public String hadoopQueueName()  { return get(HADOOP_QUEUE_NAME); }
   public String clusterHadoop()    { return get(HADOOP_NAME); }
   public String clusterHcat()      { return get(HCAT_NAME); }
+  public boolean hcatInProcess()   { return getBoolean(HCAT_INPROCESS_NAME, false); }
   public String clusterPython()    { return get(PYTHON_NAME); }
   public String pigPath()          { return get(PIG_PATH_NAME); }
   public String pigArchive()       { return get(PIG_ARCHIVE_NAME); }
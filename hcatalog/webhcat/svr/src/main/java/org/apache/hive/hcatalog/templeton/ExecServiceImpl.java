@@ -102,6 +102,14 @@ private ExecServiceImpl() {
     avail = new Semaphore(appConf.getInt(AppConfig.EXEC_MAX_PROCS_NAME, 16));
   }
 
+  /**
+   * The limit on the number of processes, which the hcat commands run
+   * inside the server count against as well.
+   */
+  Semaphore getAvail() {
+    return avail;
+  }
+
   /**
    * Run the program synchronously as the given user. We rate limit
    * the number of processes that can simultaneously created for
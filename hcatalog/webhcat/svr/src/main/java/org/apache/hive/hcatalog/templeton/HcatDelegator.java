@@ -22,6 +22,7 @@
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.ws.rs.core.Response;
@@ -34,6 +35,7 @@
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.ErrorMsg;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hive.hcatalog.templeton.tool.TempletonUtils;
 import org.eclipse.jetty.http.HttpStatus;
 
@@ -52,11 +54,19 @@ public HcatDelegator(AppConfig appConf, ExecService execService) {
   }
 
   /**
-   * Run the local hcat executable.
+   * Run the local hcat executable, or run the commands inside the
+   * server if templeton.hcat.inprocess is set.  The executable is
+   * always used when security is enabled, since it runs with a
+   * delegation token for the metastore.
    */
   public ExecBean run(String user, String exec, boolean format,
             String group, String permissions)
     throws NotAuthorizedException, BusyException, ExecuteException, IOException {
+    if (appConf.hcatInProcess() && !UserGroupInformation.isSecurityEnabled()) {
+      return HcatSessionPool.getInstance(appConf)
+        .run(user, exec, group, permissions, makeConf(format));
+    }
+
     SecureProxySupport proxy = new SecureProxySupport();
     try {
       List<String> args = makeArgs(exec, format, group, permissions);
@@ -97,13 +107,23 @@ private List<String> makeArgs(String exec, boolean format,
       args.add("-p");
       args.add(permissions);
     }
-    if (format) {
+    for (Map.Entry<String, String> e : makeConf(format).entrySet()) {
       args.add("-D");
-      args.add("hive.ddl.output.format=json");
+      args.add(e.getKey() + "=" + e.getValue());
+    }
+    return args;
+  }
+
+  /**
+   * The hive settings to run the commands with.
+   */
+  private Map<String, String> makeConf(boolean format) {
+    Map<String, String> conf = new LinkedHashMap<String, String>();
+    if (format) {
+      conf.put("hive.ddl.output.format", "json");
       // Use both args to ease development.  Delete this one on
       // May 1.
-      args.add("-D");
-      args.add("hive.format=json");
+      conf.put("hive.format", "json");
     }
     LOG.info("Main.getAppConfigInstance().get(AppConfig.UNIT_TEST_MODE)=" +
         Main.getAppConfigInstance().get(AppConfig.UNIT_TEST_MODE));
@@ -111,10 +131,9 @@ private List<String> makeArgs(String exec, boolean format,
       /*when running in unit test mode, pass this property to HCat,
       which will in turn pass it to Hive to make sure that Hive
       tries to write to a directory that exists.*/
-      args.add("-D");
-      args.add("hive.metastore.warehouse.dir=" + System.getProperty("test.warehouse.dir"));
+      conf.put("hive.metastore.warehouse.dir", System.getProperty("test.warehouse.dir"));
     }
-    return args;
+    return conf;
   }
 
   /**
@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hive.hcatalog.templeton;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.security.PrivilegedExceptionAction;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.cli.CliSessionState;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hive.hcatalog.cli.HCatCli;
+import org.apache.hive.hcatalog.cli.SemanticAnalysis.HCatSemanticAnalyzer;
+import org.apache.hive.hcatalog.common.HCatConstants;
+import org.apache.hive.hcatalog.templeton.tool.TempletonUtils;
+
+/**
+ * Run hcat commands inside the server instead of starting the hcat
+ * executable for each of them.  This is a singleton that keeps a pool
+ * of open sessions, with their connections to the metastore, for each
+ * user, so a ddl call only pays for running its commands.
+ *
+ * The commands are run the way the hcat command line runs them, and
+ * the result has the same output, error output and exit code.
+ */
+public class HcatSessionPool {
+  private static final Log LOG = LogFactory.getLog(HcatSessionPool.class);
+
+  private static volatile HcatSessionPool theSingleton;
+
+  /**
+   * Retrieve the singleton.
+   */
+  public static synchronized HcatSessionPool getInstance(AppConfig appConf) {
+    if (theSingleton == null) {
+      theSingleton = new HcatSessionPool(appConf,
+        ExecServiceImpl.getInstance().getAvail());
+    }
+    return theSingleton;
+  }
+
+  /**
+   * A session and the connection to the metastore it uses.
+   */
+  private static class Session {
+    SessionState ss;
+    Hive db;
+  }
+
+  private final AppConfig appConf;
+  private final HiveConf sessionConf;
+  private final int maxIdle;
+  private final Semaphore avail;
+
+  // the sessions that are not in use, by user
+  private final Map<String, LinkedList<Session>> idle =
+    new HashMap<String, LinkedList<Session>>();
+
+  /**
+   * @param avail The limit on the number of calls that can run at the
+   *              same time, shared with the processes of the ExecService
+   */
+  HcatSessionPool(AppConfig appConf, Semaphore avail) {
+    this.appConf = appConf;
+    this.avail = avail;
+    maxIdle = appConf.getInt(AppConfig.HCAT_INPROCESS_MAX_IDLE_NAME, 4);
+
+    sessionConf = new HiveConf(SessionState.class);
+    for (String prop : appConf.getStrings(AppConfig.HIVE_PROPS_NAME, new String[0])) {
+      String[] kv = prop.split("=", 2);
+      if (kv.length == 2) {
+        sessionConf.set(kv[0].trim(), kv[1].trim());
+      }
+    }
+    HiveConf.setVar(sessionConf, HiveConf.ConfVars.SEMANTIC_ANALYZER_HOOK,
+      HCatSemanticAnalyzer.class.getName());
+  }
+
+  /**
+   * Run the hcat commands as the given user.  The calls count against
+   * the same limit as the processes started by the ExecService, so
+   * templeton.exec.max-procs bounds both together.
+   *
+   * @param user        The user to run as
+   * @param exec        The commands, separated by ";"
+   * @param group       The group of the created tables, or null
+   * @param permissions The permissions of the created tables, or null
+   * @param conf        Any extra hive settings
+   * @return The result of the run.
+   */
+  public ExecBean run(final String user, final String exec, final String group,
+            final String permissions, final Map<String, String> conf)
+    throws BusyException, IOException {
+    boolean acquired = false;
+    try {
+      acquired = avail.tryAcquire();
+      if (!acquired) {
+        throw new BusyException();
+      }
+      UserGroupInformation ugi = UgiFactory.getUgi(user);
+      return ugi.doAs(new PrivilegedExceptionAction<ExecBean>() {
+        public ExecBean run() throws Exception {
+          Session session = take(user);
+          boolean reuse = false;
+          try {
+            ExecBean res = runCommands(session, exec, group, permissions, conf);
+            reuse = true;
+            return res;
+          } finally {
+            SessionState.setCurrentSessionState(null);
+            Hive.closeCurrent();
+            if (reuse) {
+              release(user, session);
+            } else {
+              discard(session);
+            }
+          }
+        }
+      });
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } finally {
+      if (acquired) {
+        avail.release();
+      }
+    }
+  }
+
+  /**
+   * Get an idle session of the user, or open a new one.  Must be
+   * called as the user.
+   */
+  private Session take(String user) throws HiveException {
+    synchronized (idle) {
+      LinkedList<Session> sessions = idle.get(user);
+      if (sessions != null && !sessions.isEmpty()) {
+        return sessions.removeFirst();
+      }
+    }
+
+    LOG.info("Opening a new hcat session for " + user);
+    Session session = new Session();
+    Hive.closeCurrent();
+    session.ss = SessionState.start(new CliSessionState(new HiveConf(sessionConf)));
+    session.db = Hive.get();
+    return session;
+  }
+
+  /**
+   * The number of idle sessions of the user.  For testing.
+   */
+  int idleSessions(String user) {
+    synchronized (idle) {
+      LinkedList<Session> sessions = idle.get(user);
+      return sessions == null ? 0 : sessions.size();
+    }
+  }
+
+  private void release(String user, Session session) {
+    synchronized (idle) {
+      LinkedList<Session> sessions = idle.get(user);
+      if (sessions == null) {
+        sessions = new LinkedList<Session>();
+        idle.put(user, sessions);
+      }
+      if (sessions.size() < maxIdle) {
+        sessions.addFirst(session);
+        return;
+      }
+    }
+    discard(session);
+  }
+
+  private void discard(Session session) {
+    try {
+      if (session.db != null) {
+        session.db.getMSC().close();
+      }
+    } catch (Exception e) {
+      LOG.warn("Failed to close the metastore connection of an hcat session", e);
+    }
+    try {
+      session.ss.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close an hcat session", e);
+    }
+  }
+
+  /**
+   * Run the commands on the session, from a fresh copy of the session
+   * configuration so that nothing set by an earlier call is left over.
+   */
+  private ExecBean runCommands(Session session, String exec, String group,
+                 String permissions, Map<String, String> conf)
+    throws Exception {
+    HiveConf hiveConf = new HiveConf(sessionConf);
+    // the session id names the session's scratch and resource directories
+    hiveConf.setVar(HiveConf.ConfVars.HIVESESSIONID, session.ss.getSessionId());
+    for (Map.Entry<String, String> e : conf.entrySet()) {
+      hiveConf.set(e.getKey(), e.getValue());
+    }
+    if (TempletonUtils.isset(group)) {
+      hiveConf.set(HCatConstants.HCAT_GROUP, group);
+    }
+
+    String encoding = appConf.get(AppConfig.EXEC_ENCODING_NAME);
+    int nbytes = appConf.getInt(AppConfig.EXEC_MAX_BYTES_NAME, -1);
+    ByteArrayOutputStream outStream = new MaxByteArrayOutputStream(nbytes);
+    ByteArrayOutputStream errStream = new MaxByteArrayOutputStream(nbytes);
+
+    SessionState ss = session.ss;
+    ss.setConf(hiveConf);
+    ss.setHiveVariables(new HashMap<String, String>());
+    ss.out = new PrintStream(outStream, true, encoding);
+    ss.err = new PrintStream(errStream, true, encoding);
+    SessionState.setCurrentSessionState(ss);
+
+    // only reconnects if the metastore settings changed
+    Hive.set(session.db);
+    session.db = Hive.get(hiveConf);
+
+    int exitcode = 1;
+    String perms = null;
+    if (TempletonUtils.isset(permissions)) {
+      perms = HCatCli.validatePermissions(ss, permissions);
+    }
+    if (!TempletonUtils.isset(permissions) || perms != null) {
+      if (perms != null) {
+        hiveConf.set(HCatConstants.HCAT_PERMS, perms);
+      }
+      exitcode = HCatCli.processLine(ss, exec);
+    }
+
+    ss.out.flush();
+    ss.err.flush();
+    return new ExecBean(outStream.toString(encoding), errStream.toString(encoding),
+      exitcode);
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hive.hcatalog.templeton;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import junit.framework.TestCase;
+
+import org.apache.hive.hcatalog.templeton.mock.MockExecService;
+
+/*
+ * Test that the hcat commands run in the server reuse the sessions of
+ * each user, and that the executable is run unless they are enabled.
+ */
+public class TestHcatSessionPool extends TestCase {
+
+  private AppConfig appConf;
+  private Map<String, String> conf;
+
+  public void setUp() {
+    new Main(new String[]{});         // Initialize the config
+    appConf = Main.getAppConfigInstance();
+    // use the local metastore of the tests rather than a metastore server
+    appConf.set(AppConfig.HIVE_PROPS_NAME, "hive.metastore.sasl.enabled=false");
+    appConf.set(AppConfig.HCAT_NAME, "hcat");
+    conf = new HashMap<String, String>();
+  }
+
+  public void testSessionReuse() throws Throwable {
+    HcatSessionPool pool = new HcatSessionPool(appConf, new Semaphore(1));
+
+    ExecBean res = pool.run("user1", "show databases;", null, null, conf);
+    assertEquals(res.stderr, 0, res.exitcode);
+    assertTrue(res.stdout.contains("default"));
+    assertEquals(1, pool.idleSessions("user1"));
+
+    // the next call of the user takes the idle session
+    res = pool.run("user1", "show databases;", null, null, conf);
+    assertEquals(res.stderr, 0, res.exitcode);
+    assertEquals(1, pool.idleSessions("user1"));
+
+    // but another user gets a session of its own
+    assertEquals(0, pool.idleSessions("user2"));
+    res = pool.run("user2", "show databases;", null, null, conf);
+    assertEquals(res.stderr, 0, res.exitcode);
+    assertEquals(1, pool.idleSessions("user1"));
+    assertEquals(1, pool.idleSessions("user2"));
+
+    // a failed command does not lose the session
+    res = pool.run("user1", "describe no_such_table;", null, null, conf);
+    assertTrue(res.exitcode != 0);
+    assertEquals(1, pool.idleSessions("user1"));
+  }
+
+  public void testInvalidPermissions() throws Throwable {
+    HcatSessionPool pool = new HcatSessionPool(appConf, new Semaphore(1));
+    ExecBean res = pool.run("user1", "show databases;", null, "rw-rw-rw-", conf);
+    assertEquals(1, res.exitcode);
+    assertTrue(res.stderr, res.stderr.contains("Invalid permission specification"));
+    assertEquals("", res.stdout);
+    assertEquals(1, pool.idleSessions("user1"));
+  }
+
+  public void testNoIdleSessions() throws Throwable {
+    appConf.setInt(AppConfig.HCAT_INPROCESS_MAX_IDLE_NAME, 0);
+    try {
+      HcatSessionPool pool = new HcatSessionPool(appConf, new Semaphore(1));
+      // every session is closed after its call
+      for (int i = 0; i < 2; i++) {
+        ExecBean res = pool.run("user1", "show databases;", null, null, conf);
+        assertEquals(res.stderr, 0, res.exitcode);
+        assertTrue(res.stdout.contains("default"));
+        assertEquals(0, pool.idleSessions("user1"));
+      }
+    } finally {
+      appConf.unset(AppConfig.HCAT_INPROCESS_MAX_IDLE_NAME);
+    }
+  }
+
+  public void testSharedLimit() throws Throwable {
+    HcatSessionPool pool = new HcatSessionPool(appConf, new Semaphore(0));
+    try {
+      pool.run("user1", "show databases;", null, null, conf);
+      fail("Expected BusyException");
+    } catch (BusyException e) {
+      // the limit is used up by the processes
+    }
+    assertEquals(0, pool.idleSessions("user1"));
+  }
+
+  public void testExecFallback() throws Throwable {
+    String user = System.getProperty("user.name");
+    HcatDelegator delegator = new HcatDelegator(appConf, new MockExecService());
+
+    appConf.setBoolean(AppConfig.HCAT_INPROCESS_NAME, false);
+    ExecBean res = delegator.run(user, "show databases;", false, null, null);
+    // the mock returns the program it was asked to run
+    assertEquals("hcat", res.stdout);
+
+    appConf.setBoolean(AppConfig.HCAT_INPROCESS_NAME, true);
+    try {
+      res = delegator.run(user, "show databases;", false, null, null);
+    } finally {
+      appConf.setBoolean(AppConfig.HCAT_INPROCESS_NAME, false);
+    }
+    assertEquals(res.stderr, 0, res.exitcode);
+    assertTrue(res.stdout.contains("default"));
+  }
+}
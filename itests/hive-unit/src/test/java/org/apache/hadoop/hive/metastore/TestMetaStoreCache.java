@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.events.AlterPartitionEvent;
+
+/**
+ * TestMetaStoreCache. Test case for
+ * {@link org.apache.hadoop.hive.metastore.MetaStoreCache}
+ */
+public class TestMetaStoreCache extends TestCase {
+  private MetaStoreCache cache;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    HiveConf hiveConf = new HiveConf(this.getClass());
+    hiveConf.setIntVar(HiveConf.ConfVars.METASTORE_CACHE_MAX_PARTITIONS, 3);
+    cache = new MetaStoreCache(hiveConf);
+  }
+
+  private static Table getTable(String tableName) {
+    Table table = new Table();
+    table.setDbName("default");
+    table.setTableName(tableName);
+    table.setParameters(new HashMap<String, String>());
+    return table;
+  }
+
+  private static List<Partition> getPartitions(String tableName, int numPartitions) {
+    List<Partition> partitions = new ArrayList<Partition>();
+    for (int i = 0; i < numPartitions; i++) {
+      Partition partition = new Partition();
+      partition.setDbName("default");
+      partition.setTableName(tableName);
+      partition.setValues(Arrays.asList(String.valueOf(i)));
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  public void testCopies() throws Exception {
+    cache.putTable("default", "t1", getTable("t1"), cache.getGeneration());
+    cache.getTable("default", "t1").getParameters().put("k", "v");
+    assertTrue(cache.getTable("DEFAULT", "T1").getParameters().isEmpty());
+
+    String request = MetaStoreCache.getFilterKey("ds = '1'", (short) -1);
+    cache.putPartitions("default", "t1", request, getPartitions("t1", 2), false,
+        cache.getGeneration());
+    List<Partition> partitions = cache.getPartitions("default", "t1", request).getPartitions();
+    assertEquals(2, partitions.size());
+    assertEquals("0", partitions.get(0).getValues().get(0));
+    assertEquals("1", partitions.get(1).getValues().get(0));
+    partitions.clear();
+    assertEquals(2, cache.getPartitions("default", "t1", request).getPartitions().size());
+
+    assertNull(cache.getPartitions("default", "t1",
+        MetaStoreCache.getFilterKey("ds = '2'", (short) -1)));
+  }
+
+  public void testInvalidation() throws Exception {
+    String request = MetaStoreCache.getPartitionsKey((short) -1);
+    cache.putPartitions("default", "t1", request, getPartitions("t1", 2), false,
+        cache.getGeneration());
+    Partition partition = getPartitions("t1", 1).get(0);
+    cache.onAlterPartition(new AlterPartitionEvent(partition, partition, true, null));
+    assertNull(cache.getPartitions("default", "t1", request));
+
+    // read before a change, and put after it
+    long generation = cache.getGeneration();
+    cache.invalidate("default", "t2");
+    cache.putPartitions("default", "t1", request, getPartitions("t1", 2), false, generation);
+    assertNull(cache.getPartitions("default", "t1", request));
+  }
+
+  public void testEviction() throws Exception {
+    String request = MetaStoreCache.getPartitionsKey((short) -1);
+    cache.putPartitions("default", "t1", request, getPartitions("t1", 2), false,
+        cache.getGeneration());
+    cache.putPartitions("default", "t2", request, getPartitions("t2", 2), false,
+        cache.getGeneration());
+    assertNull(cache.getPartitions("default", "t1", request));
+    assertNotNull(cache.getPartitions("default", "t2", request));
+
+    // too large to cache
+    cache.putPartitions("default", "t3", request, getPartitions("t3", 4), false,
+        cache.getGeneration());
+    assertNull(cache.getPartitions("default", "t3", request));
+
+    HashMap<String, Long> counters = new HashMap<String, Long>();
+    cache.exportCounters(counters);
+    assertEquals(Long.valueOf(1), counters.get("metastore_cache_evictions"));
+    assertEquals(Long.valueOf(2), counters.get("metastore_cache_partitions"));
+  }
+}
@@ -97,6 +97,7 @@ public class HiveConnection implements java.sql.Connection {
   private TSessionHandle sessHandle = null;
   private final List<TProtocolVersion> supportedProtocols = new LinkedList<TProtocolVersion>();
   private int loginTimeout = 0;
+  private TProtocolVersion protocol;
 
   public HiveConnection(String uri, Properties info) throws SQLException {
     loginTimeout = DriverManager.getLoginTimeout();
@@ -135,6 +136,7 @@ public HiveConnection(String uri, Properties info) throws SQLException {
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V2);
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V3);
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V4);
+    supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5);
 
     // open client session
     openSession();
@@ -255,6 +257,7 @@ private boolean isHttpTransportMode() {
 
   private void openSession() throws SQLException {
     TOpenSessionReq openReq = new TOpenSessionReq();
+    openReq.setClient_protocol(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5);
 
     // set the session configuration
     // openReq.setConfiguration(null);
@@ -267,6 +270,7 @@ private void openSession() throws SQLException {
       if (!supportedProtocols.contains(openResp.getServerProtocolVersion())) {
         throw new TException("Unsupported Hive2 protocol");
       }
+      protocol = openResp.getServerProtocolVersion();
       sessHandle = openResp.getSessionHandle();
     } catch (TException e) {
       throw new SQLException("Could not establish connection to "
@@ -908,4 +912,10 @@ public <T> T unwrap(Class<T> iface) throws SQLException {
     throw new SQLException("Method not supported");
   }
 
+  /**
+   * The protocol version the server agreed to when the session was opened.
+   */
+  public TProtocolVersion getProtocol() {
+    return protocol;
+  }
 }
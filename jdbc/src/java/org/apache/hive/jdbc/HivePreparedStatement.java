@@ -40,6 +40,7 @@
 import java.util.Calendar;
 import java.util.HashMap;
 
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hive.service.cli.thrift.TCLIService;
 import org.apache.hive.service.cli.thrift.TSessionHandle;
 
@@ -59,6 +60,8 @@ public HivePreparedStatement(HiveConnection connection, TCLIService.Iface client
       TSessionHandle sessHandle, String sql) {
     super(connection, client, sessHandle);
     this.sql = sql;
+    // the server may keep the compiled plan, to run it again on the next execution
+    sessConf.put(HiveConf.ConfVars.HIVE_PLAN_CACHE_STATEMENT.varname, "true");
   }
 
   /*
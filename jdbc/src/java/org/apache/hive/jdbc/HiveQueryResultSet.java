@@ -20,6 +20,7 @@
 
 import static org.apache.hive.service.cli.thrift.TCLIServiceConstants.TYPE_NAMES;
 
+import java.sql.Connection;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 import java.sql.SQLException;
@@ -30,6 +31,8 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.thrift.TCLIService;
 import org.apache.hive.service.cli.thrift.TCLIServiceConstants;
@@ -41,7 +44,7 @@
 import org.apache.hive.service.cli.thrift.TGetResultSetMetadataResp;
 import org.apache.hive.service.cli.thrift.TOperationHandle;
 import org.apache.hive.service.cli.thrift.TPrimitiveTypeEntry;
-import org.apache.hive.service.cli.thrift.TRow;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 import org.apache.hive.service.cli.thrift.TSessionHandle;
 import org.apache.hive.service.cli.thrift.TTableSchema;
 import org.apache.hive.service.cli.thrift.TTypeQualifierValue;
@@ -62,13 +65,16 @@ public class HiveQueryResultSet extends HiveBaseResultSet {
   private int fetchSize;
   private int rowsFetched = 0;
 
-  private List<TRow> fetchedRows;
-  private Iterator<TRow> fetchedRowsItr;
+  private final TProtocolVersion protocol;
+
+  private RowSet fetchedRows;
+  private Iterator<Object[]> fetchedRowsItr;
   private boolean isClosed = false;
   private boolean emptyResultSet = false;
 
   public static class Builder {
 
+    private final Connection connection;
     private final Statement statement;
     private TCLIService.Iface client = null;
     private TOperationHandle stmtHandle = null;
@@ -87,8 +93,14 @@ public static class Builder {
     private int fetchSize = 50;
     private boolean emptyResultSet = false;
 
-    public Builder(Statement statement) {
+    public Builder(Statement statement) throws SQLException {
       this.statement = statement;
+      this.connection = statement.getConnection();
+    }
+
+    public Builder(Connection connection) {
+      this.statement = null;
+      this.connection = connection;
     }
 
     public Builder setClient(TCLIService.Iface client) {
@@ -146,6 +158,13 @@ public Builder setEmptyResultSet(boolean emptyResultSet) {
     public HiveQueryResultSet build() throws SQLException {
       return new HiveQueryResultSet(this);
     }
+
+    public TProtocolVersion getProtocolVersion() throws SQLException {
+      if (connection instanceof HiveConnection) {
+        return ((HiveConnection) connection).getProtocol();
+      }
+      return TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V1;
+    }
   }
 
   protected HiveQueryResultSet(Builder builder) throws SQLException {
@@ -154,6 +173,7 @@ protected HiveQueryResultSet(Builder builder) throws SQLException {
     this.stmtHandle = builder.stmtHandle;
     this.sessHandle = builder.sessHandle;
     this.fetchSize = builder.fetchSize;
+    this.protocol = builder.getProtocolVersion();
     columnNames = new ArrayList<String>();
     columnTypes = new ArrayList<String>();
     columnAttributes = new ArrayList<JdbcColumnAttributes>();
@@ -291,7 +311,7 @@ public boolean next() throws SQLException {
             TFetchOrientation.FETCH_NEXT, fetchSize);
         TFetchResultsResp fetchResp = client.FetchResults(fetchReq);
         Utils.verifySuccessWithInfo(fetchResp.getStatus());
-        fetchedRows = fetchResp.getResults().getRows();
+        fetchedRows = RowSetFactory.create(fetchResp.getResults(), protocol);
         fetchedRowsItr = fetchedRows.iterator();
       }
 
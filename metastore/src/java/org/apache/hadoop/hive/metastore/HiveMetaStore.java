@@ -304,6 +304,8 @@ public HiveConf getHiveConf() {
     private List<MetaStoreEndFunctionListener> endFunctionListeners;
     private List<MetaStoreInitListener> initListeners;
     private Pattern partitionValidationPattern;
+    // the cache of tables and partitions, or null if it is disabled
+    private MetaStoreCache cache;
 
     {
       classLoader = Thread.currentThread().getContextClassLoader();
@@ -351,6 +353,13 @@ private boolean init() throws MetaException {
           MetaStoreEndFunctionListener.class, hiveConf,
           hiveConf.getVar(HiveConf.ConfVars.METASTORE_END_FUNCTION_LISTENERS));
 
+      if (hiveConf.getBoolVar(ConfVars.METASTORE_CACHE_ENABLED)) {
+        // the cache is shared by the handlers of the process, and each of
+        // them tells it about the changes it makes
+        cache = MetaStoreCache.getInstance(hiveConf);
+        listeners.add(cache);
+      }
+
       String partitionValidationRegex =
           hiveConf.getVar(HiveConf.ConfVars.METASTORE_PARTITION_NAME_WHITELIST_PATTERN);
       if (partitionValidationRegex != null && partitionValidationRegex != "") {
@@ -543,6 +552,9 @@ public AbstractMap<String, Long> getCounters() {
           listener.exportCounters(counters);
         }
       }
+      if (cache != null) {
+        cache.exportCounters(counters);
+      }
 
       return counters;
     }
@@ -1381,11 +1393,21 @@ public Table get_table(final String dbname, final String name) throws MetaExcept
       startTableFunction("get_table", dbname, name);
       Exception ex = null;
       try {
+        if (cache != null) {
+          t = cache.getTable(dbname, name);
+          if (t != null) {
+            return t;
+          }
+        }
+        long generation = cache == null ? 0 : cache.getGeneration();
         t = getMS().getTable(dbname, name);
         if (t == null) {
           throw new NoSuchObjectException(dbname + "." + name
               + " table not found");
         }
+        if (cache != null) {
+          cache.putTable(dbname, name, t, generation);
+        }
       } catch (Exception e) {
         ex = e;
         if (e instanceof MetaException) {
@@ -1953,6 +1975,11 @@ public Partition exchange_partition(Map<String, String> partitionSpecs,
             wh.renameDir(destPath, sourcePath);
           }
         }
+        // no events are sent for the exchange
+        if (cache != null) {
+          cache.invalidate(sourceDbName, sourceTableName);
+          cache.invalidate(destDbName, destTableName);
+        }
       }
       return new Partition();
     }
@@ -2125,7 +2152,15 @@ public List<Partition> get_partitions(final String db_name, final String tbl_nam
       List<Partition> ret = null;
       Exception ex = null;
       try {
-        ret = getMS().getPartitions(db_name, tbl_name, max_parts);
+        String request = MetaStoreCache.getPartitionsKey(max_parts);
+        ret = getCachedPartitions(db_name, tbl_name, request);
+        if (ret == null) {
+          long generation = cache == null ? 0 : cache.getGeneration();
+          ret = getMS().getPartitions(db_name, tbl_name, max_parts);
+          if (cache != null) {
+            cache.putPartitions(db_name, tbl_name, request, ret, false, generation);
+          }
+        }
       } catch (Exception e) {
         ex = e;
         if (e instanceof MetaException) {
@@ -3333,7 +3368,15 @@ public List<Partition> get_partitions_by_filter(final String dbName,
       List<Partition> ret = null;
       Exception ex = null;
       try {
-        ret = getMS().getPartitionsByFilter(dbName, tblName, filter, maxParts);
+        String request = MetaStoreCache.getFilterKey(filter, maxParts);
+        ret = getCachedPartitions(dbName, tblName, request);
+        if (ret == null) {
+          long generation = cache == null ? 0 : cache.getGeneration();
+          ret = getMS().getPartitionsByFilter(dbName, tblName, filter, maxParts);
+          if (cache != null) {
+            cache.putPartitions(dbName, tblName, request, ret, false, generation);
+          }
+        }
       } catch (Exception e) {
         ex = e;
         rethrowException(e);
@@ -3351,10 +3394,27 @@ public PartitionsByExprResult get_partitions_by_expr(
       PartitionsByExprResult ret = null;
       Exception ex = null;
       try {
+        String request = null;
+        if (cache != null) {
+          request = MetaStoreCache.getExprKey(req.getExpr(), req.getDefaultPartitionName(),
+              req.getMaxParts());
+          MetaStoreCache.CachedPartitions cached = cache.getPartitions(dbName, tblName, request);
+          if (cached != null) {
+            ret = new PartitionsByExprResult(
+                new LinkedHashSet<Partition>(cached.getPartitions()),
+                cached.hasUnknownPartitions());
+            return ret;
+          }
+        }
+        long generation = cache == null ? 0 : cache.getGeneration();
         Set<Partition> partitions = new LinkedHashSet<Partition>();
         boolean hasUnknownPartitions = getMS().getPartitionsByExpr(dbName, tblName,
             req.getExpr(), req.getDefaultPartitionName(), req.getMaxParts(), partitions);
         ret = new PartitionsByExprResult(partitions, hasUnknownPartitions);
+        if (cache != null) {
+          cache.putPartitions(dbName, tblName, request, partitions, hasUnknownPartitions,
+              generation);
+        }
       } catch (Exception e) {
         ex = e;
         rethrowException(e);
@@ -3364,6 +3424,19 @@ public PartitionsByExprResult get_partitions_by_expr(
       return ret;
     }
 
+    /**
+     * @return a copy of the cached partitions of a call, or null if they are
+     * not cached
+     */
+    private List<Partition> getCachedPartitions(String dbName, String tblName,
+        String request) {
+      if (cache == null) {
+        return null;
+      }
+      MetaStoreCache.CachedPartitions cached = cache.getPartitions(dbName, tblName, request);
+      return cached == null ? null : cached.getPartitions();
+    }
+
     private void rethrowException(Exception e)
         throws MetaException, NoSuchObjectException, TException {
       // TODO: Both of these are TException, why do we need these separate clauses?
@@ -0,0 +1,394 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.metrics.Metrics;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.events.AddPartitionEvent;
+import org.apache.hadoop.hive.metastore.events.AlterPartitionEvent;
+import org.apache.hadoop.hive.metastore.events.AlterTableEvent;
+import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
+import org.apache.hadoop.hive.metastore.events.DropDatabaseEvent;
+import org.apache.hadoop.hive.metastore.events.DropPartitionEvent;
+import org.apache.hadoop.hive.metastore.events.DropTableEvent;
+import org.apache.hadoop.hive.metastore.events.LoadPartitionDoneEvent;
+import org.apache.hadoop.util.StringUtils;
+
+/**
+ * A cache of the tables, and of the partitions returned by the partition
+ * listing calls, that is shared by the HMSHandlers of the process. It is
+ * registered as an event listener of each handler, and the entry of a table
+ * is dropped whenever the handlers change the table or its partitions.
+ *
+ * The size of the cache is bounded by the number of partitions it holds, and
+ * the least recently used tables are evicted first. Entries also expire after
+ * hive.metastore.cache.ttl seconds, to bound how stale they can get when other
+ * processes change the same metastore database.
+ *
+ * The cached objects are never handed out, only copies of them, since the
+ * callers of an embedded metastore modify the objects they get back.
+ */
+public class MetaStoreCache extends MetaStoreEventListener {
+
+  private static final Log LOG = LogFactory.getLog(MetaStoreCache.class);
+
+  private static MetaStoreCache instance;
+
+  public static synchronized MetaStoreCache getInstance(HiveConf conf) {
+    if (instance == null) {
+      instance = new MetaStoreCache(conf);
+    }
+    return instance;
+  }
+
+  /**
+   * The partitions returned by a call, in the order they were returned in.
+   */
+  public static class CachedPartitions {
+    private final List<Partition> partitions;
+    private final boolean hasUnknownPartitions;
+
+    public CachedPartitions(Collection<Partition> partitions, boolean hasUnknownPartitions) {
+      this.partitions = new ArrayList<Partition>(partitions.size());
+      for (Partition partition : partitions) {
+        this.partitions.add(new Partition(partition));
+      }
+      this.hasUnknownPartitions = hasUnknownPartitions;
+    }
+
+    public List<Partition> getPartitions() {
+      return partitions;
+    }
+
+    public boolean hasUnknownPartitions() {
+      return hasUnknownPartitions;
+    }
+  }
+
+  /**
+   * The cached objects of a table.
+   */
+  private static class TableEntry {
+    private final long createTime;
+    private Table table;
+    private final Map<String, CachedPartitions> partitions =
+        new HashMap<String, CachedPartitions>();
+    private int numPartitions;
+
+    TableEntry(long createTime) {
+      this.createTime = createTime;
+    }
+  }
+
+  private final long maxPartitions;
+  private final long ttl;
+
+  // in access order, so the first table is the least recently used one
+  private final LinkedHashMap<String, TableEntry> tables =
+      new LinkedHashMap<String, TableEntry>(16, 0.75f, true);
+  private long numPartitions;
+
+  // incremented on every change, so that objects read before a change are
+  // not put in the cache after it
+  private long generation;
+
+  private long hits;
+  private long misses;
+  private long invalidations;
+  private long evictions;
+
+  MetaStoreCache(HiveConf conf) {
+    super(conf);
+    maxPartitions = HiveConf.getIntVar(conf, HiveConf.ConfVars.METASTORE_CACHE_MAX_PARTITIONS);
+    ttl = HiveConf.getLongVar(conf, HiveConf.ConfVars.METASTORE_CACHE_TTL) * 1000L;
+  }
+
+  private static String getTableKey(String dbName, String tableName) {
+    return dbName.toLowerCase() + "." + tableName.toLowerCase();
+  }
+
+  static String getPartitionsKey(short maxParts) {
+    return "all:" + maxParts;
+  }
+
+  static String getFilterKey(String filter, short maxParts) {
+    return "filter:" + maxParts + ":" + filter;
+  }
+
+  static String getExprKey(byte[] expr, String defaultPartitionName, short maxParts) {
+    return "expr:" + maxParts + ":" + defaultPartitionName + ":"
+        + StringUtils.byteToHexString(expr);
+  }
+
+  /**
+   * Get the current generation of the cache. It must be read before reading
+   * the objects to put in the cache.
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  private TableEntry getEntry(String key, long now) {
+    TableEntry entry = tables.get(key);
+    if (entry != null && ttl > 0 && now - entry.createTime > ttl) {
+      remove(key);
+      entry = null;
+    }
+    return entry;
+  }
+
+  private void remove(String key) {
+    TableEntry entry = tables.remove(key);
+    if (entry != null) {
+      numPartitions -= entry.numPartitions;
+    }
+  }
+
+  /**
+   * @return a copy of the cached table, or null if it is not cached
+   */
+  public Table getTable(String dbName, String tableName) {
+    Table table = null;
+    synchronized (this) {
+      TableEntry entry = getEntry(getTableKey(dbName, tableName), System.currentTimeMillis());
+      if (entry != null) {
+        table = entry.table;
+      }
+      countLookup(table != null);
+    }
+    return table == null ? null : new Table(table);
+  }
+
+  public void putTable(String dbName, String tableName, Table table, long readGeneration) {
+    Table copy = new Table(table);
+    synchronized (this) {
+      if (readGeneration != generation) {
+        return;
+      }
+      getOrCreateEntry(getTableKey(dbName, tableName)).table = copy;
+    }
+  }
+
+  /**
+   * @return a copy of the cached partitions for the given request, or null if
+   * they are not cached
+   */
+  public CachedPartitions getPartitions(String dbName, String tableName, String request) {
+    CachedPartitions result = null;
+    synchronized (this) {
+      TableEntry entry = getEntry(getTableKey(dbName, tableName), System.currentTimeMillis());
+      if (entry != null) {
+        result = entry.partitions.get(request);
+      }
+      countLookup(result != null);
+    }
+    if (result == null) {
+      return null;
+    }
+    return new CachedPartitions(result.getPartitions(), result.hasUnknownPartitions());
+  }
+
+  public void putPartitions(String dbName, String tableName, String request,
+      Collection<Partition> partitions, boolean hasUnknownPartitions, long readGeneration) {
+    int size = partitions.size();
+    if (size > maxPartitions) {
+      return;
+    }
+    CachedPartitions copy = new CachedPartitions(partitions, hasUnknownPartitions);
+    synchronized (this) {
+      if (readGeneration != generation) {
+        return;
+      }
+      String key = getTableKey(dbName, tableName);
+      TableEntry entry = getOrCreateEntry(key);
+      CachedPartitions old = entry.partitions.put(request, copy);
+      int added = size - (old == null ? 0 : old.getPartitions().size());
+      entry.numPartitions += added;
+      numPartitions += added;
+      evict(key);
+    }
+  }
+
+  private TableEntry getOrCreateEntry(String key) {
+    long now = System.currentTimeMillis();
+    TableEntry entry = getEntry(key, now);
+    if (entry == null) {
+      entry = new TableEntry(now);
+      tables.put(key, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Evict the least recently used tables, other than the one just added to,
+   * until the cache is within its size.
+   */
+  private void evict(String keep) {
+    Iterator<Map.Entry<String, TableEntry>> it = tables.entrySet().iterator();
+    while (numPartitions > maxPartitions && it.hasNext()) {
+      Map.Entry<String, TableEntry> e = it.next();
+      if (e.getKey().equals(keep)) {
+        continue;
+      }
+      numPartitions -= e.getValue().numPartitions;
+      it.remove();
+      evictions++;
+      incrementMetric("metastore_cache_evictions");
+    }
+  }
+
+  private void countLookup(boolean hit) {
+    if (hit) {
+      hits++;
+      incrementMetric("metastore_cache_hits");
+    } else {
+      misses++;
+      incrementMetric("metastore_cache_misses");
+    }
+  }
+
+  private static void incrementMetric(String name) {
+    try {
+      Metrics.incrementCounter(name);
+    } catch (IOException e) {
+      LOG.debug("Exception when incrementing metric " + name, e);
+    }
+  }
+
+  /**
+   * Drop the cached objects of a table.
+   */
+  public synchronized void invalidate(String dbName, String tableName) {
+    generation++;
+    if (dbName == null || tableName == null) {
+      // don't know what changed
+      tables.clear();
+      numPartitions = 0;
+    } else {
+      remove(getTableKey(dbName, tableName));
+    }
+    invalidations++;
+    incrementMetric("metastore_cache_invalidations");
+  }
+
+  /**
+   * Drop the cached objects of all the tables of a database.
+   */
+  public synchronized void invalidateDatabase(String dbName) {
+    generation++;
+    String prefix = dbName.toLowerCase() + ".";
+    Iterator<Map.Entry<String, TableEntry>> it = tables.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, TableEntry> e = it.next();
+      if (e.getKey().startsWith(prefix)) {
+        numPartitions -= e.getValue().numPartitions;
+        it.remove();
+      }
+    }
+    invalidations++;
+    incrementMetric("metastore_cache_invalidations");
+  }
+
+  private void invalidate(Table table) {
+    if (table == null) {
+      invalidate(null, null);
+    } else {
+      invalidate(table.getDbName(), table.getTableName());
+    }
+  }
+
+  private void invalidate(Partition partition) {
+    if (partition == null) {
+      invalidate(null, null);
+    } else {
+      invalidate(partition.getDbName(), partition.getTableName());
+    }
+  }
+
+  /**
+   * Add the counters of the cache to the counters of the handler.
+   */
+  public synchronized void exportCounters(AbstractMap<String, Long> counters) {
+    counters.put("metastore_cache_hits", hits);
+    counters.put("metastore_cache_misses", misses);
+    counters.put("metastore_cache_invalidations", invalidations);
+    counters.put("metastore_cache_evictions", evictions);
+    counters.put("metastore_cache_tables", (long) tables.size());
+    counters.put("metastore_cache_partitions", numPartitions);
+  }
+
+  @Override
+  public void onCreateTable(CreateTableEvent tableEvent) throws MetaException {
+    invalidate(tableEvent.getTable());
+  }
+
+  @Override
+  public void onDropTable(DropTableEvent tableEvent) throws MetaException {
+    invalidate(tableEvent.getTable());
+  }
+
+  @Override
+  public void onAlterTable(AlterTableEvent tableEvent) throws MetaException {
+    // a rename also moves the partitions
+    invalidate(tableEvent.getOldTable());
+    invalidate(tableEvent.getNewTable());
+  }
+
+  @Override
+  public void onAddPartition(AddPartitionEvent partitionEvent) throws MetaException {
+    invalidate(partitionEvent.getPartition());
+  }
+
+  @Override
+  public void onDropPartition(DropPartitionEvent partitionEvent) throws MetaException {
+    invalidate(partitionEvent.getPartition());
+  }
+
+  @Override
+  public void onAlterPartition(AlterPartitionEvent partitionEvent) throws MetaException {
+    invalidate(partitionEvent.getOldPartition());
+    invalidate(partitionEvent.getNewPartition());
+  }
+
+  @Override
+  public void onDropDatabase(DropDatabaseEvent dbEvent) throws MetaException {
+    invalidateDatabase(dbEvent.getDatabase().getName());
+  }
+
+  @Override
+  public void onLoadPartitionDone(LoadPartitionDoneEvent partSetDoneEvent)
+      throws MetaException {
+    invalidate(partSetDoneEvent.getTable());
+  }
+}
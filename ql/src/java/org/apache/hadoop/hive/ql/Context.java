@@ -200,18 +200,7 @@ private String getScratchDir(String scheme, String authority,
           scratchDir + "-" + TaskRunner.getTaskRunnerID());
       if (mkdir) {
         try {
-          FileSystem fs = dirPath.getFileSystem(conf);
-          dirPath = new Path(fs.makeQualified(dirPath).toString());
-          if (!fs.mkdirs(dirPath)) {
-            throw new RuntimeException("Cannot make directory: "
-                                       + dirPath.toString());
-          } else {
-            FsPermission fsPermission = new FsPermission(Short.parseShort(scratchDirPermission.trim(), 8));
-            fs.setPermission(dirPath, fsPermission);
-          }
-          if (isHDFSCleanup) {
-            fs.deleteOnExit(dirPath);
-          }
+          dirPath = makeScratchDir(dirPath);
         } catch (IOException e) {
           throw new RuntimeException (e);
         }
@@ -223,6 +212,55 @@ private String getScratchDir(String scheme, String authority,
     return dir;
   }
 
+  private Path makeScratchDir(Path dirPath) throws IOException {
+    FileSystem fs = dirPath.getFileSystem(conf);
+    dirPath = new Path(fs.makeQualified(dirPath).toString());
+    if (!fs.mkdirs(dirPath)) {
+      throw new RuntimeException("Cannot make directory: "
+                                 + dirPath.toString());
+    } else {
+      FsPermission fsPermission = new FsPermission(Short.parseShort(scratchDirPermission.trim(), 8));
+      fs.setPermission(dirPath, fsPermission);
+    }
+    if (isHDFSCleanup) {
+      fs.deleteOnExit(dirPath);
+    }
+    return dirPath;
+  }
+
+  /**
+   * @return the scratch directories made so far, which the plan compiled with this context
+   *         may refer to
+   */
+  public Map<String, String> getScratchDirs() {
+    return new HashMap<String, String>(fsScratchDirs);
+  }
+
+  public int getPathId() {
+    return pathid;
+  }
+
+  public String getExecutionId() {
+    return executionId;
+  }
+
+  /**
+   * Prepare to run again a plan that was compiled with another context of the same execution
+   * id. The scratch directories the plan refers to are made again, and removed along with the
+   * ones of this context; new paths are numbered after the ones the compile used.
+   */
+  public void restoreScratchDirs(Map<String, String> scratchDirs, int pathid) {
+    for (Map.Entry<String, String> entry : scratchDirs.entrySet()) {
+      try {
+        makeScratchDir(new Path(entry.getValue()));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      fsScratchDirs.put(entry.getKey(), entry.getValue());
+    }
+    this.pathid = pathid;
+  }
+
 
   /**
    * Create a local scratch directory on demand and return it.
@@ -35,12 +35,14 @@
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.metrics.Metrics;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
@@ -117,7 +119,17 @@ public class Driver implements CommandProcessor {
   static final private Log LOG = LogFactory.getLog(CLASS_NAME);
   static final private LogHelper console = new LogHelper(LOG);
 
-  private static final Object compileMonitor = new Object();
+  /**
+   * Serializes the compiles of all the sessions, unless hive.driver.parallel.compilation
+   * is set, in which case only the compiles of a same session are serialized.
+   */
+  private static final ReentrantLock globalCompileLock = new ReentrantLock(true);
+
+  // metrics of the compiles, published when the metrics subsystem is initialized
+  private static final String METRICS_WAITING_COMPILE_OPS = "waiting_compile_ops";
+  private static final String METRICS_WAIT_COMPILE = "wait_compile";
+  private static final String METRICS_COMPILE = "compile";
+  private static final String METRICS_PLAN_CACHE_HITS = "plan_cache_hits";
 
   private int maxRows = 100;
   ByteStream.Output bos = new ByteStream.Output();
@@ -127,6 +139,8 @@ public class Driver implements CommandProcessor {
   private Context ctx;
   private QueryPlan plan;
   private Schema schema;
+  // the cached plan this query is running, given back when the query is closed
+  private PlanCache.CachedPlan cachedPlan;
   private HiveLockManager hiveLockMgr;
 
   private String errorMessage;
@@ -395,6 +409,11 @@ public void restoreSession(QueryState qs) {
    * @return 0 for ok
    */
   public int compile(String command, boolean resetTaskIds) {
+    return compile(command, resetTaskIds, null, null);
+  }
+
+  private int compile(String command, boolean resetTaskIds, PlanCache planCache,
+      String planKey) {
     PerfLogger perfLogger = PerfLogger.getPerfLogger();
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.COMPILE);
 
@@ -477,6 +496,12 @@ public int compile(String command, boolean resetTaskIds) {
         plan = newPlan;
       }
 
+      // keep the plan as compiled, before the fetch task is initialized
+      byte[] compiledPlan = null;
+      if (planCache != null && isCacheable()) {
+        compiledPlan = PlanCache.serializePlan(plan, conf);
+      }
+
       // initialize FetchTask right here
       if (plan.getFetchTask() != null) {
         plan.getFetchTask().initialize(conf, plan, null);
@@ -485,6 +510,11 @@ public int compile(String command, boolean resetTaskIds) {
       // get the output schema
       schema = getSchema(sem, conf);
 
+      if (compiledPlan != null) {
+        cachedPlan = planCache.add(planKey, compiledPlan, schema, ctx, plan.getInputs(),
+            Hive.get(conf));
+      }
+
       //do the authorization check
       if (HiveConf.getBoolVar(conf,
           HiveConf.ConfVars.HIVE_AUTHORIZATION_ENABLED)) {
@@ -957,6 +987,151 @@ public CommandProcessorResponse run(String command) throws CommandNeedRetryExcep
     }
     return cpr;
   }
+  // package private for testing
+  ReentrantLock getCompileLock() {
+    SessionState ss = SessionState.get();
+    if (ss != null && conf.getBoolVar(HiveConf.ConfVars.HIVE_DRIVER_PARALLEL_COMPILATION)) {
+      return ss.getCompileLock();
+    }
+    return globalCompileLock;
+  }
+
+  private int compileInternal(String command) {
+    PlanCache planCache = getPlanCache();
+    String planKey = null;
+    if (planCache != null) {
+      String substituted = new VariableSubstitution().substitute(conf, command);
+      planKey = PlanCache.getKey(conf, SessionState.get().getCurrentDatabase(), substituted);
+      if (runCachedPlan(planCache, planKey, substituted)) {
+        incrementMetricsCounter(METRICS_PLAN_CACHE_HITS, 1);
+        return 0;
+      }
+    }
+
+    PerfLogger perfLogger = PerfLogger.getPerfLogger();
+    ReentrantLock compileLock = getCompileLock();
+
+    perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.WAIT_COMPILE);
+    incrementMetricsCounter(METRICS_WAITING_COMPILE_OPS, 1);
+    startMetricsScope(METRICS_WAIT_COMPILE);
+    compileLock.lock();
+    try {
+      endMetricsScope(METRICS_WAIT_COMPILE);
+      incrementMetricsCounter(METRICS_WAITING_COMPILE_OPS, -1);
+      perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.WAIT_COMPILE);
+
+      startMetricsScope(METRICS_COMPILE);
+      try {
+        return compile(command, true, planCache, planKey);
+      } finally {
+        endMetricsScope(METRICS_COMPILE);
+      }
+    } finally {
+      compileLock.unlock();
+    }
+  }
+
+  /**
+   * @return the cache to keep the plan of this query in, or null if it is not cached
+   */
+  private PlanCache getPlanCache() {
+    SessionState ss = SessionState.get();
+    String scope = conf.getVar(HiveConf.ConfVars.HIVE_PLAN_CACHE_SCOPE);
+    if (ss == null || scope.equals("none")
+        || !conf.getBoolVar(HiveConf.ConfVars.HIVE_PLAN_CACHE_STATEMENT)
+        // the plan depends on more than the query and the tables it reads
+        || conf.getBoolVar(HiveConf.ConfVars.HIVE_AUTHORIZATION_ENABLED)
+        || conf.getBoolVar(HiveConf.ConfVars.HIVEOPTIMIZEMETADATAQUERIES)
+        || !StringUtils.isBlank(conf.getVar(HiveConf.ConfVars.SEMANTIC_ANALYZER_HOOK))) {
+      return null;
+    }
+    if (scope.equals("user")) {
+      return PlanCache.getUserCache(userName,
+          conf.getIntVar(HiveConf.ConfVars.HIVE_PLAN_CACHE_SIZE));
+    }
+    return ss.getPlanCache();
+  }
+
+  // only the plans of the queries which return rows are kept
+  private boolean isCacheable() {
+    return SessionState.get().getHiveOperation() == HiveOperation.QUERY && !ctx.getExplain()
+        && plan.getFetchTask() != null;
+  }
+
+  /**
+   * Set up a copy of a cached plan of this query to run, instead of compiling the query.
+   * @return false if there is no cached plan to run
+   */
+  private boolean runCachedPlan(PlanCache planCache, String planKey, String command) {
+    if (plan != null) {
+      close();
+      plan = null;
+    }
+
+    PlanCache.CachedPlan cached;
+    try {
+      cached = planCache.checkout(planKey, Hive.get(conf));
+    } catch (HiveException e) {
+      LOG.warn("Error looking up the cached plans of the query", e);
+      return false;
+    }
+    if (cached == null) {
+      return false;
+    }
+
+    QueryState queryState = new QueryState();
+    saveSession(queryState);
+    try {
+      ctx = cached.getContext(conf);
+      ctx.setTryCount(getTryCount());
+      ctx.setCmd(command);
+      SessionState.get().setCommandType(HiveOperation.QUERY);
+
+      plan = cached.getPlan(conf);
+      plan.setNewQueryId(PerfLogger.getPerfLogger().getStartTime(PerfLogger.DRIVER_RUN));
+      if (plan.getFetchTask() != null) {
+        plan.getFetchTask().initialize(conf, plan, null);
+      }
+      schema = cached.getSchema();
+      cachedPlan = cached;
+      LOG.info("Running the cached plan of the query");
+      return true;
+    } catch (Exception e) {
+      LOG.warn("Error running the cached plan of the query, compiling it", e);
+      planCache.remove(cached);
+      close();
+      ctx = null;
+      plan = null;
+      return false;
+    } finally {
+      restoreSession(queryState);
+    }
+  }
+
+  private static void incrementMetricsCounter(String name, long increment) {
+    try {
+      Metrics.incrementCounter(name, increment);
+    } catch (IOException e) {
+      LOG.debug("Exception when incrementing metrics counter " + name, e);
+    }
+  }
+
+  private static void startMetricsScope(String name) {
+    try {
+      Metrics.startScope(name);
+    } catch (IOException e) {
+      LOG.debug("Exception when starting metrics scope " + name, e);
+    }
+  }
+
+  private static void endMetricsScope(String name) {
+    try {
+      Metrics.endScope(name);
+    } catch (IOException e) {
+      LOG.debug("Exception when ending metrics scope " + name, e);
+    }
+  }
+
   private CommandProcessorResponse runInternal(String command) throws CommandNeedRetryException {
     errorMessage = null;
     SQLState = null;
@@ -989,10 +1164,7 @@ private CommandProcessorResponse runInternal(String command) throws CommandNeedR
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.DRIVER_RUN);
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.TIME_TO_SUBMIT);
 
-    int ret;
-    synchronized (compileMonitor) {
-      ret = compile(command);
-    }
+    int ret = compileInternal(command);
     if (ret != 0) {
       releaseLocks(ctx.getHiveLocks());
       return new CommandProcessorResponse(ret, errorMessage, SQLState);
@@ -1492,7 +1664,14 @@ public TaskResult pollTasks(Set<TaskResult> results) {
     }
   }
 
-  public boolean getResults(ArrayList<String> res) throws IOException, CommandNeedRetryException {
+  /**
+   * Adds the next batch of at most maxRows rows to res, and returns false when there are
+   * no more. The rows are Strings unless the fetch task is set up with another
+   * {@link org.apache.hadoop.hive.ql.exec.FetchFormatter}, in which case T is the type that
+   * formatter returns.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> boolean getResults(List<T> res) throws IOException, CommandNeedRetryException {
     if (plan != null && plan.getFetchTask() != null) {
       FetchTask ft = plan.getFetchTask();
       ft.setMaxRows(maxRows);
@@ -1530,7 +1709,7 @@ public boolean getResults(ArrayList<String> res) throws IOException, CommandNeed
 
         if (row != null) {
           numRows++;
-          res.add(row);
+          res.add((T) row);
         }
       } catch (IOException e) {
         console.printError("FAILED: Unexpected IO exception : " + e.getMessage());
@@ -1569,6 +1748,10 @@ public int close() {
       if (ctx != null) {
         ctx.clear();
       }
+      if (cachedPlan != null) {
+        cachedPlan.release();
+        cachedPlan = null;
+      }
       if (null != resStream) {
         try {
           ((FSDataInputStream) resStream).close();
@@ -0,0 +1,341 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.Schema;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+
+/**
+ * Keeps the compiled plans of queries, so that a query which is submitted again with the same
+ * text, in the same database and with the same settings, is run without being compiled.
+ *
+ * A plan is kept serialized and each run gets its own copy. The plan refers to the scratch
+ * directories of the context it was compiled with, so it is run by one query at a time: the
+ * query checks the plan out, and releases it when it is closed. A query whose plans are all in
+ * use is compiled, and its plan is kept as well.
+ *
+ * The partition pruning of a plan is not run again, so the plan is dropped when a table or view
+ * it reads is altered, or when partitions of a table it reads are added, dropped or altered.
+ */
+public class PlanCache {
+
+  private static final Log LOG = LogFactory.getLog(PlanCache.class.getName());
+
+  private static final Map<String, PlanCache> userCaches = new HashMap<String, PlanCache>();
+
+  /**
+   * A compiled plan, and what is needed to run a copy of it and to tell whether it still holds.
+   */
+  public static class CachedPlan {
+    private final PlanCache cache;
+    private final String key;
+    private final byte[] plan;
+    private final Schema schema;
+    private final String executionId;
+    private final Map<String, String> scratchDirs;
+    private final int pathId;
+    // the partitions read from each table, by table name
+    private final Map<String, List<String>> reads;
+    private final Map<String, String> metadata;
+    private boolean inUse = true;
+
+    private CachedPlan(PlanCache cache, String key, byte[] plan, Schema schema, Context ctx,
+        Map<String, List<String>> reads, Map<String, String> metadata) {
+      this.cache = cache;
+      this.key = key;
+      this.plan = plan;
+      this.schema = schema;
+      this.executionId = ctx.getExecutionId();
+      this.scratchDirs = ctx.getScratchDirs();
+      this.pathId = ctx.getPathId();
+      this.reads = reads;
+      this.metadata = metadata;
+    }
+
+    /**
+     * @return a copy of the plan to run
+     */
+    public QueryPlan getPlan(HiveConf conf) {
+      return Utilities.deserializePlan(new ByteArrayInputStream(plan), QueryPlan.class, conf);
+    }
+
+    public Schema getSchema() {
+      return schema;
+    }
+
+    /**
+     * @return a context to run a copy of the plan with, which has the scratch directories the
+     *         plan refers to
+     */
+    public Context getContext(HiveConf conf) {
+      Context ctx = new Context(conf, executionId);
+      ctx.setHDFSCleanup(true);
+      ctx.restoreScratchDirs(scratchDirs, pathId);
+      return ctx;
+    }
+
+    /**
+     * Give the plan back to the cache once the query that ran it has been closed.
+     */
+    public void release() {
+      synchronized (cache) {
+        inUse = false;
+      }
+    }
+  }
+
+  private final int maxSize;
+  // the plans of each key, the least recently used key first
+  private final LinkedHashMap<String, List<CachedPlan>> plans =
+      new LinkedHashMap<String, List<CachedPlan>>(16, 0.75f, true);
+  private int size;
+
+  public PlanCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the cache shared by the sessions of the given user
+   */
+  public static PlanCache getUserCache(String userName, int maxSize) {
+    String user = userName == null ? "" : userName;
+    synchronized (userCaches) {
+      PlanCache cache = userCaches.get(user);
+      if (cache == null) {
+        cache = new PlanCache(maxSize);
+        userCaches.put(user, cache);
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * @return the key of the plan of the given query, out of its text, the current database and
+   *         the settings the compile may depend on
+   */
+  public static String getKey(HiveConf conf, String database, String command) {
+    TreeMap<String, String> settings = new TreeMap<String, String>();
+    for (Map.Entry<String, String> entry : conf) {
+      if (!isQuerySetting(entry.getKey())) {
+        settings.put(entry.getKey(), entry.getValue());
+      }
+    }
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, String> entry : settings.entrySet()) {
+      builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+    }
+    return database + "\n" + DigestUtils.md5Hex(builder.toString()) + "\n" + command;
+  }
+
+  // the settings which are set for each query, or each session, and do not change the plan
+  private static boolean isQuerySetting(String name) {
+    return name.equals(HiveConf.ConfVars.HIVEQUERYID.varname)
+        || name.equals(HiveConf.ConfVars.HIVEQUERYSTRING.varname)
+        || name.equals(HiveConf.ConfVars.HIVESESSIONID.varname)
+        || name.equals(HiveConf.ConfVars.HADOOPJOBNAME.varname)
+        || name.startsWith("mapreduce.workflow.");
+  }
+
+  /**
+   * Check out a plan of the given key that still holds.
+   * @return the plan, or null if there is none
+   */
+  public CachedPlan checkout(String key, Hive db) {
+    List<CachedPlan> candidates;
+    synchronized (this) {
+      List<CachedPlan> keyPlans = plans.get(key);
+      if (keyPlans == null) {
+        return null;
+      }
+      candidates = new ArrayList<CachedPlan>(keyPlans);
+    }
+
+    for (CachedPlan plan : candidates) {
+      synchronized (this) {
+        if (plan.inUse) {
+          continue;
+        }
+        plan.inUse = true;
+      }
+      Map<String, String> metadata;
+      try {
+        metadata = getMetadata(db, plan.reads);
+      } catch (HiveException e) {
+        LOG.warn("Error checking the tables read by a cached plan", e);
+        metadata = null;
+      }
+      if (plan.metadata.equals(metadata)) {
+        return plan;
+      }
+      LOG.info("Dropping a cached plan, the tables it reads have changed");
+      remove(plan);
+    }
+    return null;
+  }
+
+  /**
+   * Keep the plan of a query which has just been compiled. The plan is checked out to the query.
+   * @param plan the plan, serialized before it was initialized
+   * @return the cached plan, or null if the plan cannot be cached
+   */
+  public CachedPlan add(String key, byte[] plan, Schema schema, Context ctx,
+      Set<ReadEntity> inputs, Hive db) {
+    Map<String, List<String>> reads = new TreeMap<String, List<String>>();
+    Map<String, Table> tables = new HashMap<String, Table>();
+    Map<String, String> metadata = new HashMap<String, String>();
+    for (ReadEntity input : inputs) {
+      Table table;
+      switch (input.getType()) {
+      case TABLE:
+        table = input.getTable();
+        break;
+      case PARTITION:
+        table = input.getPartition().getTable();
+        Partition partition = input.getPartition();
+        metadata.put(getName(table) + "/" + partition.getName(),
+            partition.getParameters().get(hive_metastoreConstants.DDL_TIME));
+        break;
+      default:
+        // a plan which reads a directory cannot be checked
+        return null;
+      }
+      String name = getName(table);
+      if (!reads.containsKey(name)) {
+        reads.put(name, new ArrayList<String>());
+        tables.put(name, table);
+        metadata.put(name, table.getParameters().get(hive_metastoreConstants.DDL_TIME));
+      }
+      if (input.getType() == ReadEntity.Type.PARTITION) {
+        reads.get(name).add(input.getPartition().getName());
+      }
+    }
+    try {
+      for (Table table : tables.values()) {
+        if (table.isPartitioned()) {
+          metadata.put(getName(table) + "/", getPartitionNames(db, table));
+        }
+      }
+    } catch (HiveException e) {
+      LOG.warn("Error listing the partitions read by a query, its plan is not cached", e);
+      return null;
+    }
+
+    CachedPlan cachedPlan = new CachedPlan(this, key, plan, schema, ctx, reads, metadata);
+    synchronized (this) {
+      List<CachedPlan> keyPlans = plans.get(key);
+      if (keyPlans == null) {
+        keyPlans = new ArrayList<CachedPlan>();
+        plans.put(key, keyPlans);
+      }
+      keyPlans.add(cachedPlan);
+      size++;
+      Iterator<List<CachedPlan>> it = plans.values().iterator();
+      while (size > maxSize && it.hasNext()) {
+        size -= it.next().size();
+        it.remove();
+      }
+    }
+    return cachedPlan;
+  }
+
+  /**
+   * Drop a plan, such as one that failed to be run.
+   */
+  public synchronized void remove(CachedPlan plan) {
+    List<CachedPlan> keyPlans = plans.get(plan.key);
+    if (keyPlans != null && keyPlans.remove(plan)) {
+      size--;
+      if (keyPlans.isEmpty()) {
+        plans.remove(plan.key);
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * @return the serialized plan, or null if it cannot be serialized
+   */
+  public static byte[] serializePlan(QueryPlan plan, HiveConf conf) {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Utilities.serializePlan(plan, out, conf);
+      return out.toByteArray();
+    } catch (Exception e) {
+      LOG.warn("Error serializing a query plan, it is not cached", e);
+      return null;
+    }
+  }
+
+  // the same entries as add() makes, out of the metastore
+  private static Map<String, String> getMetadata(Hive db, Map<String, List<String>> reads)
+      throws HiveException {
+    Map<String, String> metadata = new HashMap<String, String>();
+    for (Map.Entry<String, List<String>> entry : reads.entrySet()) {
+      String[] names = entry.getKey().split("\\.", 2);
+      Table table = db.getTable(names[0], names[1], false);
+      if (table == null) {
+        return metadata;
+      }
+      metadata.put(entry.getKey(), table.getParameters().get(hive_metastoreConstants.DDL_TIME));
+      if (table.isPartitioned()) {
+        metadata.put(entry.getKey() + "/", getPartitionNames(db, table));
+        if (!entry.getValue().isEmpty()) {
+          for (Partition partition : db.getPartitionsByNames(table, entry.getValue())) {
+            metadata.put(entry.getKey() + "/" + partition.getName(),
+                partition.getParameters().get(hive_metastoreConstants.DDL_TIME));
+          }
+        }
+      }
+    }
+    return metadata;
+  }
+
+  private static String getPartitionNames(Hive db, Table table) throws HiveException {
+    List<String> names = db.getPartitionNames(table.getDbName(), table.getTableName(), (short) -1);
+    return names.size() + ":" + names.hashCode();
+  }
+
+  private static String getName(Table table) {
+    return table.getDbName() + "." + table.getTableName();
+  }
+}
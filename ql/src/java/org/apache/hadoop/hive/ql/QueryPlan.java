@@ -131,6 +131,15 @@ public QueryPlan(String queryString, BaseSemanticAnalyzer sem, Long startTime) {
     queryStartTime = startTime;
   }
 
+  /**
+   * Start another run of a copy of this plan, under a query id of its own.
+   */
+  public void setNewQueryId(Long startTime) {
+    queryId = makeQueryId();
+    query.setQueryId(queryId);
+    queryStartTime = startTime;
+  }
+
   public String getQueryStr() {
     return queryString;
   }
@@ -63,7 +63,7 @@ public abstract class AbstractMapJoinOperator <T extends MapJoinDesc> extends Co
           + "Please try removing the mapjoin hint."
       };
 
-  transient boolean firstRow;
+  protected transient boolean firstRow;
 
 
   public AbstractMapJoinOperator() {
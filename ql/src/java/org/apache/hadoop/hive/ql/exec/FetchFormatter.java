@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+
+/**
+ * Converts a row reaching the {@link ListSinkOperator} into the object handed back by
+ * Driver.getResults.
+ */
+public interface FetchFormatter<T> extends Closeable {
+
+  void initialize(Configuration hconf, Properties props) throws Exception;
+
+  T convert(Object row, ObjectInspector rowOI) throws Exception;
+
+  /**
+   * Returns each row as an array of Java objects in compliance with JDBC 3.0 (see JDBC 3.0
+   * Specification, Table B-3: Mapping from JDBC Types to Java Object Types), so that
+   * HiveServer2 can build its result set without serializing the row to text and reading it
+   * back.
+   */
+  public static class ThriftFormatter implements FetchFormatter<Object> {
+
+    @Override
+    public void initialize(Configuration hconf, Properties props) throws Exception {
+    }
+
+    @Override
+    public Object convert(Object row, ObjectInspector rowOI) throws Exception {
+      StructObjectInspector structOI = (StructObjectInspector) rowOI;
+      List<? extends StructField> fields = structOI.getAllStructFieldRefs();
+
+      Object[] converted = new Object[fields.size()];
+      for (int i = 0; i < converted.length; i++) {
+        StructField fieldRef = fields.get(i);
+        Object field = structOI.getStructFieldData(row, fieldRef);
+        converted[i] = toJava(field, fieldRef.getFieldObjectInspector());
+      }
+      return converted;
+    }
+
+    private static Object toJava(Object o, ObjectInspector oi) {
+      Object obj = ObjectInspectorUtils.copyToStandardObject(o, oi,
+          ObjectInspectorCopyOption.JAVA);
+      if (obj == null) {
+        return null;
+      }
+      if (oi.getTypeName().equals(serdeConstants.BINARY_TYPE_NAME)) {
+        return new String((byte[]) obj);
+      }
+      // for now, expose non-primitive as a string
+      if (oi.getCategory() != ObjectInspector.Category.PRIMITIVE) {
+        return SerDeUtils.getJSONString(o, oi);
+      }
+      return obj;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+}
@@ -20,7 +20,6 @@
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -122,7 +121,7 @@ public void setMaxRows(int maxRows) {
   }
 
   @Override
-  public boolean fetch(ArrayList<String> res) throws IOException, CommandNeedRetryException {
+  public boolean fetch(List res) throws IOException, CommandNeedRetryException {
     sink.reset(res);
     try {
       int rowsRet = work.getLeastNumRows();
@@ -36,6 +36,7 @@
 import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.common.HiveStatsUtils;
 import org.apache.hadoop.hive.common.StatsSetupConst;
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.ErrorMsg;
 import org.apache.hadoop.hive.ql.io.FSRecordWriter;
 import org.apache.hadoop.hive.ql.io.FSRecordWriter.StatsProvidingRecordWriter;
@@ -94,6 +95,10 @@ public class FileSinkOperator extends TerminalOperator<FileSinkDesc> implements
   protected transient boolean statsCollectRawDataSize;
   private transient boolean[] statsFromRecordWriter;
   private transient boolean isCollectRWStats;
+  // true if the rows are sorted on the dynamic partition columns
+  private transient boolean sortedDynPartitions;
+  // the paths of the dynamic partition that is being written in sorted mode
+  private transient FSPaths openPaths;
 
 
   private static final transient String[] FATAL_ERR_MSG = {
@@ -108,6 +113,7 @@ public class FSPaths implements Cloneable {
     Path[] finalPaths;
     FSRecordWriter[] outWriters;
     Stat stat;
+    boolean closed;
 
     public FSPaths() {
     }
@@ -324,6 +330,7 @@ protected void initializeOp(Configuration hconf) throws HiveException {
       parent = Utilities.toTempPath(conf.getDirName());
       statsCollectRawDataSize = conf.isStatsCollectRawDataSize();
       statsFromRecordWriter = new boolean[numFiles];
+      openPaths = null;
 
       serializer = (Serializer) conf.getTableInfo().getDeserializerClass().newInstance();
       serializer.initialize(null, conf.getTableInfo().getProperties());
@@ -368,6 +375,10 @@ protected void initializeOp(Configuration hconf) throws HiveException {
         lbSetup();
       }
 
+      // list bucketing directories are not contiguous in the sorted rows
+      sortedDynPartitions = bDynParts && conf.isSortedDynPartitions() &&
+          !isSkewedStoredAsSubDirectories;
+
       if (!bDynParts) {
         fsp = new FSPaths(specPath);
 
@@ -768,7 +779,17 @@ protected FSPaths getDynOutPaths(List<String> row, String lbDirName) throws Hive
       dpDir = appendListBucketingDirName(lbDirName, dpDir);
       FSPaths fsp2 = valToPaths.get(dpDir);
 
+      if (fsp2 != null && fsp2.closed) {
+        throw new HiveException("Rows for dynamic partition " + dpDir +
+            " arrived after the partition was closed. The rows are not sorted on the" +
+            " dynamic partition columns; set " +
+            HiveConf.ConfVars.HIVEOPTSORTDYNAMICPARTITION.varname + "=false.");
+      }
       if (fsp2 == null) {
+        // the previous partition is complete, so release its writers
+        if (sortedDynPartitions && openPaths != null) {
+          closeAndCommit(openPaths);
+        }
         // check # of dp
         if (valToPaths.size() > maxPartitions) {
           // throw fatal error
@@ -779,6 +800,9 @@ protected FSPaths getDynOutPaths(List<String> row, String lbDirName) throws Hive
           LOG.error("Fatal error was thrown due to exceeding number of dynamic partitions");
         }
         fsp2 = createNewPaths(dpDir);
+        if (sortedDynPartitions) {
+          openPaths = fsp2;
+        }
       }
       fp = fsp2;
     } else {
@@ -880,30 +904,8 @@ public void closeOp(boolean abort) throws HiveException {
     lastProgressReport = System.currentTimeMillis();
     if (!abort) {
       for (FSPaths fsp : valToPaths.values()) {
-        fsp.closeWriters(abort);
-
-        // before closing the operator check if statistics gathering is requested
-        // and is provided by record writer. this is different from the statistics
-        // gathering done in processOp(). In processOp(), for each row added
-        // serde statistics about the row is gathered and accumulated in hashmap.
-        // this adds more overhead to the actual processing of row. But if the
-        // record writer already gathers the statistics, it can simply return the
-        // accumulated statistics which will be aggregated in case of spray writers
-        if (conf.isGatherStats() && isCollectRWStats) {
-          for (int idx = 0; idx < fsp.outWriters.length; idx++) {
-            FSRecordWriter outWriter = fsp.outWriters[idx];
-            if (outWriter != null) {
-              SerDeStats stats = ((StatsProvidingRecordWriter) outWriter).getStats();
-              if (stats != null) {
-                fsp.stat.addToStat(StatsSetupConst.RAW_DATA_SIZE, stats.getRawDataSize());
-                fsp.stat.addToStat(StatsSetupConst.ROW_COUNT, stats.getRowCount());
-              }
-            }
-          }
-        }
-
-        if (isNativeTable) {
-          fsp.commit(fs);
+        if (!fsp.closed) {
+          closeAndCommit(fsp);
         }
       }
       // Only publish stats if this operator's flag was set to gather stats
@@ -920,6 +922,42 @@ public void closeOp(boolean abort) throws HiveException {
     }
   }
 
+  /**
+   * Close the writers of a set of paths and move their files to the final
+   * names. The writers are released, but the paths are kept for the stats.
+   */
+  private void closeAndCommit(FSPaths fsp) throws HiveException {
+    fsp.closeWriters(false);
+
+    // before closing the operator check if statistics gathering is requested
+    // and is provided by record writer. this is different from the statistics
+    // gathering done in processOp(). In processOp(), for each row added
+    // serde statistics about the row is gathered and accumulated in hashmap.
+    // this adds more overhead to the actual processing of row. But if the
+    // record writer already gathers the statistics, it can simply return the
+    // accumulated statistics which will be aggregated in case of spray writers
+    if (conf.isGatherStats() && isCollectRWStats) {
+      for (int idx = 0; idx < fsp.outWriters.length; idx++) {
+        FSRecordWriter outWriter = fsp.outWriters[idx];
+        if (outWriter != null) {
+          SerDeStats stats = ((StatsProvidingRecordWriter) outWriter).getStats();
+          if (stats != null) {
+            fsp.stat.addToStat(StatsSetupConst.RAW_DATA_SIZE, stats.getRawDataSize());
+            fsp.stat.addToStat(StatsSetupConst.ROW_COUNT, stats.getRowCount());
+          }
+        }
+      }
+    }
+
+    if (isNativeTable) {
+      fsp.commit(fs);
+    }
+    fsp.closed = true;
+    for (int idx = 0; idx < fsp.outWriters.length; idx++) {
+      fsp.outWriters[idx] = null;
+    }
+  }
+
   /**
    * @return the name of the operator
    */
@@ -38,6 +38,8 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.persistence.RowContainer;
+import org.apache.hadoop.hive.ql.io.HiveSequenceFileOutputFormat;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.parse.OpParseContext;
 import org.apache.hadoop.hive.ql.plan.AggregationDesc;
@@ -46,15 +48,19 @@
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.GroupByDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator.AggregationBuffer;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.lazy.ByteArrayRef;
 import org.apache.hadoop.hive.serde2.lazy.LazyBinary;
 import org.apache.hadoop.hive.serde2.lazy.LazyPrimitive;
 import org.apache.hadoop.hive.serde2.lazy.LazyString;
 import org.apache.hadoop.hive.serde2.lazy.objectinspector.primitive.LazyBinaryObjectInspector;
 import org.apache.hadoop.hive.serde2.lazy.objectinspector.primitive.LazyStringObjectInspector;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
@@ -68,6 +74,8 @@
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.SequenceFileInputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
 
 /**
  * GroupBy operator implementation.
@@ -81,6 +89,10 @@ public class GroupByOperator extends Operator<GroupByDesc> implements
   private static final int NUMROWSESTIMATESIZE = 1000;
 
   public static final String counterNameHashOut = "COUNT_HASH_OUT";
+  public static final String counterNameHashSpilled = "COUNT_HASH_SPILLED";
+
+  // number of spilled entries of a partition that are kept in memory before being written out
+  private static final int SPILLBLOCKSIZE = 1024;
 
   protected transient ExprNodeEvaluator[] keyFields;
   protected transient ObjectInspector[] keyObjectInspectors;
@@ -182,6 +194,19 @@ public class GroupByOperator extends Operator<GroupByDesc> implements
   transient int countAfterReport;   // report or forward
   transient int heartbeatInterval;
 
+  /**
+   * Partial aggregations spilled to local disk when the hash table is full, partitioned by the
+   * hash code of their keys. Null when the hash table is partially flushed instead.
+   */
+  transient RowContainer<List<Object>>[] spillPartitions;
+  transient StructObjectInspector spillObjectInspector;
+  // the keys of a spilled entry
+  transient KeyWrapper spillKeys;
+  // evaluators merging the spilled partial aggregations, in PARTIAL2 mode
+  transient GenericUDAFEvaluator[] mergeEvaluators;
+  transient boolean hashTblSpilled;
+  transient long numRowsSpilled;
+
   public static FastBitSet groupingSet2BitSet(int value) {
     FastBitSet bits = new FastBitSet();
     int index = 0;
@@ -422,6 +447,10 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     // is not known, estimate that based on the number of entries
     if (hashAggr) {
       computeMaxEntriesHashAggr(hconf);
+      if (HiveConf.getBoolVar(hconf, HiveConf.ConfVars.HIVEMAPAGGRHASHSPILL)
+          && canSpillHashAggr()) {
+        initializeSpill(hconf);
+      }
     }
     memoryMXBean = ManagementFactory.getMemoryMXBean();
     maxMemory = memoryMXBean.getHeapMemoryUsage().getMax();
@@ -444,6 +473,100 @@ private void computeMaxEntriesHashAggr(Configuration hconf) throws HiveException
     estimateRowSize();
   }
 
+  /**
+   * Spilled entries are merged back with a second set of evaluators, so the aggregations must
+   * output partial results and their evaluators must be instantiable from their class. Distinct
+   * aggregations only aggregate the first row of a key, and when the grouping key is not the
+   * reduction key the hash table may only be emptied at group boundaries.
+   */
+  private boolean canSpillHashAggr() {
+    if (groupKeyIsNotReduceKey || unionExprEval != null) {
+      return false;
+    }
+    for (AggregationDesc agg : conf.getAggregators()) {
+      if (agg.getDistinct() || agg.getGenericUDAFEvaluatorClassName() == null
+          || (agg.getMode() != GenericUDAFEvaluator.Mode.PARTIAL1
+          && agg.getMode() != GenericUDAFEvaluator.Mode.PARTIAL2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void initializeSpill(Configuration hconf) throws HiveException {
+    int numPartitions = HiveConf.getIntVar(hconf,
+        HiveConf.ConfVars.HIVEMAPAGGRHASHSPILLPARTITIONS);
+    if (numPartitions <= 0) {
+      return;
+    }
+
+    // a spilled entry holds the keys followed by the partial aggregations
+    List<String> spillNames = new ArrayList<String>(objectInspectors.size());
+    List<ObjectInspector> spillOIs = new ArrayList<ObjectInspector>(objectInspectors.size());
+    StringBuilder colNames = new StringBuilder();
+    StringBuilder colTypes = new StringBuilder();
+    for (int i = 0; i < objectInspectors.size(); i++) {
+      ObjectInspector oi = ObjectInspectorUtils.getStandardObjectInspector(
+          objectInspectors.get(i), ObjectInspectorCopyOption.WRITABLE);
+      spillNames.add("_col" + i);
+      spillOIs.add(oi);
+      colNames.append(spillNames.get(i)).append(',');
+      colTypes.append(TypeInfoUtils.getTypeInfoFromObjectInspector(oi).getTypeName()).append(',');
+    }
+    if (spillNames.isEmpty()) {
+      return;
+    }
+    colNames.setLength(colNames.length() - 1);
+    colTypes.setLength(colTypes.length() - 1);
+    spillObjectInspector =
+        ObjectInspectorFactory.getStandardStructObjectInspector(spillNames, spillOIs);
+    TableDesc spillTableDesc = new TableDesc(
+        SequenceFileInputFormat.class, HiveSequenceFileOutputFormat.class,
+        Utilities.makeProperties(
+        serdeConstants.SERIALIZATION_FORMAT, "" + Utilities.ctrlaCode,
+        serdeConstants.LIST_COLUMNS, colNames.toString(),
+        serdeConstants.LIST_COLUMN_TYPES, colTypes.toString(),
+        serdeConstants.SERIALIZATION_LIB, LazyBinarySerDe.class.getName()));
+
+    spillPartitions = new RowContainer[numPartitions];
+    try {
+      for (int i = 0; i < numPartitions; i++) {
+        LazyBinarySerDe serde = new LazyBinarySerDe();
+        serde.initialize(null, spillTableDesc.getProperties());
+        spillPartitions[i] = new RowContainer<List<Object>>(SPILLBLOCKSIZE, hconf, reporter);
+        spillPartitions[i].setSerDe(serde, spillObjectInspector);
+        spillPartitions[i].setTableDesc(spillTableDesc);
+      }
+    } catch (SerDeException e) {
+      throw new HiveException(e);
+    }
+
+    ExprNodeEvaluator[] spillKeyFields = new ExprNodeEvaluator[keyFields.length];
+    ObjectInspector[] spillKeyObjectInspectors = new ObjectInspector[keyFields.length];
+    for (int i = 0; i < keyFields.length; i++) {
+      spillKeyFields[i] = ExprNodeEvaluatorFactory.get(new ExprNodeColumnDesc(
+          TypeInfoUtils.getTypeInfoFromObjectInspector(currentKeyObjectInspectors[i]),
+          spillNames.get(i), null, false));
+      spillKeyObjectInspectors[i] = spillKeyFields[i].initialize(spillObjectInspector);
+    }
+    spillKeys = new KeyWrapperFactory(spillKeyFields, spillKeyObjectInspectors,
+        currentKeyObjectInspectors).getKeyWrapper();
+
+    // PARTIAL2 evaluators output partial aggregations of the same type as the ones they merge
+    mergeEvaluators = new GenericUDAFEvaluator[aggregationEvaluators.length];
+    MapredContext context = MapredContext.get();
+    for (int i = 0; i < mergeEvaluators.length; i++) {
+      mergeEvaluators[i] = ReflectionUtils.newInstance(aggregationEvaluators[i].getClass(), null);
+      if (context != null) {
+        context.setup(mergeEvaluators[i]);
+      }
+      mergeEvaluators[i].init(GenericUDAFEvaluator.Mode.PARTIAL2,
+          new ObjectInspector[] {spillOIs.get(keyFields.length + i)});
+    }
+    hashTblSpilled = false;
+    numRowsSpilled = 0;
+  }
+
   private static final int javaObjectOverHead = 64;
   private static final int javaHashEntryOverHead = 64;
   private static final int javaSizePrimitiveType = 16;
@@ -766,6 +889,9 @@ public void processOp(Object row, int tag) throws HiveException {
               + " #total = " + numRowsInput + " reduction = " + 1.0
               * (numRowsHashTbl / numRowsInput) + " minReduction = "
               + minReductionHashAggr);
+          if (hashTblSpilled) {
+            mergeSpilledPartitions();
+          }
           flushHashTable(true);
           hashAggr = false;
         } else {
@@ -851,7 +977,11 @@ private void processHashAggr(Object row, ObjectInspector rowInspector,
     // happen at boundaries
     if ((!groupKeyIsNotReduceKey || firstRowInGroup)
         && shouldBeFlushed(newKeys)) {
-      flushHashTable(false);
+      if (spillPartitions != null) {
+        spillHashTable();
+      } else {
+        flushHashTable(false);
+      }
     }
   }
 
@@ -929,41 +1059,8 @@ private boolean shouldBeFlushed(KeyWrapper newKeys) {
       if(rate > memoryThreshold){
         return true;
       }
-      for (Integer pos : keyPositionsSize) {
-        Object key = newKeys.getKeyArray()[pos.intValue()];
-        // Ignore nulls
-        if (key != null) {
-          if (key instanceof LazyString) {
-              totalVariableSize +=
-                  ((LazyPrimitive<LazyStringObjectInspector, Text>) key).
-                      getWritableObject().getLength();
-          } else if (key instanceof String) {
-            totalVariableSize += ((String) key).length();
-          } else if (key instanceof Text) {
-            totalVariableSize += ((Text) key).getLength();
-          } else if (key instanceof LazyBinary) {
-            totalVariableSize +=
-                ((LazyPrimitive<LazyBinaryObjectInspector, BytesWritable>) key).
-                    getWritableObject().getLength();
-          } else if (key instanceof BytesWritable) {
-            totalVariableSize += ((BytesWritable) key).getLength();
-          } else if (key instanceof ByteArrayRef) {
-            totalVariableSize += ((ByteArrayRef) key).getData().length;
-          }
-        }
-      }
-
-      AggregationBuffer[] aggs = hashAggregations.get(newKeys);
-      for (int i = 0; i < aggs.length; i++) {
-        AggregationBuffer agg = aggs[i];
-        if (GenericUDAFEvaluator.isEstimable(agg)) {
-          totalVariableSize += ((GenericUDAFEvaluator.AbstractAggregationBuffer)agg).estimate();
-          continue;
-        }
-        if (aggrPositions[i] != null) {
-          totalVariableSize += estimateSize(agg, aggrPositions[i]);
-        }
-      }
+      totalVariableSize += estimateVariableSize(newKeys.getKeyArray(),
+          hashAggregations.get(newKeys));
 
       numEntriesVarSize++;
 
@@ -981,6 +1078,48 @@ private boolean shouldBeFlushed(KeyWrapper newKeys) {
     return false;
   }
 
+  /**
+   * The size of the variable length keys and aggregation fields of a hash table entry.
+   */
+  private int estimateVariableSize(Object[] keys, AggregationBuffer[] aggs) {
+    int length = 0;
+    for (Integer pos : keyPositionsSize) {
+      Object key = keys[pos.intValue()];
+      // Ignore nulls
+      if (key != null) {
+        if (key instanceof LazyString) {
+            length +=
+                ((LazyPrimitive<LazyStringObjectInspector, Text>) key).
+                    getWritableObject().getLength();
+        } else if (key instanceof String) {
+          length += ((String) key).length();
+        } else if (key instanceof Text) {
+          length += ((Text) key).getLength();
+        } else if (key instanceof LazyBinary) {
+          length +=
+              ((LazyPrimitive<LazyBinaryObjectInspector, BytesWritable>) key).
+                  getWritableObject().getLength();
+        } else if (key instanceof BytesWritable) {
+          length += ((BytesWritable) key).getLength();
+        } else if (key instanceof ByteArrayRef) {
+          length += ((ByteArrayRef) key).getData().length;
+        }
+      }
+    }
+
+    for (int i = 0; i < aggs.length; i++) {
+      AggregationBuffer agg = aggs[i];
+      if (GenericUDAFEvaluator.isEstimable(agg)) {
+        length += ((GenericUDAFEvaluator.AbstractAggregationBuffer)agg).estimate();
+        continue;
+      }
+      if (aggrPositions[i] != null) {
+        length += estimateSize(agg, aggrPositions[i]);
+      }
+    }
+    return length;
+  }
+
   private int estimateSize(AggregationBuffer agg, List<Field> fields) {
     int length = 0;
     for (Field f : fields) {
@@ -1041,6 +1180,105 @@ private void flushHashTable(boolean complete) throws HiveException {
     }
   }
 
+  /**
+   * Spill the hash table to local disk. This is used by hash-based aggregations
+   * instead of a partial flush, so that the entries are merged again before
+   * being forwarded.
+   * @throws HiveException
+   */
+  private void spillHashTable() throws HiveException {
+    countAfterReport = 0;
+    LOG.info("Hash Tbl spill: #hash table = " + hashAggregations.size());
+    int numKeys = keyFields.length;
+    int numEntries = hashAggregations.size();
+    long variableSize = 0;
+    Iterator<Map.Entry<KeyWrapper, AggregationBuffer[]>> iter = hashAggregations
+        .entrySet().iterator();
+    while (iter.hasNext()) {
+      Map.Entry<KeyWrapper, AggregationBuffer[]> m = iter.next();
+      Object[] keys = m.getKey().getKeyArray();
+      AggregationBuffer[] aggs = m.getValue();
+      variableSize += estimateVariableSize(keys, aggs);
+      // the keys are copies owned by the hash table, but partial results may be reused
+      List<Object> row = new ArrayList<Object>(numKeys + aggs.length);
+      row.addAll(Arrays.asList(keys));
+      for (int i = 0; i < aggs.length; i++) {
+        row.add(ObjectInspectorUtils.copyToStandardObject(
+            aggregationEvaluators[i].terminatePartial(aggs[i]),
+            objectInspectors.get(numKeys + i), ObjectInspectorCopyOption.WRITABLE));
+      }
+      int partition = (m.getKey().hashCode() & Integer.MAX_VALUE) % spillPartitions.length;
+      spillPartitions[partition].add(row);
+      iter.remove();
+      numRowsSpilled++;
+    }
+    hashTblSpilled = true;
+    // the sampled rows were sized when their entries were new, while aggregation
+    // buffers grow; size the next table by every entry as it was spilled
+    if (numEntries > 0) {
+      totalVariableSize = (int) (variableSize / numEntries);
+      numEntriesVarSize = 1;
+      numEntriesHashTable = (int) (maxHashTblMemory / (fixedRowSize + totalVariableSize));
+      LOG.info("Hash Tbl spill: #max in hash table = " + numEntriesHashTable);
+    }
+  }
+
+  /**
+   * Merge and forward the spilled entries, one partition at a time, together
+   * with the entries still in the hash table. If a partition holds more keys
+   * than the hash table can, its entries are forwarded in parts and merged by
+   * the reducer.
+   * @throws HiveException
+   */
+  private void mergeSpilledPartitions() throws HiveException {
+    spillHashTable();
+    LOG.info("Begin merge of spilled hash table: #spilled = " + numRowsSpilled);
+    int numKeys = keyFields.length;
+    for (RowContainer<List<Object>> partition : spillPartitions) {
+      for (List<Object> row = partition.first(); row != null; row = partition.next()) {
+        spillKeys.getNewKey(row, spillObjectInspector);
+        spillKeys.setHashKey();
+        AggregationBuffer[] aggs = hashAggregations.get(spillKeys);
+        if (aggs == null) {
+          aggs = new AggregationBuffer[mergeEvaluators.length];
+          for (int i = 0; i < aggs.length; i++) {
+            aggs[i] = mergeEvaluators[i].getNewAggregationBuffer();
+          }
+          hashAggregations.put(spillKeys.copyKey(), aggs);
+        }
+        for (int i = 0; i < aggs.length; i++) {
+          mergeEvaluators[i].merge(aggs[i], row.get(numKeys + i));
+        }
+        if (numEntriesHashTable > 0 && hashAggregations.size() >= numEntriesHashTable) {
+          forwardMerged();
+        }
+      }
+      forwardMerged();
+      partition.clear();
+    }
+    hashTblSpilled = false;
+  }
+
+  private void forwardMerged() throws HiveException {
+    countAfterReport = 0;
+    Iterator<Map.Entry<KeyWrapper, AggregationBuffer[]>> iter = hashAggregations
+        .entrySet().iterator();
+    while (iter.hasNext()) {
+      Map.Entry<KeyWrapper, AggregationBuffer[]> m = iter.next();
+      forward(m.getKey().getKeyArray(), m.getValue(), mergeEvaluators);
+      iter.remove();
+    }
+  }
+
+  private void clearSpillPartitions() throws HiveException {
+    if (spillPartitions != null) {
+      for (RowContainer<List<Object>> partition : spillPartitions) {
+        partition.clear();
+      }
+      hashTblSpilled = false;
+    }
+  }
+
   transient Object[] forwardCache;
 
   /**
@@ -1052,6 +1290,11 @@ private void flushHashTable(boolean complete) throws HiveException {
    */
   protected void forward(Object[] keys,
       AggregationBuffer[] aggs) throws HiveException {
+    forward(keys, aggs, aggregationEvaluators);
+  }
+
+  private void forward(Object[] keys, AggregationBuffer[] aggs,
+      GenericUDAFEvaluator[] evaluators) throws HiveException {
 
     int totalFields = keys.length + aggs.length;
     if (forwardCache == null) {
@@ -1062,7 +1305,7 @@ protected void forward(Object[] keys,
       forwardCache[i] = keys[i];
     }
     for (int i = 0; i < aggs.length; i++) {
-      forwardCache[keys.length + i] = aggregationEvaluators[i].evaluate(aggs[i]);
+      forwardCache[keys.length + i] = evaluators[i].evaluate(aggs[i]);
     }
 
     forward(forwardCache, outputObjInspector);
@@ -1075,7 +1318,9 @@ protected void forward(Object[] keys,
   @Override
   public void flush() throws HiveException{
     try {
-      if (hashAggregations != null) {
+      if (hashAggregations != null && hashTblSpilled) {
+        mergeSpilledPartitions();
+      } else if (hashAggregations != null) {
         LOG.info("Begin Hash Table flush: size = "
             + hashAggregations.size());
         Iterator iter = hashAggregations.entrySet().iterator();
@@ -1147,16 +1392,26 @@ public void closeOp(boolean abort) throws HiveException {
         } else {
           flush();
         }
+
+        // the flush spills what is left in the hash table before merging. Also
+        // reported once hash aggregation is turned off, as entries may have been
+        // spilled before
+        if (counterNameToEnum != null && spillPartitions != null) {
+          incrCounter(counterNameHashSpilled, numRowsSpilled);
+        }
       } catch (Exception e) {
         throw new HiveException(e);
       }
     }
+    // remove the spill files, which are only left behind when aborting
+    clearSpillPartitions();
   }
 
   @Override
   protected List<String> getAdditionalCounters() {
     List<String> ctrList = new ArrayList<String>();
     ctrList.add(getWrappedCounterName(counterNameHashOut));
+    ctrList.add(getWrappedCounterName(counterNameHashSpilled));
     return ctrList;
   }
 
@@ -18,10 +18,12 @@
 package org.apache.hadoop.hive.ql.exec;
 
 import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,8 +31,11 @@
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionException;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionHandler;
+import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryReservation;
 import org.apache.hadoop.hive.ql.exec.persistence.HashMapWrapper;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinBytesTableContainer;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinKey;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinObjectSerDeContext;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinRowContainer;
@@ -41,6 +46,7 @@
 import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
 import org.apache.hadoop.hive.ql.session.SessionState.LogHelper;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -88,11 +94,11 @@ public class HashTableSinkOperator extends TerminalOperator<HashTableSinkDesc> i
 
   private transient Byte[] order; // order in which the results should
   private Configuration hconf;
-  private transient Byte alias;
 
   private transient MapJoinTableContainer[] mapJoinTables;
   private transient MapJoinTableContainerSerDe[] mapJoinTableSerdes;  
 
+  private static final int BINARY_DUMP_BUFFER_SIZE = 64 * 1024;
   private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
   private static final MapJoinRowContainer EMPTY_ROW_CONTAINER = new MapJoinRowContainer();
   static {
@@ -101,10 +107,16 @@ public class HashTableSinkOperator extends TerminalOperator<HashTableSinkDesc> i
   
   private transient boolean noOuterJoin;
 
-  private long rowNumber = 0;
+  // the rows and memory checks of each small table, which are only touched by the thread
+  // loading that table
+  private transient long[] rowNumbers;
   private transient LogHelper console;
   private long hashTableScale;
-  private MapJoinMemoryExhaustionHandler memoryExhaustionHandler;
+  private transient MapJoinMemoryExhaustionHandler[] memoryExhaustionHandlers;
+  // the off-heap bytes of each small table, as of its last memory check
+  private transient AtomicLongArray offHeapSizes;
+  // the bytes each small table reserved, when the local task runs in the client process
+  private transient long[] reservedSizes;
   
   public HashTableSinkOperator() {
   }
@@ -119,7 +131,12 @@ public HashTableSinkOperator(MapJoinOperator mjop) {
   protected void initializeOp(Configuration hconf) throws HiveException {
     boolean isSilent = HiveConf.getBoolVar(hconf, HiveConf.ConfVars.HIVESESSIONSILENT);
     console = new LogHelper(LOG, isSilent);
-    memoryExhaustionHandler = new MapJoinMemoryExhaustionHandler(console, conf.getHashtableMemoryUsage());
+    double hashtableMemoryUsage = conf.getHashtableMemoryUsage();
+    if (HiveConf.getBoolVar(hconf, HiveConf.ConfVars.HIVEMAPJOINLOCALTASKINPROCESS)) {
+      // the heap is shared with the rest of the client process
+      hashtableMemoryUsage = Math.min(hashtableMemoryUsage,
+          HiveConf.getFloatVar(hconf, HiveConf.ConfVars.HIVEHASHTABLEINPROCESSMAXMEMORYUSAGE));
+    }
 
     // for small tables only; so get the big table position first
     posBigTableAlias = conf.getPosBigTable();
@@ -169,6 +186,10 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     }
     mapJoinTables = new MapJoinTableContainer[tagLen];
     mapJoinTableSerdes = new MapJoinTableContainerSerDe[tagLen];
+    rowNumbers = new long[tagLen];
+    memoryExhaustionHandlers = new MapJoinMemoryExhaustionHandler[tagLen];
+    offHeapSizes = new AtomicLongArray(tagLen);
+    reservedSizes = new long[tagLen];
     int hashTableThreshold = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEHASHTABLETHRESHOLD);
     float hashTableLoadFactor = HiveConf.getFloatVar(hconf,
         HiveConf.ConfVars.HIVEHASHTABLELOADFACTOR);
@@ -176,22 +197,36 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     if (hashTableScale <= 0) {
       hashTableScale = 1;
     }
+    boolean useOptimizedTable = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVEMAPJOINUSEOPTIMIZEDTABLE);
+    boolean offHeap = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVEMAPJOINOPTIMIZEDTABLEOFFHEAP);
+    int wbSize = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HIVEMAPJOINOPTIMIZEDTABLEWBSIZE);
     try {
       TableDesc keyTableDesc = conf.getKeyTblDesc();
-      SerDe keySerde = (SerDe) ReflectionUtils.newInstance(keyTableDesc.getDeserializerClass(),
-          null);
-      keySerde.initialize(null, keyTableDesc.getProperties());
-      MapJoinObjectSerDeContext keyContext = new MapJoinObjectSerDeContext(keySerde, false);
       for (Byte pos : order) {
         if (pos == posBigTableAlias) {
           continue;
         }
-        mapJoinTables[pos] = new HashMapWrapper(hashTableThreshold, hashTableLoadFactor);        
+        // a SerDe per table, since the tables may be loaded concurrently
+        SerDe keySerde = (SerDe) ReflectionUtils.newInstance(keyTableDesc.getDeserializerClass(),
+            null);
+        keySerde.initialize(null, keyTableDesc.getProperties());
+        MapJoinObjectSerDeContext keyContext = new MapJoinObjectSerDeContext(keySerde, false);
         TableDesc valueTableDesc = conf.getValueTblFilteredDescs().get(pos);
         SerDe valueSerDe = (SerDe) ReflectionUtils.newInstance(valueTableDesc.getDeserializerClass(), null);
         valueSerDe.initialize(null, valueTableDesc.getProperties());
-        mapJoinTableSerdes[pos] = new MapJoinTableContainerSerDe(keyContext, new MapJoinObjectSerDeContext(
-            valueSerDe, hasFilter(pos)));
+        MapJoinObjectSerDeContext valueContext = new MapJoinObjectSerDeContext(valueSerDe,
+            hasFilter(pos));
+        if (useOptimizedTable) {
+          mapJoinTables[pos] = new MapJoinBytesTableContainer(hashTableThreshold,
+              hashTableLoadFactor, wbSize, offHeap, keyContext, valueContext);
+        } else {
+          mapJoinTables[pos] = new HashMapWrapper(hashTableThreshold, hashTableLoadFactor);
+        }
+        mapJoinTableSerdes[pos] = new MapJoinTableContainerSerDe(keyContext, valueContext);
+        memoryExhaustionHandlers[pos] = new MapJoinMemoryExhaustionHandler(console,
+            hashtableMemoryUsage);
       }
     } catch (SerDeException e) {
       throw new HiveException(e);
@@ -221,11 +256,13 @@ private static List<ObjectInspector>[] getStandardObjectInspectors(
   }
 
   /*
-   * This operator only process small tables Read the key/value pairs Load them into hashtable
+   * This operator only process small tables Read the key/value pairs Load them into hashtable.
+   * The local task may load several small tables at once, each from its own thread, so this
+   * only touches the state of the given tag.
    */
   @Override
   public void processOp(Object row, int tag) throws HiveException {
-    alias = (byte)tag;
+    byte alias = (byte)tag;
     // compute keys and values as StandardObjects
     MapJoinKey key = JoinUtil.computeMapJoinKeys(null, row, joinKeys[alias],
         joinKeysObjectInspectors[alias]);
@@ -236,6 +273,12 @@ public void processOp(Object row, int tag) throws HiveException {
         filterMaps == null ? null : filterMaps[alias]);
     }
     MapJoinTableContainer tableContainer = mapJoinTables[alias];
+    if (tableContainer instanceof MapJoinBytesTableContainer) {
+      // rows are appended in serialized form; there is no row container to update in place
+      checkMemoryStatus(alias, tableContainer);
+      ((MapJoinBytesTableContainer) tableContainer).putRow(key, value);
+      return;
+    }
     MapJoinRowContainer rowContainer = tableContainer.get(key);
     if (rowContainer == null) {
       if(value.length != 0) {
@@ -244,10 +287,7 @@ public void processOp(Object row, int tag) throws HiveException {
       } else {
         rowContainer = EMPTY_ROW_CONTAINER;
       }
-      rowNumber++;
-      if (rowNumber > hashTableScale && rowNumber % hashTableScale == 0) {
-        memoryExhaustionHandler.checkMemoryStatus(tableContainer.size(), rowNumber);
-      }
+      checkMemoryStatus(alias, tableContainer);
       tableContainer.put(key, rowContainer);
     } else if (rowContainer == EMPTY_ROW_CONTAINER) {
       rowContainer = rowContainer.copy();
@@ -257,6 +297,77 @@ public void processOp(Object row, int tag) throws HiveException {
       rowContainer.add(value);
     }
   }
+
+  private void checkMemoryStatus(byte alias, MapJoinTableContainer tableContainer)
+      throws HiveException {
+    long numRows = ++rowNumbers[alias];
+    if (numRows > hashTableScale && numRows % hashTableScale == 0) {
+      if (tableContainer instanceof MapJoinBytesTableContainer) {
+        offHeapSizes.set(alias,
+            ((MapJoinBytesTableContainer) tableContainer).getOffHeapMemorySize());
+      }
+      long offHeapMemory = 0;
+      for (int pos = 0; pos < offHeapSizes.length(); pos++) {
+        offHeapMemory += offHeapSizes.get(pos);
+      }
+      memoryExhaustionHandlers[alias].checkMemoryStatus(tableContainer.size(), numRows,
+          offHeapMemory);
+      reserveMemory(alias, tableContainer, numRows);
+    }
+  }
+
+  /**
+   * Grows the memory reserved for a small table to its estimated size, when the local task
+   * runs in the client process. The heap usage checked above is that of the whole process,
+   * so it can't tell how much of it this task holds.
+   */
+  private void reserveMemory(byte alias, MapJoinTableContainer tableContainer, long numRows)
+      throws MapJoinMemoryExhaustionException {
+    MapJoinMemoryReservation reservation = getMemoryReservation();
+    if (reservation == null) {
+      return;
+    }
+    long size = estimateMemorySize(alias, tableContainer, numRows);
+    long delta = size - reservedSizes[alias];
+    if (delta <= 0) {
+      return;
+    }
+    if (!reservation.reserve(delta)) {
+      throw new MapJoinMemoryExhaustionException(Utilities.now() + "\tProcessing rows:\t"
+          + numRows + "\tHashtable size:\t" + tableContainer.size()
+          + "\tCould not reserve " + delta + " more bytes; the local tasks of the process hold "
+          + MapJoinMemoryReservation.getTotalReserved() + " of " + reservation.getBudget());
+    }
+    reservedSizes[alias] = size;
+  }
+
+  private long estimateMemorySize(byte alias, MapJoinTableContainer tableContainer,
+      long numRows) {
+    if (tableContainer instanceof MapJoinBytesTableContainer) {
+      return ((MapJoinBytesTableContainer) tableContainer).getMemorySize();
+    }
+    // a hashmap entry, a key and a row container per key, and an array per row, with an
+    // object per column; variable length columns are counted at their fixed overhead only
+    JavaDataModel model = JavaDataModel.get();
+    long keySize = model.hashMapEntry() + model.object() + model.array() + model.arrayList()
+        + joinKeys[alias].size() * (long) (model.object() + model.primitive2());
+    long rowSize = model.array()
+        + joinValues[alias].size() * (long) (model.object() + model.primitive2());
+    return tableContainer.size() * keySize + numRows * rowSize;
+  }
+
+  private MapJoinMemoryReservation getMemoryReservation() {
+    return getExecContext() == null ? null : getExecContext().getMemoryReservation();
+  }
+
+  private void releaseMemory(byte alias) {
+    MapJoinMemoryReservation reservation = getMemoryReservation();
+    if (reservation != null && reservedSizes[alias] > 0) {
+      reservation.release(reservedSizes[alias]);
+    }
+    reservedSizes[alias] = 0;
+  }
+
   private boolean hasFilter(int alias) {
     return filterMaps != null && filterMaps[alias] != null;
   }
@@ -284,13 +395,24 @@ public void closeOp(boolean abort) throws HiveException {
           // get the hashtable file and path
           Path path = new Path(tmpURIPath);
           FileSystem fs = path.getFileSystem(hconf);
-          ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fs.create(path), 4096));
-          try {
-            mapJoinTableSerdes[tag].persist(out, tableContainer);
-          } finally {
-            out.close();
+          if (HiveConf.getBoolVar(hconf, HiveConf.ConfVars.HIVEMAPJOINBINARYDUMP)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fs.create(path),
+                BINARY_DUMP_BUFFER_SIZE));
+            try {
+              mapJoinTableSerdes[tag].persistBinary(out, tableContainer);
+            } finally {
+              out.close();
+            }
+          } else {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fs.create(path), 4096));
+            try {
+              mapJoinTableSerdes[tag].persist(out, tableContainer);
+            } finally {
+              out.close();
+            }
           }
           tableContainer.clear();
+          releaseMemory(tag);
           console.printInfo(Utilities.now() + "\tUpload 1 File to: " + tmpURIPath);
         }
       }
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.apache.hadoop.mapred.OutputCollector;
+
+/**
+ * Finds the heavy hitters among the join keys of a sample of the streamed side of a join,
+ * with the Space-Saving sketch: a bounded number of counters, where a new key takes over the
+ * counter of the least frequent key. A key that is counted c times with error e was seen
+ * between c - e and c times.
+ *
+ * The heavy keys are passed to the {@link ReduceSinkOperator}s of the join through the job
+ * configuration.
+ */
+public class HeavyKeySampler implements OutputCollector<HiveKey, Object> {
+
+  public static final String SKEW_KEYS = "hive.skewjoin.salting.keys";
+  public static final String SKEW_KEYS_TAG = "hive.skewjoin.salting.tag";
+  public static final String SKEW_KEYS_SALTS = "hive.skewjoin.salting.salts";
+
+  private static class Counter implements Comparable<Counter> {
+    private final ByteBuffer key;
+    private final long id;
+    private long count;
+    private long error;
+
+    Counter(ByteBuffer key, long id, long count, long error) {
+      this.key = key;
+      this.id = id;
+      this.count = count;
+      this.error = error;
+    }
+
+    public int compareTo(Counter other) {
+      if (count != other.count) {
+        return count < other.count ? -1 : 1;
+      }
+      return id < other.id ? -1 : (id == other.id ? 0 : 1);
+    }
+  }
+
+  private final int capacity;
+  private final int tag;
+  private final Map<ByteBuffer, Counter> counters = new HashMap<ByteBuffer, Counter>();
+  private final TreeSet<Counter> byCount = new TreeSet<Counter>();
+  private long total;
+  private long nextId;
+
+  /**
+   * @param capacity the number of counters
+   * @param tag the tag of the keys to count, or -1 for all of them
+   */
+  public HeavyKeySampler(int capacity, int tag) {
+    this.capacity = capacity;
+    this.tag = tag;
+  }
+
+  // keys from the sampled reduce sinks are collected here
+  public void collect(HiveKey key, Object value) throws IOException {
+    int distKeyLength = key.getDistKeyLength();
+    if (tag >= 0 && (key.getLength() <= distKeyLength
+        || key.getBytes()[distKeyLength] != (byte) tag)) {
+      return;
+    }
+    add(key.getBytes(), 0, distKeyLength);
+  }
+
+  public void add(byte[] bytes, int offset, int length) {
+    total++;
+    Counter counter = counters.get(ByteBuffer.wrap(bytes, offset, length));
+    if (counter != null) {
+      byCount.remove(counter);
+      counter.count++;
+      byCount.add(counter);
+      return;
+    }
+    ByteBuffer key = ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, offset + length));
+    if (counters.size() < capacity) {
+      counter = new Counter(key, nextId++, 1, 0);
+    } else {
+      Counter min = byCount.pollFirst();
+      counters.remove(min.key);
+      counter = new Counter(key, nextId++, min.count + 1, min.count);
+    }
+    counters.put(key, counter);
+    byCount.add(counter);
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * @return the keys that were certainly seen in at least the given fraction of the samples
+   */
+  public List<byte[]> getHeavyKeys(float threshold) {
+    List<byte[]> heavyKeys = new ArrayList<byte[]>();
+    for (Counter counter : byCount.descendingSet()) {
+      if (counter.count < threshold * total) {
+        break;
+      }
+      if (counter.count - counter.error >= threshold * total) {
+        heavyKeys.add(counter.key.array());
+      }
+    }
+    return heavyKeys;
+  }
+
+  /**
+   * Pass the heavy keys to the reduce sinks of the join.
+   * @param streamedTag the tag of the side whose rows are spread over the reducers
+   * @param salts the number of reducers each heavy key is spread over
+   */
+  public static void setSkewKeys(Configuration conf, List<byte[]> keys, int streamedTag,
+      int salts) {
+    StringBuilder builder = new StringBuilder();
+    for (byte[] key : keys) {
+      if (builder.length() > 0) {
+        builder.append(',');
+      }
+      builder.append(new String(Base64.encodeBase64(key)));
+    }
+    conf.set(SKEW_KEYS, builder.toString());
+    conf.setInt(SKEW_KEYS_TAG, streamedTag);
+    conf.setInt(SKEW_KEYS_SALTS, salts);
+  }
+
+  /**
+   * @return the heavy keys of the job, or null if there are none
+   */
+  public static Set<ByteBuffer> getSkewKeys(Configuration conf) {
+    String value = conf.get(SKEW_KEYS);
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    Set<ByteBuffer> keys = new HashSet<ByteBuffer>();
+    for (String key : value.split(",")) {
+      keys.add(ByteBuffer.wrap(Base64.decodeBase64(key.getBytes())));
+    }
+    return keys;
+  }
+}
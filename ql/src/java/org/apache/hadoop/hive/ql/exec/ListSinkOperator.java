@@ -18,19 +18,16 @@
 
 package org.apache.hadoop.hive.ql.exec;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.common.JavaUtils;
-import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ListSinkDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
 import org.apache.hadoop.hive.serde.serdeConstants;
-import org.apache.hadoop.hive.serde2.DelimitedJSONSerDe;
 import org.apache.hadoop.hive.serde2.SerDe;
-import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.util.ReflectionUtils;
 
 /**
@@ -39,45 +36,54 @@
  */
 public class ListSinkOperator extends Operator<ListSinkDesc> {
 
-  private transient SerDe mSerde;
+  /**
+   * Class name of the {@link FetchFormatter} that converts the rows, the rows are serialized
+   * to strings with {@link DefaultFetchFormatter} when it is not set.
+   */
+  public static final String OUTPUT_FORMATTER = "output.formatter";
 
-  private transient ArrayList<String> res;
+  private transient List res;
+  private transient FetchFormatter fetcher;
   private transient int numRows;
 
   @Override
   protected void initializeOp(Configuration hconf) throws HiveException {
     try {
-      mSerde = initializeSerde(hconf);
+      fetcher = initializeFetcher(hconf);
       initializeChildren(hconf);
     } catch (Exception e) {
       throw new HiveException(e);
     }
   }
 
-  private SerDe initializeSerde(Configuration conf) throws Exception {
-    String serdeName = HiveConf.getVar(conf, HiveConf.ConfVars.HIVEFETCHOUTPUTSERDE);
-    Class<? extends SerDe> serdeClass = Class.forName(serdeName, true,
-        JavaUtils.getClassLoader()).asSubclass(SerDe.class);
-    // cast only needed for Hadoop 0.17 compatibility
-    SerDe serde = ReflectionUtils.newInstance(serdeClass, null);
-
-    Properties serdeProp = new Properties();
+  private FetchFormatter initializeFetcher(Configuration conf) throws Exception {
+    String formatterName = conf.get(OUTPUT_FORMATTER);
+    FetchFormatter formatter;
+    if (formatterName != null && !formatterName.isEmpty()) {
+      Class<? extends FetchFormatter> formatterClass = Class.forName(formatterName, true,
+          JavaUtils.getClassLoader()).asSubclass(FetchFormatter.class);
+      formatter = ReflectionUtils.newInstance(formatterClass, null);
+    } else {
+      formatter = new DefaultFetchFormatter();
+    }
 
     // this is the default serialization format
-    if (serde instanceof DelimitedJSONSerDe) {
-      serdeProp.put(serdeConstants.SERIALIZATION_FORMAT, "" + Utilities.tabCode);
-      serdeProp.put(serdeConstants.SERIALIZATION_NULL_FORMAT, getConf().getSerializationNullFormat());
+    Properties props = new Properties();
+    props.put(serdeConstants.SERIALIZATION_FORMAT, "" + Utilities.tabCode);
+    if (getConf().getSerializationNullFormat() != null) {
+      props.put(serdeConstants.SERIALIZATION_NULL_FORMAT, getConf().getSerializationNullFormat());
     }
-    serde.initialize(conf, serdeProp);
-    return serde;
+
+    formatter.initialize(conf, props);
+    return formatter;
   }
 
   public ListSinkOperator initialize(SerDe mSerde) {
-    this.mSerde = mSerde;
+    this.fetcher = new DefaultFetchFormatter(mSerde);
     return this;
   }
 
-  public void reset(ArrayList<String> res) {
+  public void reset(List res) {
     this.res = res;
     this.numRows = 0;
   }
@@ -86,13 +92,26 @@ public int getNumRows() {
     return numRows;
   }
 
+  @SuppressWarnings("unchecked")
   public void processOp(Object row, int tag) throws HiveException {
     try {
-      res.add(mSerde.serialize(row, outputObjInspector).toString());
+      res.add(fetcher.convert(row, outputObjInspector));
       numRows++;
-    } catch (SerDeException e) {
+    } catch (Exception e) {
+      throw new HiveException(e);
+    }
+  }
+
+  @Override
+  protected void closeOp(boolean abort) throws HiveException {
+    try {
+      if (fetcher != null) {
+        fetcher.close();
+      }
+    } catch (Exception e) {
       throw new HiveException(e);
     }
+    super.closeOp(abort);
   }
 
   public OperatorType getType() {
@@ -19,6 +19,7 @@
 package org.apache.hadoop.hive.ql.exec;
 
 import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
@@ -56,6 +57,8 @@ public class MapJoinOperator extends AbstractMapJoinOperator<MapJoinDesc> implem
       "Mapside join exceeds available memory. "
           + "Please try removing the mapjoin hint."};
 
+  private static final int LOAD_BUFFER_SIZE = 64 * 1024;
+
   protected transient MapJoinTableContainer[] mapJoinTables;
   private transient MapJoinTableContainerSerDe[] mapJoinTableSerdes;
   private transient boolean hashTblInitedOnce;
@@ -152,10 +155,14 @@ private void loadHashTable() throws HiveException {
         String filePath = Utilities.generatePath(baseDir, conf.getDumpFilePrefix(), (byte)pos, fileName);
         Path path = new Path(filePath);
         LOG.info("\tLoad back 1 hashtable file from tmp file uri:" + path);
-        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
-            new FileInputStream(path.toUri().getPath()), 4096));
+        BufferedInputStream in = new BufferedInputStream(
+            new FileInputStream(path.toUri().getPath()), LOAD_BUFFER_SIZE);
         try{
-          mapJoinTables[pos] = mapJoinTableSerdes[pos].load(in);
+          if (MapJoinTableContainerSerDe.isBinaryFormat(in)) {
+            mapJoinTables[pos] = mapJoinTableSerdes[pos].loadBinary(new DataInputStream(in));
+          } else {
+            mapJoinTables[pos] = mapJoinTableSerdes[pos].load(new ObjectInputStream(in));
+          }
         } finally {
           in.close();
         }
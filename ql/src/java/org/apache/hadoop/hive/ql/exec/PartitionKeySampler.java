@@ -119,6 +119,11 @@ public static FetchSampler createSampler(FetchWork work, HiveConf conf, JobConf
       Operator<?> operator) {
     int sampleNum = conf.getIntVar(HiveConf.ConfVars.HIVESAMPLINGNUMBERFORORDERBY);
     float samplePercent = conf.getFloatVar(HiveConf.ConfVars.HIVESAMPLINGPERCENTFORORDERBY);
+    return createSampler(work, job, operator, sampleNum, samplePercent);
+  }
+
+  public static FetchSampler createSampler(FetchWork work, JobConf job, Operator<?> operator,
+      int sampleNum, float samplePercent) {
     if (samplePercent < 0.0 || samplePercent > 1.0) {
       throw new IllegalArgumentException("Percentile value must be within the range of 0 to 1.");
     }
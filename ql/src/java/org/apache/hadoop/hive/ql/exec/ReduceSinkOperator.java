@@ -20,13 +20,16 @@
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.io.DefaultHivePartitioner;
 import org.apache.hadoop.hive.ql.io.HiveKey;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
@@ -47,6 +50,7 @@
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputCollector;
 
 /**
@@ -98,6 +102,17 @@ public void setOutputCollector(OutputCollector _out) {
     this.out = _out;
   }
 
+  /**
+   * The heavy join keys whose rows are spread over reducers, or null. See
+   * {@link HeavyKeySampler}.
+   */
+  protected transient Set<ByteBuffer> skewKeys;
+  protected transient int numSalts;
+  protected transient int numReducers;
+  protected transient boolean isSaltedSide;
+  protected transient Random saltRandom;
+  protected transient long numSkewedRows;
+
   // picks topN K:V pairs from input.
   protected transient TopNHash reducerHash = new TopNHash();
   @Override
@@ -131,6 +146,7 @@ protected void initializeOp(Configuration hconf) throws HiveException {
       tag = conf.getTag();
       tagByte[0] = (byte) tag;
       LOG.info("Using tag = " + tag);
+      initializeSkewKeys(hconf, tag);
 
       TableDesc keyTableDesc = conf.getKeySerializeInfo();
       keySerializer = (Serializer) keyTableDesc.getDeserializerClass()
@@ -157,6 +173,25 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     }
   }
 
+  protected void initializeSkewKeys(Configuration hconf, int tag) {
+    skewKeys = tag >= 0 ? HeavyKeySampler.getSkewKeys(hconf) : null;
+    if (skewKeys != null && (!(hconf instanceof JobConf)
+        || ((JobConf) hconf).getPartitionerClass() != DefaultHivePartitioner.class)) {
+      // other partitioners do not take the hash codes as reducer numbers
+      skewKeys = null;
+    }
+    if (skewKeys == null) {
+      return;
+    }
+    numSalts = hconf.getInt(HeavyKeySampler.SKEW_KEYS_SALTS, 1);
+    numReducers = HiveConf.getIntVar(hconf, HiveConf.ConfVars.HADOOPNUMREDUCERS);
+    isSaltedSide = tag == hconf.getInt(HeavyKeySampler.SKEW_KEYS_TAG, -1);
+    saltRandom = new Random(12345);
+    numSkewedRows = 0;
+    LOG.info("Spreading " + skewKeys.size() + " skewed keys over " + numSalts
+        + " reducers, " + (isSaltedSide ? "salting" : "replicating") + " their rows");
+  }
+
   transient InspectableObject tempInspectableObject = new InspectableObject();
   protected transient HiveKey keyWritable = new HiveKey();
 
@@ -266,8 +301,7 @@ public void processOp(Object row, int tag) throws HiveException {
       BytesWritable value = makeValueWritable(row);
       int hashCode = computeHashCode(row);
       if (firstIndex == TopNHash.FORWARD) {
-        firstKey.setHashCode(hashCode);
-        collect(firstKey, value);
+        collect(firstKey, value, hashCode);
       } else {
         assert firstIndex >= 0;
         reducerHash.storeValue(firstIndex, value, hashCode, false);
@@ -357,6 +391,32 @@ public void collect(byte[] key, byte[] value, int hash) throws IOException {
     collect(keyWritable, valueWritable);
   }
 
+  /**
+   * Collect the key with the given partitioning hash code. The rows of a skewed join key go to
+   * one of numSalts consecutive reducers at random on the salted side of the join, and to all
+   * of them on the other sides, so every row of the salted side still meets all its matches.
+   */
+  protected void collect(HiveKey key, BytesWritable value, int hashCode) throws IOException {
+    if (skewKeys == null
+        || !skewKeys.contains(ByteBuffer.wrap(key.getBytes(), 0, key.getDistKeyLength()))) {
+      key.setHashCode(hashCode);
+      collect(key, value);
+      return;
+    }
+    numSkewedRows++;
+    // the hash codes are given as reducer numbers, which the partitioner keeps as they are
+    int first = (hashCode & Integer.MAX_VALUE) % numReducers;
+    if (isSaltedSide) {
+      key.setHashCode((first + saltRandom.nextInt(numSalts)) % numReducers);
+      collect(key, value);
+      return;
+    }
+    for (int i = 0; i < numSalts; i++) {
+      key.setHashCode((first + i) % numReducers);
+      collect(key, value);
+    }
+  }
+
   protected void collect(BytesWritable keyWritable, Writable valueWritable) throws IOException {
     // Since this is a terminal operator, update counters explicitly -
     // forward is not called
@@ -386,6 +446,9 @@ protected void closeOp(boolean abort) throws HiveException {
     if (!abort) {
       reducerHash.flush();
     }
+    if (skewKeys != null) {
+      LOG.info(numSkewedRows + " rows with skewed keys");
+    }
     super.closeOp(abort);
     out = null;
   }
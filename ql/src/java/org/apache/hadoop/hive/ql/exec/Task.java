@@ -169,7 +169,7 @@ public int executeTask() {
   protected abstract int execute(DriverContext driverContext);
 
   // dummy method - FetchTask overwrites this
-  public boolean fetch(ArrayList<String> res) throws IOException, CommandNeedRetryException {
+  public boolean fetch(List res) throws IOException, CommandNeedRetryException {
     assert false;
     return false;
   }
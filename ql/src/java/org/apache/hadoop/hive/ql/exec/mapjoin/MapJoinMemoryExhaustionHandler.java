@@ -82,7 +82,18 @@ public MapJoinMemoryExhaustionHandler(LogHelper console, double maxMemoryUsage)
    */
   public void checkMemoryStatus(long tableContainerSize, long numRows)
   throws MapJoinMemoryExhaustionException {
-    long usedMemory = memoryMXBean.getHeapMemoryUsage().getUsed();
+    checkMemoryStatus(tableContainerSize, numRows, 0);
+  }
+
+  /**
+   * Like {@link #checkMemoryStatus(long, long)}, but also counts memory the hashtables hold
+   * outside the heap, such as off-heap slabs, against the limit.
+   *
+   * @param offHeapMemory bytes held by the hashtables outside the heap
+   */
+  public void checkMemoryStatus(long tableContainerSize, long numRows, long offHeapMemory)
+  throws MapJoinMemoryExhaustionException {
+    long usedMemory = memoryMXBean.getHeapMemoryUsage().getUsed() + offHeapMemory;
     double percentage = (double) usedMemory / (double) maxHeapSize;
     String msg = Utilities.now() + "\tProcessing rows:\t" + numRows + "\tHashtable size:\t"
         + tableContainerSize + "\tMemory usage:\t" + usedMemory + "\tpercentage:\t" + percentageNumberFormat.format(percentage);
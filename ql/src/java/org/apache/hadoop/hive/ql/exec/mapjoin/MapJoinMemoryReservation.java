@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.mapjoin;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The memory reserved by a map join local task that runs in the client process. The heap
+ * is shared by every local task running in process, so the hashtables of all of them are
+ * counted against one budget, a fraction of the heap. Without it each task would check the
+ * heap usage against its own limit, and concurrent tasks could together fill the heap.
+ *
+ * The hashtables reserve their estimated size as they grow. The reservation is released
+ * when the hashtables are dumped, or when the task ends.
+ */
+public class MapJoinMemoryReservation {
+
+  /**
+   * The bytes reserved by all the local tasks of the process.
+   */
+  private static final AtomicLong totalReserved = new AtomicLong();
+
+  private final long budget;
+  /**
+   * The bytes reserved by this task; the tables of a task may be loaded concurrently.
+   */
+  private final AtomicLong reserved = new AtomicLong();
+
+  /**
+   * @param maxMemoryUsage the fraction of the heap the hashtables of all the local tasks
+   *   may use
+   */
+  public MapJoinMemoryReservation(double maxMemoryUsage) {
+    this((long) (getMaxHeapSize() * maxMemoryUsage));
+  }
+
+  @VisibleForTesting
+  MapJoinMemoryReservation(long budget) {
+    this.budget = budget;
+  }
+
+  private static long getMaxHeapSize() {
+    long maxHeapSize = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+    return maxHeapSize == -1 ? Runtime.getRuntime().maxMemory() : maxHeapSize;
+  }
+
+  /**
+   * Reserves more memory for this task.
+   *
+   * @return false, without reserving anything, if the budget would be exceeded
+   */
+  public boolean reserve(long bytes) {
+    while (true) {
+      long current = totalReserved.get();
+      if (current + bytes > budget) {
+        return false;
+      }
+      if (totalReserved.compareAndSet(current, current + bytes)) {
+        reserved.addAndGet(bytes);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases part of the memory reserved by this task.
+   */
+  public void release(long bytes) {
+    reserved.addAndGet(-bytes);
+    totalReserved.addAndGet(-bytes);
+  }
+
+  /**
+   * Releases all the memory still reserved by this task.
+   */
+  public void releaseAll() {
+    totalReserved.addAndGet(-reserved.getAndSet(0));
+  }
+
+  /**
+   * @return the bytes reserved by this task
+   */
+  public long getReserved() {
+    return reserved.get();
+  }
+
+  /**
+   * @return the bytes the local tasks may reserve in total
+   */
+  public long getBudget() {
+    return budget;
+  }
+
+  /**
+   * @return the bytes reserved by all the local tasks of the process
+   */
+  public static long getTotalReserved() {
+    return totalReserved.get();
+  }
+}
@@ -29,6 +29,7 @@
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.lang.StringUtils;
@@ -49,20 +50,26 @@
 import org.apache.hadoop.hive.ql.ErrorMsg;
 import org.apache.hadoop.hive.ql.QueryPlan;
 import org.apache.hadoop.hive.ql.exec.FetchOperator;
+import org.apache.hadoop.hive.ql.exec.HeavyKeySampler;
 import org.apache.hadoop.hive.ql.exec.HiveTotalOrderPartitioner;
 import org.apache.hadoop.hive.ql.exec.JobCloseFeedBack;
+import org.apache.hadoop.hive.ql.exec.JoinOperator;
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.OperatorUtils;
 import org.apache.hadoop.hive.ql.exec.PartitionKeySampler;
+import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.exec.Task;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.io.BucketizedHiveInputFormat;
+import org.apache.hadoop.hive.ql.io.DefaultHivePartitioner;
 import org.apache.hadoop.hive.ql.io.HiveKey;
 import org.apache.hadoop.hive.ql.io.HiveOutputFormatImpl;
 import org.apache.hadoop.hive.ql.io.IOPrepareCache;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.FetchWork;
+import org.apache.hadoop.hive.ql.plan.JoinCondDesc;
+import org.apache.hadoop.hive.ql.plan.JoinDesc;
 import org.apache.hadoop.hive.ql.plan.MapWork;
 import org.apache.hadoop.hive.ql.plan.MapredLocalWork;
 import org.apache.hadoop.hive.ql.plan.MapredWork;
@@ -400,6 +407,17 @@ public int execute(DriverContext driverContext) {
         }
       }
 
+      if (HiveConf.getBoolVar(job, HiveConf.ConfVars.HIVESKEWJOINSALTING)
+          && rWork != null && rWork.getReducer() instanceof JoinOperator
+          && job.getNumReduceTasks() > 1
+          && job.getPartitionerClass() == DefaultHivePartitioner.class) {
+        try {
+          handleSkewKeySampling(job, conf);
+        } catch (Exception e) {
+          LOG.warn("Sampling for skewed join keys failed, not spreading them", e);
+        }
+      }
+
       // remove the pwd from conf file so that job tracker doesn't show this
       // logs
       String pwd = HiveConf.getVar(job, HiveConf.ConfVars.METASTOREPWD);
@@ -554,6 +572,96 @@ private void handleSampling(DriverContext context, MapWork mWork, JobConf job, H
     sampler.writePartitionKeys(partitionFile, job);
   }
 
+  /**
+   * Find the heavy join keys in a sample of the streamed side of an inner join, and pass them
+   * to the reduce sinks of the job. The sample is run through a copy of the map operators,
+   * since the plan has already been handed to the job.
+   */
+  private void handleSkewKeySampling(JobConf job, HiveConf conf) throws Exception {
+    JoinDesc joinDesc = ((JoinOperator) work.getReduceWork().getReducer()).getConf();
+    for (JoinCondDesc cond : joinDesc.getConds()) {
+      if (cond.getType() != JoinDesc.INNER_JOIN) {
+        // the replicated rows of a preserved side would be emitted once per reducer
+        return;
+      }
+    }
+    int streamedTag = joinDesc.getExprs().size() - 1;
+    float threshold = HiveConf.getFloatVar(job, HiveConf.ConfVars.HIVESKEWJOINSALTINGTHRESHOLD);
+    int sampleNum = HiveConf.getIntVar(job, HiveConf.ConfVars.HIVESKEWJOINSALTINGSAMPLES);
+    float samplePercent =
+        HiveConf.getFloatVar(job, HiveConf.ConfVars.HIVESKEWJOINSALTINGSAMPLEPERCENT);
+    int salts = Math.min(job.getNumReduceTasks(),
+        HiveConf.getIntVar(job, HiveConf.ConfVars.HIVESKEWJOINSALTINGBUCKETS));
+    if (threshold <= 0 || salts <= 1) {
+      return;
+    }
+
+    MapWork mWork = Utilities.clonePlan(work).getMapWork();
+    HeavyKeySampler sampler =
+        new HeavyKeySampler((int) Math.min(10000, Math.ceil(10 / threshold)), streamedTag);
+    for (Map.Entry<String, Operator<? extends OperatorDesc>> entry :
+        mWork.getAliasToWork().entrySet()) {
+      String alias = entry.getKey();
+      if (!(entry.getValue() instanceof TableScanOperator)
+          || !hasReduceSink(entry.getValue(), streamedTag)) {
+        continue;
+      }
+      TableScanOperator ts = (TableScanOperator) entry.getValue();
+      PartitionDesc partDesc = mWork.getAliasToPartnInfo().get(alias);
+
+      ArrayList<String> paths = new ArrayList<String>();
+      ArrayList<PartitionDesc> parts = new ArrayList<PartitionDesc>();
+      for (Map.Entry<String, ArrayList<String>> pathToAliases :
+          mWork.getPathToAliases().entrySet()) {
+        if (pathToAliases.getValue().contains(alias)) {
+          paths.add(pathToAliases.getKey());
+          parts.add(mWork.getPathToPartitionInfo().get(pathToAliases.getKey()));
+        }
+      }
+      if (paths.isEmpty()) {
+        continue;
+      }
+
+      FetchWork fetchWork;
+      if (!partDesc.isPartitioned() && paths.size() == 1) {
+        fetchWork = new FetchWork(paths.get(0), partDesc.getTableDesc());
+      } else {
+        fetchWork = new FetchWork(paths, parts, partDesc.getTableDesc());
+      }
+      fetchWork.setSource(ts);
+
+      FetchOperator fetcher =
+          PartitionKeySampler.createSampler(fetchWork, job, ts, sampleNum, samplePercent);
+      try {
+        ts.initialize(conf, new ObjectInspector[]{fetcher.getOutputObjectInspector()});
+        OperatorUtils.setChildrenCollector(ts.getChildOperators(), sampler);
+        while (fetcher.pushRow()) { }
+      } finally {
+        fetcher.clearFetchContext();
+      }
+    }
+
+    // too few samples to tell a heavy key from chance
+    if (sampler.getTotal() * threshold < 10) {
+      return;
+    }
+    List<byte[]> heavyKeys = sampler.getHeavyKeys(threshold);
+    if (!heavyKeys.isEmpty()) {
+      console.printInfo("Spreading " + heavyKeys.size() + " skewed join keys over "
+          + salts + " reducers each");
+      HeavyKeySampler.setSkewKeys(job, heavyKeys, streamedTag, salts);
+    }
+  }
+
+  private static boolean hasReduceSink(Operator<?> op, int tag) {
+    for (ReduceSinkOperator rs : OperatorUtils.findOperators(op, ReduceSinkOperator.class)) {
+      if (rs.getConf().getTag() == tag) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Set hive input format, and input format file if necessary.
    */
@@ -22,6 +22,7 @@
 import org.apache.commons.logging.Log;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.exec.FetchOperator;
+import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryReservation;
 import org.apache.hadoop.hive.ql.io.IOContext;
 import org.apache.hadoop.hive.ql.plan.MapredLocalWork;
 import org.apache.hadoop.mapred.JobConf;
@@ -52,6 +53,9 @@ public class ExecMapperContext {
 
   private String currentBigBucketFile=null;
 
+  // set when the local work runs in the client process
+  private MapJoinMemoryReservation memoryReservation;
+
   public String getCurrentBigBucketFile() {
     return currentBigBucketFile;
   }
@@ -153,4 +157,12 @@ public IOContext getIoCxt() {
   public void setIoCxt(IOContext ioCxt) {
     this.ioCxt = ioCxt;
   }
+
+  public MapJoinMemoryReservation getMemoryReservation() {
+    return memoryReservation;
+  }
+
+  public void setMemoryReservation(MapJoinMemoryReservation memoryReservation) {
+    this.memoryReservation = memoryReservation;
+  }
 }
@@ -26,6 +26,7 @@
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +34,15 @@
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.mr.ExecMapper.reportStats;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnAssign;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnAssignFactory;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ReduceWork;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
@@ -42,6 +52,9 @@
 import org.apache.hadoop.hive.serde2.SerDeUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.MapReduceBase;
@@ -90,6 +103,21 @@ public class ExecReducer extends MapReduceBase implements Reducer {
 
   ObjectInspector[] rowObjectInspector;
 
+  // vectorized reduce: the rows of consecutive groups are gathered into one batch made
+  // of the key columns followed by the value columns
+  private boolean isVectorized = false;
+  private VectorizedRowBatch batch;
+  private StructObjectInspector keyStructInspector;
+  private StructObjectInspector valueStructInspector;
+  private List<? extends StructField> keyFields;
+  private List<? extends StructField> valueFields;
+  private PrimitiveObjectInspector[] keyInspectors;
+  private PrimitiveObjectInspector[] valueInspectors;
+  private VectorColumnAssign[] keyAssigners;
+  private VectorColumnAssign[] valueAssigners;
+  // batch row the current key was assigned to, -1 if not assigned in this batch yet
+  private int keyRowInBatch = -1;
+
   @Override
   public void configure(JobConf job) {
     rowObjectInspector = new ObjectInspector[Byte.MAX_VALUE];
@@ -140,6 +168,11 @@ public void configure(JobConf job) {
         rowObjectInspector[tag] = ObjectInspectorFactory
             .getStandardStructObjectInspector(Utilities.reduceFieldNameList, ois);
       }
+      isVectorized = gWork.getVectorMode();
+      if (isVectorized) {
+        initializeVectorBatch(keyObjectInspector, valueObjectInspector[0],
+            gWork.getScratchColumnVectorTypes());
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -183,6 +216,10 @@ public void reduce(Object key, Iterator values, OutputCollector output,
 
     try {
       BytesWritable keyWritable = (BytesWritable) key;
+      if (isVectorized) {
+        processVectors(keyWritable, values);
+        return;
+      }
       byte tag = 0;
       if (isTagged) {
         // remove the tag from key coming out of reducer
@@ -271,6 +308,151 @@ public void reduce(Object key, Iterator values, OutputCollector output,
     }
   }
 
+  private void initializeVectorBatch(ObjectInspector keyOI, ObjectInspector valueOI,
+      Map<Integer, String> scratchColumnTypes) throws HiveException {
+    keyStructInspector = (StructObjectInspector) keyOI;
+    valueStructInspector = (StructObjectInspector) valueOI;
+    keyFields = keyStructInspector.getAllStructFieldRefs();
+    valueFields = valueStructInspector.getAllStructFieldRefs();
+
+    List<String> columnNames = new ArrayList<String>();
+    List<ObjectInspector> columnInspectors = new ArrayList<ObjectInspector>();
+    for (StructField field : keyFields) {
+      columnNames.add(Utilities.ReduceField.KEY + "." + field.getFieldName());
+      columnInspectors.add(field.getFieldObjectInspector());
+    }
+    for (StructField field : valueFields) {
+      columnNames.add(Utilities.ReduceField.VALUE + "." + field.getFieldName());
+      columnInspectors.add(field.getFieldObjectInspector());
+    }
+    StructObjectInspector batchInspector =
+        ObjectInspectorFactory.getStandardStructObjectInspector(columnNames, columnInspectors);
+    batch = new VectorizedRowBatchCtx(batchInspector, scratchColumnTypes)
+        .createVectorizedRowBatch();
+    // a new batch claims to be full; rows are appended from the start
+    batch.reset();
+
+    keyInspectors = new PrimitiveObjectInspector[keyFields.size()];
+    keyAssigners = new VectorColumnAssign[keyFields.size()];
+    for (int i = 0; i < keyFields.size(); i++) {
+      keyInspectors[i] = (PrimitiveObjectInspector) keyFields.get(i).getFieldObjectInspector();
+      keyAssigners[i] = VectorColumnAssignFactory.buildObjectAssign(batch, i, keyInspectors[i]);
+    }
+    valueInspectors = new PrimitiveObjectInspector[valueFields.size()];
+    valueAssigners = new VectorColumnAssign[valueFields.size()];
+    for (int i = 0; i < valueFields.size(); i++) {
+      valueInspectors[i] =
+          (PrimitiveObjectInspector) valueFields.get(i).getFieldObjectInspector();
+      valueAssigners[i] = VectorColumnAssignFactory.buildObjectAssign(batch,
+          keyFields.size() + i, valueInspectors[i]);
+    }
+  }
+
+  /**
+   * Deserializes the values of a key straight into the batch. The batch is only forwarded
+   * once full, so it usually spans many groups; operators that run in vector mode on the
+   * reduce side do not rely on startGroup/endGroup.
+   */
+  private void processVectors(BytesWritable keyWritable, Iterator values)
+      throws HiveException {
+    if (!keyWritable.equals(groupKey)) {
+      if (groupKey == null) {
+        groupKey = new BytesWritable();
+      }
+      try {
+        keyObject = inputKeyDeserializer.deserialize(keyWritable);
+      } catch (Exception e) {
+        throw new HiveException(
+            "Hive Runtime Error: Unable to deserialize reduce input key from "
+            + Utilities.formatBinaryString(keyWritable.get(), 0,
+            keyWritable.getSize()) + " with properties "
+            + keyTableDesc.getProperties(), e);
+      }
+      groupKey.set(keyWritable.get(), 0, keyWritable.getSize());
+      keyRowInBatch = -1;
+    }
+    while (values.hasNext()) {
+      BytesWritable valueWritable = (BytesWritable) values.next();
+      Object value;
+      try {
+        value = inputValueDeserializer[0].deserialize(valueWritable);
+      } catch (SerDeException e) {
+        throw new HiveException(
+            "Hive Runtime Error: Unable to deserialize reduce input value (tag=0) from "
+            + Utilities.formatBinaryString(valueWritable.get(), 0,
+            valueWritable.getSize()) + " with properties "
+            + valueTableDesc[0].getProperties(), e);
+      }
+      int rowIndex = batch.size;
+      if (keyRowInBatch < 0) {
+        assignColumns(keyObject, keyStructInspector, keyFields, keyInspectors,
+            keyAssigners, rowIndex);
+        keyRowInBatch = rowIndex;
+      } else {
+        copyKeyColumns(keyRowInBatch, rowIndex);
+      }
+      assignColumns(value, valueStructInspector, valueFields, valueInspectors,
+          valueAssigners, rowIndex);
+      batch.size++;
+      if (isLogInfoEnabled) {
+        cntr++;
+        if (cntr == nextCntr) {
+          long used_memory = memoryMXBean.getHeapMemoryUsage().getUsed();
+          l4j.info("ExecReducer: processing " + cntr
+              + " rows: used memory = " + used_memory);
+          nextCntr = getNextCntr(cntr);
+        }
+      }
+      if (batch.size == VectorizedRowBatch.DEFAULT_SIZE) {
+        forwardBatch();
+      }
+    }
+  }
+
+  private void assignColumns(Object row, StructObjectInspector soi,
+      List<? extends StructField> fields, PrimitiveObjectInspector[] inspectors,
+      VectorColumnAssign[] assigners, int rowIndex) throws HiveException {
+    for (int i = 0; i < assigners.length; i++) {
+      Object field = soi.getStructFieldData(row, fields.get(i));
+      assigners[i].assignObjectValue(inspectors[i].getPrimitiveWritableObject(field), rowIndex);
+    }
+  }
+
+  /**
+   * Rows of the same group share the key already assigned to an earlier row of the batch.
+   */
+  private void copyKeyColumns(int fromRow, int toRow) {
+    for (int i = 0; i < keyAssigners.length; i++) {
+      ColumnVector cv = batch.cols[i];
+      if (!cv.noNulls && cv.isNull[fromRow]) {
+        VectorizedBatchUtil.SetNullColIsNullValue(cv, toRow);
+      } else if (cv instanceof LongColumnVector) {
+        ((LongColumnVector) cv).vector[toRow] = ((LongColumnVector) cv).vector[fromRow];
+      } else if (cv instanceof DoubleColumnVector) {
+        ((DoubleColumnVector) cv).vector[toRow] = ((DoubleColumnVector) cv).vector[fromRow];
+      } else {
+        BytesColumnVector bcv = (BytesColumnVector) cv;
+        bcv.setRef(toRow, bcv.vector[fromRow], bcv.start[fromRow], bcv.length[fromRow]);
+      }
+    }
+  }
+
+  private void forwardBatch() throws HiveException {
+    try {
+      reducer.process(batch, 0);
+    } catch (Exception e) {
+      throw new HiveException("Hive Runtime Error while processing vector batch (tag=0)", e);
+    }
+    batch.reset();
+    for (VectorColumnAssign assigner : keyAssigners) {
+      assigner.reset();
+    }
+    for (VectorColumnAssign assigner : valueAssigners) {
+      assigner.reset();
+    }
+    keyRowInBatch = -1;
+  }
+
   private long getNextCntr(long cntr) {
     // A very simple counter to keep track of number of rows processed by the
     // reducer. It dumps
@@ -291,7 +473,11 @@ public void close() {
     }
 
     try {
-      if (groupKey != null) {
+      if (isVectorized) {
+        if (!abort && batch.size > 0) {
+          forwardBatch();
+        }
+      } else if (groupKey != null) {
         // If a operator wants to do some work at the end of a group
         l4j.trace("End Group");
         reducer.endGroup();
@@ -25,12 +25,20 @@
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -38,6 +46,8 @@
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.HiveInterruptCallback;
+import org.apache.hadoop.hive.common.HiveInterruptUtils;
 import org.apache.hadoop.hive.common.io.CachingPrintStream;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.Context;
@@ -53,6 +63,7 @@
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.Utilities.StreamPrinter;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionException;
+import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryReservation;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainerSerDe;
 import org.apache.hadoop.hive.ql.io.HiveInputFormat;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
@@ -78,6 +89,8 @@
  *
  * MapRedLocalTask does not actually execute the work in process, but rather generates
  * a command using ExecDriver. ExecDriver is what will finally drive processing the records.
+ * With hive.mapjoin.localtask.inprocess, the work is executed in process instead, which
+ * saves the startup of a JVM for each map join.
  */
 public class MapredLocalTask extends Task<MapredLocalWork> implements Serializable {
 
@@ -97,6 +110,11 @@ public class MapredLocalTask extends Task<MapredLocalWork> implements Serializab
 
   private Process executor;
 
+  // the number of threads loading the small tables, when they can be loaded concurrently
+  private int numLoadThreads = 1;
+
+  private static final AtomicInteger LOAD_POOL_COUNT = new AtomicInteger();
+
   public MapredLocalTask() {
     super();
   }
@@ -128,6 +146,9 @@ public boolean requireLock() {
 
   @Override
   public int execute(DriverContext driverContext) {
+    if (conf.getBoolVar(HiveConf.ConfVars.HIVEMAPJOINLOCALTASKINPROCESS)) {
+      return executeInProcess(driverContext);
+    }
     try {
       // generate the cmd line to run in the child jvm
       Context ctx = driverContext.getCtx();
@@ -280,6 +301,31 @@ public int execute(DriverContext driverContext) {
   }
 
 
+  /**
+   * Execute the local work in this JVM, on the operators of the plan rather than on a
+   * deserialized copy of them. The added files and jars are already available to the
+   * session, so unlike the child JVM there is nothing to set up for them. The hashtables
+   * reserve their memory from the budget shared by the local tasks running in process.
+   */
+  private int executeInProcess(DriverContext driverContext) {
+    LOG.info("Executing the local work in process");
+    MapJoinMemoryReservation reservation = new MapJoinMemoryReservation(
+        conf.getFloatVar(HiveConf.ConfVars.HIVEHASHTABLEINPROCESSMAXMEMORYUSAGE));
+    execContext.setMemoryReservation(reservation);
+    int exitVal;
+    try {
+      exitVal = executeFromChildJVM(driverContext);
+    } finally {
+      execContext.setMemoryReservation(null);
+      reservation.releaseAll();
+    }
+    if (exitVal != 0) {
+      LOG.error("Execution failed with exit status: " + exitVal);
+    } else {
+      LOG.info("Execution completed successfully");
+    }
+    return exitVal;
+  }
 
   public int executeFromChildJVM(DriverContext driverContext) {
     // check the local work
@@ -300,6 +346,11 @@ public int executeFromChildJVM(DriverContext driverContext) {
     try {
 
       initializeOperators(fetchOpJobConfMap);
+      numLoadThreads = 1;
+      if (!inputFileChangeSenstive && canLoadConcurrently(work, fetchOperators.keySet())) {
+        numLoadThreads = Math.min(fetchOperators.size(),
+            HiveConf.getIntVar(job, HiveConf.ConfVars.HIVEMAPJOINLOCALTASKTHREADS));
+      }
       // for each big table's bucket, call the start forward
       if (inputFileChangeSenstive) {
         for (Map<String, List<String>> bigTableBucketFiles : work
@@ -330,6 +381,10 @@ public int executeFromChildJVM(DriverContext driverContext) {
 
   private void startForward(boolean inputFileChangeSenstive, String bigTableBucket)
       throws Exception {
+    if (numLoadThreads > 1) {
+      startForwardConcurrently();
+      return;
+    }
     for (Map.Entry<String, FetchOperator> entry : fetchOperators.entrySet()) {
       String alias = entry.getKey();
       FetchOperator fetchOp = entry.getValue();
@@ -347,26 +402,137 @@ private void startForward(boolean inputFileChangeSenstive, String bigTableBucket
 
       // get the root operator
       Operator<? extends OperatorDesc> forwardOp = work.getAliasToWork().get(alias);
-      // walk through the operator tree
-      while (true) {
-        InspectableObject row = fetchOp.getNextRow();
-        if (row == null) {
-          if (inputFileChangeSenstive) {
-            execContext.setCurrentBigBucketFile(bigTableBucket);
-            forwardOp.reset();
+      if (forwardRows(fetchOp, forwardOp)) {
+        if (inputFileChangeSenstive) {
+          execContext.setCurrentBigBucketFile(bigTableBucket);
+          forwardOp.reset();
+        }
+        forwardOp.close(false);
+      }
+    }
+  }
+
+  /**
+   * Load the small tables at the same time, each from its own thread. The operators are
+   * only closed once all the tables are loaded, since closing the last parent of a
+   * HashTableSinkOperator dumps its hashtables.
+   */
+  private void startForwardConcurrently() throws Exception {
+    List<String> aliases = new ArrayList<String>();
+    for (Map.Entry<String, FetchOperator> entry : fetchOperators.entrySet()) {
+      if (entry.getValue().isEmptyTable()) {
+        //generate empty hashtable for empty table
+        generateDummyHashTable(entry.getKey(), null);
+      } else {
+        aliases.add(entry.getKey());
+      }
+    }
+
+    console.printInfo(Utilities.now() + "\tLoading " + aliases.size() + " tables with "
+        + numLoadThreads + " threads");
+    final SessionState ss = SessionState.get();
+    final ExecutorService loader = Executors.newFixedThreadPool(numLoadThreads,
+        new ThreadFactory() {
+          private final int pool = LOAD_POOL_COUNT.incrementAndGet();
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "LocalTaskLoader-" + pool + "-"
+                + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
           }
-          forwardOp.close(false);
-          break;
+        });
+    HiveInterruptCallback interrupt = HiveInterruptUtils.add(new HiveInterruptCallback() {
+      @Override
+      public void interrupt() {
+        loader.shutdownNow();
+      }
+    });
+    boolean[] completed = new boolean[aliases.size()];
+    try {
+      List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(aliases.size());
+      for (String alias : aliases) {
+        final FetchOperator fetchOp = fetchOperators.get(alias);
+        final Operator<? extends OperatorDesc> forwardOp = work.getAliasToWork().get(alias);
+        futures.add(loader.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            SessionState.setCurrentSessionState(ss);
+            return forwardRows(fetchOp, forwardOp);
+          }
+        }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          completed[i] = futures.get(i).get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw (Exception) cause;
         }
-        forwardOp.process(row.o, 0);
-        // check if any operator had a fatal error or early exit during
-        // execution
-        if (forwardOp.getDone()) {
-          // ExecMapper.setDone(true);
-          break;
+      }
+    } finally {
+      loader.shutdownNow();
+      HiveInterruptUtils.remove(interrupt);
+    }
+
+    for (int i = 0; i < aliases.size(); i++) {
+      if (completed[i]) {
+        work.getAliasToWork().get(aliases.get(i)).close(false);
+      }
+    }
+  }
+
+  /**
+   * Forward the rows of a small table through its operators.
+   *
+   * @return false if the operators were done before all the rows were read
+   */
+  private boolean forwardRows(FetchOperator fetchOp, Operator<? extends OperatorDesc> forwardOp)
+      throws Exception {
+    // walk through the operator tree
+    while (true) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedException("Interrupted while loading the small table");
+      }
+      InspectableObject row = fetchOp.getNextRow();
+      if (row == null) {
+        return true;
+      }
+      forwardOp.process(row.o, 0);
+      // check if any operator had a fatal error or early exit during
+      // execution
+      if (forwardOp.getDone()) {
+        // ExecMapper.setDone(true);
+        return false;
+      }
+    }
+  }
+
+  /**
+   * The small tables can only be loaded concurrently when each of them goes through its
+   * own operators to a HashTableSinkOperator, which keeps a separate hashtable per parent.
+   * Operators shared by several tables, like a union, are not thread safe.
+   */
+  static boolean canLoadConcurrently(MapredLocalWork work, Collection<String> aliases) {
+    for (String alias : aliases) {
+      Operator<? extends OperatorDesc> op = work.getAliasToWork().get(alias);
+      while (!(op instanceof HashTableSinkOperator)) {
+        List<Operator<? extends OperatorDesc>> children = op.getChildOperators();
+        if (children == null || children.size() != 1) {
+          return false;
+        }
+        op = children.get(0);
+        if (!(op instanceof HashTableSinkOperator) && op.getParentOperators().size() != 1) {
+          return false;
         }
       }
     }
+    return true;
   }
 
   private void initializeOperators(Map<FetchOperator, JobConf> fetchOpJobConfMap)
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+/**
+ * Common storage for the open-addressing multi-value hash maps used by
+ * {@link MapJoinBytesTableContainer}. Every distinct key owns a key record in the
+ * {@link WriteBuffers}:
+ *
+ * <pre>
+ *   [long firstValue][long lastValue][int valueCount][int keyLength][key bytes]
+ * </pre>
+ *
+ * and each value is a record chained in insertion order:
+ *
+ * <pre>
+ *   [long nextValue][int valueLength][value bytes]
+ * </pre>
+ *
+ * Subclasses only maintain the index from keys to key record offsets.
+ */
+public abstract class AbstractMultiValueHashMap {
+
+  static final int KEY_HEADER_SIZE = 8 + 8 + 4 + 4;
+  static final int VALUE_HEADER_SIZE = 8 + 4;
+
+  protected final WriteBuffers writeBuffers;
+  protected final float loadFactor;
+  protected int capacity;
+  protected int mask;
+  protected int keyCount;
+  protected long valueCount;
+
+  protected AbstractMultiValueHashMap(int initialCapacity, float loadFactor, int wbSize,
+      boolean offHeap) {
+    if (loadFactor <= 0 || loadFactor >= 1) {
+      throw new IllegalArgumentException("Invalid load factor " + loadFactor);
+    }
+    this.loadFactor = loadFactor;
+    this.capacity = nextPowerOfTwo(Math.max(initialCapacity, 16));
+    this.mask = capacity - 1;
+    this.writeBuffers = new WriteBuffers(wbSize, offHeap);
+  }
+
+  /**
+   * @return number of distinct keys
+   */
+  public int size() {
+    return keyCount;
+  }
+
+  /**
+   * @return total number of values across all keys
+   */
+  public long getValueCount() {
+    return valueCount;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return approximate number of bytes held by the index and the slabs
+   */
+  public long getMemorySize() {
+    return writeBuffers.size() + (long) capacity * getIndexEntrySize();
+  }
+
+  public WriteBuffers getWriteBuffers() {
+    return writeBuffers;
+  }
+
+  /**
+   * @return first value record of the key record, or 0 if the key has no values
+   */
+  public long firstValue(long keyRef) {
+    return writeBuffers.readLong(keyRef);
+  }
+
+  /**
+   * @return the value record following valueRef, or 0 if this was the last one
+   */
+  public long nextValue(long valueRef) {
+    return writeBuffers.readLong(valueRef);
+  }
+
+  public int getValueCount(long keyRef) {
+    return writeBuffers.readInt(keyRef + 16);
+  }
+
+  public int getValueLength(long valueRef) {
+    return writeBuffers.readInt(valueRef + 8);
+  }
+
+  public void readValue(long valueRef, byte[] dest, int destOffset) {
+    writeBuffers.read(valueRef + VALUE_HEADER_SIZE, dest, destOffset, getValueLength(valueRef));
+  }
+
+  public int getKeyLength(long keyRef) {
+    return writeBuffers.readInt(keyRef + 20);
+  }
+
+  public void readKey(long keyRef, byte[] dest, int destOffset) {
+    writeBuffers.read(keyRef + KEY_HEADER_SIZE, dest, destOffset, getKeyLength(keyRef));
+  }
+
+  public void clear() {
+    writeBuffers.clear();
+    keyCount = 0;
+    valueCount = 0;
+    clearIndex();
+  }
+
+  protected long writeKeyRecord(byte[] key, int keyOffset, int keyLength) {
+    long keyRef = writeBuffers.writeLong(0L);
+    writeBuffers.writeLong(0L);
+    writeBuffers.writeInt(0);
+    writeBuffers.writeInt(keyLength);
+    if (keyLength > 0) {
+      writeBuffers.write(key, keyOffset, keyLength);
+    }
+    keyCount++;
+    return keyRef;
+  }
+
+  /**
+   * Appends a value to the values of an existing key record.
+   */
+  public void appendValue(long keyRef, byte[] value, int valueOffset, int valueLength) {
+    long valueRef = writeBuffers.writeLong(0L);
+    writeBuffers.writeInt(valueLength);
+    if (valueLength > 0) {
+      writeBuffers.write(value, valueOffset, valueLength);
+    }
+    long lastValue = writeBuffers.readLong(keyRef + 8);
+    if (lastValue == 0) {
+      writeBuffers.setLong(keyRef, valueRef);
+    } else {
+      writeBuffers.setLong(lastValue, valueRef);
+    }
+    writeBuffers.setLong(keyRef + 8, valueRef);
+    writeBuffers.setInt(keyRef + 16, getValueCount(keyRef) + 1);
+    valueCount++;
+  }
+
+  protected boolean needsExpansion() {
+    return keyCount + 1 > capacity * loadFactor;
+  }
+
+  protected abstract int getIndexEntrySize();
+
+  protected abstract void clearIndex();
+
+  static int nextPowerOfTwo(int v) {
+    if (v > (1 << 30)) {
+      throw new IllegalArgumentException("Capacity too large: " + v);
+    }
+    return Integer.highestOneBit(v - 1) << 1;
+  }
+
+  /**
+   * Finalization step of murmur3; spreads the bits of a weak hash over the whole int.
+   */
+  static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  static int mix(long v) {
+    return mix((int) (v ^ (v >>> 32)));
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+/**
+ * Multi-value hash map from serialized keys to serialized values. The index is a pair of
+ * primitive arrays probed linearly; keys and values live in {@link WriteBuffers}.
+ */
+public class BytesBytesMultiHashMap extends AbstractMultiValueHashMap {
+
+  private long[] refs;
+  private int[] hashes;
+
+  public BytesBytesMultiHashMap(int initialCapacity, float loadFactor, int wbSize,
+      boolean offHeap) {
+    super(initialCapacity, loadFactor, wbSize, offHeap);
+    refs = new long[capacity];
+    hashes = new int[capacity];
+  }
+
+  public static int hash(byte[] key, int offset, int length) {
+    int hash = 1;
+    for (int i = offset; i < offset + length; i++) {
+      hash = (31 * hash) + key[i];
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Adds a value for the key; values of the same key are kept in insertion order.
+   */
+  public void put(byte[] key, int keyLength, byte[] value, int valueLength) {
+    appendValue(getOrCreateKeyRef(key, keyLength), value, 0, valueLength);
+  }
+
+  /**
+   * @return the key record for the key, which is added without values if not present yet
+   */
+  public long getOrCreateKeyRef(byte[] key, int keyLength) {
+    int hash = hash(key, 0, keyLength);
+    int slot = findSlot(key, keyLength, hash);
+    long keyRef = refs[slot];
+    if (keyRef == 0) {
+      if (needsExpansion()) {
+        expand();
+        slot = findSlot(key, keyLength, hash);
+      }
+      keyRef = writeKeyRecord(key, 0, keyLength);
+      refs[slot] = keyRef;
+      hashes[slot] = hash;
+    }
+    return keyRef;
+  }
+
+  /**
+   * @return the key record for the key, or 0 if the key is not present
+   */
+  public long getKeyRef(byte[] key, int keyLength) {
+    return refs[findSlot(key, keyLength, hash(key, 0, keyLength))];
+  }
+
+  /**
+   * @return key record stored in the given index slot, or 0 for an empty slot; used
+   *         together with {@link #getCapacity()} to iterate over all keys
+   */
+  public long getKeyRefAt(int slot) {
+    return refs[slot];
+  }
+
+  private int findSlot(byte[] key, int keyLength, int hash) {
+    int slot = hash & mask;
+    while (true) {
+      long ref = refs[slot];
+      if (ref == 0) {
+        return slot;
+      }
+      if (hashes[slot] == hash && getKeyLength(ref) == keyLength
+          && writeBuffers.isEqual(key, 0, ref + KEY_HEADER_SIZE, keyLength)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void expand() {
+    int newCapacity = nextPowerOfTwo(capacity << 1);
+    int newMask = newCapacity - 1;
+    long[] newRefs = new long[newCapacity];
+    int[] newHashes = new int[newCapacity];
+    for (int i = 0; i < capacity; i++) {
+      long ref = refs[i];
+      if (ref == 0) {
+        continue;
+      }
+      int slot = hashes[i] & newMask;
+      while (newRefs[slot] != 0) {
+        slot = (slot + 1) & newMask;
+      }
+      newRefs[slot] = ref;
+      newHashes[slot] = hashes[i];
+    }
+    refs = newRefs;
+    hashes = newHashes;
+    capacity = newCapacity;
+    mask = newMask;
+  }
+
+  @Override
+  protected int getIndexEntrySize() {
+    return 8 + 4;
+  }
+
+  @Override
+  protected void clearIndex() {
+    refs = new long[capacity];
+    hashes = new int[capacity];
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+/**
+ * Multi-value hash map specialized for a single integral join key. Keys are kept unboxed in
+ * the index itself, so probing never touches the slabs until a match is found.
+ */
+public class LongMultiHashMap extends AbstractMultiValueHashMap {
+
+  private long[] keys;
+  private long[] refs;
+
+  public LongMultiHashMap(int initialCapacity, float loadFactor, int wbSize, boolean offHeap) {
+    super(initialCapacity, loadFactor, wbSize, offHeap);
+    keys = new long[capacity];
+    refs = new long[capacity];
+  }
+
+  /**
+   * Adds a value for the key; values of the same key are kept in insertion order.
+   */
+  public void put(long key, byte[] value, int valueLength) {
+    appendValue(getOrCreateKeyRef(key), value, 0, valueLength);
+  }
+
+  /**
+   * @return the key record for the key, which is added without values if not present yet
+   */
+  public long getOrCreateKeyRef(long key) {
+    int slot = findSlot(key);
+    long keyRef = refs[slot];
+    if (keyRef == 0) {
+      if (needsExpansion()) {
+        expand();
+        slot = findSlot(key);
+      }
+      keyRef = writeKeyRecord(null, 0, 0);
+      keys[slot] = key;
+      refs[slot] = keyRef;
+    }
+    return keyRef;
+  }
+
+  /**
+   * @return the key record for the key, or 0 if the key is not present
+   */
+  public long getKeyRef(long key) {
+    return refs[findSlot(key)];
+  }
+
+  /**
+   * @return key record stored in the given index slot, or 0 for an empty slot
+   */
+  public long getKeyRefAt(int slot) {
+    return refs[slot];
+  }
+
+  public long getKeyAt(int slot) {
+    return keys[slot];
+  }
+
+  private int findSlot(long key) {
+    int slot = mix(key) & mask;
+    while (refs[slot] != 0 && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void expand() {
+    int newCapacity = nextPowerOfTwo(capacity << 1);
+    int newMask = newCapacity - 1;
+    long[] newKeys = new long[newCapacity];
+    long[] newRefs = new long[newCapacity];
+    for (int i = 0; i < capacity; i++) {
+      if (refs[i] == 0) {
+        continue;
+      }
+      int slot = mix(keys[i]) & newMask;
+      while (newRefs[slot] != 0) {
+        slot = (slot + 1) & newMask;
+      }
+      newKeys[slot] = keys[i];
+      newRefs[slot] = refs[i];
+    }
+    keys = newKeys;
+    refs = newRefs;
+    capacity = newCapacity;
+    mask = newMask;
+  }
+
+  @Override
+  protected int getIndexEntrySize() {
+    return 8 + 8;
+  }
+
+  @Override
+  protected void clearIndex() {
+    keys = new long[capacity];
+    refs = new long[capacity];
+  }
+}
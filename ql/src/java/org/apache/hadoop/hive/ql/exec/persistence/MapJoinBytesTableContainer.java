@@ -0,0 +1,578 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.io.ByteWritable;
+import org.apache.hadoop.hive.serde2.io.ShortWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Table container that keeps the small table in serialized form. Keys and rows are
+ * serialized with the map join SerDes into large contiguous slabs (optionally off-heap) and
+ * indexed by an open-addressing hash table, instead of one HashMap entry with boxed writables
+ * per key. Single integral keys use a specialized index that stores the key unboxed.
+ *
+ * {@link #get(MapJoinKey)} returns a container over the stored rows of the key, which are
+ * deserialized one at a time as it is iterated. {@link #entrySet()} materializes the whole
+ * table and is only meant for persistence and tests.
+ */
+@SuppressWarnings("deprecation")
+public class MapJoinBytesTableContainer extends AbstractMapJoinTableContainer {
+
+  private static final String CAPACITY_NAME = "capacity";
+  private static final String LOAD_NAME = "load";
+  private static final String WB_SIZE_NAME = "wbsize";
+  private static final String OFF_HEAP_NAME = "offheap";
+
+  private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+
+  private final int initialCapacity;
+  private final float loadFactor;
+  private final int wbSize;
+  private final boolean offHeap;
+
+  private MapJoinObjectSerDeContext keyContext;
+  private MapJoinObjectSerDeContext valueContext;
+  private PrimitiveObjectInspector longKeyInspector;
+
+  // used for integral single-column keys
+  private LongMultiHashMap longMap;
+  // used for all other keys, and for null keys when longMap is in use
+  private BytesBytesMultiHashMap bytesMap;
+
+  private final DataOutputBuffer output = new DataOutputBuffer();
+  private final DataInputBuffer input = new DataInputBuffer();
+  private byte[] valueBuffer = new byte[128];
+  private Writable keyContainer;
+  private Writable valueContainer;
+
+  public MapJoinBytesTableContainer(int initialCapacity, float loadFactor, int wbSize,
+      boolean offHeap, MapJoinObjectSerDeContext keyContext,
+      MapJoinObjectSerDeContext valueContext) throws SerDeException {
+    this(createConstructorMetaData(initialCapacity, loadFactor, wbSize, offHeap));
+    setSerde(keyContext, valueContext);
+  }
+
+  public MapJoinBytesTableContainer(Map<String, String> metaData) {
+    super(metaData);
+    this.initialCapacity = Integer.parseInt(metaData.get(CAPACITY_NAME));
+    this.loadFactor = Float.parseFloat(metaData.get(LOAD_NAME));
+    this.wbSize = Integer.parseInt(metaData.get(WB_SIZE_NAME));
+    this.offHeap = Boolean.parseBoolean(metaData.get(OFF_HEAP_NAME));
+  }
+
+  /**
+   * Sets the SerDes used to serialize keys and rows. Must be called before the container is
+   * used when it was created from its meta data.
+   */
+  public void setSerde(MapJoinObjectSerDeContext keyContext,
+      MapJoinObjectSerDeContext valueContext) throws SerDeException {
+    if (size() > 0) {
+      throw new IllegalStateException("Cannot change SerDes of a non-empty container");
+    }
+    this.keyContext = keyContext;
+    this.valueContext = valueContext;
+    try {
+      keyContainer = keyContext.getSerDe().getSerializedClass().newInstance();
+      valueContainer = valueContext.getSerDe().getSerializedClass().newInstance();
+    } catch (Exception e) {
+      throw new SerDeException("Cannot create serialized container", e);
+    }
+    longKeyInspector = getLongKeyInspector(keyContext.getStandardOI());
+    longMap = longKeyInspector == null ? null
+        : new LongMultiHashMap(initialCapacity, loadFactor, wbSize, offHeap);
+    bytesMap = null;
+    if (longMap == null) {
+      bytesMap = createBytesMap(initialCapacity);
+    }
+  }
+
+  private static PrimitiveObjectInspector getLongKeyInspector(ObjectInspector keyOI) {
+    if (!(keyOI instanceof StructObjectInspector)) {
+      return null;
+    }
+    List<? extends StructField> fields = ((StructObjectInspector) keyOI).getAllStructFieldRefs();
+    if (fields.size() != 1) {
+      return null;
+    }
+    ObjectInspector fieldOI = fields.get(0).getFieldObjectInspector();
+    if (!(fieldOI instanceof PrimitiveObjectInspector)) {
+      return null;
+    }
+    switch (((PrimitiveObjectInspector) fieldOI).getPrimitiveCategory()) {
+    case LONG:
+    case INT:
+    case SHORT:
+    case BYTE:
+      return (PrimitiveObjectInspector) fieldOI;
+    default:
+      return null;
+    }
+  }
+
+  private BytesBytesMultiHashMap createBytesMap(int capacity) {
+    return new BytesBytesMultiHashMap(capacity, loadFactor, wbSize, offHeap);
+  }
+
+  /**
+   * @return whether keys are indexed by the specialized single integral key path
+   */
+  public boolean hasLongKeys() {
+    return longMap != null;
+  }
+
+  @Override
+  public MapJoinRowContainer get(MapJoinKey key) {
+    try {
+      Object[] keyObjects = key.getKey();
+      AbstractMultiValueHashMap map;
+      long keyRef;
+      if (longMap != null && keyObjects.length == 1 && keyObjects[0] != null) {
+        map = longMap;
+        keyRef = longMap.getKeyRef(PrimitiveObjectInspectorUtils.getLong(keyObjects[0],
+            longKeyInspector));
+      } else {
+        if (bytesMap == null) {
+          return null;
+        }
+        map = bytesMap;
+        int length = serialize(keyContext, keyObjects);
+        keyRef = bytesMap.getKeyRef(output.getData(), length);
+      }
+      if (keyRef == 0) {
+        return null;
+      }
+      return new LazyRowContainer(map, keyRef);
+    } catch (SerDeException e) {
+      throw new RuntimeException("Cannot probe map join table", e);
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot probe map join table", e);
+    }
+  }
+
+  /**
+   * Looks up a non-null integral key without boxing it. Only valid when
+   * {@link #hasLongKeys()} is true.
+   *
+   * @return the rows of the key, or null if the key is not present
+   */
+  public MapJoinRowContainer get(long key) {
+    long keyRef = longMap.getKeyRef(key);
+    return keyRef == 0 ? null : new LazyRowContainer(longMap, keyRef);
+  }
+
+  /**
+   * Appends the rows of value to the rows already stored for key.
+   */
+  @Override
+  public void put(MapJoinKey key, MapJoinRowContainer value) {
+    for (List<Object> row = value.first(); row != null; row = value.next()) {
+      putRow(key, row.toArray());
+    }
+  }
+
+  /**
+   * Appends a single row for key.
+   */
+  public void putRow(MapJoinKey key, Object[] row) {
+    try {
+      int valueLength = 0;
+      if (row.length > 0) {
+        valueLength = serialize(valueContext, row);
+        ensureValueBuffer(valueLength);
+        System.arraycopy(output.getData(), 0, valueBuffer, 0, valueLength);
+      }
+      Object[] keyObjects = key.getKey();
+      if (longMap != null && keyObjects.length == 1 && keyObjects[0] != null) {
+        longMap.put(PrimitiveObjectInspectorUtils.getLong(keyObjects[0], longKeyInspector),
+            valueBuffer, valueLength);
+      } else {
+        if (bytesMap == null) {
+          bytesMap = createBytesMap(16);
+        }
+        int keyLength = serialize(keyContext, keyObjects);
+        bytesMap.put(output.getData(), keyLength, valueBuffer, valueLength);
+      }
+    } catch (SerDeException e) {
+      throw new RuntimeException("Cannot add row to map join table", e);
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot add row to map join table", e);
+    }
+  }
+
+  @Override
+  public int size() {
+    return (longMap == null ? 0 : longMap.size()) + (bytesMap == null ? 0 : bytesMap.size());
+  }
+
+  /**
+   * @return approximate number of bytes held by the indexes and slabs
+   */
+  public long getMemorySize() {
+    return (longMap == null ? 0 : longMap.getMemorySize())
+        + (bytesMap == null ? 0 : bytesMap.getMemorySize());
+  }
+
+  /**
+   * @return number of bytes held by the slabs outside the heap
+   */
+  public long getOffHeapMemorySize() {
+    if (!offHeap) {
+      return 0;
+    }
+    return (longMap == null ? 0 : longMap.getWriteBuffers().size())
+        + (bytesMap == null ? 0 : bytesMap.getWriteBuffers().size());
+  }
+
+  @Override
+  public Set<Entry<MapJoinKey, MapJoinRowContainer>> entrySet() {
+    Map<MapJoinKey, MapJoinRowContainer> result =
+        new LinkedHashMap<MapJoinKey, MapJoinRowContainer>(size());
+    try {
+      if (longMap != null) {
+        for (int slot = 0; slot < longMap.getCapacity(); slot++) {
+          long keyRef = longMap.getKeyRefAt(slot);
+          if (keyRef != 0) {
+            MapJoinKey key = new MapJoinKey(new Object[] {toWritable(longMap.getKeyAt(slot))});
+            result.put(key, readRows(longMap, keyRef));
+          }
+        }
+      }
+      if (bytesMap != null) {
+        byte[] keyBytes = new byte[0];
+        for (int slot = 0; slot < bytesMap.getCapacity(); slot++) {
+          long keyRef = bytesMap.getKeyRefAt(slot);
+          if (keyRef == 0) {
+            continue;
+          }
+          int keyLength = bytesMap.getKeyLength(keyRef);
+          if (keyBytes.length < keyLength) {
+            keyBytes = new byte[keyLength];
+          }
+          bytesMap.readKey(keyRef, keyBytes, 0);
+          deserialize(keyBytes, keyLength, keyContainer);
+          MapJoinKey key = new MapJoinKey();
+          key.read(keyContext, keyContainer);
+          result.put(key, readRows(bytesMap, keyRef));
+        }
+      }
+    } catch (SerDeException e) {
+      throw new RuntimeException("Cannot read map join table", e);
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot read map join table", e);
+    }
+    return result.entrySet();
+  }
+
+  /**
+   * Writes keys and rows in the binary dump layout of {@link MapJoinTableContainerSerDe},
+   * copying them straight out of the slabs.
+   */
+  public void writeBinary(DataOutput out) throws IOException {
+    if (longMap == null) {
+      out.writeInt(0);
+    } else {
+      out.writeInt(longMap.size());
+      for (int slot = 0; slot < longMap.getCapacity(); slot++) {
+        long keyRef = longMap.getKeyRefAt(slot);
+        if (keyRef != 0) {
+          out.writeLong(longMap.getKeyAt(slot));
+          writeValues(out, longMap, keyRef);
+        }
+      }
+    }
+    if (bytesMap == null) {
+      out.writeInt(0);
+    } else {
+      out.writeInt(bytesMap.size());
+      byte[] keyBytes = new byte[0];
+      for (int slot = 0; slot < bytesMap.getCapacity(); slot++) {
+        long keyRef = bytesMap.getKeyRefAt(slot);
+        if (keyRef == 0) {
+          continue;
+        }
+        int keyLength = bytesMap.getKeyLength(keyRef);
+        if (keyBytes.length < keyLength) {
+          keyBytes = new byte[keyLength];
+        }
+        bytesMap.readKey(keyRef, keyBytes, 0);
+        WritableUtils.writeVInt(out, keyLength);
+        out.write(keyBytes, 0, keyLength);
+        writeValues(out, bytesMap, keyRef);
+      }
+    }
+  }
+
+  private void writeValues(DataOutput out, AbstractMultiValueHashMap map, long keyRef)
+      throws IOException {
+    WritableUtils.writeVInt(out, map.getValueCount(keyRef));
+    for (long valueRef = map.firstValue(keyRef); valueRef != 0;
+        valueRef = map.nextValue(valueRef)) {
+      int length = map.getValueLength(valueRef);
+      ensureValueBuffer(length);
+      map.readValue(valueRef, valueBuffer, 0);
+      WritableUtils.writeVInt(out, length);
+      out.write(valueBuffer, 0, length);
+    }
+  }
+
+  /**
+   * Bulk-loads keys and rows written by {@link #writeBinary(DataOutput)}, or by
+   * {@link MapJoinTableContainerSerDe} for other containers. Rows are copied into the slabs
+   * as they are, without being deserialized.
+   */
+  public void readBinary(DataInput in) throws IOException, SerDeException {
+    int numLongKeys = in.readInt();
+    if (numLongKeys > 0 && longMap == null) {
+      throw new IOException("Dump contains integral keys, but key type is "
+          + keyContext.getStandardOI().getTypeName());
+    }
+    for (int keyIndex = 0; keyIndex < numLongKeys; keyIndex++) {
+      long keyRef = longMap.getOrCreateKeyRef(in.readLong());
+      readValues(in, longMap, keyRef);
+    }
+    int numBytesKeys = in.readInt();
+    byte[] keyBytes = new byte[0];
+    for (int keyIndex = 0; keyIndex < numBytesKeys; keyIndex++) {
+      int keyLength = WritableUtils.readVInt(in);
+      if (keyBytes.length < keyLength) {
+        keyBytes = new byte[keyLength];
+      }
+      in.readFully(keyBytes, 0, keyLength);
+      if (longMap != null) {
+        // only null keys are kept serialized when keys are integral
+        deserialize(keyBytes, keyLength, keyContainer);
+        MapJoinKey key = new MapJoinKey();
+        key.read(keyContext, keyContainer);
+        Object[] keyObjects = key.getKey();
+        if (keyObjects.length == 1 && keyObjects[0] != null) {
+          long keyRef = longMap.getOrCreateKeyRef(
+              PrimitiveObjectInspectorUtils.getLong(keyObjects[0], longKeyInspector));
+          readValues(in, longMap, keyRef);
+          continue;
+        }
+      }
+      if (bytesMap == null) {
+        bytesMap = createBytesMap(16);
+      }
+      readValues(in, bytesMap, bytesMap.getOrCreateKeyRef(keyBytes, keyLength));
+    }
+  }
+
+  private void readValues(DataInput in, AbstractMultiValueHashMap map, long keyRef)
+      throws IOException {
+    int numValues = WritableUtils.readVInt(in);
+    for (int valueIndex = 0; valueIndex < numValues; valueIndex++) {
+      int length = WritableUtils.readVInt(in);
+      ensureValueBuffer(length);
+      in.readFully(valueBuffer, 0, length);
+      map.appendValue(keyRef, valueBuffer, 0, length);
+    }
+  }
+
+  private void ensureValueBuffer(int length) {
+    if (valueBuffer.length < length) {
+      valueBuffer = new byte[Math.max(length, valueBuffer.length * 2)];
+    }
+  }
+
+  @Override
+  public void clear() {
+    if (longMap != null) {
+      longMap.clear();
+    }
+    if (bytesMap != null) {
+      bytesMap.clear();
+    }
+  }
+
+  private MapJoinRowContainer readRows(AbstractMultiValueHashMap map, long keyRef)
+      throws SerDeException, IOException {
+    MapJoinRowContainer rows = new MapJoinRowContainer();
+    for (long valueRef = map.firstValue(keyRef); valueRef != 0;
+        valueRef = map.nextValue(valueRef)) {
+      readRow(map, valueRef, rows);
+    }
+    return rows;
+  }
+
+  /**
+   * Deserializes the row at valueRef and adds it to rows.
+   */
+  private void readRow(AbstractMultiValueHashMap map, long valueRef, MapJoinRowContainer rows)
+      throws SerDeException, IOException {
+    int length = map.getValueLength(valueRef);
+    if (length == 0) {
+      rows.add(EMPTY_OBJECT_ARRAY);
+      return;
+    }
+    ensureValueBuffer(length);
+    map.readValue(valueRef, valueBuffer, 0);
+    deserialize(valueBuffer, length, valueContainer);
+    rows.read(valueContext, valueContainer);
+  }
+
+  /**
+   * The rows of one key, read from the slabs one at a time as they are iterated. Only the
+   * current row is kept on the heap, so a probe allocates no more than this container.
+   */
+  private class LazyRowContainer extends MapJoinRowContainer {
+    private final AbstractMultiValueHashMap map;
+    private final long keyRef;
+    private final MapJoinRowContainer current = new MapJoinRowContainer();
+    private long valueRef;
+    private boolean hasAliasFilter;
+    private byte aliasFilter;
+
+    LazyRowContainer(AbstractMultiValueHashMap map, long keyRef) {
+      this.map = map;
+      this.keyRef = keyRef;
+    }
+
+    @Override
+    public void add(List<Object> t) {
+      throw new UnsupportedOperationException("Rows of a map join table are read only");
+    }
+
+    @Override
+    public List<Object> first() {
+      valueRef = map.firstValue(keyRef);
+      return readCurrent();
+    }
+
+    @Override
+    public List<Object> next() {
+      if (valueRef != 0) {
+        valueRef = map.nextValue(valueRef);
+      }
+      return readCurrent();
+    }
+
+    private List<Object> readCurrent() {
+      if (valueRef == 0) {
+        return null;
+      }
+      current.clear();
+      try {
+        readRow(map, valueRef, current);
+      } catch (SerDeException e) {
+        throw new RuntimeException("Cannot read map join row", e);
+      } catch (IOException e) {
+        throw new RuntimeException("Cannot read map join row", e);
+      }
+      return current.first();
+    }
+
+    @Override
+    public long size() {
+      return map.getValueCount(keyRef);
+    }
+
+    @Override
+    public void clear() {
+      valueRef = 0;
+    }
+
+    @Override
+    public byte getAliasFilter() {
+      if (!valueContext.hasFilterTag()) {
+        return (byte) 0xff;
+      }
+      if (!hasAliasFilter) {
+        // the filter tags are only known once every row has been read
+        MapJoinRowContainer rows = new MapJoinRowContainer();
+        try {
+          for (long ref = map.firstValue(keyRef); ref != 0; ref = map.nextValue(ref)) {
+            readRow(map, ref, rows);
+            rows.clear();
+          }
+        } catch (SerDeException e) {
+          throw new RuntimeException("Cannot read map join row", e);
+        } catch (IOException e) {
+          throw new RuntimeException("Cannot read map join row", e);
+        }
+        aliasFilter = rows.getAliasFilter();
+        hasAliasFilter = true;
+      }
+      return aliasFilter;
+    }
+
+    @Override
+    public MapJoinRowContainer copy() {
+      return new LazyRowContainer(map, keyRef);
+    }
+  }
+
+  private int serialize(MapJoinObjectSerDeContext context, Object[] row)
+      throws SerDeException, IOException {
+    return context.serialize(row, output);
+  }
+
+  private void deserialize(byte[] bytes, int length, Writable container) throws IOException {
+    MapJoinObjectSerDeContext.populate(container, bytes, length, input);
+  }
+
+  private Writable toWritable(long key) {
+    PrimitiveCategory category = longKeyInspector.getPrimitiveCategory();
+    switch (category) {
+    case LONG:
+      return new LongWritable(key);
+    case INT:
+      return new IntWritable((int) key);
+    case SHORT:
+      return new ShortWritable((short) key);
+    case BYTE:
+      return new ByteWritable((byte) key);
+    default:
+      throw new IllegalStateException("Unexpected key category " + category);
+    }
+  }
+
+  private static Map<String, String> createConstructorMetaData(int initialCapacity,
+      float loadFactor, int wbSize, boolean offHeap) {
+    Map<String, String> metaData = new HashMap<String, String>();
+    metaData.put(CAPACITY_NAME, String.valueOf(initialCapacity));
+    metaData.put(LOAD_NAME, String.valueOf(loadFactor));
+    metaData.put(WB_SIZE_NAME, String.valueOf(wbSize));
+    metaData.put(OFF_HEAP_NAME, String.valueOf(offHeap));
+    return metaData;
+  }
+}
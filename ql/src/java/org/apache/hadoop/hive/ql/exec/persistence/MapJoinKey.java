@@ -79,11 +79,18 @@ public boolean equals(Object obj) {
       return false;
     return true;
   }
-  @SuppressWarnings("unchecked")
   public void read(MapJoinObjectSerDeContext context, ObjectInputStream in, Writable container) 
   throws IOException, SerDeException {
-    SerDe serde = context.getSerDe();
     container.readFields(in);
+    read(context, container);
+  }
+
+  /**
+   * Deserializes the key out of an already populated serialized container.
+   */
+  @SuppressWarnings("unchecked")
+  public void read(MapJoinObjectSerDeContext context, Writable container) throws SerDeException {
+    SerDe serde = context.getSerDe();
     List<Object> value = (List<Object>)ObjectInspectorUtils.copyToStandardObject(serde.deserialize(container),
         serde.getObjectInspector(), ObjectInspectorCopyOption.WRITABLE);
     if(value == null) {
@@ -17,11 +17,17 @@
  */
 package org.apache.hadoop.hive.ql.exec.persistence;
 
+import java.io.IOException;
+
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
 
 @SuppressWarnings("deprecation")
 public class MapJoinObjectSerDeContext {
@@ -55,6 +61,38 @@ public boolean hasFilterTag() {
     return hasFilter;
   }
 
+  /**
+   * Serializes row with the standard object inspector into output, which is reset first.
+   * BytesWritable results are written without their length prefix.
+   *
+   * @return the number of serialized bytes
+   */
+  public int serialize(Object[] row, DataOutputBuffer output) throws SerDeException, IOException {
+    Writable writable = serde.serialize(row, standardOI);
+    output.reset();
+    if (writable instanceof BytesWritable) {
+      BytesWritable bytes = (BytesWritable) writable;
+      output.write(bytes.getBytes(), 0, bytes.getLength());
+    } else {
+      writable.write(output);
+    }
+    return output.getLength();
+  }
+
+  /**
+   * Populates container, an instance of the SerDe's serialized class, with bytes produced
+   * by {@link #serialize(Object[], DataOutputBuffer)}.
+   */
+  public static void populate(Writable container, byte[] bytes, int length,
+      DataInputBuffer input) throws IOException {
+    if (container instanceof BytesWritable) {
+      ((BytesWritable) container).set(bytes, 0, length);
+    } else {
+      input.reset(bytes, length);
+      container.readFields(input);
+    }
+  }
+
   @Override
   public String toString() {
     return "MapJoinObjectSerDeContext [standardOI=" + standardOI + ", serde=" + serde
@@ -105,25 +105,33 @@ public MapJoinRowContainer copy() {
     return result;
   }
   
-  @SuppressWarnings({"unchecked"})
   public void read(MapJoinObjectSerDeContext context, ObjectInputStream in, Writable container) 
   throws IOException, SerDeException {
     clear();
-    SerDe serde = context.getSerDe();
     long numRows = in.readLong();
     for (long rowIndex = 0L; rowIndex < numRows; rowIndex++) {
       container.readFields(in);      
-      List<Object> value = (List<Object>)ObjectInspectorUtils.copyToStandardObject(serde.deserialize(container),
-          serde.getObjectInspector(), ObjectInspectorCopyOption.WRITABLE);
-      if(value == null) {
-        add(toList(EMPTY_OBJECT_ARRAY));
-      } else {
-        Object[] valuesArray = value.toArray();
-        if (context.hasFilterTag()) {
-          aliasFilter &= ((ShortWritable)valuesArray[valuesArray.length - 1]).get();
-        }
-        add(toList(valuesArray));
+      read(context, container);
+    }
+  }
+
+  /**
+   * Deserializes a single row out of an already populated serialized container and adds it.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void read(MapJoinObjectSerDeContext context, Writable currentValue)
+  throws SerDeException {
+    SerDe serde = context.getSerDe();
+    List<Object> value = (List<Object>)ObjectInspectorUtils.copyToStandardObject(serde.deserialize(currentValue),
+        serde.getObjectInspector(), ObjectInspectorCopyOption.WRITABLE);
+    if(value == null) {
+      add(toList(EMPTY_OBJECT_ARRAY));
+    } else {
+      Object[] valuesArray = value.toArray();
+      if (context.hasFilterTag()) {
+        aliasFilter &= ((ShortWritable)valuesArray[valuesArray.length - 1]).get();
       }
+      add(toList(valuesArray));
     }
   }
   
@@ -18,21 +18,54 @@
 
 package org.apache.hadoop.hive.ql.exec.persistence;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Constructor;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 
+/**
+ * Persists and loads map join table containers. Two layouts are supported: the original one
+ * based on Java serialization, and a versioned binary layout in which keys and rows are
+ * written as length-prefixed bytes produced by the map join SerDes:
+ *
+ * <pre>
+ *   int magic, int version, UTF container class,
+ *   int metaDataSize, (UTF name, UTF value) * metaDataSize,
+ *   int numLongKeys, (long key, rows) * numLongKeys,
+ *   int numKeys, (vint keyLength, key bytes, rows) * numKeys
+ * where rows is
+ *   vint numRows, (vint rowLength, row bytes) * numRows
+ * </pre>
+ *
+ * Integral keys are only written by {@link MapJoinBytesTableContainer}, which also loads
+ * the rows without deserializing them. Rows with no columns are written with length 0.
+ */
 @SuppressWarnings("deprecation")
 public class MapJoinTableContainerSerDe {
-  
+
+  /**
+   * First bytes of the binary layout ("HMJT"); an ObjectOutputStream starts with 0xACED.
+   */
+  public static final int BINARY_MAGIC = 0x484D4A54;
+  public static final int BINARY_VERSION = 1;
+
+  private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+
   private final MapJoinObjectSerDeContext keyContext;
   private final MapJoinObjectSerDeContext valueContext;
   public MapJoinTableContainerSerDe(MapJoinObjectSerDeContext keyContext,
@@ -50,10 +83,15 @@ public MapJoinTableContainer load(ObjectInputStream in)
       String name = in.readUTF();
       Map<String, String> metaData = (Map<String, String>) in.readObject();
       tableContainer = create(name, metaData);      
+      if (tableContainer instanceof MapJoinBytesTableContainer) {
+        ((MapJoinBytesTableContainer) tableContainer).setSerde(keyContext, valueContext);
+      }
     } catch (IOException e) {
       throw new HiveException("IO error while trying to create table container", e);
     } catch (ClassNotFoundException e) {
       throw new HiveException("Class Initialization error while trying to create table container", e);
+    } catch (SerDeException e) {
+      throw new HiveException("SerDe error while trying to create table container", e);
     }
     try {
       Writable keyContainer = keySerDe.getSerializedClass().newInstance();
@@ -96,6 +134,137 @@ public void persist(ObjectOutputStream out, MapJoinTableContainer tableContainer
     }
   }
   
+  /**
+   * @return whether the stream starts with the binary layout; the stream is not advanced
+   */
+  public static boolean isBinaryFormat(BufferedInputStream in) throws IOException {
+    in.mark(4);
+    try {
+      int magic = 0;
+      for (int i = 0; i < 4; i++) {
+        int b = in.read();
+        if (b < 0) {
+          return false;
+        }
+        magic = (magic << 8) | b;
+      }
+      return magic == BINARY_MAGIC;
+    } finally {
+      in.reset();
+    }
+  }
+
+  public void persistBinary(DataOutputStream out, MapJoinTableContainer tableContainer)
+      throws HiveException {
+    int numKeys = tableContainer.size();
+    try {
+      out.writeInt(BINARY_MAGIC);
+      out.writeInt(BINARY_VERSION);
+      out.writeUTF(tableContainer.getClass().getName());
+      Map<String, String> metaData = tableContainer.getMetaData();
+      out.writeInt(metaData.size());
+      for (Map.Entry<String, String> entry : metaData.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      }
+      if (tableContainer instanceof MapJoinBytesTableContainer) {
+        ((MapJoinBytesTableContainer) tableContainer).writeBinary(out);
+      } else {
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        out.writeInt(0);
+        out.writeInt(numKeys);
+        for (Map.Entry<MapJoinKey, MapJoinRowContainer> entry : tableContainer.entrySet()) {
+          int length = keyContext.serialize(entry.getKey().getKey(), buffer);
+          WritableUtils.writeVInt(out, length);
+          out.write(buffer.getData(), 0, length);
+          MapJoinRowContainer rows = entry.getValue();
+          WritableUtils.writeVInt(out, (int) rows.size());
+          for (List<Object> row = rows.first(); row != null; row = rows.next()) {
+            length = row.isEmpty() ? 0 : valueContext.serialize(row.toArray(), buffer);
+            WritableUtils.writeVInt(out, length);
+            out.write(buffer.getData(), 0, length);
+          }
+        }
+      }
+    } catch (SerDeException e) {
+      String msg = "SerDe error while attempting to persist table container";
+      throw new HiveException(msg, e);
+    } catch(IOException e) {
+      String msg = "IO error while attempting to persist table container";
+      throw new HiveException(msg, e);
+    }
+    if(numKeys != tableContainer.size()) {
+      throw new ConcurrentModificationException("TableContainer was modified while persisting: " + tableContainer);
+    }
+  }
+
+  public MapJoinTableContainer loadBinary(DataInputStream in) throws HiveException {
+    MapJoinTableContainer tableContainer;
+    try {
+      int magic = in.readInt();
+      int version = in.readInt();
+      if (magic != BINARY_MAGIC || version != BINARY_VERSION) {
+        throw new HiveException("Unsupported table container format: magic " + magic
+            + ", version " + version);
+      }
+      String name = in.readUTF();
+      int metaDataSize = in.readInt();
+      Map<String, String> metaData = new HashMap<String, String>();
+      for (int i = 0; i < metaDataSize; i++) {
+        String key = in.readUTF();
+        metaData.put(key, in.readUTF());
+      }
+      tableContainer = create(name, metaData);
+      if (tableContainer instanceof MapJoinBytesTableContainer) {
+        MapJoinBytesTableContainer bytesContainer = (MapJoinBytesTableContainer) tableContainer;
+        bytesContainer.setSerde(keyContext, valueContext);
+        bytesContainer.readBinary(in);
+        return tableContainer;
+      }
+      if (in.readInt() != 0) {
+        throw new HiveException("Integral keys are not supported by " + name);
+      }
+      Writable keyContainer = keyContext.getSerDe().getSerializedClass().newInstance();
+      Writable valueContainer = valueContext.getSerDe().getSerializedClass().newInstance();
+      DataInputBuffer input = new DataInputBuffer();
+      byte[] buffer = new byte[128];
+      int numKeys = in.readInt();
+      for (int keyIndex = 0; keyIndex < numKeys; keyIndex++) {
+        int length = WritableUtils.readVInt(in);
+        buffer = ensureCapacity(buffer, length);
+        in.readFully(buffer, 0, length);
+        MapJoinObjectSerDeContext.populate(keyContainer, buffer, length, input);
+        MapJoinKey key = new MapJoinKey();
+        key.read(keyContext, keyContainer);
+        MapJoinRowContainer values = new MapJoinRowContainer();
+        int numRows = WritableUtils.readVInt(in);
+        for (int rowIndex = 0; rowIndex < numRows; rowIndex++) {
+          length = WritableUtils.readVInt(in);
+          if (length == 0) {
+            values.add(EMPTY_OBJECT_ARRAY);
+            continue;
+          }
+          buffer = ensureCapacity(buffer, length);
+          in.readFully(buffer, 0, length);
+          MapJoinObjectSerDeContext.populate(valueContainer, buffer, length, input);
+          values.read(valueContext, valueContainer);
+        }
+        tableContainer.put(key, values);
+      }
+      return tableContainer;
+    } catch (HiveException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new HiveException("IO error while trying to create table container", e);
+    } catch (Exception e) {
+      throw new HiveException("Error while trying to create table container", e);
+    }
+  }
+
+  private static byte[] ensureCapacity(byte[] buffer, int length) {
+    return buffer.length < length ? new byte[Math.max(length, buffer.length * 2)] : buffer;
+  }
+
   public static void persistDummyTable(ObjectOutputStream out) throws IOException {
     MapJoinTableContainer tableContainer = new HashMapWrapper();
     out.writeUTF(tableContainer.getClass().getName());
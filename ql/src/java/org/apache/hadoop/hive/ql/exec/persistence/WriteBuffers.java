@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only sequence of large fixed-size byte slabs, addressed by a single long offset.
+ * Slabs are either heap byte arrays or direct (off-heap) buffers; records may span slab
+ * boundaries. Offset 0 is never handed out so that callers can use it as a "no record" marker.
+ */
+public final class WriteBuffers {
+
+  private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+  private final int wbSize;
+  private final int wbSizeLog2;
+  private final long offsetMask;
+  private final boolean offHeap;
+  private long writePos;
+
+  /**
+   * @param wbSize
+   *          requested slab size; rounded up to the next power of two
+   * @param offHeap
+   *          whether slabs are allocated as direct buffers outside of the Java heap
+   */
+  public WriteBuffers(int wbSize, boolean offHeap) {
+    int size = Integer.highestOneBit(Math.max(wbSize, 64) - 1) << 1;
+    this.wbSize = size;
+    this.wbSizeLog2 = Integer.numberOfTrailingZeros(size);
+    this.offsetMask = size - 1;
+    this.offHeap = offHeap;
+    clear();
+  }
+
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * @return the offset at which the next write will land
+   */
+  public long getWritePosition() {
+    return writePos;
+  }
+
+  /**
+   * @return total number of bytes allocated for the slabs
+   */
+  public long size() {
+    return (long) buffers.size() * wbSize;
+  }
+
+  public void clear() {
+    buffers.clear();
+    writePos = 0;
+    // reserve offset 0
+    write((byte) 0);
+  }
+
+  public long write(byte[] src, int offset, int length) {
+    long start = writePos;
+    while (length > 0) {
+      ByteBuffer buffer = bufferForWrite();
+      int pos = (int) (writePos & offsetMask);
+      int toCopy = Math.min(length, wbSize - pos);
+      if (buffer.hasArray()) {
+        System.arraycopy(src, offset, buffer.array(), buffer.arrayOffset() + pos, toCopy);
+      } else {
+        buffer.position(pos);
+        buffer.put(src, offset, toCopy);
+      }
+      offset += toCopy;
+      length -= toCopy;
+      writePos += toCopy;
+    }
+    return start;
+  }
+
+  public long write(byte b) {
+    long start = writePos;
+    bufferForWrite().put((int) (writePos & offsetMask), b);
+    writePos++;
+    return start;
+  }
+
+  public long writeInt(int v) {
+    long start = writePos;
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      write((byte) (v >>> shift));
+    }
+    return start;
+  }
+
+  public long writeLong(long v) {
+    long start = writePos;
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      write((byte) (v >>> shift));
+    }
+    return start;
+  }
+
+  /**
+   * Overwrites an int at an offset that has already been written.
+   */
+  public void setInt(long offset, int v) {
+    ByteBuffer buffer = buffers.get(bufferIndex(offset));
+    int pos = (int) (offset & offsetMask);
+    if (pos + 4 <= wbSize) {
+      buffer.putInt(pos, v);
+      return;
+    }
+    for (int i = 0, shift = 24; i < 4; i++, shift -= 8) {
+      setByte(offset + i, (byte) (v >>> shift));
+    }
+  }
+
+  /**
+   * Overwrites a long at an offset that has already been written.
+   */
+  public void setLong(long offset, long v) {
+    ByteBuffer buffer = buffers.get(bufferIndex(offset));
+    int pos = (int) (offset & offsetMask);
+    if (pos + 8 <= wbSize) {
+      buffer.putLong(pos, v);
+      return;
+    }
+    for (int i = 0, shift = 56; i < 8; i++, shift -= 8) {
+      setByte(offset + i, (byte) (v >>> shift));
+    }
+  }
+
+  public byte readByte(long offset) {
+    return buffers.get(bufferIndex(offset)).get((int) (offset & offsetMask));
+  }
+
+  public int readInt(long offset) {
+    ByteBuffer buffer = buffers.get(bufferIndex(offset));
+    int pos = (int) (offset & offsetMask);
+    if (pos + 4 <= wbSize) {
+      return buffer.getInt(pos);
+    }
+    int v = 0;
+    for (int i = 0; i < 4; i++) {
+      v = (v << 8) | (readByte(offset + i) & 0xff);
+    }
+    return v;
+  }
+
+  public long readLong(long offset) {
+    ByteBuffer buffer = buffers.get(bufferIndex(offset));
+    int pos = (int) (offset & offsetMask);
+    if (pos + 8 <= wbSize) {
+      return buffer.getLong(pos);
+    }
+    long v = 0;
+    for (int i = 0; i < 8; i++) {
+      v = (v << 8) | (readByte(offset + i) & 0xff);
+    }
+    return v;
+  }
+
+  /**
+   * Copies length bytes starting at offset into dest.
+   */
+  public void read(long offset, byte[] dest, int destOffset, int length) {
+    while (length > 0) {
+      ByteBuffer buffer = buffers.get(bufferIndex(offset));
+      int pos = (int) (offset & offsetMask);
+      int toCopy = Math.min(length, wbSize - pos);
+      if (buffer.hasArray()) {
+        System.arraycopy(buffer.array(), buffer.arrayOffset() + pos, dest, destOffset, toCopy);
+      } else {
+        buffer.position(pos);
+        buffer.get(dest, destOffset, toCopy);
+      }
+      offset += toCopy;
+      destOffset += toCopy;
+      length -= toCopy;
+    }
+  }
+
+  /**
+   * Compares length bytes at offset with the given array without copying them out.
+   */
+  public boolean isEqual(byte[] left, int leftOffset, long offset, int length) {
+    while (length > 0) {
+      ByteBuffer buffer = buffers.get(bufferIndex(offset));
+      int pos = (int) (offset & offsetMask);
+      int toCompare = Math.min(length, wbSize - pos);
+      if (buffer.hasArray()) {
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset() + pos;
+        for (int i = 0; i < toCompare; i++) {
+          if (array[base + i] != left[leftOffset + i]) {
+            return false;
+          }
+        }
+      } else {
+        for (int i = 0; i < toCompare; i++) {
+          if (buffer.get(pos + i) != left[leftOffset + i]) {
+            return false;
+          }
+        }
+      }
+      offset += toCompare;
+      leftOffset += toCompare;
+      length -= toCompare;
+    }
+    return true;
+  }
+
+  private void setByte(long offset, byte b) {
+    buffers.get(bufferIndex(offset)).put((int) (offset & offsetMask), b);
+  }
+
+  private int bufferIndex(long offset) {
+    return (int) (offset >>> wbSizeLog2);
+  }
+
+  private ByteBuffer bufferForWrite() {
+    int index = bufferIndex(writePos);
+    if (index == buffers.size()) {
+      buffers.add(offHeap ? ByteBuffer.allocateDirect(wbSize) : ByteBuffer.allocate(wbSize));
+    }
+    return buffers.get(index);
+  }
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.math.BigDecimal;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Writable;
+
+/**
+ * This class represents a nullable decimal column vector.
+ * Every value of the column shares the declared scale, so each entry is stored as its
+ * unscaled value in the long vector inherited from {@link LongColumnVector}. A decimal(10,2)
+ * value of 12.34 is therefore held as 1234. Only precisions that fit in a signed 64-bit
+ * long (up to {@link #MAX_PRECISION} digits) can be represented this way; wider decimals
+ * are not vectorized.
+ *
+ * Because the storage is a plain long vector, null handling, repeating values, hashing
+ * of group by keys and copying between batches all reuse the long column machinery.
+ * Only arithmetic and conversions need to be aware of the scale.
+ */
+public class DecimalColumnVector extends LongColumnVector {
+
+  /**
+   * Largest precision whose unscaled values always fit in a long.
+   */
+  public static final int MAX_PRECISION = 18;
+
+  /**
+   * Powers of ten that fit in a long, indexed by exponent.
+   */
+  public static final long[] POWERS_OF_TEN = new long[MAX_PRECISION + 1];
+  static {
+    long p = 1;
+    for (int i = 0; i <= MAX_PRECISION; i++) {
+      POWERS_OF_TEN[i] = p;
+      p *= 10;
+    }
+  }
+
+  public final int precision;
+  public final int scale;
+
+  /**
+   * Largest unscaled magnitude allowed by the precision of the column.
+   */
+  private final long maxUnscaled;
+
+  private final HiveDecimalWritable writableObj = new HiveDecimalWritable();
+
+  public DecimalColumnVector(int precision, int scale) {
+    this(VectorizedRowBatch.DEFAULT_SIZE, precision, scale);
+  }
+
+  /**
+   * Don't use this except for testing purposes.
+   */
+  public DecimalColumnVector(int len, int precision, int scale) {
+    super(len);
+    if (precision > MAX_PRECISION || scale > precision || scale < 0) {
+      throw new IllegalArgumentException("Unsupported vector decimal type decimal("
+          + precision + "," + scale + ")");
+    }
+    this.precision = precision;
+    this.scale = scale;
+    this.maxUnscaled = POWERS_OF_TEN[precision] - 1;
+  }
+
+  /**
+   * Returns true if the given type name is a decimal that can be held in a
+   * DecimalColumnVector.
+   */
+  public static boolean isSupportedType(String typeName) {
+    if (!isDecimalType(typeName)) {
+      return false;
+    }
+    DecimalTypeInfo typeInfo = (DecimalTypeInfo) TypeInfoUtils.getTypeInfoFromTypeString(typeName);
+    return typeInfo.precision() <= MAX_PRECISION;
+  }
+
+  public static boolean isDecimalType(String typeName) {
+    return typeName != null && typeName.toLowerCase().startsWith("decimal");
+  }
+
+  /**
+   * Creates a column vector for a type name of the form decimal(p,s).
+   */
+  public static DecimalColumnVector create(String typeName) {
+    DecimalTypeInfo typeInfo = (DecimalTypeInfo) TypeInfoUtils.getTypeInfoFromTypeString(typeName);
+    return new DecimalColumnVector(typeInfo.precision(), typeInfo.scale());
+  }
+
+  public String getTypeName() {
+    return "decimal(" + precision + "," + scale + ")";
+  }
+
+  /**
+   * Rescales an unscaled value from one scale to another, rounding half up
+   * when digits are dropped.
+   *
+   * @return the rescaled value, or Long.MIN_VALUE if it does not fit in a long
+   */
+  public static long rescale(long unscaled, int fromScale, int toScale) {
+    if (fromScale == toScale) {
+      return unscaled;
+    }
+    if (toScale > fromScale) {
+      int diff = toScale - fromScale;
+      if (diff > MAX_PRECISION) {
+        return unscaled == 0 ? 0 : Long.MIN_VALUE;
+      }
+      long factor = POWERS_OF_TEN[diff];
+      long result = unscaled * factor;
+      if (unscaled != 0 && (result / factor != unscaled || result == Long.MIN_VALUE)) {
+        return Long.MIN_VALUE;
+      }
+      return result;
+    }
+    int diff = fromScale - toScale;
+    if (diff > MAX_PRECISION) {
+      return 0;
+    }
+    long factor = POWERS_OF_TEN[diff];
+    long quotient = unscaled / factor;
+    long remainder = unscaled % factor;
+    if (remainder >= (factor + 1) / 2) {
+      quotient++;
+    } else if (-remainder >= (factor + 1) / 2) {
+      quotient--;
+    }
+    return quotient;
+  }
+
+  /**
+   * Stores an unscaled value of the given scale at the row, rescaling it to the
+   * scale of the column. Values that overflow the precision of the column become null.
+   */
+  public void set(int elementNum, long unscaled, int valueScale) {
+    long value = rescale(unscaled, valueScale, scale);
+    if (value == Long.MIN_VALUE || value > maxUnscaled || value < -maxUnscaled) {
+      setNull(elementNum);
+    } else {
+      vector[elementNum] = value;
+    }
+  }
+
+  /**
+   * Stores a HiveDecimal at the row. Values that overflow the precision of the column
+   * become null.
+   */
+  public void set(int elementNum, HiveDecimal value) {
+    if (value == null) {
+      setNull(elementNum);
+      return;
+    }
+    BigDecimal bd = value.bigDecimalValue().setScale(scale, BigDecimal.ROUND_HALF_UP);
+    if (bd.precision() > precision && bd.signum() != 0) {
+      setNull(elementNum);
+    } else {
+      vector[elementNum] = bd.unscaledValue().longValue();
+    }
+  }
+
+  public void setNull(int elementNum) {
+    noNulls = false;
+    isNull[elementNum] = true;
+    vector[elementNum] = NULL_VALUE;
+  }
+
+  /**
+   * Returns true if the unscaled value is within the precision of the column.
+   */
+  public boolean fits(long unscaled) {
+    return unscaled <= maxUnscaled && unscaled >= -maxUnscaled;
+  }
+
+  public HiveDecimal getHiveDecimal(int elementNum) {
+    return HiveDecimal.create(BigDecimal.valueOf(vector[elementNum], scale));
+  }
+
+  @Override
+  public Writable getWritableObject(int index) {
+    if (this.isRepeating) {
+      index = 0;
+    }
+    if (!noNulls && isNull[index]) {
+      return NullWritable.get();
+    } else {
+      writableObj.set(getHiveDecimal(index));
+      return writableObj;
+    }
+  }
+}
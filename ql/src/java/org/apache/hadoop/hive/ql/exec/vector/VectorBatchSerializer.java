@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Serializes the rows of a batch the way a row mode SerDe would serialize them as a struct,
+ * but column by column: each column is written into all the rows of the batch by a loop over
+ * its vector, instead of going through ObjectInspectors for every value.
+ *
+ * Before the columns are written, each row is given room for the most bytes it can take, so
+ * the rows are not contiguous in the buffer. The buffer is reused across batches, and the
+ * serialized form of a row is only valid until the next batch is serialized.
+ */
+public abstract class VectorBatchSerializer {
+
+  /**
+   * The batch columns to serialize, in the order of the struct fields.
+   */
+  protected final int[] columns;
+
+  /**
+   * The types of the columns.
+   */
+  protected final PrimitiveCategory[] categories;
+
+  protected byte[] buffer = new byte[VectorizedRowBatch.DEFAULT_SIZE * 16];
+
+  /**
+   * The start of each row of the batch in the buffer.
+   */
+  protected int[] starts = new int[VectorizedRowBatch.DEFAULT_SIZE];
+
+  /**
+   * The end of each row of the batch in the buffer; the columns write at the end of the row,
+   * and move it.
+   */
+  protected int[] ends = new int[VectorizedRowBatch.DEFAULT_SIZE];
+
+  protected VectorBatchSerializer(int[] columns, PrimitiveCategory[] categories) {
+    this.columns = columns;
+    this.categories = categories;
+  }
+
+  /**
+   * Whether the values of the given type can be serialized from a batch.
+   */
+  public static boolean isSupported(TypeInfo typeInfo) {
+    if (typeInfo.getCategory() != Category.PRIMITIVE) {
+      return false;
+    }
+    switch (((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory()) {
+    case BOOLEAN:
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+    case STRING:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Serialize the rows of the batch. The row at position i in the batch, after selection, can
+   * then be read with {@link #getStart(int)} and {@link #getLength(int)}.
+   */
+  public void serializeBatch(VectorizedRowBatch batch) {
+    int size = batch.size;
+    int[] selected = batch.selectedInUse ? batch.selected : null;
+    if (starts.length < size) {
+      starts = new int[size];
+      ends = new int[size];
+    }
+
+    // the most bytes of each row, counting the strings into ends first
+    int fixedLength = getMaxRowOverhead();
+    Arrays.fill(ends, 0, size, 0);
+    for (int c = 0; c < columns.length; c++) {
+      if (categories[c] == PrimitiveCategory.STRING) {
+        addMaxStringLengths((BytesColumnVector) batch.cols[columns[c]], size, selected);
+      } else {
+        fixedLength += getMaxLength(categories[c]);
+      }
+    }
+    int total = 0;
+    for (int i = 0; i < size; i++) {
+      starts[i] = total;
+      total += fixedLength + ends[i];
+      ends[i] = starts[i];
+    }
+    if (buffer.length < total) {
+      buffer = new byte[Math.max(total, buffer.length * 2)];
+    }
+
+    serializeColumns(batch, size, selected);
+  }
+
+  private void addMaxStringLengths(BytesColumnVector col, int size, int[] selected) {
+    if (col.isRepeating) {
+      int maxLength = getMaxStringLength(col.noNulls || !col.isNull[0] ? col.length[0] : 0);
+      for (int i = 0; i < size; i++) {
+        ends[i] += maxLength;
+      }
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      int r = selected == null ? i : selected[i];
+      ends[i] += getMaxStringLength(col.noNulls || !col.isNull[r] ? col.length[r] : 0);
+    }
+  }
+
+  public byte[] getBytes() {
+    return buffer;
+  }
+
+  public int getStart(int batchIndex) {
+    return starts[batchIndex];
+  }
+
+  public int getLength(int batchIndex) {
+    return ends[batchIndex] - starts[batchIndex];
+  }
+
+  /**
+   * @return the most bytes a row takes in addition to its columns
+   */
+  protected int getMaxRowOverhead() {
+    return 0;
+  }
+
+  /**
+   * @return the most bytes a value of the given fixed width type takes, including its null
+   * marker if any
+   */
+  protected abstract int getMaxLength(PrimitiveCategory category);
+
+  /**
+   * @return the most bytes a string of the given length takes, including its null marker
+   * if any; this also bounds a null string, which is given length 0
+   */
+  protected abstract int getMaxStringLength(int length);
+
+  /**
+   * Write the columns of the rows at the ends of the rows.
+   */
+  protected abstract void serializeColumns(VectorizedRowBatch batch, int size, int[] selected);
+
+  /**
+   * @return the row of the vector that holds the value of the row at position i of the batch
+   */
+  protected static int getRow(ColumnVector col, int i, int[] selected) {
+    if (col.isRepeating) {
+      return 0;
+    }
+    return selected == null ? i : selected[i];
+  }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+
+/**
+ * Serializes the rows of a batch into the format of
+ * {@link org.apache.hadoop.hive.serde2.binarysortable.BinarySortableSerDe}.
+ */
+public class VectorBinarySortableSerializer extends VectorBatchSerializer {
+
+  /**
+   * The bits to flip in every byte of each column: all of them for a descending column.
+   */
+  private final byte[] invert;
+
+  /**
+   * @param columnSortOrderIsDesc whether each column sorts in descending order
+   */
+  public VectorBinarySortableSerializer(int[] columns, PrimitiveCategory[] categories,
+      boolean[] columnSortOrderIsDesc) {
+    super(columns, categories);
+    invert = new byte[columns.length];
+    for (int c = 0; c < columns.length; c++) {
+      invert[c] = columnSortOrderIsDesc[c] ? (byte) 0xff : 0;
+    }
+  }
+
+  @Override
+  protected int getMaxLength(PrimitiveCategory category) {
+    // a byte for the null marker, then the value
+    switch (category) {
+    case BOOLEAN:
+    case BYTE:
+      return 2;
+    case SHORT:
+      return 3;
+    case INT:
+    case FLOAT:
+      return 5;
+    default:
+      return 9;
+    }
+  }
+
+  @Override
+  protected int getMaxStringLength(int length) {
+    // the null marker, each byte possibly escaped, and the terminator
+    return 2 + 2 * length;
+  }
+
+  @Override
+  protected void serializeColumns(VectorizedRowBatch batch, int size, int[] selected) {
+    for (int c = 0; c < columns.length; c++) {
+      ColumnVector col = batch.cols[columns[c]];
+      switch (categories[c]) {
+      case BOOLEAN:
+        writeBooleans((LongColumnVector) col, size, selected, invert[c]);
+        break;
+      case BYTE:
+        writeLongs((LongColumnVector) col, size, selected, 1, invert[c]);
+        break;
+      case SHORT:
+        writeLongs((LongColumnVector) col, size, selected, 2, invert[c]);
+        break;
+      case INT:
+        writeLongs((LongColumnVector) col, size, selected, 4, invert[c]);
+        break;
+      case LONG:
+        writeLongs((LongColumnVector) col, size, selected, 8, invert[c]);
+        break;
+      case FLOAT:
+        writeFloats((DoubleColumnVector) col, size, selected, invert[c]);
+        break;
+      case DOUBLE:
+        writeDoubles((DoubleColumnVector) col, size, selected, invert[c]);
+        break;
+      case STRING:
+        writeStrings((BytesColumnVector) col, size, selected, invert[c]);
+        break;
+      default:
+        throw new RuntimeException("Unsupported type: " + categories[c]);
+      }
+    }
+  }
+
+  private void writeBooleans(LongColumnVector col, int size, int[] selected, byte invert) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      int pos = ends[i];
+      if (!col.noNulls && col.isNull[r]) {
+        buffer[pos] = invert;
+        ends[i] = pos + 1;
+        continue;
+      }
+      buffer[pos] = (byte) (1 ^ invert);
+      buffer[pos + 1] = (byte) ((vector[r] != 0 ? 2 : 1) ^ invert);
+      ends[i] = pos + 2;
+    }
+  }
+
+  /**
+   * Write the lowest numBytes bytes of the values, big endian, with the sign bit flipped so
+   * that negative values sort first.
+   */
+  private void writeLongs(LongColumnVector col, int size, int[] selected, int numBytes,
+      byte invert) {
+    long[] vector = col.vector;
+    int firstShift = 8 * (numBytes - 1);
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      int pos = ends[i];
+      if (!col.noNulls && col.isNull[r]) {
+        buffer[pos] = invert;
+        ends[i] = pos + 1;
+        continue;
+      }
+      buffer[pos++] = (byte) (1 ^ invert);
+      long v = vector[r];
+      buffer[pos++] = (byte) ((v >> firstShift) ^ 0x80 ^ invert);
+      for (int shift = firstShift - 8; shift >= 0; shift -= 8) {
+        buffer[pos++] = (byte) ((v >> shift) ^ invert);
+      }
+      ends[i] = pos;
+    }
+  }
+
+  private void writeFloats(DoubleColumnVector col, int size, int[] selected, byte invert) {
+    double[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      int pos = ends[i];
+      if (!col.noNulls && col.isNull[r]) {
+        buffer[pos] = invert;
+        ends[i] = pos + 1;
+        continue;
+      }
+      buffer[pos] = (byte) (1 ^ invert);
+      int v = Float.floatToIntBits((float) vector[r]);
+      // flip all the bits of a negative number, and only the sign bit of a positive one
+      v ^= (v >> 31) | (1 << 31);
+      buffer[pos + 1] = (byte) ((v >> 24) ^ invert);
+      buffer[pos + 2] = (byte) ((v >> 16) ^ invert);
+      buffer[pos + 3] = (byte) ((v >> 8) ^ invert);
+      buffer[pos + 4] = (byte) (v ^ invert);
+      ends[i] = pos + 5;
+    }
+  }
+
+  private void writeDoubles(DoubleColumnVector col, int size, int[] selected, byte invert) {
+    double[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      int pos = ends[i];
+      if (!col.noNulls && col.isNull[r]) {
+        buffer[pos] = invert;
+        ends[i] = pos + 1;
+        continue;
+      }
+      buffer[pos++] = (byte) (1 ^ invert);
+      long v = Double.doubleToLongBits(vector[r]);
+      // flip all the bits of a negative number, and only the sign bit of a positive one
+      v ^= (v >> 63) | (1L << 63);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[pos++] = (byte) ((v >> shift) ^ invert);
+      }
+      ends[i] = pos;
+    }
+  }
+
+  /**
+   * Write the bytes of the strings, escaping 0 and 1 as 1 followed by the byte plus one, and
+   * terminate them with 0.
+   */
+  private void writeStrings(BytesColumnVector col, int size, int[] selected, byte invert) {
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      int pos = ends[i];
+      if (!col.noNulls && col.isNull[r]) {
+        buffer[pos] = invert;
+        ends[i] = pos + 1;
+        continue;
+      }
+      buffer[pos++] = (byte) (1 ^ invert);
+      byte[] bytes = col.vector[r];
+      int end = col.start[r] + col.length[r];
+      for (int j = col.start[r]; j < end; j++) {
+        byte b = bytes[j];
+        if (b == 0 || b == 1) {
+          buffer[pos++] = (byte) (1 ^ invert);
+          buffer[pos++] = (byte) ((b + 1) ^ invert);
+        } else {
+          buffer[pos++] = (byte) (b ^ invert);
+        }
+      }
+      buffer[pos++] = invert;
+      ends[i] = pos;
+    }
+  }
+}
@@ -26,6 +26,7 @@
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.io.ByteWritable;
 import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.hadoop.hive.serde2.io.ShortWritable;
 import org.apache.hadoop.hive.serde2.io.TimestampWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -128,7 +129,7 @@ protected void assignBytes(byte[] buffer, int start, int length, int destIndex)
       }
       else {
         outCol.vector[destIndex] = Arrays.copyOfRange(buffer,
-            start, length);
+            start, start + length);
         outCol.start[destIndex] = 0;
         outCol.length[destIndex] = length;
       }
@@ -187,7 +188,28 @@ public static VectorColumnAssign buildObjectAssign(VectorizedRowBatch outputBatc
     PrimitiveObjectInspector poi = (PrimitiveObjectInspector) objInspector;
     VectorColumnAssign outVCA = null;
     ColumnVector destCol = outputBatch.cols[outColIndex];
-    if (destCol instanceof LongColumnVector) {
+    if (destCol instanceof DecimalColumnVector) {
+      switch(poi.getPrimitiveCategory()) {
+      case DECIMAL:
+        outVCA = new VectorLongColumnAssign() {
+          @Override
+          public void assignObjectValue(Object val, int destIndex) throws HiveException {
+            if (val == null) {
+              assignNull(destIndex);
+            }
+            else {
+              HiveDecimalWritable bw = (HiveDecimalWritable) val;
+              ((DecimalColumnVector) outCol).set(destIndex, bw.getHiveDecimal());
+            }
+          }
+        }.init(outputBatch, (LongColumnVector) destCol);
+        break;
+      default:
+        throw new HiveException("Incompatible Decimal vector column and primitive category " +
+            poi.getPrimitiveCategory());
+      }
+    }
+    else if (destCol instanceof LongColumnVector) {
       switch(poi.getPrimitiveCategory()) {
       case BOOLEAN:
         outVCA = new VectorLongColumnAssign() {
@@ -325,8 +347,7 @@ public void assignObjectValue(Object val, int destIndex) throws HiveException {
             }
             else {
               Text bw = (Text) val;
-              byte[] bytes = bw.getBytes();
-              assignBytes(bytes, 0, bytes.length, destIndex);
+              assignBytes(bw.getBytes(), 0, bw.getLength(), destIndex);
             }
           }
         }.init(outputBatch, (BytesColumnVector) destCol);
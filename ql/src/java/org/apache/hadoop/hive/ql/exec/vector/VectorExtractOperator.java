@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import org.apache.hadoop.hive.ql.exec.ExtractOperator;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ExtractDesc;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+
+/**
+ * Vectorized extract operator. The reduce side batch already holds the value columns, under
+ * the names the children use for the extracted row, so the batch is passed on as is.
+ */
+public class VectorExtractOperator extends ExtractOperator {
+
+  private static final long serialVersionUID = 1L;
+
+  public VectorExtractOperator() {
+    super();
+  }
+
+  public VectorExtractOperator(VectorizationContext vContext, OperatorDesc conf) {
+    this();
+    this.conf = (ExtractDesc) conf;
+  }
+
+  @Override
+  public void processOp(Object row, int tag) throws HiveException {
+    forward(row, outputObjInspector);
+  }
+}
@@ -24,6 +24,7 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -123,6 +124,13 @@ public class VectorGroupByOperator extends GroupByOperator {
    */
   private transient Map<KeyWrapper, VectorAggregationBufferRow> mapKeysAggregationBuffers;
 
+  /**
+   * True when the input is sorted on the grouping keys, as it is for a merge-partial
+   * GROUP BY fed by the shuffle. Every group but the last one of a batch is then complete
+   * and can be emitted right away instead of growing the hash table.
+   */
+  private transient boolean isSortedInput;
+
   private static final long serialVersionUID = 1L;
 
   public VectorGroupByOperator(VectorizationContext vContext, OperatorDesc conf)
@@ -178,7 +186,12 @@ protected void initializeOp(Configuration hconf) throws HiveException {
       keyWrappersBatch = VectorHashKeyWrapperBatch.compileKeyWrapperBatch(keyExpressions);
       aggregationBatchInfo = new VectorAggregationBufferBatch();
       aggregationBatchInfo.compileAggregationBatchInfo(aggregators);
-      mapKeysAggregationBuffers = new HashMap<KeyWrapper, VectorAggregationBufferRow>();
+      isSortedInput = conf.getMode() == GroupByDesc.Mode.MERGEPARTIAL
+          && keyExpressions.length > 0;
+      // keep the groups in arrival order so sorted input is also emitted sorted
+      mapKeysAggregationBuffers = isSortedInput ?
+          new LinkedHashMap<KeyWrapper, VectorAggregationBufferRow>() :
+          new HashMap<KeyWrapper, VectorAggregationBufferRow>();
 
       List<String> outputFieldNames = conf.getOutputColumnNames();
       outputObjInspector = ObjectInspectorFactory.getStandardStructObjectInspector(
@@ -242,6 +255,11 @@ public void processOp(Object row, int tag) throws HiveException {
     // Finally, evaluate the aggregators
     processAggregators(batch);
 
+    if (isSortedInput) {
+      flushCompletedGroups(batch);
+      return;
+    }
+
     //Flush if memory limits were reached
     // We keep flushing until the memory is under threshold 
     int preFlushEntriesCount = numEntriesHashTable;
@@ -335,6 +353,22 @@ private void flush(boolean all) throws HiveException {
     }
   }
 
+  /**
+   * Emits all the groups except the one of the last row in the batch, which may still
+   * continue in the next batch. Only valid when the input is sorted on the grouping keys.
+   */
+  private void flushCompletedGroups(VectorizedRowBatch batch) throws HiveException {
+    if (batch.size == 0 || numEntriesHashTable == 1) {
+      return;
+    }
+    KeyWrapper lastKey =
+        keyWrappersBatch.getVectorHashKeyWrappers()[batch.size - 1].copyKey();
+    VectorAggregationBufferRow lastBuffers = mapKeysAggregationBuffers.remove(lastKey);
+    flush(true);
+    mapKeysAggregationBuffers.put(lastKey, lastBuffers);
+    numEntriesHashTable = 1;
+  }
+
   /**
    * Returns true if the memory threshold for the hash table was reached.
    */
@@ -453,7 +453,8 @@ public static VectorHashKeyWrapperBatch compileKeyWrapperBatch(VectorExpression[
       indexLookup[i] = new KeyLookupHelper();
       String outputType = keyExpressions[i].getOutputType();
       if (VectorizationContext.isIntFamily(outputType) ||
-          VectorizationContext.isDatetimeFamily(outputType)) {
+          VectorizationContext.isDatetimeFamily(outputType) ||
+          VectorizationContext.isDecimalFamily(outputType)) {
         longIndices[longIndicesIndex] = i;
         indexLookup[i].longIndex = longIndicesIndex;
         indexLookup[i].doubleIndex = -1;
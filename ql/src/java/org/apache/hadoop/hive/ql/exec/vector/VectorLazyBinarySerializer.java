@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinaryUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+
+/**
+ * Serializes the rows of a batch into the format of
+ * {@link org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe}: a byte of null bits
+ * before every eight fields, and nothing for the null fields themselves.
+ */
+public class VectorLazyBinarySerializer extends VectorBatchSerializer {
+
+  /**
+   * The position of the null byte of the current group of fields in each row.
+   */
+  private int[] nullBytes = new int[VectorizedRowBatch.DEFAULT_SIZE];
+
+  public VectorLazyBinarySerializer(int[] columns, PrimitiveCategory[] categories) {
+    super(columns, categories);
+  }
+
+  @Override
+  protected int getMaxRowOverhead() {
+    return (columns.length + 7) / 8;
+  }
+
+  @Override
+  protected int getMaxLength(PrimitiveCategory category) {
+    switch (category) {
+    case BOOLEAN:
+    case BYTE:
+      return 1;
+    case SHORT:
+      return 2;
+    case FLOAT:
+      return 4;
+    case INT:
+      // a VInt
+      return 5;
+    case DOUBLE:
+      return 8;
+    default:
+      // a VLong
+      return 9;
+    }
+  }
+
+  @Override
+  protected int getMaxStringLength(int length) {
+    // the length as a VInt, then the bytes
+    return 5 + length;
+  }
+
+  @Override
+  protected void serializeColumns(VectorizedRowBatch batch, int size, int[] selected) {
+    if (nullBytes.length < size) {
+      nullBytes = new int[size];
+    }
+    for (int c = 0; c < columns.length; c++) {
+      if (c % 8 == 0) {
+        writeNullBytes(batch, c, Math.min(c + 8, columns.length), size, selected);
+      }
+      ColumnVector col = batch.cols[columns[c]];
+      switch (categories[c]) {
+      case BOOLEAN:
+        writeBooleans((LongColumnVector) col, size, selected);
+        break;
+      case BYTE:
+        writeBytes((LongColumnVector) col, size, selected);
+        break;
+      case SHORT:
+        writeShorts((LongColumnVector) col, size, selected);
+        break;
+      case INT:
+        writeVLongs((LongColumnVector) col, size, selected, true);
+        break;
+      case LONG:
+        writeVLongs((LongColumnVector) col, size, selected, false);
+        break;
+      case FLOAT:
+        writeFloats((DoubleColumnVector) col, size, selected);
+        break;
+      case DOUBLE:
+        writeDoubles((DoubleColumnVector) col, size, selected);
+        break;
+      case STRING:
+        writeStrings((BytesColumnVector) col, size, selected);
+        break;
+      default:
+        throw new RuntimeException("Unsupported type: " + categories[c]);
+      }
+    }
+  }
+
+  /**
+   * Write the byte with a bit set for each of the fields from first to last that is not null.
+   */
+  private void writeNullBytes(VectorizedRowBatch batch, int first, int last, int size,
+      int[] selected) {
+    for (int i = 0; i < size; i++) {
+      nullBytes[i] = ends[i];
+      buffer[ends[i]++] = 0;
+    }
+    for (int c = first; c < last; c++) {
+      ColumnVector col = batch.cols[columns[c]];
+      byte bit = (byte) (1 << (c % 8));
+      if (col.noNulls) {
+        for (int i = 0; i < size; i++) {
+          buffer[nullBytes[i]] |= bit;
+        }
+        continue;
+      }
+      for (int i = 0; i < size; i++) {
+        if (!col.isNull[getRow(col, i, selected)]) {
+          buffer[nullBytes[i]] |= bit;
+        }
+      }
+    }
+  }
+
+  private void writeBooleans(LongColumnVector col, int size, int[] selected) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        buffer[ends[i]++] = (byte) (vector[r] != 0 ? 1 : 0);
+      }
+    }
+  }
+
+  private void writeBytes(LongColumnVector col, int size, int[] selected) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        buffer[ends[i]++] = (byte) vector[r];
+      }
+    }
+  }
+
+  private void writeShorts(LongColumnVector col, int size, int[] selected) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        int pos = ends[i];
+        long v = vector[r];
+        buffer[pos] = (byte) (v >> 8);
+        buffer[pos + 1] = (byte) v;
+        ends[i] = pos + 2;
+      }
+    }
+  }
+
+  /**
+   * Write the values as VInts for int columns, truncating them to ints like the row mode
+   * writers do, or else as VLongs.
+   */
+  private void writeVLongs(LongColumnVector col, int size, int[] selected, boolean isInt) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        long v = isInt ? (int) vector[r] : vector[r];
+        ends[i] += LazyBinaryUtils.writeVLongToByteArray(buffer, ends[i], v);
+      }
+    }
+  }
+
+  private void writeFloats(DoubleColumnVector col, int size, int[] selected) {
+    double[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        int pos = ends[i];
+        int v = Float.floatToIntBits((float) vector[r]);
+        buffer[pos] = (byte) (v >> 24);
+        buffer[pos + 1] = (byte) (v >> 16);
+        buffer[pos + 2] = (byte) (v >> 8);
+        buffer[pos + 3] = (byte) v;
+        ends[i] = pos + 4;
+      }
+    }
+  }
+
+  private void writeDoubles(DoubleColumnVector col, int size, int[] selected) {
+    double[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        int pos = ends[i];
+        long v = Double.doubleToLongBits(vector[r]);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+          buffer[pos++] = (byte) (v >> shift);
+        }
+        ends[i] = pos;
+      }
+    }
+  }
+
+  private void writeStrings(BytesColumnVector col, int size, int[] selected) {
+    for (int i = 0; i < size; i++) {
+      int r = getRow(col, i, selected);
+      if (col.noNulls || !col.isNull[r]) {
+        int length = col.length[r];
+        int pos = ends[i] + LazyBinaryUtils.writeVLongToByteArray(buffer, ends[i], length);
+        System.arraycopy(col.vector[r], col.start[r], buffer, pos, length);
+        ends[i] = pos + length;
+      }
+    }
+  }
+}
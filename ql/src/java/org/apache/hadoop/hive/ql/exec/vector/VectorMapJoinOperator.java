@@ -19,6 +19,7 @@
 package org.apache.hadoop.hive.ql.exec.vector;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,16 +30,22 @@
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluator;
 import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinBytesTableContainer;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinKey;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinRowContainer;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.JoinDesc;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
+import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 
 /**
  * The vectorized version of the MapJoinOperator.
@@ -72,6 +79,22 @@ public class VectorMapJoinOperator extends MapJoinOperator {
   private transient VectorExpressionWriter[] valueWriters;
   private transient Map<ObjectInspector, VectorColumnAssign[]> outputVectorAssigners;
 
+  // Used when the whole batch is probed at once: single small table, inner, left outer or
+  // left semi join, no join filters. Output columns are then written directly into the
+  // output batch instead of going through the row-mode join.
+  private transient boolean batchProbe;
+  private transient byte posSmallTable;
+  private transient int joinType;
+  private transient int[] bigTableValueColumns;
+  private transient VectorColumnAssign[] bigTableOutputAssigners;
+  private transient VectorColumnAssign[] smallTableOutputAssigners;
+  // the small table rows of each row of the input batch, and the input row and small table
+  // row of each output row that is not yet written into the output batch
+  private transient MapJoinRowContainer[] batchMatches;
+  private transient int[] pendingBigTableRows;
+  private transient Object[] pendingSmallTableRows;
+  private transient int numPendingRows;
+
   // These members are used as out-of-band params
   // for the inner-loop supper.processOp callbacks
   //
@@ -215,12 +238,105 @@ protected Object _evaluate(Object row, int version) throws HiveException {
     // Now replace the old evaluators with our own
     joinValues[posBigTable] = vectorNodeEvaluators;
 
+    batchProbe = canProbeInBatch();
+    if (batchProbe) {
+      batchProbe = initBatchProbe(columnMap);
+    }
+
     // Filtering is handled in the input batch processing
     filterMaps[posBigTable] = null;
 
     outputVectorAssigners = new HashMap<ObjectInspector, VectorColumnAssign[]>();
   }
 
+  /**
+   * The batch probe handles the joins for which every big table row produces its output
+   * independently of the others: a single small table, joined with inner, left outer (big
+   * table preserved) or left semi join, without join filters or null-safe keys.
+   */
+  private boolean canProbeInBatch() {
+    if (order.length != 2 || condn.length != 1) {
+      return false;
+    }
+    boolean bigTableIsLeft = condn[0].getLeft() == posBigTable;
+    switch (condn[0].getType()) {
+    case JoinDesc.INNER_JOIN:
+      break;
+    case JoinDesc.LEFT_OUTER_JOIN:
+    case JoinDesc.LEFT_SEMI_JOIN:
+      if (!bigTableIsLeft) {
+        return false;
+      }
+      break;
+    default:
+      return false;
+    }
+    if (filterMaps != null) {
+      for (int[] filterMap : filterMaps) {
+        if (filterMap != null) {
+          return false;
+        }
+      }
+    }
+    if (nullsafes != null) {
+      for (boolean nullsafe : nullsafes) {
+        if (nullsafe) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean initBatchProbe(Map<String, Integer> columnMap) throws HiveException {
+    posSmallTable = (byte) (posBigTable == 0 ? 1 : 0);
+    joinType = condn[0].getType();
+
+    List<String> outColNames = conf.getOutputColumnNames();
+    int bigTableOffset = 0;
+    int smallTableOffset = 0;
+    int offset = 0;
+    for (byte alias : order) {
+      if (alias == posBigTable) {
+        bigTableOffset = offset;
+      } else {
+        smallTableOffset = offset;
+      }
+      offset += conf.getExprs().get(alias).size();
+    }
+
+    VectorColumnAssign[] vectorAssigners = VectorColumnAssignFactory.buildAssigners(outputBatch);
+    int bigTableSize = conf.getExprs().get(posBigTable).size();
+    bigTableValueColumns = new int[bigTableSize];
+    bigTableOutputAssigners = new VectorColumnAssign[bigTableSize];
+    for (int i = 0; i < bigTableSize; ++i) {
+      bigTableValueColumns[i] = bigTableValueExpressions[i].getOutputColumn();
+      bigTableOutputAssigners[i] =
+          vectorAssigners[columnMap.get(outColNames.get(bigTableOffset + i))];
+    }
+
+    batchMatches = new MapJoinRowContainer[VectorizedRowBatch.DEFAULT_SIZE];
+    pendingBigTableRows = new int[VectorizedRowBatch.DEFAULT_SIZE];
+    pendingSmallTableRows = new Object[VectorizedRowBatch.DEFAULT_SIZE];
+
+    StructObjectInspector soi = (StructObjectInspector) outputObjInspector;
+    int smallTableSize = conf.getExprs().get(posSmallTable).size();
+    smallTableOutputAssigners = new VectorColumnAssign[smallTableSize];
+    for (int i = 0; i < smallTableSize; ++i) {
+      String columnName = outColNames.get(smallTableOffset + i);
+      try {
+        smallTableOutputAssigners[i] = VectorColumnAssignFactory.buildObjectAssign(outputBatch,
+            columnMap.get(columnName),
+            soi.getStructFieldRef(columnName).getFieldObjectInspector());
+      } catch (HiveException e) {
+        LOG.info("Cannot probe in batch, small table column " + columnName
+            + " has no vector assigner: " + e.getMessage());
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * 'forwards' the (row-mode) record into the (vectorized) output batch
    */
@@ -248,6 +364,14 @@ protected void internalForward(Object row, ObjectInspector outputOI) throws Hive
   private void flushOutput() throws HiveException {
     forward(outputBatch, null);
     outputBatch.reset();
+    if (batchProbe) {
+      for (VectorColumnAssign vca : bigTableOutputAssigners) {
+        vca.reset();
+      }
+      for (VectorColumnAssign vca : smallTableOutputAssigners) {
+        vca.reset();
+      }
+    }
   }
 
   @Override
@@ -283,6 +407,12 @@ public void processOp(Object row, int tag) throws HiveException {
     keyWrapperBatch.evaluateBatch(inBatch);
     keyValues = keyWrapperBatch.getVectorHashKeyWrappers();
 
+    if (batchProbe) {
+      probeBatch(inBatch);
+      keyValues = null;
+      return;
+    }
+
     // This implementation of vectorized JOIN is delegating all the work
     // to the row-mode implementation by hijacking the big table node evaluators
     // and calling the row-mode join processOp for each row in the input batch.
@@ -298,4 +428,121 @@ public void processOp(Object row, int tag) throws HiveException {
     batchIndex = -1;
     keyValues = null;
   }
+
+  /**
+   * Probes the small table with the keys of the whole batch, then writes the joined rows into
+   * the output batch a column at a time. Single integral keys are looked up unboxed when the
+   * small table is a {@link MapJoinBytesTableContainer}, and runs of equal keys are looked up
+   * once.
+   */
+  private void probeBatch(VectorizedRowBatch inBatch) throws HiveException {
+    if (firstRow) {
+      try {
+        generateMapMetaData();
+      } catch (SerDeException e) {
+        throw new HiveException(e);
+      }
+      firstRow = false;
+    }
+    MapJoinTableContainer smallTable = mapJoinTables[posSmallTable];
+    MapJoinBytesTableContainer longKeyTable = null;
+    if (smallTable instanceof MapJoinBytesTableContainer
+        && ((MapJoinBytesTableContainer) smallTable).hasLongKeys()
+        && keyExpressions.length == 1
+        && VectorizationContext.isIntFamily(keyExpressions[0].getOutputType())) {
+      longKeyTable = (MapJoinBytesTableContainer) smallTable;
+    }
+
+    VectorHashKeyWrapper lastKw = null;
+    MapJoinRowContainer lastRows = null;
+    for (int i = 0; i < inBatch.size; ++i) {
+      VectorHashKeyWrapper kw = keyValues[i];
+      MapJoinRowContainer rows;
+      if (lastKw != null && kw.equals(lastKw)) {
+        rows = lastRows;
+      } else if (longKeyTable != null) {
+        rows = kw.getIsLongNull(0) ? null : longKeyTable.get(kw.getLongValue(0));
+      } else {
+        MapJoinKey key = keyEvaluator.evaluate(kw);
+        rows = key.hasAnyNulls(null) ? null : smallTable.get(key);
+      }
+      lastKw = kw;
+      lastRows = rows;
+      batchMatches[i] = rows != null && rows.size() > 0 ? rows : null;
+    }
+
+    for (int i = 0; i < inBatch.size; ++i) {
+      MapJoinRowContainer rows = batchMatches[i];
+      batchMatches[i] = null;
+      switch (joinType) {
+      case JoinDesc.LEFT_SEMI_JOIN:
+        if (rows != null) {
+          addJoinedRow(inBatch, i, null);
+        }
+        break;
+      case JoinDesc.LEFT_OUTER_JOIN:
+        if (rows == null) {
+          addJoinedRow(inBatch, i, null);
+        } else {
+          addJoinedRows(inBatch, i, rows);
+        }
+        break;
+      default:
+        if (rows != null) {
+          addJoinedRows(inBatch, i, rows);
+        }
+      }
+    }
+    writeJoinedRows(inBatch);
+  }
+
+  private void addJoinedRows(VectorizedRowBatch inBatch, int batchIndex,
+      MapJoinRowContainer rows) throws HiveException {
+    for (List<Object> smallRow = rows.first(); smallRow != null; smallRow = rows.next()) {
+      addJoinedRow(inBatch, batchIndex, smallRow);
+    }
+  }
+
+  /**
+   * Adds a row joining the input row at batchIndex with smallRow (or with nulls when smallRow
+   * is null) to the rows to write into the output batch.
+   */
+  private void addJoinedRow(VectorizedRowBatch inBatch, int batchIndex, List<Object> smallRow)
+      throws HiveException {
+    pendingBigTableRows[numPendingRows] = batchIndex;
+    pendingSmallTableRows[numPendingRows] = smallRow;
+    ++numPendingRows;
+    if (outputBatch.size + numPendingRows == VectorizedRowBatch.DEFAULT_SIZE) {
+      writeJoinedRows(inBatch);
+    }
+  }
+
+  /**
+   * Writes the added rows into the output batch, one column after the other, and forwards the
+   * output batch once it is full.
+   */
+  @SuppressWarnings("unchecked")
+  private void writeJoinedRows(VectorizedRowBatch inBatch) throws HiveException {
+    int start = outputBatch.size;
+    for (int i = 0; i < bigTableOutputAssigners.length; ++i) {
+      VectorColumnAssign assigner = bigTableOutputAssigners[i];
+      int column = bigTableValueColumns[i];
+      for (int row = 0; row < numPendingRows; ++row) {
+        assigner.assignVectorValue(inBatch, pendingBigTableRows[row], column, start + row);
+      }
+    }
+    for (int i = 0; i < smallTableOutputAssigners.length; ++i) {
+      VectorColumnAssign assigner = smallTableOutputAssigners[i];
+      for (int row = 0; row < numPendingRows; ++row) {
+        List<Object> smallRow = (List<Object>) pendingSmallTableRows[row];
+        assigner.assignObjectValue(smallRow == null ? null : smallRow.get(i), start + row);
+      }
+    }
+    Arrays.fill(pendingSmallTableRows, 0, numPendingRows, null);
+    outputBatch.size += numPendingRows;
+    numPendingRows = 0;
+    if (outputBatch.size == VectorizedRowBatch.DEFAULT_SIZE) {
+      flushOutput();
+    }
+  }
 }
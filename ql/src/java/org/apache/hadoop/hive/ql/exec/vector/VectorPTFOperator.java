@@ -0,0 +1,401 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
+import org.apache.hadoop.hive.ql.exec.KeyWrapper;
+import org.apache.hadoop.hive.ql.exec.PTFOperator;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFColumnBuffer;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluator;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorAggregate;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLeadLag;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorRank;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorRowNumber;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.PTFDesc;
+import org.apache.hadoop.hive.ql.plan.ptf.PTFExpressionDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFunctionDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowTableFunctionDef;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFLeadLag;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+
+/**
+ * Vectorized reduce side PTF operator for windowing functions. The rows arrive sorted on
+ * the partition and order keys, so partitions and peer groups are found by comparing the
+ * keys of adjacent rows. Instead of materializing each partition, the operator appends the
+ * columns it needs to column buffers, lets every window function compute its results
+ * incrementally, and emits a row as soon as all of its results are known; only the whole
+ * partition frame has to hold a partition until it ends. Emits row mode output.
+ *
+ * Only row_number, rank, dense_rank, lead, lag and sum, count, min, max, avg over the whole
+ * partition or a running ROWS or RANGE frame are supported, see
+ * {@link VectorPTFEvaluatorAggregate#getFrameType}.
+ */
+public class VectorPTFOperator extends PTFOperator {
+
+  private static final long serialVersionUID = 1L;
+
+  private VectorExpression[] partitionExpressions;
+  private VectorExpression[] orderExpressions;
+
+  /**
+   * The expression for the first argument of each window function, null when none is
+   * buffered (ranking functions and count(*)).
+   */
+  private VectorExpression[] argumentExpressions;
+
+  /**
+   * The expression for the default value of lead and lag, null otherwise.
+   */
+  private VectorExpression[] defaultExpressions;
+
+  /**
+   * The batch columns that are buffered, each one once.
+   */
+  private int[] bufferColumns;
+
+  /**
+   * The buffer of each input column, in the order of the input shape.
+   */
+  private int[] inputBuffers;
+
+  /**
+   * The buffer of the argument and default of each window function, -1 when none.
+   */
+  private int[] argumentBuffers;
+  private int[] defaultBuffers;
+
+  private transient VectorPTFColumnBuffer[] buffers;
+  private transient VectorPTFColumnBuffer.LongBuffer peerStarts;
+  private transient VectorPTFEvaluator[] evaluators;
+
+  private transient VectorHashKeyWrapperBatch partitionKeyWrappers;
+  private transient VectorHashKeyWrapperBatch orderKeyWrappers;
+  private transient KeyWrapper currentPartitionKey;
+  private transient KeyWrapper currentOrderKey;
+
+  private transient VectorExpressionWriter[] functionWriters;
+  private transient VectorExpressionWriter[] inputWriters;
+  private transient Object[] forwardCache;
+
+  public VectorPTFOperator(VectorizationContext vContext, OperatorDesc conf)
+      throws HiveException {
+    this();
+    PTFDesc desc = (PTFDesc) conf;
+    this.conf = desc;
+    WindowTableFunctionDef funcDef = (WindowTableFunctionDef) desc.getFuncDef();
+
+    partitionExpressions = vContext.getVectorExpressions(
+        getExprNodes(funcDef.getPartition().getExpressions()));
+    orderExpressions = vContext.getVectorExpressions(
+        getExprNodes(funcDef.getOrder().getExpressions()));
+
+    Map<Integer, Integer> columnToBuffer = new HashMap<Integer, Integer>();
+    List<String> inputColumnNames = funcDef.getInput().getOutputShape().getColumnNames();
+    inputBuffers = new int[inputColumnNames.size()];
+    for (int i = 0; i < inputBuffers.length; i++) {
+      inputBuffers[i] = addBuffer(columnToBuffer,
+          vContext.getInputColumnIndex(inputColumnNames.get(i)));
+    }
+
+    List<WindowFunctionDef> functions = funcDef.getWindowFunctions();
+    argumentExpressions = new VectorExpression[functions.size()];
+    defaultExpressions = new VectorExpression[functions.size()];
+    argumentBuffers = new int[functions.size()];
+    defaultBuffers = new int[functions.size()];
+    for (int f = 0; f < functions.size(); f++) {
+      WindowFunctionDef function = functions.get(f);
+      List<PTFExpressionDef> args = function.getArgs();
+      argumentBuffers[f] = -1;
+      defaultBuffers[f] = -1;
+      // ranking functions get the order expressions as arguments, which are not needed
+      if (isRanking(function) || args == null || args.isEmpty()) {
+        continue;
+      }
+      argumentExpressions[f] = vContext.getVectorExpression(args.get(0).getExprNode());
+      argumentBuffers[f] = addBuffer(columnToBuffer,
+          argumentExpressions[f].getOutputColumn());
+      if (isLeadLag(function) && args.size() > 2) {
+        defaultExpressions[f] = vContext.getVectorExpression(args.get(2).getExprNode());
+        defaultBuffers[f] = addBuffer(columnToBuffer,
+            defaultExpressions[f].getOutputColumn());
+      }
+    }
+
+    bufferColumns = new int[columnToBuffer.size()];
+    for (Map.Entry<Integer, Integer> entry : columnToBuffer.entrySet()) {
+      bufferColumns[entry.getValue()] = entry.getKey();
+    }
+  }
+
+  public VectorPTFOperator() {
+    super();
+  }
+
+  private static List<ExprNodeDesc> getExprNodes(List<? extends PTFExpressionDef> exprs) {
+    List<ExprNodeDesc> exprNodes = new ArrayList<ExprNodeDesc>(exprs.size());
+    for (PTFExpressionDef expr : exprs) {
+      exprNodes.add(expr.getExprNode());
+    }
+    return exprNodes;
+  }
+
+  private static int addBuffer(Map<Integer, Integer> columnToBuffer, int column) {
+    Integer buffer = columnToBuffer.get(column);
+    if (buffer == null) {
+      buffer = columnToBuffer.size();
+      columnToBuffer.put(column, buffer);
+    }
+    return buffer;
+  }
+
+  private static boolean isRanking(WindowFunctionDef function) {
+    String name = function.getName().toLowerCase();
+    return name.equals("row_number") || name.equals("rank") || name.equals("dense_rank");
+  }
+
+  private static boolean isLeadLag(WindowFunctionDef function) {
+    String name = function.getName().toLowerCase();
+    return name.equals(FunctionRegistry.LEAD_FUNC_NAME)
+        || name.equals(FunctionRegistry.LAG_FUNC_NAME);
+  }
+
+  @Override
+  protected void initializeOp(Configuration hconf) throws HiveException {
+    reconstructQueryDef(new HiveConf(hconf, PTFOperator.class));
+
+    // The output row holds the window function results followed by the input columns.
+    List<? extends StructField> fields =
+        conf.getFuncDef().getOutputShape().getOI().getAllStructFieldRefs();
+    List<String> fieldNames = new ArrayList<String>(fields.size());
+    List<ObjectInspector> fieldOIs = new ArrayList<ObjectInspector>(fields.size());
+    functionWriters = new VectorExpressionWriter[argumentBuffers.length];
+    inputWriters = new VectorExpressionWriter[inputBuffers.length];
+    for (int i = 0; i < fields.size(); i++) {
+      ObjectInspector fieldOI = TypeInfoUtils.getStandardWritableObjectInspectorFromTypeInfo(
+          TypeInfoUtils.getTypeInfoFromObjectInspector(
+              fields.get(i).getFieldObjectInspector()));
+      VectorExpressionWriter writer =
+          VectorExpressionWriterFactory.genVectorExpressionWritable(fieldOI);
+      if (i < functionWriters.length) {
+        functionWriters[i] = writer;
+      } else {
+        inputWriters[i - functionWriters.length] = writer;
+      }
+      fieldNames.add(fields.get(i).getFieldName());
+      fieldOIs.add(writer.getObjectInspector());
+    }
+    outputObjInspector =
+        ObjectInspectorFactory.getStandardStructObjectInspector(fieldNames, fieldOIs);
+    forwardCache = new Object[fields.size()];
+
+    partitionKeyWrappers = VectorHashKeyWrapperBatch.compileKeyWrapperBatch(
+        partitionExpressions);
+    orderKeyWrappers = VectorHashKeyWrapperBatch.compileKeyWrapperBatch(orderExpressions);
+    currentPartitionKey = null;
+    currentOrderKey = null;
+
+    initializeChildren(hconf);
+  }
+
+  /**
+   * Creates the column buffers, whose kind follows the column vectors of the batch, and the
+   * window function evaluators reading from them.
+   */
+  private void createEvaluators(VectorizedRowBatch batch) throws HiveException {
+    buffers = new VectorPTFColumnBuffer[bufferColumns.length];
+    for (int b = 0; b < buffers.length; b++) {
+      buffers[b] = VectorPTFColumnBuffer.create(batch.cols[bufferColumns[b]]);
+    }
+    peerStarts = new VectorPTFColumnBuffer.LongBuffer();
+
+    List<WindowFunctionDef> functions =
+        ((WindowTableFunctionDef) conf.getFuncDef()).getWindowFunctions();
+    evaluators = new VectorPTFEvaluator[functions.size()];
+    for (int f = 0; f < evaluators.length; f++) {
+      WindowFunctionDef function = functions.get(f);
+      String name = function.getName().toLowerCase();
+      VectorPTFColumnBuffer argument =
+          argumentBuffers[f] < 0 ? null : buffers[argumentBuffers[f]];
+      VectorExpressionWriter writer = functionWriters[f];
+      if (name.equals("row_number")) {
+        evaluators[f] = new VectorPTFEvaluatorRowNumber(writer);
+      } else if (name.equals("rank")) {
+        evaluators[f] = new VectorPTFEvaluatorRank(peerStarts, false, writer);
+      } else if (name.equals("dense_rank")) {
+        evaluators[f] = new VectorPTFEvaluatorRank(peerStarts, true, writer);
+      } else if (isLeadLag(function)) {
+        int amt = ((GenericUDAFLeadLag.GenericUDAFLeadLagEvaluator) function.getWFnEval())
+            .getAmt();
+        evaluators[f] = new VectorPTFEvaluatorLeadLag(
+            name.equals(FunctionRegistry.LEAD_FUNC_NAME), amt, argument,
+            defaultBuffers[f] < 0 ? null : buffers[defaultBuffers[f]], writer);
+      } else {
+        VectorPTFEvaluatorAggregate.FrameType frameType =
+            VectorPTFEvaluatorAggregate.getFrameType(function.getWindowFrame());
+        if (frameType == null) {
+          throw new HiveException("Unsupported window frame for " + name);
+        }
+        evaluators[f] = new VectorPTFEvaluatorAggregate(
+            VectorPTFEvaluatorAggregate.AggregationType.valueOf(name.toUpperCase()),
+            frameType, argument, peerStarts, writer);
+      }
+    }
+  }
+
+  @Override
+  public void processOp(Object row, int tag) throws HiveException {
+    VectorizedRowBatch batch = (VectorizedRowBatch) row;
+    if (batch.size == 0) {
+      return;
+    }
+
+    for (int f = 0; f < argumentExpressions.length; f++) {
+      if (argumentExpressions[f] != null) {
+        argumentExpressions[f].evaluate(batch);
+      }
+      if (defaultExpressions[f] != null) {
+        defaultExpressions[f].evaluate(batch);
+      }
+    }
+    partitionKeyWrappers.evaluateBatch(batch);
+    orderKeyWrappers.evaluateBatch(batch);
+
+    if (buffers == null) {
+      createEvaluators(batch);
+    }
+
+    // The rows are sorted on the partition keys, so a partition ends where the key changes.
+    VectorHashKeyWrapper[] partitionKeys = partitionKeyWrappers.getVectorHashKeyWrappers();
+    int start = 0;
+    for (int j = 0; j < batch.size; j++) {
+      boolean isPartitionStart = j == 0 ?
+          currentPartitionKey == null || !partitionKeys[0].equals(currentPartitionKey) :
+          !partitionKeys[j].equals(partitionKeys[j - 1]);
+      if (isPartitionStart) {
+        if (j > start) {
+          appendRows(batch, start, j);
+        }
+        if (currentPartitionKey != null) {
+          finishPartition();
+        }
+        startPartition();
+        currentPartitionKey = partitionKeys[j];
+        start = j;
+      }
+    }
+    appendRows(batch, start, batch.size);
+    // the key wrappers are reused by the next batch
+    currentPartitionKey = partitionKeys[batch.size - 1].copyKey();
+
+    emitReadyRows();
+  }
+
+  private void startPartition() {
+    for (VectorPTFEvaluator evaluator : evaluators) {
+      evaluator.startPartition();
+    }
+    currentOrderKey = null;
+  }
+
+  /**
+   * Appends the rows [from, to) of the batch, which belong to the current partition, and
+   * computes their window function results.
+   */
+  private void appendRows(VectorizedRowBatch batch, int from, int to) throws HiveException {
+    VectorHashKeyWrapper[] orderKeys = orderKeyWrappers.getVectorHashKeyWrappers();
+    int first = peerStarts.size();
+    for (int j = from; j < to; j++) {
+      boolean isPeerStart = j == from ?
+          currentOrderKey == null || !orderKeys[j].equals(currentOrderKey) :
+          !orderKeys[j].equals(orderKeys[j - 1]);
+      peerStarts.append(isPeerStart ? 1 : 0);
+    }
+    currentOrderKey = orderKeys[to - 1].copyKey();
+
+    for (int b = 0; b < buffers.length; b++) {
+      buffers[b].append(batch.cols[bufferColumns[b]], batch.selected, batch.selectedInUse,
+          from, to);
+    }
+    for (VectorPTFEvaluator evaluator : evaluators) {
+      evaluator.evaluate(first, peerStarts.size());
+    }
+  }
+
+  private void finishPartition() throws HiveException {
+    for (VectorPTFEvaluator evaluator : evaluators) {
+      evaluator.finishPartition();
+    }
+    emitReadyRows();
+  }
+
+  /**
+   * Forwards the rows whose window function results are all known and drops them from the
+   * buffers.
+   */
+  private void emitReadyRows() throws HiveException {
+    int readyCount = peerStarts.size();
+    for (VectorPTFEvaluator evaluator : evaluators) {
+      readyCount = Math.min(readyCount, evaluator.getReadyCount());
+    }
+    if (readyCount == 0) {
+      return;
+    }
+    for (int r = 0; r < readyCount; r++) {
+      int fi = 0;
+      for (VectorPTFEvaluator evaluator : evaluators) {
+        forwardCache[fi++] = evaluator.writeValue(r);
+      }
+      for (int c = 0; c < inputBuffers.length; c++) {
+        forwardCache[fi++] = buffers[inputBuffers[c]].writeValue(inputWriters[c], r);
+      }
+      forward(forwardCache, outputObjInspector);
+    }
+    for (VectorPTFColumnBuffer buffer : buffers) {
+      buffer.discard(readyCount);
+    }
+    peerStarts.discard(readyCount);
+    for (VectorPTFEvaluator evaluator : evaluators) {
+      evaluator.discard(readyCount);
+    }
+  }
+
+  @Override
+  protected void closeOp(boolean abort) throws HiveException {
+    // the partition is not materialized, so there is nothing for PTFOperator to close
+    if (!abort && currentPartitionKey != null) {
+      finishPartition();
+    }
+  }
+}
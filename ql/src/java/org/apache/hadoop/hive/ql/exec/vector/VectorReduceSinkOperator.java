@@ -20,6 +20,7 @@
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import org.apache.commons.logging.Log;
@@ -32,15 +33,21 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
 import org.apache.hadoop.hive.ql.io.HiveKey;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
+import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.Serializer;
+import org.apache.hadoop.hive.serde2.binarysortable.BinarySortableSerDe;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
 import org.apache.hadoop.hive.serde2.objectinspector.StandardUnionObjectInspector.StandardUnion;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
@@ -90,6 +97,28 @@ public class VectorReduceSinkOperator extends ReduceSinkOperator {
    */
   private transient VectorExpressionWriter[] partitionWriters;
 
+  /**
+   * Serializes the keys of a whole batch at once. Null if the keys are serialized row by row,
+   * because of their types, their SerDe or distinct expressions.
+   */
+  private transient VectorBinarySortableSerializer keyBatchSerializer;
+
+  /**
+   * Serializes the values of a whole batch at once. Null if the values are serialized row by
+   * row, because of their types or their SerDe.
+   */
+  private transient VectorLazyBinarySerializer valueBatchSerializer;
+
+  private transient BytesWritable batchValue;
+
+  /**
+   * The types of the partition columns, when the hash codes of a whole batch are computed at
+   * once. Null if they are computed row by row.
+   */
+  private transient PrimitiveCategory[] partitionCategories;
+
+  private transient int[] hashCodes;
+
   public VectorReduceSinkOperator(VectorizationContext vContext, OperatorDesc conf)
       throws HiveException {
     this();
@@ -180,9 +209,12 @@ public void assign(VectorExpressionWriter[] writers,
       cachedKeys = new Object[numKeys][keyLen];
       cachedValues = new Object[valueEval.length];
 
+      initializeBatchSerialization(keyTableDesc);
+
       int tag = conf.getTag();
       tagByte[0] = (byte) tag;
       LOG.info("Using tag = " + tag);
+      initializeSkewKeys(hconf, tag);
 
       int limit = conf.getTopN();
       float memUsage = conf.getTopNMemoryUsage();
@@ -194,6 +226,58 @@ public void assign(VectorExpressionWriter[] writers,
     }
   }
 
+  private void initializeBatchSerialization(TableDesc keyTableDesc) {
+    PrimitiveCategory[] keyCategories = getCategories(conf.getKeyCols());
+    if (keyCategories != null && numDistinctExprs == 0 && keyEval.length == numDistributionKeys
+        && keySerializer.getClass() == BinarySortableSerDe.class) {
+      String columnSortOrder = keyTableDesc.getProperties().getProperty(
+          serdeConstants.SERIALIZATION_SORT_ORDER);
+      boolean[] columnSortOrderIsDesc = new boolean[keyEval.length];
+      for (int i = 0; i < columnSortOrderIsDesc.length; i++) {
+        columnSortOrderIsDesc[i] = columnSortOrder != null && columnSortOrder.charAt(i) == '-';
+      }
+      keyBatchSerializer = new VectorBinarySortableSerializer(getOutputColumns(keyEval),
+          keyCategories, columnSortOrderIsDesc);
+    }
+
+    PrimitiveCategory[] valueCategories = getCategories(conf.getValueCols());
+    if (valueCategories != null && valueSerializer.getClass() == LazyBinarySerDe.class) {
+      valueBatchSerializer = new VectorLazyBinarySerializer(getOutputColumns(valueEval),
+          valueCategories);
+      batchValue = new BytesWritable();
+    }
+
+    if (partitionEval.length > 0) {
+      partitionCategories = getCategories(conf.getPartitionCols());
+      hashCodes = new int[VectorizedRowBatch.DEFAULT_SIZE];
+    }
+
+    LOG.info(String.format("Batch serialization of keys %b, values %b, partition hash codes %b",
+        keyBatchSerializer != null, valueBatchSerializer != null, partitionCategories != null));
+  }
+
+  /**
+   * @return the types of the columns, or null if they can't all be handled a batch at a time
+   */
+  private static PrimitiveCategory[] getCategories(List<ExprNodeDesc> cols) {
+    PrimitiveCategory[] categories = new PrimitiveCategory[cols.size()];
+    for (int i = 0; i < categories.length; i++) {
+      if (!VectorBatchSerializer.isSupported(cols.get(i).getTypeInfo())) {
+        return null;
+      }
+      categories[i] = ((PrimitiveTypeInfo) cols.get(i).getTypeInfo()).getPrimitiveCategory();
+    }
+    return categories;
+  }
+
+  private static int[] getOutputColumns(VectorExpression[] expressions) {
+    int[] columns = new int[expressions.length];
+    for (int i = 0; i < expressions.length; i++) {
+      columns[i] = expressions[i].getOutputColumn();
+    }
+    return columns;
+  }
+
   @Override
   public void processOp(Object row, int tag) throws HiveException {
     VectorizedRowBatch vrg = (VectorizedRowBatch) row;
@@ -223,6 +307,15 @@ public void processOp(Object row, int tag) throws HiveException {
       for (int i = 0; i < valueEval.length; i++) {
          valueEval[i].evaluate(vrg);
       }
+      if (keyBatchSerializer != null) {
+        keyBatchSerializer.serializeBatch(vrg);
+      }
+      if (valueBatchSerializer != null) {
+        valueBatchSerializer.serializeBatch(vrg);
+      }
+      if (partitionCategories != null) {
+        computeHashCodes(vrg);
+      }
 
       boolean useTopN = startResult != TopNHash.FORWARD;
       // Go thru the batch once. If we are not using TopN, we will forward all things and be done.
@@ -233,24 +326,30 @@ public void processOp(Object row, int tag) throws HiveException {
         if (vrg.selectedInUse) {
           rowIndex = vrg.selected[batchIndex];
         }
-        // First, make distrib key components for this row and determine distKeyLength.
-        populatedCachedDistributionKeys(vrg, rowIndex, 0);
-        HiveKey firstKey = toHiveKey(cachedKeys[0], tag, null);
-        int distKeyLength = firstKey.getDistKeyLength();
-        // Add first distinct expression, if any.
-        if (numDistinctExprs > 0) {
-          populateCachedDistinctKeys(vrg, rowIndex, 0);
-          firstKey = toHiveKey(cachedKeys[0], tag, distKeyLength);
+        HiveKey firstKey;
+        int distKeyLength;
+        if (keyBatchSerializer != null) {
+          firstKey = toHiveKey(batchIndex, tag);
+          distKeyLength = firstKey.getDistKeyLength();
+        } else {
+          // First, make distrib key components for this row and determine distKeyLength.
+          populatedCachedDistributionKeys(vrg, rowIndex, 0);
+          firstKey = toHiveKey(cachedKeys[0], tag, null);
+          distKeyLength = firstKey.getDistKeyLength();
+          // Add first distinct expression, if any.
+          if (numDistinctExprs > 0) {
+            populateCachedDistinctKeys(vrg, rowIndex, 0);
+            firstKey = toHiveKey(cachedKeys[0], tag, distKeyLength);
+          }
         }
 
         if (useTopN) {
           reducerHash.tryStoreVectorizedKey(firstKey, batchIndex);
         } else {
         // No TopN, just forward the first key and all others.
-          int hashCode = computeHashCode(vrg, rowIndex);
-          firstKey.setHashCode(hashCode);
-          BytesWritable value = makeValueWritable(vrg, rowIndex);
-          collect(firstKey, value);
+          int hashCode = computeHashCode(vrg, batchIndex, rowIndex);
+          BytesWritable value = makeValueWritable(vrg, batchIndex, rowIndex);
+          collect(firstKey, value, hashCode);
           forwardExtraDistinctRows(vrg, rowIndex, hashCode, value, distKeyLength, tag, 0);
         }
       }
@@ -266,14 +365,13 @@ public void processOp(Object row, int tag) throws HiveException {
           rowIndex = vrg.selected[batchIndex];
         }
         // Compute value and hashcode - we'd either store or forward them.
-        int hashCode = computeHashCode(vrg, rowIndex);
-        BytesWritable value = makeValueWritable(vrg, rowIndex);
+        int hashCode = computeHashCode(vrg, batchIndex, rowIndex);
+        BytesWritable value = makeValueWritable(vrg, batchIndex, rowIndex);
         int distKeyLength = -1;
         if (result == TopNHash.FORWARD) {
           HiveKey firstKey = reducerHash.getVectorizedKeyToForward(batchIndex);
-          firstKey.setHashCode(hashCode);
           distKeyLength = firstKey.getDistKeyLength();
-          collect(firstKey, value);
+          collect(firstKey, value, hashCode);
         } else {
           reducerHash.storeValue(result, value, hashCode, true);
           distKeyLength = reducerHash.getVectorizedKeyDistLength(batchIndex);
@@ -360,8 +458,33 @@ private void populateCachedDistinctKeys(
     union.setTag((byte) index);
   }
 
-  private BytesWritable makeValueWritable(VectorizedRowBatch vrg, int rowIndex)
+  /**
+   * Make the key of a row from the keys serialized for the batch.
+   * @param batchIndex the position of the row in the batch
+   * @param tag the tag
+   */
+  private HiveKey toHiveKey(int batchIndex, int tag) {
+    byte[] bytes = keyBatchSerializer.getBytes();
+    int start = keyBatchSerializer.getStart(batchIndex);
+    int keyLength = keyBatchSerializer.getLength(batchIndex);
+    if (tag == -1) {
+      keyWritable.set(bytes, start, keyLength);
+    } else {
+      keyWritable.setSize(keyLength + 1);
+      System.arraycopy(bytes, start, keyWritable.get(), 0, keyLength);
+      keyWritable.get()[keyLength] = tagByte[0];
+    }
+    keyWritable.setDistKeyLength(keyLength);
+    return keyWritable;
+  }
+
+  private BytesWritable makeValueWritable(VectorizedRowBatch vrg, int batchIndex, int rowIndex)
       throws HiveException, SerDeException {
+    if (valueBatchSerializer != null) {
+      batchValue.set(valueBatchSerializer.getBytes(), valueBatchSerializer.getStart(batchIndex),
+          valueBatchSerializer.getLength(batchIndex));
+      return batchValue;
+    }
     for (int i = 0; i < valueEval.length; i++) {
       int batchColumn = valueEval[i].getOutputColumn();
       ColumnVector vectorColumn = vrg.cols[batchColumn];
@@ -371,7 +494,11 @@ private BytesWritable makeValueWritable(VectorizedRowBatch vrg, int rowIndex)
     return (BytesWritable)valueSerializer.serialize(cachedValues, valueObjectInspector);
   }
 
-  private int computeHashCode(VectorizedRowBatch vrg, int rowIndex) throws HiveException {
+  private int computeHashCode(VectorizedRowBatch vrg, int batchIndex, int rowIndex)
+      throws HiveException {
+    if (partitionCategories != null) {
+      return hashCodes[batchIndex];
+    }
     // Evaluate the HashCode
     int keyHashCode = 0;
     if (partitionEval.length == 0) {
@@ -397,6 +524,112 @@ private int computeHashCode(VectorizedRowBatch vrg, int rowIndex) throws HiveExc
     return keyHashCode;
   }
 
+  /**
+   * Compute the hash codes of the partition columns of all the rows of the batch, the same way
+   * ObjectInspectorUtils.hashCode does for each row.
+   */
+  private void computeHashCodes(VectorizedRowBatch vrg) {
+    int size = vrg.size;
+    int[] selected = vrg.selectedInUse ? vrg.selected : null;
+    if (hashCodes.length < size) {
+      hashCodes = new int[size];
+    }
+    Arrays.fill(hashCodes, 0, size, 0);
+    for (int p = 0; p < partitionEval.length; p++) {
+      ColumnVector col = vrg.cols[partitionEval[p].getOutputColumn()];
+      switch (partitionCategories[p]) {
+      case BOOLEAN:
+        hashBooleans((LongColumnVector) col, size, selected);
+        break;
+      case BYTE:
+        hashLongs((LongColumnVector) col, size, selected, 8);
+        break;
+      case SHORT:
+        hashLongs((LongColumnVector) col, size, selected, 16);
+        break;
+      case INT:
+        hashLongs((LongColumnVector) col, size, selected, 32);
+        break;
+      case LONG:
+        hashLongs((LongColumnVector) col, size, selected, 64);
+        break;
+      case FLOAT:
+        hashDoubles((DoubleColumnVector) col, size, selected, true);
+        break;
+      case DOUBLE:
+        hashDoubles((DoubleColumnVector) col, size, selected, false);
+        break;
+      case STRING:
+        hashStrings((BytesColumnVector) col, size, selected);
+        break;
+      default:
+        throw new RuntimeException("Unsupported type: " + partitionCategories[p]);
+      }
+    }
+  }
+
+  private void hashBooleans(LongColumnVector col, int size, int[] selected) {
+    long[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = VectorBatchSerializer.getRow(col, i, selected);
+      int h = 0;
+      if ((col.noNulls || !col.isNull[r]) && vector[r] != 0) {
+        h = 1;
+      }
+      hashCodes[i] = hashCodes[i] * 31 + h;
+    }
+  }
+
+  /**
+   * Hash the values as the integral type of the given number of bits: the value itself when
+   * it fits in an int, as for bytes, shorts and ints, and else the two halves xor'ed.
+   */
+  private void hashLongs(LongColumnVector col, int size, int[] selected, int bits) {
+    long[] vector = col.vector;
+    int unused = 64 - bits;
+    for (int i = 0; i < size; i++) {
+      int r = VectorBatchSerializer.getRow(col, i, selected);
+      int h = 0;
+      if (col.noNulls || !col.isNull[r]) {
+        long v = vector[r];
+        h = bits == 64 ? (int) ((v >>> 32) ^ v) : (int) ((v << unused) >> unused);
+      }
+      hashCodes[i] = hashCodes[i] * 31 + h;
+    }
+  }
+
+  private void hashDoubles(DoubleColumnVector col, int size, int[] selected, boolean isFloat) {
+    double[] vector = col.vector;
+    for (int i = 0; i < size; i++) {
+      int r = VectorBatchSerializer.getRow(col, i, selected);
+      int h = 0;
+      if (col.noNulls || !col.isNull[r]) {
+        if (isFloat) {
+          h = Float.floatToIntBits((float) vector[r]);
+        } else {
+          long v = Double.doubleToLongBits(vector[r]);
+          h = (int) ((v >>> 32) ^ v);
+        }
+      }
+      hashCodes[i] = hashCodes[i] * 31 + h;
+    }
+  }
+
+  private void hashStrings(BytesColumnVector col, int size, int[] selected) {
+    for (int i = 0; i < size; i++) {
+      int r = VectorBatchSerializer.getRow(col, i, selected);
+      int h = 0;
+      if (col.noNulls || !col.isNull[r]) {
+        byte[] bytes = col.vector[r];
+        int end = col.start[r] + col.length[r];
+        for (int j = col.start[r]; j < end; j++) {
+          h = h * 31 + bytes[j];
+        }
+      }
+      hashCodes[i] = hashCodes[i] * 31 + h;
+    }
+  }
+
   static public String getOperatorName() {
     return "RS";
   }
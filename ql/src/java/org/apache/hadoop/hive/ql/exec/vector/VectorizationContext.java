@@ -19,6 +19,7 @@
 package org.apache.hadoop.hive.ql.exec.vector;
 
 import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,6 +31,7 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluator;
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluatorFactory;
 import org.apache.hadoop.hive.ql.exec.FunctionInfo;
@@ -40,8 +42,12 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor.Mode;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.*;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorAggregateExpression;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFAvgDecimal;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCount;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCountStar;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFMaxDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFMinDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFSumDecimal;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFAvgDouble;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFAvgLong;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMaxDouble;
@@ -82,6 +88,7 @@
 import org.apache.hadoop.hive.ql.udf.UDFHex;
 import org.apache.hadoop.hive.ql.udf.UDFOPNegative;
 import org.apache.hadoop.hive.ql.udf.UDFOPPositive;
+import org.apache.hadoop.hive.ql.udf.UDFRegExpReplace;
 import org.apache.hadoop.hive.ql.udf.UDFToBoolean;
 import org.apache.hadoop.hive.ql.udf.UDFToByte;
 import org.apache.hadoop.hive.ql.udf.UDFToDouble;
@@ -93,6 +100,8 @@
 import org.apache.hadoop.hive.ql.udf.generic.*;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 
 /**
  * Context class for vectorization execution.
@@ -262,8 +271,25 @@ public VectorExpression getVectorExpression(ExprNodeDesc exprDesc, Mode mode) th
       if (isCustomUDF(expr) || isNonVectorizedPathUDF(expr)) {
         ve = getCustomUDFExpression(expr);
       } else {
-        ve = getGenericUdfVectorExpression(expr.getGenericUDF(),
-            expr.getChildren(), mode);
+        if (isDecimalExpression(expr)) {
+          ve = getDecimalVectorExpression(expr, mode);
+        }
+        if (ve == null) {
+          ve = getConditionalExpression(expr, mode);
+        }
+        if (ve == null && hasAdaptorFallback(expr)) {
+          ve = getVectorExpressionForUdf(getUdfClass(expr.getGenericUDF()),
+              foldConstantsForUnaryExprs(expr.getChildren()), mode);
+          if (ve == null) {
+            // Only some combinations of columns and constants have a vectorized
+            // kernel, the rest still run vectorized through the adaptor.
+            ve = getCustomUDFExpression(expr);
+          }
+        }
+        if (ve == null) {
+          ve = getGenericUdfVectorExpression(expr.getGenericUDF(),
+              expr.getChildren(), mode);
+        }
       }
     } else if (exprDesc instanceof ExprNodeConstantDesc) {
       ve = getConstantVectorExpression((ExprNodeConstantDesc) exprDesc, mode);
@@ -322,6 +348,18 @@ public static String arg0Type(ExprNodeGenericFuncDesc expr) {
     return type;
   }
 
+  /* Return true if this is one of the built-in functions that have vectorized
+   * kernels only for some of their argument types. The others are evaluated
+   * with the VectorUDFAdaptor instead of falling back to row mode.
+   */
+  private static boolean hasAdaptorFallback(ExprNodeGenericFuncDesc expr) {
+    GenericUDF gudf = expr.getGenericUDF();
+    if (gudf instanceof GenericUDFBridge) {
+      return ((GenericUDFBridge) gudf).getUdfClass().equals(UDFRegExpReplace.class);
+    }
+    return gudf instanceof GenericUDFInstr || gudf instanceof GenericUDFLocate;
+  }
+
   // Return true if this is a custom UDF or custom GenericUDF.
   // This is for use only in the planner. It will fail in a task.
   public static boolean isCustomUDF(ExprNodeGenericFuncDesc expr) {
@@ -391,12 +429,23 @@ private List<ExprNodeDesc> foldConstantsForUnaryExprs(List<ExprNodeDesc> childEx
   private VectorExpression getConstantVectorExpression(ExprNodeConstantDesc exprDesc, Mode mode)
       throws HiveException {
     String type = exprDesc.getTypeString();
-    String colVectorType = getNormalizedTypeName(type);
+    String colVectorType = isDecimalFamily(type) ? type : getNormalizedTypeName(type);
     int outCol = -1;
     if (mode == Mode.PROJECTION) {
       outCol = ocm.allocateOutputColumn(colVectorType);
     }
-    if (type.equalsIgnoreCase("long") || type.equalsIgnoreCase("int") ||
+    if (isDecimalFamily(type)) {
+      DecimalTypeInfo typeInfo = (DecimalTypeInfo) exprDesc.getTypeInfo();
+      if (typeInfo.precision() > DecimalColumnVector.MAX_PRECISION) {
+        throw new HiveException("Unsupported constant type: " + type);
+      }
+      BigDecimal value = ((HiveDecimal) exprDesc.getValue()).bigDecimalValue()
+          .setScale(typeInfo.scale(), BigDecimal.ROUND_HALF_UP);
+      ConstantVectorExpression ve = new ConstantVectorExpression(outCol,
+          value.unscaledValue().longValue());
+      ve.setTypeString(type);
+      return ve;
+    } else if (type.equalsIgnoreCase("long") || type.equalsIgnoreCase("int") ||
         type.equalsIgnoreCase("short") || type.equalsIgnoreCase("byte")) {
       return new ConstantVectorExpression(outCol,
           ((Number) exprDesc.getValue()).longValue());
@@ -554,6 +603,124 @@ private VectorExpression instantiateExpression(Class<?> vclass, Object...args)
     return null;
   }
 
+  private static Class<?> getUdfClass(GenericUDF udf) {
+    if (udf instanceof GenericUDFBridge) {
+      return ((GenericUDFBridge) udf).getUdfClass();
+    }
+    return udf.getClass();
+  }
+
+  /**
+   * Create a vector expression for IF, CASE, COALESCE or NVL. The arguments
+   * are evaluated lazily by the expression, so they must all have their own
+   * columns, which are kept allocated until the output column is allocated.
+   * @return the expression, or null if this is not a conditional expression
+   */
+  private VectorExpression getConditionalExpression(ExprNodeGenericFuncDesc expr, Mode mode)
+      throws HiveException {
+    GenericUDF udf = expr.getGenericUDF();
+    List<ExprNodeDesc> arguments;
+    boolean isCaseWhen;
+    if (udf instanceof GenericUDFIf || udf instanceof GenericUDFWhen) {
+      arguments = expr.getChildren();
+      isCaseWhen = true;
+    } else if (udf instanceof GenericUDFCase) {
+      arguments = getCaseWhenArguments(expr.getChildren());
+      isCaseWhen = true;
+    } else if (udf instanceof GenericUDFCoalesce || udf instanceof GenericUDFNvl) {
+      arguments = expr.getChildren();
+      isCaseWhen = false;
+    } else {
+      return null;
+    }
+
+    String resultType = expr.getTypeString();
+    if (isDecimalFamily(resultType)) {
+      throw new HiveException("Conditional expressions returning " + resultType
+          + " are not supported");
+    }
+    String outputType = getNormalizedTypeName(resultType);
+
+    int numArguments = arguments.size();
+    int[] inputColumns = new int[numArguments];
+    VectorExpression[] argumentExpressions = new VectorExpression[numArguments];
+    try {
+      for (int i = 0; i < numArguments; i++) {
+        ExprNodeDesc child = arguments.get(i);
+        if (isNullConstant(child)) {
+          inputColumns[i] = -1;
+          continue;
+        }
+        boolean isCondition = isCaseWhen && i % 2 == 0 && i < numArguments - 1;
+        if (!isCondition && !outputType.equals(getNormalizedTypeName(child.getTypeString()))) {
+          // The value would need a cast to the type of the result.
+          throw new HiveException("Conditional expression argument of type "
+              + child.getTypeString() + " does not match the result type " + resultType);
+        }
+        argumentExpressions[i] = getVectorExpression(child, Mode.PROJECTION);
+        inputColumns[i] = argumentExpressions[i].getOutputColumn();
+      }
+    } catch (HiveException e) {
+      freeOutputColumns(argumentExpressions);
+      throw e;
+    }
+
+    int outputColumn = ocm.allocateOutputColumn(outputType);
+    freeOutputColumns(argumentExpressions);
+    ConditionalExpression ve;
+    if (isCaseWhen) {
+      ve = new CaseWhenExpression(inputColumns, outputColumn, outputType);
+    } else {
+      ve = new CoalesceExpression(inputColumns, outputColumn, outputType);
+    }
+    ve.setArgumentExpressions(argumentExpressions);
+
+    if (mode == Mode.FILTER) {
+      VectorExpression filter = new SelectColumnIsTrue(outputColumn);
+      filter.setChildExpressions(new VectorExpression[] {ve});
+      ocm.freeOutputColumn(outputColumn);
+      return filter;
+    }
+    return ve;
+  }
+
+  /**
+   * Rewrite the arguments of CASE x WHEN a1 THEN v1 ... ELSE e END into those
+   * of CASE WHEN x = a1 THEN v1 ... ELSE e END.
+   */
+  private List<ExprNodeDesc> getCaseWhenArguments(List<ExprNodeDesc> caseArguments)
+      throws HiveException {
+    ExprNodeDesc caseExpr = caseArguments.get(0);
+    List<ExprNodeDesc> arguments = new ArrayList<ExprNodeDesc>();
+    int i = 1;
+    for (; i + 1 < caseArguments.size(); i += 2) {
+      List<ExprNodeDesc> equalArguments = new ArrayList<ExprNodeDesc>();
+      equalArguments.add(caseExpr);
+      equalArguments.add(caseArguments.get(i));
+      arguments.add(ExprNodeGenericFuncDesc.newInstance(new GenericUDFOPEqual(), "=",
+          equalArguments));
+      arguments.add(caseArguments.get(i + 1));
+    }
+    if (i < caseArguments.size()) {
+      arguments.add(caseArguments.get(i));
+    }
+    return arguments;
+  }
+
+  private static boolean isNullConstant(ExprNodeDesc exprDesc) {
+    return exprDesc instanceof ExprNodeNullDesc
+        || (exprDesc instanceof ExprNodeConstantDesc
+            && ((ExprNodeConstantDesc) exprDesc).getValue() == null);
+  }
+
+  private void freeOutputColumns(VectorExpression[] expressions) {
+    for (VectorExpression ve : expressions) {
+      if (ve != null) {
+        ocm.freeOutputColumn(ve.getOutputColumn());
+      }
+    }
+  }
+
   private VectorExpression getGenericUdfVectorExpression(GenericUDF udf,
       List<ExprNodeDesc> childExpr, Mode mode) throws HiveException {
     //First handle special cases
@@ -569,10 +736,7 @@ private VectorExpression getGenericUdfVectorExpression(GenericUDF udf,
     }
 
     // Now do a general lookup
-    Class<?> udfClass = udf.getClass();
-    if (udf instanceof GenericUDFBridge) {
-      udfClass = ((GenericUDFBridge) udf).getUdfClass();
-    }
+    Class<?> udfClass = getUdfClass(udf);
 
     List<ExprNodeDesc> constantFoldedChildren = foldConstantsForUnaryExprs(childExpr);
     VectorExpression ve = getVectorExpressionForUdf(udfClass, constantFoldedChildren, mode);
@@ -813,6 +977,181 @@ private VectorExpression getBetweenFilterExpression(List<ExprNodeDesc> childExpr
     return createVectorExpression(cl, childrenAfterNot, Mode.PROJECTION);
   }
 
+  /**
+   * Returns true if the expression produces a decimal or takes a decimal argument. Such
+   * expressions are built by {@link #getDecimalVectorExpression}, because the generic
+   * lookup through the descriptors cannot carry the precision and scale of the operands.
+   */
+  private static boolean isDecimalExpression(ExprNodeGenericFuncDesc expr) {
+    if (isDecimalFamily(expr.getTypeString())) {
+      return true;
+    }
+    if (expr.getChildren() != null) {
+      for (ExprNodeDesc child : expr.getChildren()) {
+        if (isDecimalFamily(child.getTypeString())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Builds the vector expressions that operate on decimal columns: +, -, * and comparisons
+   * between decimal (or integer) operands, and casts to and from decimal. Returns null for
+   * the functions that the generic path handles on any column type, like IS NULL.
+   */
+  private VectorExpression getDecimalVectorExpression(ExprNodeGenericFuncDesc expr, Mode mode)
+      throws HiveException {
+    GenericUDF udf = expr.getGenericUDF();
+    List<ExprNodeDesc> childExpr = expr.getChildren();
+    String resultType = expr.getTypeString();
+
+    if (udf instanceof GenericUDFOPPlus) {
+      return getDecimalArithmeticExpression(DecimalUtil.ArithmeticOperator.PLUS, childExpr,
+          resultType);
+    } else if (udf instanceof GenericUDFOPMinus) {
+      return getDecimalArithmeticExpression(DecimalUtil.ArithmeticOperator.MINUS, childExpr,
+          resultType);
+    } else if (udf instanceof GenericUDFOPMultiply) {
+      return getDecimalArithmeticExpression(DecimalUtil.ArithmeticOperator.MULTIPLY, childExpr,
+          resultType);
+    } else if (udf instanceof GenericUDFOPEqual) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.EQUAL, childExpr, mode);
+    } else if (udf instanceof GenericUDFOPNotEqual) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.NOT_EQUAL, childExpr,
+          mode);
+    } else if (udf instanceof GenericUDFOPLessThan) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.LESS, childExpr, mode);
+    } else if (udf instanceof GenericUDFOPEqualOrLessThan) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.LESS_EQUAL, childExpr,
+          mode);
+    } else if (udf instanceof GenericUDFOPGreaterThan) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.GREATER, childExpr,
+          mode);
+    } else if (udf instanceof GenericUDFOPEqualOrGreaterThan) {
+      return getDecimalComparisonExpression(DecimalUtil.ComparisonOperator.GREATER_EQUAL,
+          childExpr, mode);
+    } else if (udf instanceof GenericUDFToDecimal) {
+      return getCastToDecimal(childExpr, resultType);
+    } else if (udf instanceof GenericUDFBridge && isDecimalFamily(arg0Type(expr))) {
+      Class<? extends UDF> udfClass = ((GenericUDFBridge) udf).getUdfClass();
+      if (isCastToIntFamily(udfClass)) {
+        return createVectorExpression(CastDecimalToLong.class, childExpr, Mode.PROJECTION);
+      } else if (isCastToFloatFamily(udfClass)) {
+        return createVectorExpression(CastDecimalToDouble.class, childExpr, Mode.PROJECTION);
+      }
+    } else if (udf instanceof GenericUDFOPNull || udf instanceof GenericUDFOPNotNull) {
+      return null;
+    }
+    throw new HiveException("Udf: " + udf.getClass().getSimpleName()
+        + ", is not supported for decimal arguments");
+  }
+
+  /**
+   * Returns the column holding a decimal or integer operand, adding the expression that
+   * computes it, if any, to the given list. Constants are materialized as repeating columns.
+   */
+  private int getDecimalOperandColumn(ExprNodeDesc child, List<VectorExpression> children)
+      throws HiveException {
+    String type = child.getTypeString();
+    if (!isDecimalFamily(type) && !isIntFamily(type)) {
+      throw new HiveException("Type " + type + " is not supported with decimal operands");
+    }
+    return getOperandColumn(child, children);
+  }
+
+  private int getOperandColumn(ExprNodeDesc child, List<VectorExpression> children)
+      throws HiveException {
+    if (child instanceof ExprNodeColumnDesc) {
+      return getInputColumnIndex((ExprNodeColumnDesc) child);
+    }
+    VectorExpression ve;
+    if (child instanceof ExprNodeGenericFuncDesc) {
+      ve = getVectorExpression(child, Mode.PROJECTION);
+    } else if (child instanceof ExprNodeConstantDesc) {
+      ve = getConstantVectorExpression((ExprNodeConstantDesc) child, Mode.PROJECTION);
+    } else {
+      throw new HiveException("Cannot handle expression type: "
+          + child.getClass().getSimpleName());
+    }
+    children.add(ve);
+    return ve.getOutputColumn();
+  }
+
+  private VectorExpression getDecimalArithmeticExpression(DecimalUtil.ArithmeticOperator op,
+      List<ExprNodeDesc> childExpr, String resultType) throws HiveException {
+    if (!isDecimalFamily(resultType)) {
+      throw new HiveException("Decimal arithmetic returning " + resultType + " is not supported");
+    }
+    List<VectorExpression> children = new ArrayList<VectorExpression>();
+    try {
+      int colNum1 = getDecimalOperandColumn(childExpr.get(0), children);
+      int colNum2 = getDecimalOperandColumn(childExpr.get(1), children);
+      int outputCol = ocm.allocateOutputColumn(resultType);
+      VectorExpression ve = new DecimalColArithmeticDecimalColumn(colNum1, colNum2, outputCol,
+          op, resultType);
+      if (!children.isEmpty()) {
+        ve.setChildExpressions(children.toArray(new VectorExpression[0]));
+      }
+      return ve;
+    } finally {
+      for (VectorExpression child : children) {
+        ocm.freeOutputColumn(child.getOutputColumn());
+      }
+    }
+  }
+
+  private VectorExpression getDecimalComparisonExpression(DecimalUtil.ComparisonOperator op,
+      List<ExprNodeDesc> childExpr, Mode mode) throws HiveException {
+    List<VectorExpression> children = new ArrayList<VectorExpression>();
+    try {
+      int colNum1 = getDecimalOperandColumn(childExpr.get(0), children);
+      int colNum2 = getDecimalOperandColumn(childExpr.get(1), children);
+      VectorExpression ve;
+      if (mode == Mode.FILTER) {
+        ve = new FilterDecimalColCompareDecimalColumn(colNum1, colNum2, op);
+      } else {
+        int outputCol = ocm.allocateOutputColumn("Long");
+        ve = new DecimalColCompareDecimalColumn(colNum1, colNum2, outputCol, op);
+      }
+      if (!children.isEmpty()) {
+        ve.setChildExpressions(children.toArray(new VectorExpression[0]));
+      }
+      return ve;
+    } finally {
+      for (VectorExpression child : children) {
+        ocm.freeOutputColumn(child.getOutputColumn());
+      }
+    }
+  }
+
+  private VectorExpression getCastToDecimal(List<ExprNodeDesc> childExpr, String resultType)
+      throws HiveException {
+    ExprNodeDesc child = childExpr.get(0);
+    List<VectorExpression> children = new ArrayList<VectorExpression>();
+    try {
+      VectorExpression ve;
+      if (isFloatFamily(child.getTypeString())) {
+        int inputCol = getOperandColumn(child, children);
+        int outputCol = ocm.allocateOutputColumn(resultType);
+        ve = new CastDoubleToDecimal(inputCol, outputCol, resultType);
+      } else {
+        int inputCol = getDecimalOperandColumn(child, children);
+        int outputCol = ocm.allocateOutputColumn(resultType);
+        ve = new CastLongToDecimal(inputCol, outputCol, resultType);
+      }
+      if (!children.isEmpty()) {
+        ve.setChildExpressions(children.toArray(new VectorExpression[0]));
+      }
+      return ve;
+    } finally {
+      for (VectorExpression ve : children) {
+        ocm.freeOutputColumn(ve.getOutputColumn());
+      }
+    }
+  }
+
   /*
    * Return vector expression for a custom (i.e. not built-in) UDF.
    */
@@ -860,6 +1199,9 @@ private VectorExpression getCustomUDFExpression(ExprNodeGenericFuncDesc expr)
     // Allocate output column and get column number;
     int outputCol = -1;
     String resultType = expr.getTypeInfo().getTypeName();
+    if (isDecimalFamily(resultType)) {
+      throw new HiveException("Custom UDFs returning " + resultType + " are not supported");
+    }
     String resultColVectorType = getNormalizedTypeName(resultType);
     outputCol = ocm.allocateOutputColumn(resultColVectorType);
 
@@ -883,6 +1225,10 @@ private VectorExpression getCustomUDFExpression(ExprNodeGenericFuncDesc expr)
     return ve;
   }
 
+  public static boolean isDecimalFamily(String resultType) {
+    return DecimalColumnVector.isDecimalType(resultType);
+  }
+
   public static boolean isStringFamily(String resultType) {
     return resultType.equalsIgnoreCase("string");
   }
@@ -919,6 +1265,9 @@ public static String mapJavaTypeToVectorType(String javaType)
         isDatetimeFamily(javaType)) {
       return "bigint";
     }
+    if (isDecimalFamily(javaType)) {
+      return javaType;
+    }
     throw new HiveException("Unsuported type for vectorization: " + javaType);
   }
 
@@ -1035,6 +1384,8 @@ static String getNormalizedTypeName(String colType) {
       normalizedType = "Double";
     } else if (colType.equalsIgnoreCase("String")) {
       normalizedType = "String";
+    } else if (isDecimalFamily(colType)) {
+      normalizedType = "Decimal";
     } else {
       normalizedType = "Long";
     }
@@ -1070,6 +1421,11 @@ static String getNormalizedTypeName(String colType) {
     {"stddev_pop","Double", VectorUDAFStdPopDouble.class},
     {"stddev_samp","Long",  VectorUDAFStdSampLong.class},
     {"stddev_samp","Double",VectorUDAFStdSampDouble.class},
+    {"min",       "Decimal",VectorUDAFMinDecimal.class},
+    {"max",       "Decimal",VectorUDAFMaxDecimal.class},
+    {"count",     "Decimal",VectorUDAFCount.class},
+    {"sum",       "Decimal",VectorUDAFSumDecimal.class},
+    {"avg",       "Decimal",VectorUDAFAvgDecimal.class},
   };
 
   public VectorAggregateExpression getAggregatorExpression(AggregationDesc desc)
@@ -1086,6 +1442,14 @@ public VectorAggregateExpression getAggregatorExpression(AggregationDesc desc)
     String aggregateName = desc.getGenericUDAFName();
     String inputType = null;
 
+    GenericUDAFEvaluator.Mode udafMode = desc.getMode();
+    if ("count".equalsIgnoreCase(aggregateName) &&
+        (udafMode == GenericUDAFEvaluator.Mode.PARTIAL2 ||
+         udafMode == GenericUDAFEvaluator.Mode.FINAL)) {
+      // Partial counts coming out of the shuffle are merged by adding them up
+      aggregateName = "sum";
+    }
+
     if (paramDescList.size() > 0) {
       ExprNodeDesc inputExpr = paramDescList.get(0);
       inputType = getNormalizedTypeName(inputExpr.getTypeString());
@@ -1140,6 +1504,9 @@ public static ColumnVector allocateColumnVector(String type, int defaultSize) {
       return new DoubleColumnVector(defaultSize);
     } else if (isStringFamily(type)) {
       return new BytesColumnVector(defaultSize);
+    } else if (isDecimalFamily(type)) {
+      DecimalTypeInfo typeInfo = (DecimalTypeInfo) TypeInfoUtils.getTypeInfoFromTypeString(type);
+      return new DecimalColumnVector(defaultSize, typeInfo.precision(), typeInfo.scale());
     } else {
       return new LongColumnVector(defaultSize);
     }
@@ -24,6 +24,7 @@
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.io.ByteWritable;
 import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.hadoop.hive.serde2.io.ShortWritable;
 import org.apache.hadoop.hive.serde2.io.TimestampWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -192,6 +193,17 @@ public static void AddRowToBatch(Object row, StructObjectInspector oi, int rowIn
         }
       }
         break;
+      case DECIMAL: {
+        DecimalColumnVector dcv = (DecimalColumnVector) batch.cols[i];
+        if (writableCol != null) {
+          dcv.isNull[rowIndex] = false;
+          dcv.set(rowIndex, ((HiveDecimalWritable) writableCol).getHiveDecimal());
+        } else {
+          dcv.vector[rowIndex] = 1;
+          SetNullColIsNullValue(dcv, rowIndex);
+        }
+      }
+        break;
       default:
         throw new HiveException("Vectorizaton is not supported for datatype:"
             + poi.getPrimitiveCategory());
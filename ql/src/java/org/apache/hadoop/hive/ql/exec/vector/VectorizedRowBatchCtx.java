@@ -41,6 +41,8 @@
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapred.FileSplit;
 
@@ -90,6 +92,21 @@ public VectorizedRowBatchCtx(StructObjectInspector rawRowOI, StructObjectInspect
     this.partitionValues = partitionValues;
   }
 
+  /**
+   * Constructor for VectorizedRowBatchCtx used when the rows do not come from a file split,
+   * e.g. on the reduce side where a row is made of the reduce key and value columns.
+   *
+   * @param rowOI
+   *          OI for the row
+   * @param columnTypeMap
+   *          Types of the scratch columns, keyed by column index
+   */
+  public VectorizedRowBatchCtx(StructObjectInspector rowOI, Map<Integer, String> columnTypeMap) {
+    this.rowOI = rowOI;
+    this.rawRowOI = rowOI;
+    this.columnTypeMap = columnTypeMap;
+  }
+
   /**
    * Constructor for VectorizedRowBatchCtx
    */
@@ -214,7 +231,7 @@ public VectorizedRowBatch createVectorizedRowBatch() throws HiveException
         case PRIMITIVE: {
           PrimitiveObjectInspector poi = (PrimitiveObjectInspector) foi;
           // Vectorization currently only supports the following data types:
-          // BOOLEAN, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, STRING and TIMESTAMP
+          // BOOLEAN, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, STRING, TIMESTAMP and DECIMAL
           switch (poi.getPrimitiveCategory()) {
           case BOOLEAN:
           case BYTE:
@@ -231,6 +248,11 @@ public VectorizedRowBatch createVectorizedRowBatch() throws HiveException
           case STRING:
             result.cols[j] = new BytesColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
             break;
+          case DECIMAL:
+            DecimalTypeInfo decimalTypeInfo = (DecimalTypeInfo) poi.getTypeInfo();
+            result.cols[j] = new DecimalColumnVector(VectorizedRowBatch.DEFAULT_SIZE,
+                decimalTypeInfo.precision(), decimalTypeInfo.scale());
+            break;
           default:
             throw new RuntimeException("Vectorizaton is not supported for datatype:"
                 + poi.getPrimitiveCategory());
@@ -347,6 +369,11 @@ private ColumnVector allocateColumnVector(String type, int defaultSize) {
       return new DoubleColumnVector(defaultSize);
     } else if (type.equalsIgnoreCase("string")) {
       return new BytesColumnVector(defaultSize);
+    } else if (DecimalColumnVector.isDecimalType(type)) {
+      DecimalTypeInfo decimalTypeInfo =
+          (DecimalTypeInfo) TypeInfoUtils.getTypeInfoFromTypeString(type);
+      return new DecimalColumnVector(defaultSize,
+          decimalTypeInfo.precision(), decimalTypeInfo.scale());
     } else {
       return new LongColumnVector(defaultSize);
     }
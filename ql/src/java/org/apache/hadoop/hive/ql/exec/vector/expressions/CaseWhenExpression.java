@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Vectorized CASE WHEN c1 THEN v1 WHEN c2 THEN v2 ... ELSE e END, which is
+ * also used for IF(c, v, e) and for CASE x WHEN a THEN ..., where the
+ * conditions are x = a. The arguments are the pairs of conditions and values,
+ * followed by the optional else value.
+ *
+ * Each condition is evaluated only on the rows that none of the earlier
+ * conditions matched, and each value only on the rows its condition matched.
+ */
+public class CaseWhenExpression extends ConditionalExpression {
+  private static final long serialVersionUID = 1L;
+
+  private transient int[] remaining;
+  private transient int[] matched;
+  private transient int[] unmatched;
+
+  public CaseWhenExpression(int[] inputColumns, int outputColumn, String outputType) {
+    super(inputColumns, outputColumn, outputType);
+  }
+
+  public CaseWhenExpression() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+    int n = batch.size;
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+    ColumnVector outV = batch.cols[outputColumn];
+    initOutput(outV);
+
+    remaining = ensureCapacity(remaining, batch);
+    matched = ensureCapacity(matched, batch);
+    unmatched = ensureCapacity(unmatched, batch);
+    getRows(batch, remaining);
+
+    saveSelected(batch);
+    try {
+      int numWhens = inputColumns.length / 2;
+      for (int when = 0; when < numWhens && n > 0; when++) {
+        LongColumnVector cond =
+            (LongColumnVector) evaluateArgument(batch, 2 * when, remaining, n);
+        int numMatched = 0;
+        int numUnmatched = 0;
+        for (int j = 0; j < n; j++) {
+          int i = remaining[j];
+          if (isTrue(cond, i)) {
+            matched[numMatched++] = i;
+          } else {
+            unmatched[numUnmatched++] = i;
+          }
+        }
+        if (numMatched > 0) {
+          ColumnVector value = evaluateArgument(batch, 2 * when + 1, matched, numMatched);
+          for (int j = 0; j < numMatched; j++) {
+            copyRow(value, outV, matched[j]);
+          }
+        }
+        int[] swap = remaining;
+        remaining = unmatched;
+        unmatched = swap;
+        n = numUnmatched;
+      }
+
+      if (n > 0) {
+        if (inputColumns.length % 2 == 1) {
+          ColumnVector value = evaluateArgument(batch, inputColumns.length - 1, remaining, n);
+          for (int j = 0; j < n; j++) {
+            copyRow(value, outV, remaining[j]);
+          }
+        } else {
+          for (int j = 0; j < n; j++) {
+            setNull(outV, remaining[j]);
+          }
+        }
+      }
+    } finally {
+      restoreSelected(batch);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Casts a decimal column to an integer column, truncating the fractional digits
+ * the same way HiveDecimal.longValue() does.
+ */
+public class CastDecimalToLong extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  private int inputColumn;
+  private int outputColumn;
+
+  public CastDecimalToLong(int inputColumn, int outputColumn) {
+    this();
+    this.inputColumn = inputColumn;
+    this.outputColumn = outputColumn;
+  }
+
+  public CastDecimalToLong() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    DecimalColumnVector inV = (DecimalColumnVector) batch.cols[inputColumn];
+    LongColumnVector outV = (LongColumnVector) batch.cols[outputColumn];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    long[] vector = inV.vector;
+    long[] outputVector = outV.vector;
+
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+
+    long factor = DecimalColumnVector.POWERS_OF_TEN[inV.scale];
+    outV.noNulls = inV.noNulls;
+    outV.isRepeating = inV.isRepeating;
+
+    if (inV.isRepeating) {
+      outputVector[0] = vector[0] / factor;
+      outV.isNull[0] = inV.isNull[0];
+    } else if (batch.selectedInUse) {
+      for(int j = 0; j != n; j++) {
+        int i = sel[j];
+        outputVector[i] = vector[i] / factor;
+      }
+      if (!inV.noNulls) {
+        for(int j = 0; j != n; j++) {
+          int i = sel[j];
+          outV.isNull[i] = inV.isNull[i];
+        }
+      }
+    } else {
+      for(int i = 0; i != n; i++) {
+        outputVector[i] = vector[i] / factor;
+      }
+      if (!inV.noNulls) {
+        System.arraycopy(inV.isNull, 0, outV.isNull, 0, n);
+      }
+    }
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return "long";
+  }
+
+  public int getInputColumn() {
+    return inputColumn;
+  }
+
+  public void setInputColumn(int inputColumn) {
+    this.inputColumn = inputColumn;
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder()).build();
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.math.BigDecimal;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Casts a double column to a decimal column of a given precision and scale.
+ * Values that do not fit in the output type, as well as NaN and infinities, are null.
+ */
+public class CastDoubleToDecimal extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  private int inputColumn;
+  private int outputColumn;
+  private String outputType;
+
+  public CastDoubleToDecimal(int inputColumn, int outputColumn, String outputType) {
+    this();
+    this.inputColumn = inputColumn;
+    this.outputColumn = outputColumn;
+    this.outputType = outputType;
+  }
+
+  public CastDoubleToDecimal() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    DoubleColumnVector inV = (DoubleColumnVector) batch.cols[inputColumn];
+    DecimalColumnVector outV = (DecimalColumnVector) batch.cols[outputColumn];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    double[] vector = inV.vector;
+
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+
+    boolean noNulls = inV.noNulls;
+    boolean[] inputIsNull = inV.isNull;
+
+    // Overflowing values are set to null as they are converted
+    outV.noNulls = noNulls;
+    outV.isRepeating = inV.isRepeating;
+
+    if (inV.isRepeating) {
+      outV.isNull[0] = !noNulls && inputIsNull[0];
+      setDecimal(outV, 0, vector[0]);
+    } else if (batch.selectedInUse) {
+      for(int j = 0; j != n; j++) {
+        int i = sel[j];
+        outV.isNull[i] = !noNulls && inputIsNull[i];
+        setDecimal(outV, i, vector[i]);
+      }
+    } else {
+      for(int i = 0; i != n; i++) {
+        outV.isNull[i] = !noNulls && inputIsNull[i];
+        setDecimal(outV, i, vector[i]);
+      }
+    }
+
+    NullUtil.setNullDataEntriesLong(outV, batch.selectedInUse, sel, n);
+  }
+
+  private static void setDecimal(DecimalColumnVector outV, int i, double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      outV.setNull(i);
+      return;
+    }
+
+    // Go through the decimal string form of the double, as the row mode cast does, so that
+    // values like 1.005 round the same way in both modes.
+    BigDecimal bd = BigDecimal.valueOf(value).setScale(outV.scale, BigDecimal.ROUND_HALF_UP);
+    if (bd.precision() > outV.precision && bd.signum() != 0) {
+      outV.setNull(i);
+    } else {
+      outV.vector[i] = bd.unscaledValue().longValue();
+    }
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return outputType;
+  }
+
+  public int getInputColumn() {
+    return inputColumn;
+  }
+
+  public void setInputColumn(int inputColumn) {
+    this.inputColumn = inputColumn;
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  public void setOutputType(String outputType) {
+    this.outputType = outputType;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder()).build();
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Casts an integer or decimal column to a decimal column of a given precision and scale.
+ * Integers are taken as decimals of scale 0. Values that do not fit in the output type are null.
+ */
+public class CastLongToDecimal extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  private int inputColumn;
+  private int outputColumn;
+  private String outputType;
+
+  public CastLongToDecimal(int inputColumn, int outputColumn, String outputType) {
+    this();
+    this.inputColumn = inputColumn;
+    this.outputColumn = outputColumn;
+    this.outputType = outputType;
+  }
+
+  public CastLongToDecimal() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    LongColumnVector inV = (LongColumnVector) batch.cols[inputColumn];
+    DecimalColumnVector outV = (DecimalColumnVector) batch.cols[outputColumn];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    long[] vector = inV.vector;
+
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+
+    int inputScale = DecimalUtil.getScale(inV);
+    boolean noNulls = inV.noNulls;
+    boolean[] inputIsNull = inV.isNull;
+
+    // Overflowing values are set to null as they are converted
+    outV.noNulls = noNulls;
+    outV.isRepeating = inV.isRepeating;
+
+    if (inV.isRepeating) {
+      outV.isNull[0] = !noNulls && inputIsNull[0];
+      outV.set(0, vector[0], inputScale);
+    } else if (batch.selectedInUse) {
+      for(int j = 0; j != n; j++) {
+        int i = sel[j];
+        outV.isNull[i] = !noNulls && inputIsNull[i];
+        outV.set(i, vector[i], inputScale);
+      }
+    } else {
+      for(int i = 0; i != n; i++) {
+        outV.isNull[i] = !noNulls && inputIsNull[i];
+        outV.set(i, vector[i], inputScale);
+      }
+    }
+
+    NullUtil.setNullDataEntriesLong(outV, batch.selectedInUse, sel, n);
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return outputType;
+  }
+
+  public int getInputColumn() {
+    return inputColumn;
+  }
+
+  public void setInputColumn(int inputColumn) {
+    this.inputColumn = inputColumn;
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  public void setOutputType(String outputType) {
+    this.outputType = outputType;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder()).build();
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Vectorized COALESCE(a1, a2, ...), which is also used for NVL(a1, a2). Each
+ * argument is evaluated only on the rows where all of the earlier arguments
+ * were null.
+ */
+public class CoalesceExpression extends ConditionalExpression {
+  private static final long serialVersionUID = 1L;
+
+  private transient int[] remaining;
+  private transient int[] nulls;
+
+  public CoalesceExpression(int[] inputColumns, int outputColumn, String outputType) {
+    super(inputColumns, outputColumn, outputType);
+  }
+
+  public CoalesceExpression() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+    int n = batch.size;
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+    ColumnVector outV = batch.cols[outputColumn];
+    initOutput(outV);
+
+    remaining = ensureCapacity(remaining, batch);
+    nulls = ensureCapacity(nulls, batch);
+    getRows(batch, remaining);
+
+    saveSelected(batch);
+    try {
+      for (int arg = 0; arg < inputColumns.length && n > 0; arg++) {
+        ColumnVector value = evaluateArgument(batch, arg, remaining, n);
+        int numNulls = 0;
+        for (int j = 0; j < n; j++) {
+          int i = remaining[j];
+          if (isNull(value, i)) {
+            nulls[numNulls++] = i;
+          } else {
+            copyRow(value, outV, i);
+          }
+        }
+        int[] swap = remaining;
+        remaining = nulls;
+        nulls = swap;
+        n = numNulls;
+      }
+      for (int j = 0; j < n; j++) {
+        setNull(outV, remaining[j]);
+      }
+    } finally {
+      restoreSelected(batch);
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Base class for the conditional expressions. Unlike other expressions, the
+ * children are not all evaluated up front: each argument is evaluated only on
+ * the rows that still need it, by narrowing the selected rows of the batch
+ * while the child runs. This saves the work of the branches that are not
+ * taken and keeps them from failing on rows they were not meant to see.
+ *
+ * argumentExpressions[i] produces the value of argument i in inputColumns[i].
+ * A NULL constant argument has no expression and an input column of -1.
+ */
+public abstract class ConditionalExpression extends VectorExpression {
+  private static final long serialVersionUID = 1L;
+
+  protected int[] inputColumns;
+  protected VectorExpression[] argumentExpressions;
+  protected int outputColumn;
+  protected String outputType;
+
+  // the selected rows of the batch as it was passed in
+  private transient int[] savedSelected;
+  private transient boolean savedSelectedInUse;
+  private transient int savedSize;
+
+  public ConditionalExpression(int[] inputColumns, int outputColumn, String outputType) {
+    this.inputColumns = inputColumns;
+    this.outputColumn = outputColumn;
+    this.outputType = outputType;
+  }
+
+  public ConditionalExpression() {
+    super();
+  }
+
+  /**
+   * Get a buffer for a list of row numbers of the batch.
+   */
+  protected static int[] ensureCapacity(int[] rows, VectorizedRowBatch batch) {
+    if (rows == null || rows.length < batch.selected.length) {
+      return new int[batch.selected.length];
+    }
+    return rows;
+  }
+
+  /**
+   * Put the rows of the batch that are selected into a list of row numbers.
+   */
+  protected static void getRows(VectorizedRowBatch batch, int[] rows) {
+    if (batch.selectedInUse) {
+      System.arraycopy(batch.selected, 0, rows, 0, batch.size);
+    } else {
+      for (int i = 0; i < batch.size; i++) {
+        rows[i] = i;
+      }
+    }
+  }
+
+  protected void saveSelected(VectorizedRowBatch batch) {
+    if (savedSelected == null || savedSelected.length < batch.selected.length) {
+      savedSelected = new int[batch.selected.length];
+    }
+    savedSelectedInUse = batch.selectedInUse;
+    savedSize = batch.size;
+    if (batch.selectedInUse) {
+      System.arraycopy(batch.selected, 0, savedSelected, 0, batch.size);
+    }
+  }
+
+  protected void restoreSelected(VectorizedRowBatch batch) {
+    batch.selectedInUse = savedSelectedInUse;
+    batch.size = savedSize;
+    if (savedSelectedInUse) {
+      System.arraycopy(savedSelected, 0, batch.selected, 0, savedSize);
+    }
+  }
+
+  /**
+   * Evaluate argument arg on the first n rows of the list.
+   * @return the column with the values, or null if the argument is a NULL
+   *   constant
+   */
+  protected ColumnVector evaluateArgument(VectorizedRowBatch batch, int arg,
+      int[] rows, int n) {
+    if (inputColumns[arg] < 0) {
+      return null;
+    }
+    batch.selectedInUse = true;
+    batch.size = n;
+    System.arraycopy(rows, 0, batch.selected, 0, n);
+    argumentExpressions[arg].evaluate(batch);
+    return batch.cols[inputColumns[arg]];
+  }
+
+  protected static boolean isNull(ColumnVector col, int row) {
+    if (col == null) {
+      return true;
+    }
+    if (col.noNulls) {
+      return false;
+    }
+    return col.isNull[col.isRepeating ? 0 : row];
+  }
+
+  /**
+   * Whether a boolean column is true in the given row.
+   */
+  protected static boolean isTrue(LongColumnVector col, int row) {
+    if (col == null) {
+      return false;
+    }
+    int i = col.isRepeating ? 0 : row;
+    return (col.noNulls || !col.isNull[i]) && col.vector[i] != 0;
+  }
+
+  /**
+   * Copy the value of a row from the input column into the output column.
+   */
+  protected static void copyRow(ColumnVector in, ColumnVector out, int row) {
+    if (isNull(in, row)) {
+      setNull(out, row);
+      return;
+    }
+    int i = in.isRepeating ? 0 : row;
+    out.isNull[row] = false;
+    if (out instanceof LongColumnVector) {
+      ((LongColumnVector) out).vector[row] = ((LongColumnVector) in).vector[i];
+    } else if (out instanceof DoubleColumnVector) {
+      ((DoubleColumnVector) out).vector[row] = ((DoubleColumnVector) in).vector[i];
+    } else {
+      // copy the bytes, since the input may be a scratch column that is
+      // reused by a later expression
+      BytesColumnVector bytesIn = (BytesColumnVector) in;
+      ((BytesColumnVector) out).setVal(row, bytesIn.vector[i], bytesIn.start[i],
+          bytesIn.length[i]);
+    }
+  }
+
+  protected static void setNull(ColumnVector out, int row) {
+    out.noNulls = false;
+    out.isNull[row] = true;
+    if (out instanceof LongColumnVector) {
+      ((LongColumnVector) out).vector[row] = LongColumnVector.NULL_VALUE;
+    } else if (out instanceof DoubleColumnVector) {
+      ((DoubleColumnVector) out).vector[row] = DoubleColumnVector.NULL_VALUE;
+    }
+  }
+
+  protected void initOutput(ColumnVector out) {
+    out.isRepeating = false;
+    out.noNulls = true;
+    if (out instanceof BytesColumnVector) {
+      ((BytesColumnVector) out).initBuffer();
+    }
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return outputType;
+  }
+
+  public int[] getInputColumns() {
+    return inputColumns;
+  }
+
+  public void setInputColumns(int[] inputColumns) {
+    this.inputColumns = inputColumns;
+  }
+
+  public VectorExpression[] getArgumentExpressions() {
+    return argumentExpressions;
+  }
+
+  /**
+   * Set the expressions of the arguments. They are also the child
+   * expressions, although they are not evaluated up front like those.
+   */
+  public void setArgumentExpressions(VectorExpression[] argumentExpressions) {
+    this.argumentExpressions = argumentExpressions;
+    List<VectorExpression> children = new ArrayList<VectorExpression>();
+    for (VectorExpression ve : argumentExpressions) {
+      if (ve != null) {
+        children.add(ve);
+      }
+    }
+    setChildExpressions(children.toArray(new VectorExpression[children.size()]));
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  public void setOutputType(String outputType) {
+    this.outputType = outputType;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+
+    // The conditional expressions are special cases, so don't return a descriptor.
+    return null;
+  }
+}
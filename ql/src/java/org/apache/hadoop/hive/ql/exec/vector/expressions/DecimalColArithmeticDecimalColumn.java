@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.DecimalUtil.ArithmeticOperator;
+
+/**
+ * Evaluates +, - and * between two decimal columns. Either input may also be an integer
+ * column, which is treated as a decimal of scale 0, and scalar operands are passed in as
+ * repeating constant columns. The operation is done on the unscaled longs; results that
+ * overflow a long or the precision of the output column are null, as in row mode.
+ *
+ * Decimal expressions are built directly by the VectorizationContext rather than looked up
+ * through the descriptor, because their output type depends on the precision and scale of
+ * the expression.
+ */
+public class DecimalColArithmeticDecimalColumn extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  private int colNum1;
+  private int colNum2;
+  private int outputColumn;
+  private ArithmeticOperator operator;
+  private String outputType;
+
+  public DecimalColArithmeticDecimalColumn(int colNum1, int colNum2, int outputColumn,
+      ArithmeticOperator operator, String outputType) {
+    this();
+    this.colNum1 = colNum1;
+    this.colNum2 = colNum2;
+    this.outputColumn = outputColumn;
+    this.operator = operator;
+    this.outputType = outputType;
+  }
+
+  public DecimalColArithmeticDecimalColumn() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    LongColumnVector inputColVector1 = (LongColumnVector) batch.cols[colNum1];
+    LongColumnVector inputColVector2 = (LongColumnVector) batch.cols[colNum2];
+    DecimalColumnVector outputColVector = (DecimalColumnVector) batch.cols[outputColumn];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    long[] vector1 = inputColVector1.vector;
+    long[] vector2 = inputColVector2.vector;
+
+    // return immediately if batch is empty
+    if (n == 0) {
+      return;
+    }
+
+    int scale1 = DecimalUtil.getScale(inputColVector1);
+    int scale2 = DecimalUtil.getScale(inputColVector2);
+
+    // Bring the operands of + and - to a common scale; * adds up the scales.
+    long factor1 = 1;
+    long factor2 = 1;
+    int resultScale;
+    if (operator == ArithmeticOperator.MULTIPLY) {
+      resultScale = scale1 + scale2;
+    } else {
+      resultScale = Math.max(scale1, scale2);
+      factor1 = DecimalColumnVector.POWERS_OF_TEN[resultScale - scale1];
+      factor2 = DecimalColumnVector.POWERS_OF_TEN[resultScale - scale2];
+    }
+
+    outputColVector.isRepeating =
+         inputColVector1.isRepeating && inputColVector2.isRepeating
+      || inputColVector1.isRepeating && !inputColVector1.noNulls && inputColVector1.isNull[0]
+      || inputColVector2.isRepeating && !inputColVector2.noNulls && inputColVector2.isNull[0];
+
+    // Handle nulls first
+    NullUtil.propagateNullsColCol(
+      inputColVector1, inputColVector2, outputColVector, sel, n, batch.selectedInUse);
+
+    // An overflow turns the output nullable, so the null flags must be valid beforehand
+    if (outputColVector.noNulls) {
+      if (outputColVector.isRepeating) {
+        outputColVector.isNull[0] = false;
+      } else if (batch.selectedInUse) {
+        for(int j = 0; j != n; j++) {
+          outputColVector.isNull[sel[j]] = false;
+        }
+      } else {
+        Arrays.fill(outputColVector.isNull, 0, n, false);
+      }
+    }
+
+    if (outputColVector.isRepeating) {
+      setResult(outputColVector, 0, vector1[0], vector2[0], factor1, factor2, resultScale);
+    } else {
+      boolean repeating1 = inputColVector1.isRepeating;
+      boolean repeating2 = inputColVector2.isRepeating;
+      if (batch.selectedInUse) {
+        for(int j = 0; j != n; j++) {
+          int i = sel[j];
+          setResult(outputColVector, i, vector1[repeating1 ? 0 : i],
+              vector2[repeating2 ? 0 : i], factor1, factor2, resultScale);
+        }
+      } else {
+        for(int i = 0; i != n; i++) {
+          setResult(outputColVector, i, vector1[repeating1 ? 0 : i],
+              vector2[repeating2 ? 0 : i], factor1, factor2, resultScale);
+        }
+      }
+    }
+
+    NullUtil.setNullDataEntriesLong(outputColVector, batch.selectedInUse, sel, n);
+  }
+
+  private void setResult(DecimalColumnVector outputColVector, int i, long value1, long value2,
+      long factor1, long factor2, int resultScale) {
+    long result = DecimalUtil.evaluate(operator,
+        DecimalUtil.upscale(value1, factor1), DecimalUtil.upscale(value2, factor2));
+    if (result == DecimalUtil.OVERFLOW) {
+      outputColVector.setNull(i);
+    } else {
+      outputColVector.set(i, result, resultScale);
+    }
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return outputType;
+  }
+
+  public int getColNum1() {
+    return colNum1;
+  }
+
+  public void setColNum1(int colNum1) {
+    this.colNum1 = colNum1;
+  }
+
+  public int getColNum2() {
+    return colNum2;
+  }
+
+  public void setColNum2(int colNum2) {
+    this.colNum2 = colNum2;
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  public ArithmeticOperator getOperator() {
+    return operator;
+  }
+
+  public void setOperator(ArithmeticOperator operator) {
+    this.operator = operator;
+  }
+
+  public void setOutputType(String outputType) {
+    this.outputType = outputType;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder()).build();
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.math.BigDecimal;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+
+/**
+ * Decimal expression evaluation helper functions. Decimals are handled as unscaled longs
+ * together with their scale; integer columns take part in decimal expressions with scale 0.
+ * Any operation that does not fit in a long returns {@link #OVERFLOW}, which the callers
+ * turn into a null.
+ */
+public class DecimalUtil {
+
+  /**
+   * Marker for a result that does not fit in a long. No decimal column of precision up to
+   * {@link DecimalColumnVector#MAX_PRECISION} can hold this value.
+   */
+  public static final long OVERFLOW = Long.MIN_VALUE;
+
+  /**
+   * Binary arithmetic operators supported on decimal columns.
+   */
+  public static enum ArithmeticOperator {
+    PLUS, MINUS, MULTIPLY
+  }
+
+  /**
+   * Comparison operators supported on decimal columns.
+   */
+  public static enum ComparisonOperator {
+    EQUAL, NOT_EQUAL, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL
+  }
+
+  /**
+   * Returns the scale of the values of a column taking part in a decimal expression.
+   */
+  public static int getScale(LongColumnVector v) {
+    return v instanceof DecimalColumnVector ? ((DecimalColumnVector) v).scale : 0;
+  }
+
+  public static long add(long a, long b) {
+    long r = a + b;
+    if (((a ^ r) & (b ^ r)) < 0) {
+      return OVERFLOW;
+    }
+    return r;
+  }
+
+  public static long subtract(long a, long b) {
+    long r = a - b;
+    if (((a ^ b) & (a ^ r)) < 0) {
+      return OVERFLOW;
+    }
+    return r;
+  }
+
+  public static long multiply(long a, long b) {
+    long r = a * b;
+    long absA = Math.abs(a);
+    long absB = Math.abs(b);
+    if (((absA | absB) >>> 31) != 0) {
+      // Only do the slow check when one of the operands needs more than 31 bits
+      if ((b != 0 && r / b != a) || (a == Long.MIN_VALUE && b == -1)) {
+        return OVERFLOW;
+      }
+    }
+    return r;
+  }
+
+  /**
+   * Applies an arithmetic operator to two unscaled values.
+   * For PLUS and MINUS both values must already be at the same scale, and the result is at
+   * that scale. For MULTIPLY the scale of the result is the sum of the scales of the operands.
+   */
+  public static long evaluate(ArithmeticOperator op, long a, long b) {
+    if (a == OVERFLOW || b == OVERFLOW) {
+      return OVERFLOW;
+    }
+    switch (op) {
+    case PLUS:
+      return add(a, b);
+    case MINUS:
+      return subtract(a, b);
+    case MULTIPLY:
+      return multiply(a, b);
+    default:
+      throw new IllegalArgumentException("Unknown decimal operator " + op);
+    }
+  }
+
+  /**
+   * Rescales an unscaled value to a larger scale, returning OVERFLOW if it does not fit.
+   */
+  public static long upscale(long value, long factor) {
+    if (factor == 1) {
+      return value;
+    }
+    return multiply(value, factor);
+  }
+
+  /**
+   * Compares two decimals given as unscaled values with their scales.
+   */
+  public static int compare(long a, int scaleA, long b, int scaleB) {
+    if (scaleA == scaleB) {
+      return a < b ? -1 : (a == b ? 0 : 1);
+    }
+    long ra = a;
+    long rb = b;
+    if (scaleA < scaleB) {
+      ra = rescaleUp(a, scaleB - scaleA);
+    } else {
+      rb = rescaleUp(b, scaleA - scaleB);
+    }
+    if (ra == OVERFLOW || rb == OVERFLOW) {
+      // Rare: the operands are too far apart in scale to compare as longs
+      return BigDecimal.valueOf(a, scaleA).compareTo(BigDecimal.valueOf(b, scaleB));
+    }
+    return ra < rb ? -1 : (ra == rb ? 0 : 1);
+  }
+
+  private static long rescaleUp(long value, int diff) {
+    if (diff > DecimalColumnVector.MAX_PRECISION) {
+      return value == 0 ? 0 : OVERFLOW;
+    }
+    return multiply(value, DecimalColumnVector.POWERS_OF_TEN[diff]);
+  }
+
+  /**
+   * Returns true if the result of a comparison satisfies the operator.
+   */
+  public static boolean test(ComparisonOperator op, int cmp) {
+    switch (op) {
+    case EQUAL:
+      return cmp == 0;
+    case NOT_EQUAL:
+      return cmp != 0;
+    case LESS:
+      return cmp < 0;
+    case LESS_EQUAL:
+      return cmp <= 0;
+    case GREATER:
+      return cmp > 0;
+    case GREATER_EQUAL:
+      return cmp >= 0;
+    default:
+      throw new IllegalArgumentException("Unknown decimal comparison " + op);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.DecimalUtil.ComparisonOperator;
+
+/**
+ * Filters the batch down to the rows where the comparison between two decimal columns holds.
+ * Either input may be an integer column, which is treated as a decimal of scale 0.
+ * Rows where either input is null are filtered out.
+ */
+public class FilterDecimalColCompareDecimalColumn extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  private int colNum1;
+  private int colNum2;
+  private ComparisonOperator operator;
+
+  public FilterDecimalColCompareDecimalColumn(int colNum1, int colNum2,
+      ComparisonOperator operator) {
+    this();
+    this.colNum1 = colNum1;
+    this.colNum2 = colNum2;
+    this.operator = operator;
+  }
+
+  public FilterDecimalColCompareDecimalColumn() {
+    super();
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    LongColumnVector inputColVector1 = (LongColumnVector) batch.cols[colNum1];
+    LongColumnVector inputColVector2 = (LongColumnVector) batch.cols[colNum2];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    long[] vector1 = inputColVector1.vector;
+    long[] vector2 = inputColVector2.vector;
+    boolean[] nullPos1 = inputColVector1.isNull;
+    boolean[] nullPos2 = inputColVector2.isNull;
+
+    // return immediately if batch is empty
+    if (n == 0) {
+      return;
+    }
+
+    int scale1 = DecimalUtil.getScale(inputColVector1);
+    int scale2 = DecimalUtil.getScale(inputColVector2);
+    boolean repeating1 = inputColVector1.isRepeating;
+    boolean repeating2 = inputColVector2.isRepeating;
+    boolean noNulls1 = inputColVector1.noNulls;
+    boolean noNulls2 = inputColVector2.noNulls;
+
+    int newSize = 0;
+    if (batch.selectedInUse) {
+      for(int j = 0; j != n; j++) {
+        int i = sel[j];
+        int i1 = repeating1 ? 0 : i;
+        int i2 = repeating2 ? 0 : i;
+        if ((noNulls1 || !nullPos1[i1]) && (noNulls2 || !nullPos2[i2])
+            && DecimalUtil.test(operator,
+                DecimalUtil.compare(vector1[i1], scale1, vector2[i2], scale2))) {
+          sel[newSize++] = i;
+        }
+      }
+      batch.size = newSize;
+    } else {
+      for(int i = 0; i != n; i++) {
+        int i1 = repeating1 ? 0 : i;
+        int i2 = repeating2 ? 0 : i;
+        if ((noNulls1 || !nullPos1[i1]) && (noNulls2 || !nullPos2[i2])
+            && DecimalUtil.test(operator,
+                DecimalUtil.compare(vector1[i1], scale1, vector2[i2], scale2))) {
+          sel[newSize++] = i;
+        }
+      }
+      if (newSize < n) {
+        batch.size = newSize;
+        batch.selectedInUse = true;
+      }
+    }
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return -1;
+  }
+
+  @Override
+  public String getOutputType() {
+    return "boolean";
+  }
+
+  public int getColNum1() {
+    return colNum1;
+  }
+
+  public void setColNum1(int colNum1) {
+    this.colNum1 = colNum1;
+  }
+
+  public int getColNum2() {
+    return colNum2;
+  }
+
+  public void setColNum2(int colNum2) {
+    this.colNum2 = colNum2;
+  }
+
+  public ComparisonOperator getOperator() {
+    return operator;
+  }
+
+  public void setOperator(ComparisonOperator operator) {
+    this.operator = operator;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder()).build();
+  }
+}
@@ -40,4 +40,26 @@ public static int compare(byte[] arg1, int start1, int len1, byte[] arg2, int st
     }
     return len1 - len2;
   }
+
+  /* Find the first occurrence of a pattern in a string, starting at the
+   * given byte offset of the string. Return the byte offset of the match
+   * relative to the start of the string, or -1 if there is none.
+   */
+  public static int find(byte[] bytes, int start, int len, int from,
+      byte[] pattern, int patternStart, int patternLen) {
+    if (from < 0) {
+      return -1;
+    }
+    int last = len - patternLen;
+    outer:
+    for (int i = from; i <= last; i++) {
+      for (int j = 0; j < patternLen; j++) {
+        if (bytes[start + i + j] != pattern[patternStart + j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
 }
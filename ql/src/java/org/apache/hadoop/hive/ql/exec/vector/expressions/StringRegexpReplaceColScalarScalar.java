@@ -0,0 +1,301 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+/**
+ * Vectorized regexp_replace(string column, string scalar, string scalar).
+ *
+ * When the pattern has no regular expression metacharacters and the
+ * replacement has no group references, the replacement is done directly on
+ * the bytes of the column. Otherwise the bytes are decoded into a reused
+ * buffer and replaced with a reused Matcher, as in UDFRegExpReplace.
+ */
+public class StringRegexpReplaceColScalarScalar extends VectorExpression {
+  private static final long serialVersionUID = 1L;
+  private static final String REGEX_METACHARACTERS = "[]\\(){}*?+|$^.";
+
+  private int colNum;
+  private int outputColumn;
+  private byte[] regex;
+  private byte[] replacement;
+
+  private transient boolean initialized;
+  private transient boolean literal;
+  private transient Matcher matcher;
+  private transient String replacementString;
+  private transient StringBuffer sb;
+  private transient CharsetDecoder decoder;
+  private transient CharsetEncoder encoder;
+  private transient CharBuffer charBuffer;
+  private transient ByteBuffer byteBuffer;
+
+  public StringRegexpReplaceColScalarScalar(int colNum, byte[] regex, byte[] replacement,
+      int outputColumn) {
+    this();
+    this.colNum = colNum;
+    this.regex = regex;
+    this.replacement = replacement;
+    this.outputColumn = outputColumn;
+  }
+
+  public StringRegexpReplaceColScalarScalar() {
+    super();
+  }
+
+  private void initialize() {
+    String regexString = new String(regex, Charset.forName("UTF-8"));
+    replacementString = new String(replacement, Charset.forName("UTF-8"));
+    literal = regex.length > 0 && replacementString.indexOf('$') < 0
+        && replacementString.indexOf('\\') < 0;
+    for (int i = 0; literal && i < regexString.length(); i++) {
+      literal = REGEX_METACHARACTERS.indexOf(regexString.charAt(i)) < 0;
+    }
+    if (!literal) {
+      matcher = Pattern.compile(regexString).matcher("");
+      sb = new StringBuffer();
+      decoder = Charset.forName("UTF-8").newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      encoder = Charset.forName("UTF-8").newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      charBuffer = CharBuffer.allocate(16);
+    }
+    byteBuffer = ByteBuffer.allocate(16);
+    initialized = true;
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    BytesColumnVector inputColVector = (BytesColumnVector) batch.cols[colNum];
+    BytesColumnVector outV = (BytesColumnVector) batch.cols[outputColumn];
+    int[] sel = batch.selected;
+    int n = batch.size;
+    byte[][] vector = inputColVector.vector;
+    int[] start = inputColVector.start;
+    int[] length = inputColVector.length;
+
+    if (n == 0) {
+
+      // Nothing to do
+      return;
+    }
+
+    if (!initialized) {
+      initialize();
+    }
+
+    // initialize output vector buffer to receive data
+    outV.initBuffer();
+
+    if (inputColVector.noNulls) {
+      outV.noNulls = true;
+      if (inputColVector.isRepeating) {
+        outV.isRepeating = true;
+        replace(vector[0], start[0], length[0], outV, 0);
+      } else if (batch.selectedInUse) {
+        for(int j = 0; j != n; j++) {
+          int i = sel[j];
+          replace(vector[i], start[i], length[i], outV, i);
+        }
+        outV.isRepeating = false;
+      } else {
+        for(int i = 0; i != n; i++) {
+          replace(vector[i], start[i], length[i], outV, i);
+        }
+        outV.isRepeating = false;
+      }
+    } else {
+
+      /*
+       * Handle case with nulls. Don't do function if the value is null, to save time,
+       * because calling the function can be expensive.
+       */
+      outV.noNulls = false;
+      if (inputColVector.isRepeating) {
+        outV.isRepeating = true;
+        outV.isNull[0] = inputColVector.isNull[0];
+        if (!inputColVector.isNull[0]) {
+          replace(vector[0], start[0], length[0], outV, 0);
+        }
+      } else if (batch.selectedInUse) {
+        for(int j = 0; j != n; j++) {
+          int i = sel[j];
+          if (!inputColVector.isNull[i]) {
+            replace(vector[i], start[i], length[i], outV, i);
+          }
+          outV.isNull[i] = inputColVector.isNull[i];
+        }
+        outV.isRepeating = false;
+      } else {
+        for(int i = 0; i != n; i++) {
+          if (!inputColVector.isNull[i]) {
+            replace(vector[i], start[i], length[i], outV, i);
+          }
+          outV.isNull[i] = inputColVector.isNull[i];
+        }
+        outV.isRepeating = false;
+      }
+    }
+  }
+
+  private void replace(byte[] bytes, int start, int len, BytesColumnVector outV, int i) {
+    if (literal) {
+      replaceLiteral(bytes, start, len, outV, i);
+    } else {
+      replaceRegex(bytes, start, len, outV, i);
+    }
+  }
+
+  private void replaceLiteral(byte[] bytes, int start, int len, BytesColumnVector outV, int i) {
+    int pos = StringExpr.find(bytes, start, len, 0, regex, 0, regex.length);
+    if (pos < 0) {
+
+      // no match, so the value is unchanged
+      outV.setVal(i, bytes, start, len);
+      return;
+    }
+    byteBuffer.clear();
+    int from = 0;
+    while (pos >= 0) {
+      byteBuffer = ensureRemaining(byteBuffer, pos - from + replacement.length);
+      byteBuffer.put(bytes, start + from, pos - from);
+      byteBuffer.put(replacement);
+      from = pos + regex.length;
+      pos = StringExpr.find(bytes, start, len, from, regex, 0, regex.length);
+    }
+    byteBuffer = ensureRemaining(byteBuffer, len - from);
+    byteBuffer.put(bytes, start + from, len - from);
+    outV.setVal(i, byteBuffer.array(), 0, byteBuffer.position());
+  }
+
+  private void replaceRegex(byte[] bytes, int start, int len, BytesColumnVector outV, int i) {
+    int maxChars = (int) (len * decoder.maxCharsPerByte()) + 1;
+    if (charBuffer.capacity() < maxChars) {
+      charBuffer = CharBuffer.allocate(maxChars);
+    }
+    charBuffer.clear();
+    decoder.reset();
+    decoder.decode(ByteBuffer.wrap(bytes, start, len), charBuffer, true);
+    decoder.flush(charBuffer);
+    charBuffer.flip();
+
+    matcher.reset(charBuffer);
+    sb.setLength(0);
+    while (matcher.find()) {
+      matcher.appendReplacement(sb, replacementString);
+    }
+    matcher.appendTail(sb);
+
+    int maxBytes = (int) (sb.length() * encoder.maxBytesPerChar()) + 1;
+    if (byteBuffer.capacity() < maxBytes) {
+      byteBuffer = ByteBuffer.allocate(maxBytes);
+    }
+    byteBuffer.clear();
+    encoder.reset();
+    encoder.encode(CharBuffer.wrap(sb), byteBuffer, true);
+    encoder.flush(byteBuffer);
+    outV.setVal(i, byteBuffer.array(), 0, byteBuffer.position());
+  }
+
+  private static ByteBuffer ensureRemaining(ByteBuffer buffer, int needed) {
+    if (buffer.remaining() >= needed) {
+      return buffer;
+    }
+    ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+        buffer.position() + needed));
+    buffer.flip();
+    larger.put(buffer);
+    return larger;
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return outputColumn;
+  }
+
+  @Override
+  public String getOutputType() {
+    return "String";
+  }
+
+  public int getColNum() {
+    return colNum;
+  }
+
+  public void setColNum(int colNum) {
+    this.colNum = colNum;
+  }
+
+  public byte[] getRegex() {
+    return regex;
+  }
+
+  public void setRegex(byte[] regex) {
+    this.regex = regex;
+    initialized = false;
+  }
+
+  public byte[] getReplacement() {
+    return replacement;
+  }
+
+  public void setReplacement(byte[] replacement) {
+    this.replacement = replacement;
+    initialized = false;
+  }
+
+  public void setOutputColumn(int outputColumn) {
+    this.outputColumn = outputColumn;
+  }
+
+  @Override
+  public VectorExpressionDescriptor.Descriptor getDescriptor() {
+    return (new VectorExpressionDescriptor.Builder())
+        .setMode(
+            VectorExpressionDescriptor.Mode.PROJECTION)
+        .setNumArguments(3)
+        .setArgumentTypes(
+            VectorExpressionDescriptor.ArgumentType.STRING,
+            VectorExpressionDescriptor.ArgumentType.STRING,
+            VectorExpressionDescriptor.ArgumentType.STRING)
+        .setInputExpressionTypes(
+            VectorExpressionDescriptor.InputExpressionType.COLUMN,
+            VectorExpressionDescriptor.InputExpressionType.SCALAR,
+            VectorExpressionDescriptor.InputExpressionType.SCALAR).build();
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.hadoop.hive.ql.exec.vector.expressions;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,6 +26,7 @@
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.common.type.HiveVarchar;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
@@ -381,11 +383,44 @@ public static VectorExpressionWriter genVectorExpressionWritable(
   }
 
   private static VectorExpressionWriter genVectorExpressionWritableDecimal(
-        SettableHiveDecimalObjectInspector fieldObjInspector) throws HiveException {
-    
-      // We should never reach this, the compile validation should guard us
-      throw new HiveException("DECIMAL primitive type not supported in vectorization.");
-    }
+      SettableHiveDecimalObjectInspector fieldObjInspector) throws HiveException {
+    // Decimal columns hold the unscaled value at the scale declared by the column type.
+    return new VectorExpressionWriterLong() {
+      private Object obj;
+      private int scale;
+
+      public VectorExpressionWriter init(SettableHiveDecimalObjectInspector objInspector)
+          throws HiveException {
+        super.init(objInspector);
+        this.scale = objInspector.scale();
+        this.obj = initValue(null);
+        return this;
+      }
+
+      @Override
+      public Object writeValue(long value) throws HiveException {
+        ((SettableHiveDecimalObjectInspector) this.objectInspector).set(this.obj,
+            HiveDecimal.create(BigDecimal.valueOf(value, scale)));
+        return this.obj;
+      }
+
+      @Override
+      public Object setValue(Object field, long value) throws HiveException {
+        if (null == field) {
+          field = initValue(null);
+        }
+        ((SettableHiveDecimalObjectInspector) this.objectInspector).set(field,
+            HiveDecimal.create(BigDecimal.valueOf(value, scale)));
+        return field;
+      }
+
+      @Override
+      public Object initValue(Object ignored) {
+        return ((SettableHiveDecimalObjectInspector) this.objectInspector)
+            .create(HiveDecimal.ZERO);
+      }
+    }.init(fieldObjInspector);
+  }
 
   private static VectorExpressionWriter genVectorExpressionWritableDate(
         SettableDateObjectInspector fieldObjInspector) throws HiveException {
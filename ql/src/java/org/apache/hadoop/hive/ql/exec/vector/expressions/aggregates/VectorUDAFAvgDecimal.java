@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.Description;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.LongWritable;
+
+/**
+ * VectorUDAFAvgDecimal. Vectorized implementation for AVG aggregates over decimals.
+ * Produces the same (count, sum) partial result as the row mode decimal average.
+ */
+@Description(name = "avg",
+    value = "_FUNC_(expr) - Returns the average value of expr (vectorized, type: decimal)")
+public class VectorUDAFAvgDecimal extends VectorUDAFDecimalBase {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * class for storing the current aggregate value.
+   */
+  static final class Aggregation implements AggregationBuffer {
+
+    private static final long serialVersionUID = 1L;
+
+    transient long sum;
+    transient BigInteger bigSum;
+    transient long count;
+    transient boolean isNull;
+
+    void sumValue(long value, long rows) {
+      count += rows;
+      if (isNull) {
+        sum = value;
+        bigSum = null;
+        isNull = false;
+      } else if (bigSum != null) {
+        bigSum = bigSum.add(BigInteger.valueOf(value));
+      } else {
+        long result = sum + value;
+        if (((sum ^ result) & (value ^ result)) < 0) {
+          bigSum = BigInteger.valueOf(sum).add(BigInteger.valueOf(value));
+        } else {
+          sum = result;
+        }
+      }
+    }
+
+    BigInteger getBigSum() {
+      return bigSum != null ? bigSum : BigInteger.valueOf(sum);
+    }
+
+    @Override
+    public int getVariableSize() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  transient private Object[] partialResult;
+  transient private LongWritable resultCount;
+  transient private HiveDecimalWritable resultSum;
+  transient private StructObjectInspector soi;
+
+  public VectorUDAFAvgDecimal(VectorExpression inputExpression) {
+    this();
+    this.inputExpression = inputExpression;
+  }
+
+  public VectorUDAFAvgDecimal() {
+    super();
+    partialResult = new Object[2];
+    resultCount = new LongWritable();
+    resultSum = new HiveDecimalWritable();
+    partialResult[0] = resultCount;
+    partialResult[1] = resultSum;
+    initPartialResultInspector();
+  }
+
+  private void initPartialResultInspector() {
+    List<ObjectInspector> foi = new ArrayList<ObjectInspector>();
+    foi.add(PrimitiveObjectInspectorFactory.writableLongObjectInspector);
+    foi.add(PrimitiveObjectInspectorFactory.writableHiveDecimalObjectInspector);
+    List<String> fname = new ArrayList<String>();
+    fname.add("count");
+    fname.add("sum");
+    soi = ObjectInspectorFactory.getStandardStructObjectInspector(fname, foi);
+  }
+
+  @Override
+  protected void aggregateValue(AggregationBuffer agg, long value) {
+    ((Aggregation) agg).sumValue(value, 1);
+  }
+
+  @Override
+  protected void aggregateRepeating(AggregationBuffer agg, long value, int count) {
+    Aggregation myagg = (Aggregation) agg;
+    long product = value * count;
+    if (value != 0 && product / count != value) {
+      // Fall back to the row at a time path, which takes care of the overflow
+      super.aggregateRepeating(agg, value, count);
+    } else {
+      myagg.sumValue(product, count);
+    }
+  }
+
+  @Override
+  public AggregationBuffer getNewAggregationBuffer() throws HiveException {
+    return new Aggregation();
+  }
+
+  @Override
+  public void reset(AggregationBuffer agg) throws HiveException {
+    Aggregation myAgg = (Aggregation) agg;
+    myAgg.isNull = true;
+    myAgg.bigSum = null;
+    myAgg.count = 0;
+  }
+
+  @Override
+  public Object evaluateOutput(AggregationBuffer agg) throws HiveException {
+    Aggregation myagg = (Aggregation) agg;
+    if (myagg.isNull) {
+      return null;
+    }
+    HiveDecimal value = HiveDecimal.create(myagg.getBigSum(), inputScale);
+    if (value == null) {
+      return null;
+    }
+    resultCount.set(myagg.count);
+    resultSum.set(value);
+    return partialResult;
+  }
+
+  @Override
+  public ObjectInspector getOutputObjectInspector() {
+    return soi;
+  }
+
+  @Override
+  public int getAggregationBufferFixedSize() {
+    JavaDataModel model = JavaDataModel.get();
+    return JavaDataModel.alignUp(
+        model.object() + model.primitive2() * 2 + model.ref(),
+        model.memoryAlign());
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates;
+
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAggregationBufferRow;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+
+/**
+ * Base class for the aggregates over a {@link DecimalColumnVector}. The input values are the
+ * unscaled longs of the column, all at the scale of the input type; subclasses only need to
+ * fold a single value into their aggregation buffer.
+ */
+public abstract class VectorUDAFDecimalBase extends VectorAggregateExpression {
+
+  private static final long serialVersionUID = 1L;
+
+  protected VectorExpression inputExpression;
+  protected int inputPrecision;
+  protected int inputScale;
+
+  public VectorUDAFDecimalBase(VectorExpression inputExpression) {
+    this.inputExpression = inputExpression;
+  }
+
+  public VectorUDAFDecimalBase() {
+    super();
+  }
+
+  /**
+   * Folds one unscaled input value into the aggregation buffer.
+   */
+  protected abstract void aggregateValue(AggregationBuffer agg, long value);
+
+  /**
+   * Folds a value repeated over a number of rows into the aggregation buffer.
+   */
+  protected void aggregateRepeating(AggregationBuffer agg, long value, int count) {
+    for (int i = 0; i < count; ++i) {
+      aggregateValue(agg, value);
+    }
+  }
+
+  @Override
+  public void aggregateInputSelection(
+      VectorAggregationBufferRow[] aggregationBufferSets,
+      int aggregateIndex,
+      VectorizedRowBatch batch) throws HiveException {
+
+    int batchSize = batch.size;
+
+    if (batchSize == 0) {
+      return;
+    }
+
+    inputExpression.evaluate(batch);
+
+    DecimalColumnVector inputVector = (DecimalColumnVector) batch.
+        cols[this.inputExpression.getOutputColumn()];
+    long[] vector = inputVector.vector;
+    boolean[] isNull = inputVector.isNull;
+    int[] selected = batch.selected;
+
+    if (inputVector.isRepeating) {
+      if (inputVector.noNulls || !isNull[0]) {
+        for (int i = 0; i < batchSize; ++i) {
+          aggregateValue(aggregationBufferSets[i].getAggregationBuffer(aggregateIndex),
+              vector[0]);
+        }
+      }
+    } else if (inputVector.noNulls) {
+      if (batch.selectedInUse) {
+        for (int j = 0; j < batchSize; ++j) {
+          aggregateValue(aggregationBufferSets[j].getAggregationBuffer(aggregateIndex),
+              vector[selected[j]]);
+        }
+      } else {
+        for (int i = 0; i < batchSize; ++i) {
+          aggregateValue(aggregationBufferSets[i].getAggregationBuffer(aggregateIndex),
+              vector[i]);
+        }
+      }
+    } else {
+      if (batch.selectedInUse) {
+        for (int j = 0; j < batchSize; ++j) {
+          int i = selected[j];
+          if (!isNull[i]) {
+            aggregateValue(aggregationBufferSets[j].getAggregationBuffer(aggregateIndex),
+                vector[i]);
+          }
+        }
+      } else {
+        for (int i = 0; i < batchSize; ++i) {
+          if (!isNull[i]) {
+            aggregateValue(aggregationBufferSets[i].getAggregationBuffer(aggregateIndex),
+                vector[i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void aggregateInput(AggregationBuffer agg, VectorizedRowBatch batch)
+      throws HiveException {
+
+    inputExpression.evaluate(batch);
+
+    DecimalColumnVector inputVector = (DecimalColumnVector) batch.
+        cols[this.inputExpression.getOutputColumn()];
+
+    int batchSize = batch.size;
+
+    if (batchSize == 0) {
+      return;
+    }
+
+    long[] vector = inputVector.vector;
+    boolean[] isNull = inputVector.isNull;
+    int[] selected = batch.selected;
+
+    if (inputVector.isRepeating) {
+      if (inputVector.noNulls || !isNull[0]) {
+        aggregateRepeating(agg, vector[0], batchSize);
+      }
+    } else if (inputVector.noNulls) {
+      if (batch.selectedInUse) {
+        for (int j = 0; j < batchSize; ++j) {
+          aggregateValue(agg, vector[selected[j]]);
+        }
+      } else {
+        for (int i = 0; i < batchSize; ++i) {
+          aggregateValue(agg, vector[i]);
+        }
+      }
+    } else {
+      if (batch.selectedInUse) {
+        for (int j = 0; j < batchSize; ++j) {
+          int i = selected[j];
+          if (!isNull[i]) {
+            aggregateValue(agg, vector[i]);
+          }
+        }
+      } else {
+        for (int i = 0; i < batchSize; ++i) {
+          if (!isNull[i]) {
+            aggregateValue(agg, vector[i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void init(AggregationDesc desc) throws HiveException {
+    DecimalTypeInfo typeInfo = (DecimalTypeInfo) desc.getParameters().get(0).getTypeInfo();
+    inputPrecision = typeInfo.precision();
+    inputScale = typeInfo.scale();
+  }
+
+  public VectorExpression getInputExpression() {
+    return inputExpression;
+  }
+
+  public void setInputExpression(VectorExpression inputExpression) {
+    this.inputExpression = inputExpression;
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates;
+
+import java.math.BigDecimal;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.Description;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+
+/**
+ * VectorUDAFMaxDecimal. Vectorized implementation for MAX aggregates over decimals.
+ * All the values share the scale of the input column, so the unscaled values compare
+ * the same way as the decimals they represent.
+ */
+@Description(name = "max",
+    value = "_FUNC_(expr) - Returns the maximum value of expr (vectorized, type: decimal)")
+public class VectorUDAFMaxDecimal extends VectorUDAFDecimalBase {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * class for storing the current aggregate value.
+   */
+  static final class Aggregation implements AggregationBuffer {
+
+    private static final long serialVersionUID = 1L;
+
+    transient long value;
+    transient boolean isNull;
+
+    void checkValue(long value) {
+      if (isNull) {
+        isNull = false;
+        this.value = value;
+      } else if (value > this.value) {
+        this.value = value;
+      }
+    }
+
+    @Override
+    public int getVariableSize() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  transient private final HiveDecimalWritable result;
+
+  public VectorUDAFMaxDecimal(VectorExpression inputExpression) {
+    this();
+    this.inputExpression = inputExpression;
+  }
+
+  public VectorUDAFMaxDecimal() {
+    super();
+    result = new HiveDecimalWritable();
+  }
+
+  @Override
+  protected void aggregateValue(AggregationBuffer agg, long value) {
+    ((Aggregation) agg).checkValue(value);
+  }
+
+  @Override
+  protected void aggregateRepeating(AggregationBuffer agg, long value, int count) {
+    ((Aggregation) agg).checkValue(value);
+  }
+
+  @Override
+  public AggregationBuffer getNewAggregationBuffer() throws HiveException {
+    return new Aggregation();
+  }
+
+  @Override
+  public void reset(AggregationBuffer agg) throws HiveException {
+    Aggregation myAgg = (Aggregation) agg;
+    myAgg.isNull = true;
+  }
+
+  @Override
+  public Object evaluateOutput(AggregationBuffer agg) throws HiveException {
+    Aggregation myagg = (Aggregation) agg;
+    if (myagg.isNull) {
+      return null;
+    }
+    result.set(HiveDecimal.create(BigDecimal.valueOf(myagg.value, inputScale)));
+    return result;
+  }
+
+  @Override
+  public ObjectInspector getOutputObjectInspector() {
+    return PrimitiveObjectInspectorFactory.getPrimitiveWritableObjectInspector(
+        TypeInfoFactory.getDecimalTypeInfo(inputPrecision, inputScale));
+  }
+
+  @Override
+  public int getAggregationBufferFixedSize() {
+    JavaDataModel model = JavaDataModel.get();
+    return JavaDataModel.alignUp(
+        model.object() + model.primitive2(),
+        model.memoryAlign());
+  }
+}
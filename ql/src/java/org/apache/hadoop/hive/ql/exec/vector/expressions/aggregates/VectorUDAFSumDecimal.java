@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates;
+
+import java.math.BigInteger;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.Description;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+
+/**
+ * VectorUDAFSumDecimal. Vectorized implementation for SUM aggregates over decimals.
+ * The sum is kept as an unscaled long and only switches to a BigInteger once it overflows.
+ */
+@Description(name = "sum",
+    value = "_FUNC_(expr) - Returns the sum value of expr (vectorized, type: decimal)")
+public class VectorUDAFSumDecimal extends VectorUDAFDecimalBase {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * class for storing the current aggregate value.
+   */
+  static final class Aggregation implements AggregationBuffer {
+
+    private static final long serialVersionUID = 1L;
+
+    transient long sum;
+    transient BigInteger bigSum;
+    transient boolean isNull;
+
+    void sumValue(long value) {
+      if (isNull) {
+        sum = value;
+        bigSum = null;
+        isNull = false;
+      } else if (bigSum != null) {
+        bigSum = bigSum.add(BigInteger.valueOf(value));
+      } else {
+        long result = sum + value;
+        if (((sum ^ result) & (value ^ result)) < 0) {
+          bigSum = BigInteger.valueOf(sum).add(BigInteger.valueOf(value));
+        } else {
+          sum = result;
+        }
+      }
+    }
+
+    BigInteger getBigSum() {
+      return bigSum != null ? bigSum : BigInteger.valueOf(sum);
+    }
+
+    @Override
+    public int getVariableSize() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  transient private final HiveDecimalWritable result;
+
+  public VectorUDAFSumDecimal(VectorExpression inputExpression) {
+    this();
+    this.inputExpression = inputExpression;
+  }
+
+  public VectorUDAFSumDecimal() {
+    super();
+    result = new HiveDecimalWritable();
+  }
+
+  @Override
+  protected void aggregateValue(AggregationBuffer agg, long value) {
+    ((Aggregation) agg).sumValue(value);
+  }
+
+  @Override
+  protected void aggregateRepeating(AggregationBuffer agg, long value, int count) {
+    Aggregation myagg = (Aggregation) agg;
+    long product = value * count;
+    if (value != 0 && product / count != value) {
+      // Fall back to the row at a time path, which takes care of the overflow
+      super.aggregateRepeating(agg, value, count);
+    } else {
+      myagg.sumValue(product);
+    }
+  }
+
+  @Override
+  public AggregationBuffer getNewAggregationBuffer() throws HiveException {
+    return new Aggregation();
+  }
+
+  @Override
+  public void reset(AggregationBuffer agg) throws HiveException {
+    Aggregation myAgg = (Aggregation) agg;
+    myAgg.isNull = true;
+    myAgg.bigSum = null;
+  }
+
+  @Override
+  public Object evaluateOutput(AggregationBuffer agg) throws HiveException {
+    Aggregation myagg = (Aggregation) agg;
+    if (myagg.isNull) {
+      return null;
+    }
+    HiveDecimal value = HiveDecimal.create(myagg.getBigSum(), inputScale);
+    if (value == null) {
+      return null;
+    }
+    result.set(value);
+    return result;
+  }
+
+  @Override
+  public ObjectInspector getOutputObjectInspector() {
+    return PrimitiveObjectInspectorFactory.writableHiveDecimalObjectInspector;
+  }
+
+  @Override
+  public int getAggregationBufferFixedSize() {
+    JavaDataModel model = JavaDataModel.get();
+    return JavaDataModel.alignUp(
+        model.object() + model.primitive2() + model.ref(),
+        model.memoryAlign());
+  }
+}
@@ -0,0 +1,336 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+
+/**
+ * Growable columnar storage for the rows of a partition that have been read but not yet
+ * emitted by the vectorized PTF operator. Values are copied out of the incoming batches,
+ * since the batches are reused by the caller once processed.
+ */
+public abstract class VectorPTFColumnBuffer {
+
+  protected boolean[] isNull;
+  protected int size;
+
+  protected VectorPTFColumnBuffer(int capacity) {
+    isNull = new boolean[capacity];
+  }
+
+  /**
+   * Creates an empty buffer able to hold the values of the given column vector.
+   */
+  public static VectorPTFColumnBuffer create(ColumnVector columnVector) {
+    if (columnVector instanceof LongColumnVector) {
+      return new LongBuffer();
+    } else if (columnVector instanceof DoubleColumnVector) {
+      return new DoubleBuffer();
+    } else if (columnVector instanceof BytesColumnVector) {
+      return new BytesBuffer();
+    }
+    throw new IllegalArgumentException("Unsupported column vector type: "
+        + columnVector.getClass().getName());
+  }
+
+  /**
+   * Creates an empty buffer of the same kind as this one.
+   */
+  public abstract VectorPTFColumnBuffer createEmpty();
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isNull(int i) {
+    return isNull[i];
+  }
+
+  public void setNull(int i) {
+    isNull[i] = true;
+  }
+
+  public void appendNull() {
+    ensureCapacity(size + 1);
+    isNull[size++] = true;
+  }
+
+  /**
+   * Appends the rows [from, to) of a batch column, going through the selection vector
+   * when it is in use.
+   */
+  public void append(ColumnVector columnVector, int[] sel, boolean selectedInUse,
+      int from, int to) {
+    ensureCapacity(size + to - from);
+    boolean noNulls = columnVector.noNulls;
+    boolean isRepeating = columnVector.isRepeating;
+    boolean[] inputIsNull = columnVector.isNull;
+    for (int j = from; j < to; j++) {
+      int row = isRepeating ? 0 : (selectedInUse ? sel[j] : j);
+      if (noNulls || !inputIsNull[row]) {
+        isNull[size] = false;
+        copy(columnVector, row, size);
+      } else {
+        isNull[size] = true;
+      }
+      size++;
+    }
+  }
+
+  /**
+   * Copies the value (or null) at position j of another buffer of the same kind
+   * to position i of this one.
+   */
+  public void setFrom(int i, VectorPTFColumnBuffer source, int j) {
+    if (source.isNull[j]) {
+      isNull[i] = true;
+    } else {
+      isNull[i] = false;
+      copy(source, j, i);
+    }
+  }
+
+  public void appendFrom(VectorPTFColumnBuffer source, int j) {
+    ensureCapacity(size + 1);
+    setFrom(size++, source, j);
+  }
+
+  /**
+   * Drops the first n values, shifting the remaining ones to the front.
+   */
+  public void discard(int n) {
+    if (n >= size) {
+      clear();
+      return;
+    }
+    System.arraycopy(isNull, n, isNull, 0, size - n);
+    shift(n);
+    size -= n;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns the row mode writable for position i, or null.
+   */
+  public Object writeValue(VectorExpressionWriter writer, int i) throws HiveException {
+    return isNull[i] ? null : writeNonNull(writer, i);
+  }
+
+  protected void ensureCapacity(int capacity) {
+    if (capacity > isNull.length) {
+      int newCapacity = Math.max(capacity, isNull.length * 2);
+      isNull = Arrays.copyOf(isNull, newCapacity);
+      grow(newCapacity);
+    }
+  }
+
+  protected abstract void copy(ColumnVector columnVector, int row, int i);
+
+  protected abstract void copy(VectorPTFColumnBuffer source, int j, int i);
+
+  protected abstract void shift(int n);
+
+  protected abstract void grow(int capacity);
+
+  protected abstract Object writeNonNull(VectorExpressionWriter writer, int i)
+      throws HiveException;
+
+  /**
+   * Buffer for the long family, which also holds timestamps, dates and scaled decimals.
+   */
+  public static class LongBuffer extends VectorPTFColumnBuffer {
+
+    private long[] vector;
+
+    public LongBuffer() {
+      super(VectorizedRowBatch.DEFAULT_SIZE);
+      vector = new long[VectorizedRowBatch.DEFAULT_SIZE];
+    }
+
+    @Override
+    public VectorPTFColumnBuffer createEmpty() {
+      return new LongBuffer();
+    }
+
+    public long get(int i) {
+      return vector[i];
+    }
+
+    public void set(int i, long value) {
+      isNull[i] = false;
+      vector[i] = value;
+    }
+
+    public void append(long value) {
+      ensureCapacity(size + 1);
+      set(size++, value);
+    }
+
+    @Override
+    protected void copy(ColumnVector columnVector, int row, int i) {
+      vector[i] = ((LongColumnVector) columnVector).vector[row];
+    }
+
+    @Override
+    protected void copy(VectorPTFColumnBuffer source, int j, int i) {
+      vector[i] = ((LongBuffer) source).vector[j];
+    }
+
+    @Override
+    protected void shift(int n) {
+      System.arraycopy(vector, n, vector, 0, size - n);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      vector = Arrays.copyOf(vector, capacity);
+    }
+
+    @Override
+    protected Object writeNonNull(VectorExpressionWriter writer, int i) throws HiveException {
+      return writer.writeValue(vector[i]);
+    }
+  }
+
+  /**
+   * Buffer for the float family.
+   */
+  public static class DoubleBuffer extends VectorPTFColumnBuffer {
+
+    private double[] vector;
+
+    public DoubleBuffer() {
+      super(VectorizedRowBatch.DEFAULT_SIZE);
+      vector = new double[VectorizedRowBatch.DEFAULT_SIZE];
+    }
+
+    @Override
+    public VectorPTFColumnBuffer createEmpty() {
+      return new DoubleBuffer();
+    }
+
+    public double get(int i) {
+      return vector[i];
+    }
+
+    public void set(int i, double value) {
+      isNull[i] = false;
+      vector[i] = value;
+    }
+
+    public void append(double value) {
+      ensureCapacity(size + 1);
+      set(size++, value);
+    }
+
+    @Override
+    protected void copy(ColumnVector columnVector, int row, int i) {
+      vector[i] = ((DoubleColumnVector) columnVector).vector[row];
+    }
+
+    @Override
+    protected void copy(VectorPTFColumnBuffer source, int j, int i) {
+      vector[i] = ((DoubleBuffer) source).vector[j];
+    }
+
+    @Override
+    protected void shift(int n) {
+      System.arraycopy(vector, n, vector, 0, size - n);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      vector = Arrays.copyOf(vector, capacity);
+    }
+
+    @Override
+    protected Object writeNonNull(VectorExpressionWriter writer, int i) throws HiveException {
+      return writer.writeValue(vector[i]);
+    }
+  }
+
+  /**
+   * Buffer for the string family. Every value gets its own copy of the bytes; copies between
+   * buffers share the copy, which is never modified.
+   */
+  public static class BytesBuffer extends VectorPTFColumnBuffer {
+
+    private byte[][] vector;
+
+    public BytesBuffer() {
+      super(VectorizedRowBatch.DEFAULT_SIZE);
+      vector = new byte[VectorizedRowBatch.DEFAULT_SIZE][];
+    }
+
+    @Override
+    public VectorPTFColumnBuffer createEmpty() {
+      return new BytesBuffer();
+    }
+
+    public byte[] get(int i) {
+      return vector[i];
+    }
+
+    @Override
+    protected void copy(ColumnVector columnVector, int row, int i) {
+      BytesColumnVector bcv = (BytesColumnVector) columnVector;
+      int start = bcv.start[row];
+      vector[i] = Arrays.copyOfRange(bcv.vector[row], start, start + bcv.length[row]);
+    }
+
+    @Override
+    protected void copy(VectorPTFColumnBuffer source, int j, int i) {
+      vector[i] = ((BytesBuffer) source).vector[j];
+    }
+
+    @Override
+    protected void shift(int n) {
+      System.arraycopy(vector, n, vector, 0, size - n);
+      // let go of the values that moved down
+      Arrays.fill(vector, size - n, size, null);
+    }
+
+    @Override
+    public void clear() {
+      Arrays.fill(vector, 0, size, null);
+      super.clear();
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      vector = Arrays.copyOf(vector, capacity);
+    }
+
+    @Override
+    protected Object writeNonNull(VectorExpressionWriter writer, int i) throws HiveException {
+      return writer.writeValue(vector[i], 0, vector[i].length);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+
+/**
+ * Base class for the window functions of the vectorized PTF operator.
+ *
+ * The operator appends the rows of the current partition to its column buffers and then
+ * calls {@link #evaluate(int, int)} with the range of new rows. The evaluator reads its
+ * arguments from the buffers and appends one result per row, possibly as a placeholder that
+ * is filled in once later rows are known. Rows below {@link #getReadyCount()} have their
+ * final result and may be emitted; the operator then discards them from the front of every
+ * buffer. Positions are always relative to the first row not yet emitted.
+ */
+public abstract class VectorPTFEvaluator {
+
+  protected final VectorPTFColumnBuffer result;
+  protected final VectorExpressionWriter outputWriter;
+  protected int readyCount;
+
+  protected VectorPTFEvaluator(VectorPTFColumnBuffer result,
+      VectorExpressionWriter outputWriter) {
+    this.result = result;
+    this.outputWriter = outputWriter;
+  }
+
+  /**
+   * Resets the state before the first row of a partition.
+   */
+  public void startPartition() {
+    result.clear();
+    readyCount = 0;
+  }
+
+  /**
+   * Computes the results for the newly appended rows [from, to).
+   */
+  public abstract void evaluate(int from, int to);
+
+  /**
+   * Completes the results of the pending rows once the partition has no more rows.
+   */
+  public void finishPartition() {
+    readyCount = result.size();
+  }
+
+  public int getReadyCount() {
+    return readyCount;
+  }
+
+  /**
+   * Drops the results of the first n rows, which have been emitted.
+   */
+  public void discard(int n) {
+    result.discard(n);
+    readyCount -= n;
+  }
+
+  public ObjectInspector getOutputObjectInspector() {
+    return outputWriter.getObjectInspector();
+  }
+
+  /**
+   * Returns the row mode value of the result at position i.
+   */
+  public Object writeValue(int i) throws HiveException {
+    return result.writeValue(outputWriter, i);
+  }
+}
@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.BoundarySpec;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.Direction;
+import org.apache.hadoop.hive.ql.plan.ptf.BoundaryDef;
+import org.apache.hadoop.hive.ql.plan.ptf.ValueBoundaryDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+
+/**
+ * sum, count, min, max and avg over a window frame that grows with the partition, so that
+ * every row is aggregated once:
+ * <ul>
+ * <li>the whole partition, the results are all known at the end of the partition;</li>
+ * <li>ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW, the result is known at each row;</li>
+ * <li>RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW, the frame extends to the last peer
+ * of the row, so the result is known once the order key changes.</li>
+ * </ul>
+ * Other frames are left to the row mode operator.
+ */
+public class VectorPTFEvaluatorAggregate extends VectorPTFEvaluator {
+
+  public static enum AggregationType {
+    SUM, COUNT, MIN, MAX, AVG
+  }
+
+  public static enum FrameType {
+    WHOLE_PARTITION, RUNNING_ROWS, RUNNING_RANGE
+  }
+
+  /**
+   * Returns the frame type of a window frame, or null when it is not one of the supported
+   * ones.
+   */
+  public static FrameType getFrameType(WindowFrameDef frame) {
+    if (frame == null) {
+      return FrameType.WHOLE_PARTITION;
+    }
+    BoundaryDef start = frame.getStart();
+    BoundaryDef end = frame.getEnd();
+    if (start.getAmt() == BoundarySpec.UNBOUNDED_AMOUNT
+        && end.getAmt() == BoundarySpec.UNBOUNDED_AMOUNT) {
+      return FrameType.WHOLE_PARTITION;
+    }
+    if (start.getDirection() == Direction.PRECEDING
+        && start.getAmt() == BoundarySpec.UNBOUNDED_AMOUNT
+        && end.getDirection() == Direction.CURRENT) {
+      return start instanceof ValueBoundaryDef || end instanceof ValueBoundaryDef ?
+          FrameType.RUNNING_RANGE : FrameType.RUNNING_ROWS;
+    }
+    return null;
+  }
+
+  private final AggregationType aggregationType;
+  private final FrameType frameType;
+  private final VectorPTFColumnBuffer argument;
+  private final VectorPTFColumnBuffer.LongBuffer peerStarts;
+
+  private long count;
+  private long longValue;
+  private double doubleValue;
+
+  /**
+   * Start of the rows whose result is not set yet.
+   */
+  private int groupStart;
+
+  /**
+   * @param argument the buffered argument values, or null for count(*)
+   * @param peerStarts non zero for the rows whose order key differs from the previous row
+   */
+  public VectorPTFEvaluatorAggregate(AggregationType aggregationType, FrameType frameType,
+      VectorPTFColumnBuffer argument, VectorPTFColumnBuffer.LongBuffer peerStarts,
+      VectorExpressionWriter outputWriter) {
+    super(createResult(aggregationType, argument), outputWriter);
+    this.aggregationType = aggregationType;
+    this.frameType = frameType;
+    this.argument = argument;
+    this.peerStarts = peerStarts;
+  }
+
+  private static VectorPTFColumnBuffer createResult(AggregationType aggregationType,
+      VectorPTFColumnBuffer argument) {
+    switch (aggregationType) {
+    case COUNT:
+      return new VectorPTFColumnBuffer.LongBuffer();
+    case AVG:
+      return new VectorPTFColumnBuffer.DoubleBuffer();
+    default:
+      return argument.createEmpty();
+    }
+  }
+
+  @Override
+  public void startPartition() {
+    super.startPartition();
+    count = 0;
+    longValue = 0;
+    doubleValue = 0;
+    groupStart = 0;
+  }
+
+  @Override
+  public void evaluate(int from, int to) {
+    switch (frameType) {
+    case RUNNING_ROWS:
+      for (int i = from; i < to; i++) {
+        aggregate(i);
+        result.appendNull();
+        setResult(i);
+      }
+      groupStart = result.size();
+      break;
+    case RUNNING_RANGE:
+      for (int i = from; i < to; i++) {
+        if (peerStarts.get(i) != 0) {
+          // the peers of the previous row are complete
+          setResults(groupStart, i);
+          groupStart = i;
+        }
+        aggregate(i);
+        result.appendNull();
+      }
+      break;
+    default:
+      for (int i = from; i < to; i++) {
+        aggregate(i);
+        result.appendNull();
+      }
+      break;
+    }
+    readyCount = groupStart;
+  }
+
+  @Override
+  public void finishPartition() {
+    setResults(groupStart, result.size());
+    groupStart = result.size();
+    super.finishPartition();
+  }
+
+  @Override
+  public void discard(int n) {
+    super.discard(n);
+    groupStart -= n;
+  }
+
+  private void aggregate(int i) {
+    if (argument == null) {
+      count++;
+      return;
+    }
+    if (argument.isNull(i)) {
+      return;
+    }
+    if (argument instanceof VectorPTFColumnBuffer.LongBuffer) {
+      aggregate(((VectorPTFColumnBuffer.LongBuffer) argument).get(i));
+    } else {
+      aggregate(((VectorPTFColumnBuffer.DoubleBuffer) argument).get(i));
+    }
+    count++;
+  }
+
+  private void aggregate(long value) {
+    switch (aggregationType) {
+    case SUM:
+      longValue += value;
+      break;
+    case AVG:
+      doubleValue += value;
+      break;
+    case MIN:
+      if (count == 0 || value < longValue) {
+        longValue = value;
+      }
+      break;
+    case MAX:
+      if (count == 0 || value > longValue) {
+        longValue = value;
+      }
+      break;
+    default:
+      break;
+    }
+  }
+
+  private void aggregate(double value) {
+    switch (aggregationType) {
+    case SUM:
+    case AVG:
+      doubleValue += value;
+      break;
+    case MIN:
+      if (count == 0 || value < doubleValue) {
+        doubleValue = value;
+      }
+      break;
+    case MAX:
+      if (count == 0 || value > doubleValue) {
+        doubleValue = value;
+      }
+      break;
+    default:
+      break;
+    }
+  }
+
+  private void setResults(int from, int to) {
+    for (int i = from; i < to; i++) {
+      setResult(i);
+    }
+  }
+
+  private void setResult(int i) {
+    if (aggregationType == AggregationType.COUNT) {
+      ((VectorPTFColumnBuffer.LongBuffer) result).set(i, count);
+    } else if (count == 0) {
+      // sum, min, max and avg of no values are null
+      result.setNull(i);
+    } else if (aggregationType == AggregationType.AVG) {
+      ((VectorPTFColumnBuffer.DoubleBuffer) result).set(i, doubleValue / count);
+    } else if (result instanceof VectorPTFColumnBuffer.LongBuffer) {
+      ((VectorPTFColumnBuffer.LongBuffer) result).set(i, longValue);
+    } else {
+      ((VectorPTFColumnBuffer.DoubleBuffer) result).set(i, doubleValue);
+    }
+  }
+}
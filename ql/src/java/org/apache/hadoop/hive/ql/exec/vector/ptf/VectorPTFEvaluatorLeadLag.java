@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+
+/**
+ * lead(expr, amt, default) and lag(expr, amt, default): the value of the argument amt rows
+ * after (before) the current row in the partition, or the default (null when absent) when
+ * there is no such row.
+ *
+ * lag() keeps the last amt argument values, since those rows may already have been emitted.
+ * lead() holds back the last amt rows until the rows they refer to have been read.
+ */
+public class VectorPTFEvaluatorLeadLag extends VectorPTFEvaluator {
+
+  private final boolean isLead;
+  private final int amt;
+  private final VectorPTFColumnBuffer argument;
+  private final VectorPTFColumnBuffer defaultValue;
+  private final VectorPTFColumnBuffer history;
+
+  /**
+   * @param argument the buffered values of the expression
+   * @param defaultValue the buffered values of the default, or null
+   */
+  public VectorPTFEvaluatorLeadLag(boolean isLead, int amt, VectorPTFColumnBuffer argument,
+      VectorPTFColumnBuffer defaultValue, VectorExpressionWriter outputWriter) {
+    super(argument.createEmpty(), outputWriter);
+    this.isLead = isLead;
+    this.amt = amt;
+    this.argument = argument;
+    this.defaultValue = defaultValue;
+    this.history = isLead ? null : argument.createEmpty();
+  }
+
+  @Override
+  public void startPartition() {
+    super.startPartition();
+    if (history != null) {
+      history.clear();
+    }
+  }
+
+  @Override
+  public void evaluate(int from, int to) {
+    if (isLead) {
+      evaluateLead(from, to);
+    } else {
+      evaluateLag(from, to);
+    }
+  }
+
+  private void evaluateLag(int from, int to) {
+    for (int i = from; i < to; i++) {
+      history.appendFrom(argument, i);
+      int source = history.size() - 1 - amt;
+      if (source >= 0) {
+        result.appendFrom(history, source);
+      } else {
+        appendDefault(i);
+      }
+    }
+    if (history.size() > amt) {
+      history.discard(history.size() - amt);
+    }
+    readyCount = result.size();
+  }
+
+  private void evaluateLead(int from, int to) {
+    for (int i = from; i < to; i++) {
+      result.appendNull();
+    }
+    // A row amt positions back is either pending or before the start of the partition;
+    // it can not have been emitted since its value was not known yet.
+    for (int i = Math.max(from, amt); i < to; i++) {
+      result.setFrom(i - amt, argument, i);
+    }
+    readyCount = Math.max(0, result.size() - amt);
+  }
+
+  private void appendDefault(int i) {
+    if (defaultValue == null) {
+      result.appendNull();
+    } else {
+      result.appendFrom(defaultValue, i);
+    }
+  }
+
+  @Override
+  public void finishPartition() {
+    if (isLead) {
+      // the last amt rows have no row amt positions ahead
+      for (int i = Math.max(readyCount, result.size() - amt); i < result.size(); i++) {
+        if (defaultValue == null) {
+          result.setNull(i);
+        } else {
+          result.setFrom(i, defaultValue, i);
+        }
+      }
+    }
+    super.finishPartition();
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+
+/**
+ * row_number(): the position of the row in its partition, starting at 1.
+ */
+public class VectorPTFEvaluatorRowNumber extends VectorPTFEvaluator {
+
+  private final VectorPTFColumnBuffer.LongBuffer longResult;
+  private long rowNumber;
+
+  public VectorPTFEvaluatorRowNumber(VectorExpressionWriter outputWriter) {
+    super(new VectorPTFColumnBuffer.LongBuffer(), outputWriter);
+    longResult = (VectorPTFColumnBuffer.LongBuffer) result;
+  }
+
+  @Override
+  public void startPartition() {
+    super.startPartition();
+    rowNumber = 0;
+  }
+
+  @Override
+  public void evaluate(int from, int to) {
+    for (int i = from; i < to; i++) {
+      longResult.append(++rowNumber);
+    }
+    readyCount = result.size();
+  }
+}
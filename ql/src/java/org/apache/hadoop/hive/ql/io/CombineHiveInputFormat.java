@@ -30,6 +30,7 @@
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -262,7 +263,7 @@ public int hashCode() {
    * Create Hive splits based on CombineFileSplit.
    */
   @Override
-  public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
+  public InputSplit[] getSplits(final JobConf job, int numSplits) throws IOException {
     PerfLogger perfLogger = PerfLogger.getPerfLogger();
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.GET_SPLITS);
     init(job);
@@ -294,6 +295,9 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
       new HashMap<CombinePathInputFormat, CombineFilter>();
     Set<Path> poolSet = new HashSet<Path>();
 
+    // resolve the partition and input format of every path without touching
+    // the file system, and fall back to HiveInputFormat where we can't combine
+    List<PathProbe> probes = new ArrayList<PathProbe>(paths.length);
     for (Path path : paths) {
 
       PartitionDesc part = HiveFileFormatUtils.getPartitionDescFromPathRecursively(
@@ -305,60 +309,51 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
 
       // Use HiveInputFormat if any of the paths is not splittable
       Class inputFormatClass = part.getInputFileFormatClass();
-      String inputFormatClassName = inputFormatClass.getName();
       InputFormat inputFormat = getInputFormatFromCache(inputFormatClass, job);
-      String deserializerClassName = part.getDeserializer() == null ? null
-          : part.getDeserializer().getClass().getName();
+
+      //don't combine if inputformat is a SymlinkTextInputFormat
+      if (inputFormat instanceof SymlinkTextInputFormat) {
+        splits = super.getSplits(job, numSplits);
+        perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.GET_SPLITS);
+        return splits;
+      }
 
       // Since there is no easy way of knowing whether MAPREDUCE-1597 is present in the tree or not,
       // we use a configuration variable for the same
-      if (this.mrwork != null && !this.mrwork.getHadoopSupportsSplittable()) {
-        // The following code should be removed, once
-        // https://issues.apache.org/jira/browse/MAPREDUCE-1597 is fixed.
-        // Hadoop does not handle non-splittable files correctly for CombineFileInputFormat,
-        // so don't use CombineFileInputFormat for non-splittable files
-
-        //ie, dont't combine if inputformat is a TextInputFormat and has compression turned on
-        FileSystem inpFs = path.getFileSystem(job);
-
-        if (inputFormat instanceof TextInputFormat) {
-          Queue<Path> dirs = new LinkedList<Path>();
-          FileStatus fStats = inpFs.getFileStatus(path);
-
-          // If path is a directory
-          if (fStats.isDir()) {
-            dirs.offer(path);
-          } else if ((new CompressionCodecFactory(job)).getCodec(path) != null) {
-            //if compresssion codec is set, use HiveInputFormat.getSplits (don't combine)
-            splits = super.getSplits(job, numSplits);
-            perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.GET_SPLITS);
-            return splits;
-          }
+      // The following code should be removed, once
+      // https://issues.apache.org/jira/browse/MAPREDUCE-1597 is fixed.
+      // Hadoop does not handle non-splittable files correctly for CombineFileInputFormat,
+      // so don't use CombineFileInputFormat for non-splittable files
+      boolean checkCompression = this.mrwork != null &&
+          !this.mrwork.getHadoopSupportsSplittable() &&
+          inputFormat instanceof TextInputFormat;
+      String deserializerClassName = part.getDeserializer() == null ? null
+          : part.getDeserializer().getClass().getName();
+      probes.add(new PathProbe(job, path, inputFormatClass.getName(),
+          deserializerClassName, checkCompression,
+          mrwork.isMapperCannotSpanPartns()));
+    }
 
-          while (dirs.peek() != null) {
-            Path tstPath = dirs.remove();
-            FileStatus[] fStatus = inpFs.listStatus(tstPath);
-            for (int idx = 0; idx < fStatus.length; idx++) {
-              if (fStatus[idx].isDir()) {
-                dirs.offer(fStatus[idx].getPath());
-              } else if ((new CompressionCodecFactory(job)).getCodec(
-                  fStatus[idx].getPath()) != null) {
-                //if compresssion codec is set, use HiveInputFormat.getSplits (don't combine)
-                splits = super.getSplits(job, numSplits);
-                perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.GET_SPLITS);
-                return splits;
-              }
-            }
-          }
-        }
-      }
-      //don't combine if inputformat is a SymlinkTextInputFormat
-      if (inputFormat instanceof SymlinkTextInputFormat) {
+    // the file system calls for the paths are independent, so make them
+    // concurrently
+    perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.LIST_INPUT_PATHS);
+    probes = SplitGenerationExecutor.run(job, probes);
+    perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.LIST_INPUT_PATHS);
+
+    for (PathProbe probe : probes) {
+      //ie, dont't combine if inputformat is a TextInputFormat and has compression turned on
+      if (probe.hasCompressedFiles) {
+        //if compresssion codec is set, use HiveInputFormat.getSplits (don't combine)
         splits = super.getSplits(job, numSplits);
         perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.GET_SPLITS);
         return splits;
       }
+    }
 
+    for (PathProbe probe : probes) {
+      Path path = probe.path;
+      String inputFormatClassName = probe.inputFormatClassName;
+      String deserializerClassName = probe.deserializerClassName;
       Path filterPath = path;
 
       // Does a pool exist for this path already
@@ -392,7 +387,7 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
         // parent directory will be grouped into one pool but not files from different parent
         // directories. This guarantees that a split will combine all files in the same partition
         // but won't cross multiple partitions if the user has asked so.
-        if (!path.getFileSystem(job).getFileStatus(path).isDir()) { // path is not directory
+        if (!probe.isDir) { // path is not directory
           filterPath = path.getParent();
           inpFiles.add(path);
           poolSet.add(filterPath);
@@ -410,9 +405,26 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
       // using combine.createPool.
       iss = Arrays.asList(combine.getSplits(job, 1));
     } else {
-      for (Path path : inpDirs) {
-        processPaths(job, combine, iss, path);
+      // each partition directory is listed by its own combine input format,
+      // since none of them has a pool yet
+      perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.COMPUTE_SPLITS);
+      List<Callable<List<InputSplitShim>>> tasks =
+          new ArrayList<Callable<List<InputSplitShim>>>(inpDirs.size());
+      for (final Path path : inpDirs) {
+        tasks.add(new Callable<List<InputSplitShim>>() {
+          @Override
+          public List<InputSplitShim> call() throws IOException {
+            List<InputSplitShim> dirSplits = new ArrayList<InputSplitShim>();
+            processPaths(job, ShimLoader.getHadoopShims().getCombineFileInputFormat(),
+                dirSplits, path);
+            return dirSplits;
+          }
+        });
       }
+      for (List<InputSplitShim> dirSplits : SplitGenerationExecutor.run(job, tasks)) {
+        iss.addAll(dirSplits);
+      }
+      perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.COMPUTE_SPLITS);
 
       if (inpFiles.size() > 0) {
         // Processing files
@@ -437,6 +449,68 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
     return result.toArray(new CombineHiveInputSplit[result.size()]);
   }
 
+  /**
+   * The file system information about an input path that decides how it is
+   * combined. It is gathered concurrently for all of the paths.
+   */
+  private static class PathProbe implements Callable<PathProbe> {
+    private final JobConf job;
+    private final Path path;
+    private final String inputFormatClassName;
+    private final String deserializerClassName;
+    private final boolean checkCompression;
+    private final boolean checkDir;
+    private boolean isDir = false;
+    private boolean hasCompressedFiles = false;
+
+    PathProbe(JobConf job, Path path, String inputFormatClassName,
+              String deserializerClassName, boolean checkCompression,
+              boolean checkDir) {
+      this.job = job;
+      this.path = path;
+      this.inputFormatClassName = inputFormatClassName;
+      this.deserializerClassName = deserializerClassName;
+      this.checkCompression = checkCompression;
+      this.checkDir = checkDir;
+    }
+
+    @Override
+    public PathProbe call() throws IOException {
+      if (!checkCompression && !checkDir) {
+        return this;
+      }
+      FileSystem inpFs = path.getFileSystem(job);
+      FileStatus fStats = inpFs.getFileStatus(path);
+      isDir = fStats.isDir();
+      if (!checkCompression) {
+        return this;
+      }
+      CompressionCodecFactory codecs = new CompressionCodecFactory(job);
+      Queue<Path> dirs = new LinkedList<Path>();
+      // If path is a directory
+      if (isDir) {
+        dirs.offer(path);
+      } else if (codecs.getCodec(path) != null) {
+        hasCompressedFiles = true;
+        return this;
+      }
+
+      while (dirs.peek() != null) {
+        Path tstPath = dirs.remove();
+        FileStatus[] fStatus = inpFs.listStatus(tstPath);
+        for (int idx = 0; idx < fStatus.length; idx++) {
+          if (fStatus[idx].isDir()) {
+            dirs.offer(fStatus[idx].getPath());
+          } else if (codecs.getCodec(fStatus[idx].getPath()) != null) {
+            hasCompressedFiles = true;
+            return this;
+          }
+        }
+      }
+      return this;
+    }
+  }
+
   private void processPaths(JobConf job, CombineFileInputFormatShim combine,
       List<InputSplitShim> iss, Path... path) throws IOException {
     JobConf currJob = new JobConf(job);
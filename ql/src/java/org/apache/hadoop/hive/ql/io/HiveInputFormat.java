@@ -24,8 +24,10 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -183,7 +185,7 @@ public void configure(JobConf job) {
    */
   protected static Map<Class, InputFormat<WritableComparable, Writable>> inputFormats;
 
-  public static InputFormat<WritableComparable, Writable> getInputFormatFromCache(
+  public static synchronized InputFormat<WritableComparable, Writable> getInputFormatFromCache(
     Class inputFormatClass, JobConf job) throws IOException {
 
     if (inputFormats == null) {
@@ -262,8 +264,12 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
       throw new IOException("No input paths specified in job");
     }
     JobConf newjob = new JobConf(job);
+    boolean parallel = dirs.length > 1 &&
+        SplitGenerationExecutor.getNumThreads(job) > 1;
+    List<SplitTask> tasks = new ArrayList<SplitTask>(dirs.length);
     ArrayList<InputSplit> result = new ArrayList<InputSplit>();
 
+    perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.COMPUTE_SPLITS);
     // for each dir, get the InputFormat, and do getSplits.
     for (Path dir : dirs) {
       PartitionDesc part = getPartitionDescFromPath(pathToPartitionInfo, dir);
@@ -284,19 +290,58 @@ public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
         }
       }
 
-      FileInputFormat.setInputPaths(newjob, dir);
-      newjob.setInputFormat(inputFormat.getClass());
-      InputSplit[] iss = inputFormat.getSplits(newjob, numSplits / dirs.length);
-      for (InputSplit is : iss) {
-        result.add(new HiveInputSplit(is, inputFormatClass.getName()));
+      // the table properties and filters accumulate in newjob, so each
+      // concurrent task gets its own copy of the conf
+      JobConf dirJob = parallel ? new JobConf(newjob) : newjob;
+      FileInputFormat.setInputPaths(dirJob, dir);
+      dirJob.setInputFormat(inputFormat.getClass());
+      SplitTask task = new SplitTask(inputFormat, inputFormatClass, dirJob,
+          numSplits / dirs.length);
+      if (parallel) {
+        tasks.add(task);
+      } else {
+        result.addAll(task.call());
       }
     }
+    for (List<InputSplit> splits : SplitGenerationExecutor.run(job, tasks)) {
+      result.addAll(splits);
+    }
+    perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.COMPUTE_SPLITS);
 
     LOG.info("number of splits " + result.size());
     perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.GET_SPLITS);
     return result.toArray(new HiveInputSplit[result.size()]);
   }
 
+  /**
+   * Get the splits of one input directory from the input format of its
+   * partition.
+   */
+  private static class SplitTask implements Callable<List<InputSplit>> {
+    private final InputFormat inputFormat;
+    private final String inputFormatClassName;
+    private final JobConf job;
+    private final int numSplits;
+
+    SplitTask(InputFormat inputFormat, Class inputFormatClass, JobConf job,
+              int numSplits) {
+      this.inputFormat = inputFormat;
+      this.inputFormatClassName = inputFormatClass.getName();
+      this.job = job;
+      this.numSplits = numSplits;
+    }
+
+    @Override
+    public List<InputSplit> call() throws IOException {
+      InputSplit[] iss = inputFormat.getSplits(job, numSplits);
+      List<InputSplit> result = new ArrayList<InputSplit>(iss.length);
+      for (InputSplit is : iss) {
+        result.add(new HiveInputSplit(is, inputFormatClassName));
+      }
+      return result;
+    }
+  }
+
   protected static PartitionDesc getPartitionDescFromPath(
       Map<String, PartitionDesc> pathToPartitionInfo, Path dir)
       throws IOException {
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.HiveInterruptCallback;
+import org.apache.hadoop.hive.common.HiveInterruptUtils;
+import org.apache.hadoop.hive.conf.HiveConf;
+
+/**
+ * Runs the per partition work of split generation, such as listing a
+ * directory or asking the input format of a partition for its splits, on
+ * hive.exec.input.split.threads threads. The results are returned in the
+ * order of the tasks, so the splits of a job don't depend on which thread
+ * finished first.
+ */
+public final class SplitGenerationExecutor {
+  private static final Log LOG = LogFactory.getLog(SplitGenerationExecutor.class);
+
+  private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+  private SplitGenerationExecutor() {
+    // prevent instantiation
+  }
+
+  /**
+   * Get the number of threads that split generation should use.
+   */
+  public static int getNumThreads(Configuration conf) {
+    return Math.max(1, HiveConf.getIntVar(conf,
+        HiveConf.ConfVars.HIVE_SPLIT_GENERATION_THREADS));
+  }
+
+  /**
+   * Run the tasks and return their results in the same order. With a single
+   * task or a single thread the tasks are run in the calling thread.
+   * @param conf the configuration to read the number of threads from
+   * @param tasks the tasks to run
+   * @return the results of the tasks
+   * @throws IOException if any of the tasks failed
+   */
+  public static <T> List<T> run(Configuration conf,
+                                List<? extends Callable<T>> tasks
+                                ) throws IOException {
+    List<T> results = new ArrayList<T>(tasks.size());
+    int numThreads = Math.min(getNumThreads(conf), tasks.size());
+    if (numThreads <= 1) {
+      for (Callable<T> task : tasks) {
+        results.add(call(task));
+      }
+      return results;
+    }
+
+    LOG.info("Using " + numThreads + " threads to generate splits for " +
+        tasks.size() + " inputs");
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+        new DaemonThreadFactory());
+    HiveInterruptCallback interrupt = HiveInterruptUtils.add(
+        new HiveInterruptCallback() {
+          @Override
+          public void interrupt() {
+            executor.shutdownNow();
+          }
+        });
+    try {
+      List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+      for (Callable<T> task : tasks) {
+        futures.add(executor.submit(task));
+      }
+      for (Future<T> future : futures) {
+        try {
+          results.add(future.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while generating splits", e);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new IOException("Failed to generate splits", cause);
+        }
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+      HiveInterruptUtils.remove(interrupt);
+    }
+  }
+
+  private static <T> T call(Callable<T> task) throws IOException {
+    try {
+      return task.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException("Failed to generate splits", e);
+    }
+  }
+
+  /**
+   * Split generation runs in the client, so don't let a stuck name node
+   * call keep the JVM from exiting.
+   */
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final int pool = POOL_COUNT.incrementAndGet();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "SplitGenerator-" + pool + "-" +
+          count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
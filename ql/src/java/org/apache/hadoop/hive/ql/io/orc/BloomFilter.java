@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.io.orc;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A bloom filter over the values of a column in a row group. The ORC writer
+ * keeps one per row group for the columns listed in orc.bloom.filter.columns
+ * and stores them in the BLOOM_FILTER stream next to the row index, so that
+ * the reader can skip row groups that can not contain the literals of an
+ * equality or IN predicate.
+ *
+ * Integers are added as longs and floats as doubles, so that a predicate
+ * literal can be tested without knowing the width of the column. The k
+ * positions of a value are derived from a single 64 bit hash by double
+ * hashing.
+ */
+class BloomFilter {
+  static final double DEFAULT_FPP = 0.05;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final long[] bitSet;
+  private final int numBits;
+  private final int numHashFunctions;
+
+  /**
+   * Create an empty bloom filter.
+   * @param expectedEntries the number of values that will be added
+   * @param fpp the expected false positive probability
+   */
+  BloomFilter(long expectedEntries, double fpp) {
+    if (expectedEntries <= 0) {
+      throw new IllegalArgumentException("expectedEntries should be > 0");
+    }
+    if (fpp <= 0.0 || fpp >= 1.0) {
+      throw new IllegalArgumentException("False positive probability should" +
+          " be > 0.0 and < 1.0");
+    }
+    int bits = optimalNumOfBits(expectedEntries, fpp);
+    // round up to a whole number of longs
+    bitSet = new long[(bits + Long.SIZE - 1) / Long.SIZE];
+    numBits = bitSet.length * Long.SIZE;
+    numHashFunctions = optimalNumOfHashFunctions(expectedEntries, numBits);
+  }
+
+  /**
+   * Read a bloom filter back from the file.
+   */
+  BloomFilter(OrcProto.BloomFilter proto) {
+    bitSet = new long[proto.getBitsetCount()];
+    for(int i=0; i < bitSet.length; ++i) {
+      bitSet[i] = proto.getBitset(i);
+    }
+    numBits = bitSet.length * Long.SIZE;
+    numHashFunctions = proto.getNumHashFunctions();
+  }
+
+  static int optimalNumOfHashFunctions(long n, long m) {
+    return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+  }
+
+  static int optimalNumOfBits(long n, double p) {
+    return (int) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+  }
+
+  void addBytes(byte[] val, int offset, int length) {
+    addHash(hash64(val, offset, length));
+  }
+
+  void addString(String val) {
+    byte[] bytes = val.getBytes(UTF8);
+    addBytes(bytes, 0, bytes.length);
+  }
+
+  void addLong(long val) {
+    addHash(hash64(val));
+  }
+
+  void addDouble(double val) {
+    addLong(doubleBits(val));
+  }
+
+  boolean testBytes(byte[] val, int offset, int length) {
+    return testHash(hash64(val, offset, length));
+  }
+
+  boolean testString(String val) {
+    byte[] bytes = val.getBytes(UTF8);
+    return testBytes(bytes, 0, bytes.length);
+  }
+
+  boolean testLong(long val) {
+    return testHash(hash64(val));
+  }
+
+  boolean testDouble(double val) {
+    return testLong(doubleBits(val));
+  }
+
+  /**
+   * The bits hashed for a double. -0.0 equals 0.0, so both get the bits of
+   * 0.0; doubleToLongBits already maps every NaN to the same bits.
+   */
+  private static long doubleBits(double val) {
+    return Double.doubleToLongBits(val == 0.0 ? 0.0 : val);
+  }
+
+  private void addHash(long hash) {
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for(int i=1; i <= numHashFunctions; ++i) {
+      int combined = hash1 + i * hash2;
+      if (combined < 0) {
+        combined = ~combined;
+      }
+      int pos = combined % numBits;
+      bitSet[pos >>> 6] |= 1L << pos;
+    }
+  }
+
+  private boolean testHash(long hash) {
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for(int i=1; i <= numHashFunctions; ++i) {
+      int combined = hash1 + i * hash2;
+      if (combined < 0) {
+        combined = ~combined;
+      }
+      int pos = combined % numBits;
+      if ((bitSet[pos >>> 6] & (1L << pos)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int getNumBits() {
+    return numBits;
+  }
+
+  int getNumHashFunctions() {
+    return numHashFunctions;
+  }
+
+  /**
+   * Clear the filter so that it can be reused for the next row group.
+   */
+  void reset() {
+    Arrays.fill(bitSet, 0);
+  }
+
+  OrcProto.BloomFilter.Builder serialize() {
+    OrcProto.BloomFilter.Builder builder = OrcProto.BloomFilter.newBuilder();
+    builder.setNumHashFunctions(numHashFunctions);
+    for(long word: bitSet) {
+      builder.addBitset(word);
+    }
+    return builder;
+  }
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  /**
+   * The 64 bit murmur3 hash of a byte range.
+   */
+  static long hash64(byte[] data, int offset, int length) {
+    long hash = 104729;
+    int blocks = length >>> 3;
+    for(int i=0; i < blocks; ++i) {
+      int base = offset + (i << 3);
+      long k = (data[base] & 0xffL)
+          | ((data[base + 1] & 0xffL) << 8)
+          | ((data[base + 2] & 0xffL) << 16)
+          | ((data[base + 3] & 0xffL) << 24)
+          | ((data[base + 4] & 0xffL) << 32)
+          | ((data[base + 5] & 0xffL) << 40)
+          | ((data[base + 6] & 0xffL) << 48)
+          | ((data[base + 7] & 0xffL) << 56);
+      k *= C1;
+      k = Long.rotateLeft(k, 31);
+      k *= C2;
+      hash ^= k;
+      hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+    }
+    long k = 0;
+    int tail = offset + (blocks << 3);
+    for(int i = length - (blocks << 3) - 1; i >= 0; --i) {
+      k ^= (data[tail + i] & 0xffL) << (i << 3);
+    }
+    if (k != 0 || length != blocks << 3) {
+      k *= C1;
+      k = Long.rotateLeft(k, 31);
+      k *= C2;
+      hash ^= k;
+    }
+    hash ^= length;
+    return fmix64(hash);
+  }
+
+  /**
+   * Spread the bits of a long over the whole hash.
+   */
+  static long hash64(long val) {
+    return fmix64(val * C1);
+  }
+
+  private static long fmix64(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
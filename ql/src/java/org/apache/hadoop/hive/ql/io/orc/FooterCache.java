@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io.orc;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.hive.common.metrics.Metrics;
+import org.apache.hadoop.hive.conf.HiveConf;
+
+/**
+ * A process wide cache of the parsed tails of ORC files, so that split
+ * generation and the record readers of a file don't each read and parse
+ * the postscript and footer again. Entries are keyed on the path, length
+ * and modification time of the file, so a rewritten file is never served
+ * from the cache.
+ *
+ * The stripe statistics are only read when a reader asks for them and are
+ * kept in a separate map, so files that are only listed don't pay for
+ * them. Both maps are bounded by the number of files and evict the least
+ * recently used files first.
+ */
+final class FooterCache {
+  private static final Log LOG = LogFactory.getLog(FooterCache.class);
+
+  static final String HITS_COUNTER = "orc_footer_cache_hits";
+  static final String MISSES_COUNTER = "orc_footer_cache_misses";
+
+  private static FooterCache instance = null;
+
+  private final int maxEntries;
+  private final LruMap<ReaderImpl.FileTail> tails =
+      new LruMap<ReaderImpl.FileTail>();
+  private final LruMap<OrcProto.Metadata> stripeStatistics =
+      new LruMap<OrcProto.Metadata>();
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  FooterCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Get the cache for this process.
+   * @param conf the configuration to read the cache size from
+   * @return the cache or null if it is disabled
+   */
+  static synchronized FooterCache getInstance(Configuration conf) {
+    int entries = HiveConf.getIntVar(conf,
+        HiveConf.ConfVars.HIVE_ORC_FOOTER_CACHE_ENTRIES);
+    if (entries <= 0) {
+      return null;
+    }
+    if (instance == null || instance.maxEntries != entries) {
+      instance = new FooterCache(entries);
+    }
+    return instance;
+  }
+
+  /**
+   * Create a reader for the file, using the cached tail if there is one.
+   * @param fs the file system of the file
+   * @param file the status of the file to read
+   * @return a new reader
+   * @throws IOException
+   */
+  Reader createReader(FileSystem fs, FileStatus file) throws IOException {
+    Key key = new Key(file);
+    ReaderImpl.FileTail tail = get(key);
+    if (tail == null) {
+      tail = ReaderImpl.readTail(fs, file.getPath(), file.getLen());
+      synchronized (this) {
+        tails.put(key, tail);
+      }
+    }
+    return new ReaderImpl(fs, file.getPath(), tail, this, key);
+  }
+
+  private ReaderImpl.FileTail get(Key key) {
+    ReaderImpl.FileTail result;
+    synchronized (this) {
+      result = tails.get(key);
+      if (result != null) {
+        hits += 1;
+      } else {
+        misses += 1;
+      }
+    }
+    incrementCounter(result != null ? HITS_COUNTER : MISSES_COUNTER);
+    return result;
+  }
+
+  synchronized OrcProto.Metadata getStripeStatistics(Key key) {
+    return stripeStatistics.get(key);
+  }
+
+  synchronized void putStripeStatistics(Key key, OrcProto.Metadata metadata) {
+    stripeStatistics.put(key, metadata);
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  synchronized long getEvictions() {
+    return evictions;
+  }
+
+  synchronized int getEntryCount() {
+    return tails.size();
+  }
+
+  synchronized int getStripeStatisticsCount() {
+    return stripeStatistics.size();
+  }
+
+  private static void incrementCounter(String name) {
+    try {
+      Metrics.incrementCounter(name);
+    } catch (IOException e) {
+      LOG.debug("Exception when incrementing metrics counter " + name, e);
+    }
+  }
+
+  /**
+   * A map in access order that drops the least recently used file once it
+   * holds more than maxEntries files.
+   */
+  private final class LruMap<V> extends LinkedHashMap<Key, V> {
+    private static final long serialVersionUID = 1L;
+
+    LruMap() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+      if (size() > maxEntries) {
+        evictions += 1;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A file is identified by its path, length and modification time.
+   */
+  static final class Key {
+    private final String path;
+    private final long length;
+    private final long modificationTime;
+
+    Key(FileStatus file) {
+      this.path = file.getPath().toString();
+      this.length = file.getLen();
+      this.modificationTime = file.getModificationTime();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other == null || other.getClass() != getClass()) {
+        return false;
+      }
+      Key otherKey = (Key) other;
+      return path.equals(otherKey.path) && length == otherKey.length &&
+          modificationTime == otherKey.modificationTime;
+    }
+
+    @Override
+    public int hashCode() {
+      return path.hashCode() * 31 + (int) (length ^ modificationTime);
+    }
+  }
+}
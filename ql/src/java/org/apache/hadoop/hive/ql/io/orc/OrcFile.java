@@ -19,6 +19,7 @@
 package org.apache.hadoop.hive.ql.io.orc;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
@@ -50,9 +51,10 @@ public final class OrcFile {
    */
   public static enum Version {
     V_0_11("0.11", 0, 11),
-      V_0_12("0.12", 0, 12);
+      V_0_12("0.12", 0, 12),
+      V_0_13("0.13", 0, 13); // adds the BLOOM_FILTER stream
 
-    public static final Version CURRENT = V_0_12;
+    public static final Version CURRENT = V_0_13;
 
     private final String name;
     private final int major;
@@ -102,6 +104,8 @@ public int getMinor() {
   public static final String ROW_INDEX_STRIDE = "orc.row.index.stride";
   public static final String ENABLE_INDEXES = "orc.create.index";
   public static final String BLOCK_PADDING = "orc.block.padding";
+  public static final String BLOOM_FILTER_COLUMNS = "orc.bloom.filter.columns";
+  public static final String BLOOM_FILTER_FPP = "orc.bloom.filter.fpp";
 
   static final long DEFAULT_STRIPE_SIZE =
       HiveConf.ConfVars.HIVE_ORC_DEFAULT_STRIPE_SIZE.defaultLongVal;
@@ -110,6 +114,7 @@ public int getMinor() {
   static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
   static final int DEFAULT_ROW_INDEX_STRIDE = 10000;
   static final boolean DEFAULT_BLOCK_PADDING = true;
+  static final double DEFAULT_BLOOM_FILTER_FPP = BloomFilter.DEFAULT_FPP;
 
   // unused
   private OrcFile() {}
@@ -126,6 +131,26 @@ public static Reader createReader(FileSystem fs, Path path
     return new ReaderImpl(fs, path);
   }
 
+  /**
+   * Create an ORC file reader, sharing the parsed footer and stripe
+   * statistics with the other readers of the same file through the footer
+   * cache, if hive.exec.orc.footer.cache.entries is positive.
+   * @param fs file system
+   * @param file the status of the file to read from
+   * @param conf the configuration that controls the footer cache
+   * @return a new ORC file reader.
+   * @throws IOException
+   */
+  public static Reader createReader(FileSystem fs, FileStatus file,
+                                    Configuration conf) throws IOException {
+    FooterCache cache = FooterCache.getInstance(conf);
+    if (cache == null) {
+      return new ReaderImpl(fs, file.getPath(),
+          ReaderImpl.readTail(fs, file.getPath(), file.getLen()));
+    }
+    return cache.createReader(fs, file);
+  }
+
   /**
    * Options for creating ORC file writers.
    */
@@ -140,6 +165,8 @@ public static class WriterOptions {
     private CompressionKind compressValue = DEFAULT_COMPRESSION_KIND;
     private MemoryManager memoryManagerValue;
     private Version versionValue;
+    private String bloomFilterColumnsValue = null;
+    private double bloomFilterFppValue = DEFAULT_BLOOM_FILTER_FPP;
 
     WriterOptions(Configuration conf) {
       configuration = conf;
@@ -212,6 +239,28 @@ public WriterOptions compress(CompressionKind value) {
       return this;
     }
 
+    /**
+     * Comma separated list of the top level columns that get a bloom filter
+     * for each row group. The bloom filters are only built if the row index
+     * is enabled and are only used for integer, floating point and string
+     * columns. They need version 0.13 or later, since readers before 0.13
+     * can not read a file with bloom filters; they are left out of files
+     * written as an older version.
+     */
+    public WriterOptions bloomFilterColumns(String value) {
+      bloomFilterColumnsValue = value;
+      return this;
+    }
+
+    /**
+     * Sets the false positive probability of the bloom filters, which
+     * determines how large they are.
+     */
+    public WriterOptions bloomFilterFpp(double value) {
+      bloomFilterFppValue = value;
+      return this;
+    }
+
     /**
      * A required option that sets the object inspector for the rows. Used
      * to determine the schema for the file.
@@ -263,7 +312,8 @@ public static Writer createWriter(Path path,
                           opts.stripeSizeValue, opts.compressValue,
                           opts.bufferSizeValue, opts.rowIndexStrideValue,
                           opts.memoryManagerValue, opts.blockPaddingValue,
-                          opts.versionValue);
+                          opts.versionValue, opts.bloomFilterColumnsValue,
+                          opts.bloomFilterFppValue);
   }
 
   /**
@@ -41,6 +41,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedInputFormatInterface;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.io.InputFormatChecker;
+import org.apache.hadoop.hive.ql.io.SplitGenerationExecutor;
 import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
 import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.hive.ql.io.sarg.SearchArgument.TruthValue;
@@ -242,7 +243,8 @@ public static boolean[] findIncludedColumns(List<OrcProto.Type> types, Configura
     Path path = fileSplit.getPath();
     FileSystem fs = path.getFileSystem(conf);
     reporter.setStatus(fileSplit.toString());
-    return new OrcRecordReader(OrcFile.createReader(fs, path), conf,
+    return new OrcRecordReader(OrcFile.createReader(fs,
+                               fs.getFileStatus(path), conf), conf,
                                fileSplit.getStart(), fileSplit.getLength());
   }
 
@@ -260,7 +262,7 @@ public boolean validateInput(FileSystem fs, HiveConf conf,
     }
     for (FileStatus file : files) {
       try {
-        OrcFile.createReader(fs, file.getPath());
+        OrcFile.createReader(fs, file, conf);
       } catch (IOException e) {
         return false;
       }
@@ -300,7 +302,7 @@ static Path[] getInputPaths(JobConf conf) throws IOException {
    * the different worker threads.
    */
   static class Context {
-    private final ExecutorService threadPool = Executors.newFixedThreadPool(10);
+    private final ExecutorService threadPool;
     private final List<FileSplit> splits = new ArrayList<FileSplit>(10000);
     private final List<Throwable> errors = new ArrayList<Throwable>();
     private final HadoopShims shims = ShimLoader.getHadoopShims();
@@ -316,6 +318,8 @@ static class Context {
 
     Context(Configuration conf) {
       this.conf = conf;
+      threadPool = Executors.newFixedThreadPool(
+          SplitGenerationExecutor.getNumThreads(conf));
       minSize = conf.getLong(MIN_SPLIT_SIZE, DEFAULT_MIN_SPLIT_SIZE);
       maxSize = conf.getLong(MAX_SPLIT_SIZE, DEFAULT_MAX_SPLIT_SIZE);
     }
@@ -534,8 +538,8 @@ void createSplit(long offset, long length) throws IOException {
     @Override
     public void run() {
       try {
-        Reader orcReader = OrcFile.createReader(fs, file.getPath());
         Configuration conf = context.conf;
+        Reader orcReader = OrcFile.createReader(fs, file, conf);
         List<OrcProto.Type> types = orcReader.getTypes();
         SearchArgument sarg = createSarg(types, conf);
         List<StripeStatistics> stripeStats = null;
@@ -158,6 +158,17 @@ public SerDeStats getStats() {
                             (OrcFile.BLOCK_PADDING)));
     }
 
+    if (tableProperties.containsKey(OrcFile.BLOOM_FILTER_COLUMNS)) {
+      options.bloomFilterColumns(tableProperties.getProperty
+                                 (OrcFile.BLOOM_FILTER_COLUMNS));
+    }
+
+    if (tableProperties.containsKey(OrcFile.BLOOM_FILTER_FPP)) {
+      options.bloomFilterFpp(Double.parseDouble
+                             (tableProperties.getProperty
+                              (OrcFile.BLOOM_FILTER_FPP)));
+    }
+
     return new OrcRecordWriter(path, options);
   }
 }
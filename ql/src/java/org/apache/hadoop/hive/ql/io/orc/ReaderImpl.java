@@ -54,13 +54,43 @@ final class ReaderImpl implements Reader {
   private final CompressionKind compressionKind;
   private final CompressionCodec codec;
   private final int bufferSize;
-  private OrcProto.Metadata metadata = null;
+  private final FileTail tail;
   private final int metadataSize;
   private final int footerOffset;
   private final OrcProto.Footer footer;
   private final ObjectInspector inspector;
+  private final FooterCache cache;
+  private final FooterCache.Key cacheKey;
+  private OrcProto.Metadata metadata = null;
   private long deserializedSize = -1;
 
+  /**
+   * The parsed postscript and footer of a file. They only depend on the
+   * file's contents, so they may be shared between the readers of a file
+   * through the {@link FooterCache}. The stripe statistics are kept
+   * serialized if they were part of the first read of the file and are
+   * only parsed by the readers that ask for them.
+   */
+  static final class FileTail {
+    private final CompressionKind compressionKind;
+    private final int bufferSize;
+    private final int metadataSize;
+    private final int footerOffset;
+    private final OrcProto.Footer footer;
+    private final ByteBuffer metadataBuffer;
+
+    FileTail(CompressionKind compressionKind, int bufferSize,
+             int metadataSize, int footerOffset, OrcProto.Footer footer,
+             ByteBuffer metadataBuffer) {
+      this.compressionKind = compressionKind;
+      this.bufferSize = bufferSize;
+      this.metadataSize = metadataSize;
+      this.footerOffset = footerOffset;
+      this.footer = footer;
+      this.metadataBuffer = metadataBuffer;
+    }
+  }
+
   private static class StripeInformationImpl
       implements StripeInformation {
     private final OrcProto.StripeInformation stripe;
@@ -277,10 +307,46 @@ static void checkOrcVersion(Log log, Path path, List<Integer> version) {
   }
 
   ReaderImpl(FileSystem fs, Path path) throws IOException {
+    this(fs, path, readTail(fs, path, fs.getFileStatus(path).getLen()));
+  }
+
+  ReaderImpl(FileSystem fs, Path path, FileTail tail) {
+    this(fs, path, tail, null, null);
+  }
+
+  /**
+   * Create a reader from a parsed tail, looking up the stripe statistics in
+   * the cache before reading them and adding them to it afterwards.
+   */
+  ReaderImpl(FileSystem fs, Path path, FileTail tail, FooterCache cache,
+             FooterCache.Key cacheKey) {
     this.fileSystem = fs;
     this.path = path;
+    this.tail = tail;
+    this.compressionKind = tail.compressionKind;
+    this.bufferSize = tail.bufferSize;
+    this.metadataSize = tail.metadataSize;
+    this.footerOffset = tail.footerOffset;
+    this.footer = tail.footer;
+    this.codec = WriterImpl.createCodec(compressionKind);
+    this.inspector = OrcStruct.createObjectInspector(0, footer.getTypesList());
+    this.cache = cache;
+    this.cacheKey = cacheKey;
+  }
+
+  /**
+   * Read and parse the postscript and footer of a file. The stripe
+   * statistics are kept serialized if they were part of the first read,
+   * otherwise they are read when they are first needed.
+   * @param fs the file system
+   * @param path the file to read
+   * @param size the length of the file
+   * @return the parsed tail of the file
+   * @throws IOException
+   */
+  static FileTail readTail(FileSystem fs, Path path,
+                           long size) throws IOException {
     FSDataInputStream file = fs.open(path);
-    long size = fs.getFileStatus(path).getLen();
     int readSize = (int) Math.min(size, DIRECTORY_SIZE_GUESS);
     file.seek(size - readSize);
     ByteBuffer buffer = ByteBuffer.allocate(readSize);
@@ -294,9 +360,10 @@ static void checkOrcVersion(Log log, Path path, List<Integer> version) {
     OrcProto.PostScript ps = OrcProto.PostScript.parseFrom(in);
     checkOrcVersion(LOG, path, ps.getVersionList());
     int footerSize = (int) ps.getFooterLength();
-    metadataSize = (int) ps.getMetadataLength();
-    footerOffset = (int) (size - ( psLen + 1 + footerSize));
-    bufferSize = (int) ps.getCompressionBlockSize();
+    int metadataSize = (int) ps.getMetadataLength();
+    int footerOffset = (int) (size - ( psLen + 1 + footerSize));
+    int bufferSize = (int) ps.getCompressionBlockSize();
+    CompressionKind compressionKind;
     switch (ps.getCompression()) {
       case NONE:
         compressionKind = CompressionKind.NONE;
@@ -313,7 +380,7 @@ static void checkOrcVersion(Log log, Path path, List<Integer> version) {
       default:
         throw new IllegalArgumentException("Unknown compression");
     }
-    codec = WriterImpl.createCodec(compressionKind);
+    CompressionCodec codec = WriterImpl.createCodec(compressionKind);
     int extra = Math.max(0, psLen + 1 + footerSize - readSize);
     if (extra > 0) {
       file.seek(size - readSize - extra);
@@ -332,20 +399,22 @@ static void checkOrcVersion(Log log, Path path, List<Integer> version) {
     // read footer
     InputStream instream = InStream.create("footer", new ByteBuffer[]{buffer},
         new long[]{0L}, footerSize, codec, bufferSize);
-    footer = OrcProto.Footer.parseFrom(instream);
-    inspector = OrcStruct.createObjectInspector(0, footer.getTypesList());
+    OrcProto.Footer footer = OrcProto.Footer.parseFrom(instream);
 
-    // if metadata is already contained in first 16K file read then parse it
-    // else do it lazily
-    if(extra == 0) {
+    // if metadata is already contained in first 16K file read then copy it
+    // out, it is parsed lazily either way
+    ByteBuffer metadataBuffer = null;
+    if(extra == 0 && metadataSize > 0) {
       buffer.position(psOffset - (footerSize + metadataSize));
       buffer.limit(psOffset - footerSize);
-      instream = InStream.create("metadata", new ByteBuffer[]{buffer},
-          new long[]{0L}, metadataSize, codec, bufferSize);
-      metadata = OrcProto.Metadata.parseFrom(instream);
+      metadataBuffer = ByteBuffer.allocate(metadataSize);
+      metadataBuffer.put(buffer);
+      metadataBuffer.flip();
     }
 
     file.close();
+    return new FileTail(compressionKind, bufferSize, metadataSize,
+        footerOffset, footer, metadataBuffer);
   }
 
   @Override
@@ -497,21 +566,37 @@ private int getLastIdx() {
 
   @Override
   public Metadata getMetadata() throws IOException {
+    return new Metadata(readMetadata());
+  }
+
+  private synchronized OrcProto.Metadata readMetadata() throws IOException {
+    if (metadata == null && cache != null) {
+      metadata = cache.getStripeStatistics(cacheKey);
+    }
     // if metadata is not parsed already then read and parse it
     if (metadata == null && metadataSize > 0) {
-      FSDataInputStream file = this.fileSystem.open(path);
-      file.seek(footerOffset - metadataSize);
-      ByteBuffer buffer = ByteBuffer.allocate(metadataSize);
-      file.readFully(buffer.array(), buffer.arrayOffset() + buffer.position(),
-          buffer.remaining());
-      buffer.position(0);
-      buffer.limit(metadataSize);
+      ByteBuffer buffer;
+      if (tail.metadataBuffer != null) {
+        // the tail may be shared with other readers
+        buffer = tail.metadataBuffer.duplicate();
+      } else {
+        FSDataInputStream file = this.fileSystem.open(path);
+        file.seek(footerOffset - metadataSize);
+        buffer = ByteBuffer.allocate(metadataSize);
+        file.readFully(buffer.array(), buffer.arrayOffset() + buffer.position(),
+            buffer.remaining());
+        buffer.position(0);
+        buffer.limit(metadataSize);
+        file.close();
+      }
       InputStream instream = InStream.create("metadata", new ByteBuffer[] {buffer},
           new long[] {0L}, metadataSize, codec, bufferSize);
       metadata = OrcProto.Metadata.parseFrom(instream);
-      file.close();
+      if (cache != null) {
+        cache.putStripeStatistics(cacheKey, metadata);
+      }
     }
-    return new Metadata(metadata);
+    return metadata;
   }
 
 }
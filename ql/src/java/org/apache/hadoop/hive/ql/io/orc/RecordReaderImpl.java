@@ -36,6 +36,7 @@
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
@@ -79,11 +80,14 @@ class RecordReaderImpl implements RecordReader {
   List<BufferChunk> bufferChunks = new ArrayList<BufferChunk>(0);
   private final TreeReader reader;
   private final OrcProto.RowIndex[] indexes;
+  private final OrcProto.BloomFilterIndex[] bloomFilterIndices;
   private final SearchArgument sarg;
   // the leaf predicates for the sarg
   private final List<PredicateLeaf> sargLeaves;
   // an array the same length as the sargLeaves that map them to column ids
   private final int[] filterColumns;
+  // the columns whose bloom filters are read, indexed by column id
+  private final boolean[] sargColumns;
   // an array about which row groups aren't skipped
   private boolean[] includedRowGroups = null;
 
@@ -108,13 +112,18 @@ class RecordReaderImpl implements RecordReader {
     if (sarg != null) {
       sargLeaves = sarg.getLeaves();
       filterColumns = new int[sargLeaves.size()];
+      sargColumns = new boolean[types.size()];
       for(int i=0; i < filterColumns.length; ++i) {
         String colName = sargLeaves.get(i).getColumnName();
         filterColumns[i] = findColumns(columnNames, colName);
+        if (filterColumns[i] != -1) {
+          sargColumns[filterColumns[i]] = true;
+        }
       }
     } else {
       sargLeaves = null;
       filterColumns = null;
+      sargColumns = null;
     }
     long rows = 0;
     long skippedRows = 0;
@@ -132,6 +141,7 @@ class RecordReaderImpl implements RecordReader {
     totalRowCount = rows;
     reader = createTreeReader(path, 0, types, included);
     indexes = new OrcProto.RowIndex[types.size()];
+    bloomFilterIndices = new OrcProto.BloomFilterIndex[types.size()];
     rowIndexStride = strideRate;
     advanceToNextRow(0L);
   }
@@ -1075,8 +1085,37 @@ Object next(Object previous) throws IOException {
 
     @Override
     Object nextVector(Object previousVector, long batchSize) throws IOException {
-      throw new UnsupportedOperationException(
-          "NextVector is not supported operation for Decimal type");
+      if (precision > DecimalColumnVector.MAX_PRECISION) {
+        throw new UnsupportedOperationException(
+            "NextVector is not supported operation for Decimal type with precision " + precision);
+      }
+      DecimalColumnVector result = null;
+      if (previousVector == null) {
+        result = new DecimalColumnVector(precision, scale);
+      } else {
+        result = (DecimalColumnVector) previousVector;
+      }
+
+      // Read present/isNull stream
+      super.nextVector(result, batchSize);
+
+      // Read value entries based on isNull entries. The unscaled values are read straight
+      // into longs and brought to the scale of the column, without a HiveDecimal per value.
+      result.isRepeating = false;
+      for (int i = 0; i < batchSize; i++) {
+        if (result.noNulls || !result.isNull[i]) {
+          long unscaled = SerializationUtils.readVslongOrOverflow(valueStream);
+          int valueScale = (int) scaleStream.next();
+          if (unscaled == SerializationUtils.VSLONG_OVERFLOW) {
+            result.setNull(i);
+          } else {
+            result.set(i, unscaled, valueScale);
+          }
+        } else {
+          result.vector[i] = LongColumnVector.NULL_VALUE;
+        }
+      }
+      return result;
     }
 
     @Override
@@ -2129,6 +2168,74 @@ static TruthValue evaluatePredicateRange(PredicateLeaf predicate, Object minValu
     }
   }
 
+  /**
+   * Refine the truth value of an EQUALS or IN predicate with the bloom filter
+   * of the row group. If none of the literals can be in the row group, the
+   * predicate can't be true for any of its rows.
+   * @param value the truth value from the row group statistics
+   * @param predicate the leaf predicate
+   * @param kind the type of the column the bloom filter was built for
+   * @param bloomFilter the bloom filter of the row group
+   * @return the refined truth value
+   */
+  static TruthValue evaluateBloomFilter(TruthValue value,
+                                        PredicateLeaf predicate,
+                                        OrcProto.Type.Kind kind,
+                                        BloomFilter bloomFilter) {
+    if (!value.isNeeded()) {
+      return value;
+    }
+    switch (predicate.getOperator()) {
+      case EQUALS:
+        if (mightContain(predicate.getLiteral(), kind, bloomFilter)) {
+          return value;
+        }
+        return TruthValue.NO_NULL;
+      case IN:
+        for(Object arg: predicate.getLiteralList()) {
+          if (mightContain(arg, kind, bloomFilter)) {
+            return value;
+          }
+        }
+        return TruthValue.NO_NULL;
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Test a predicate literal against a bloom filter. Literals that don't
+   * match the type of the column can't be tested and may be in the filter.
+   */
+  private static boolean mightContain(Object literal,
+                                      OrcProto.Type.Kind kind,
+                                      BloomFilter bloomFilter) {
+    switch (kind) {
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        if (literal instanceof Long) {
+          return bloomFilter.testLong((Long) literal);
+        }
+        return true;
+      case FLOAT:
+      case DOUBLE:
+        if (literal instanceof Double) {
+          return bloomFilter.testDouble((Double) literal);
+        }
+        return true;
+      case STRING:
+      case VARCHAR:
+        if (literal instanceof String) {
+          return bloomFilter.testString((String) literal);
+        }
+        return true;
+      default:
+        return true;
+    }
+  }
+
   /**
    * Pick the row groups that we need to load from the current stripe.
    * @return an array with a boolean for each row group or null if all of the
@@ -2149,9 +2256,18 @@ private boolean[] pickRowGroups() throws IOException {
     for(int rowGroup=0; rowGroup < result.length; ++rowGroup) {
       for(int pred=0; pred < leafValues.length; ++pred) {
         if (filterColumns[pred] != -1) {
+          int column = filterColumns[pred];
           OrcProto.ColumnStatistics stats =
-              indexes[filterColumns[pred]].getEntry(rowGroup).getStatistics();
+              indexes[column].getEntry(rowGroup).getStatistics();
           leafValues[pred] = evaluatePredicate(stats, sargLeaves.get(pred));
+          OrcProto.BloomFilterIndex bloomFilterIndex =
+              bloomFilterIndices[column];
+          if (bloomFilterIndex != null &&
+              rowGroup < bloomFilterIndex.getBloomFilterCount()) {
+            leafValues[pred] = evaluateBloomFilter(leafValues[pred],
+                sargLeaves.get(pred), types.get(column).getKind(),
+                new BloomFilter(bloomFilterIndex.getBloomFilter(rowGroup)));
+          }
           if (LOG.isDebugEnabled()) {
             LOG.debug("Stats = " + stats);
             LOG.debug("Setting " + sargLeaves.get(pred) + " to " +
@@ -2208,6 +2324,7 @@ private void readStripe() throws IOException {
     // reset all of the indexes
     for(int i=0; i < indexes.length; ++i) {
       indexes[i] = null;
+      bloomFilterIndices[i] = null;
     }
     includedRowGroups = pickRowGroups();
 
@@ -2747,6 +2864,19 @@ private void readRowIndex() throws IOException {
               new ByteBuffer[] {ByteBuffer.wrap(buffer)}, new long[]{0},
               stream.getLength(), codec, bufferSize));
         }
+      } else if (stream.getKind() == OrcProto.Stream.Kind.BLOOM_FILTER) {
+        int col = stream.getColumn();
+        // bloom filters are only needed to evaluate the sarg
+        if (sargColumns != null && sargColumns[col] &&
+            bloomFilterIndices[col] == null) {
+          byte[] buffer = new byte[(int) stream.getLength()];
+          file.seek(offset);
+          file.readFully(buffer);
+          bloomFilterIndices[col] = OrcProto.BloomFilterIndex.parseFrom(
+              InStream.create("bloom_filter",
+                  new ByteBuffer[] {ByteBuffer.wrap(buffer)}, new long[]{0},
+                  stream.getLength(), codec, bufferSize));
+        }
       }
       offset += stream.getLength();
     }
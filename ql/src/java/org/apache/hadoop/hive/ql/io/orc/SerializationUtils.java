@@ -66,6 +66,40 @@ static long readVslong(InputStream in) throws IOException {
     return (result >>> 1) ^ -(result & 1);
   }
 
+  /**
+   * Returned by readVslongOrOverflow for values that do not fit in a long.
+   */
+  static final long VSLONG_OVERFLOW = Long.MIN_VALUE;
+
+  /**
+   * Reads a zigzag encoded variable length integer, as written by writeBigInteger, into a
+   * long. The whole value is always consumed from the stream; VSLONG_OVERFLOW is returned
+   * if it needs more than 63 bits.
+   */
+  static long readVslongOrOverflow(InputStream in) throws IOException {
+    long result = 0;
+    long b;
+    int offset = 0;
+    boolean overflow = false;
+    do {
+      b = in.read();
+      if (b == -1) {
+        throw new EOFException("Reading Vslong past EOF");
+      }
+      if (offset < 63) {
+        result |= (0x7f & b) << offset;
+      } else {
+        // Nine bytes hold 63 bits, anything past that does not fit in a long
+        overflow = true;
+      }
+      offset += 7;
+    } while (b >= 0x80);
+    if (overflow) {
+      return VSLONG_OVERFLOW;
+    }
+    return (result >>> 1) ^ -(result & 1);
+  }
+
   static float readFloat(InputStream in) throws IOException {
     int ser = in.read() | (in.read() << 8) | (in.read() << 16) |
       (in.read() << 24);
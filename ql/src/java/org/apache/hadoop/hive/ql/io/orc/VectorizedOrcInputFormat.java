@@ -144,7 +144,8 @@ public VectorizedOrcInputFormat() {
     Path path = fileSplit.getPath();
     FileSystem fs = path.getFileSystem(conf);
     reporter.setStatus(fileSplit.toString());
-    return new VectorizedOrcRecordReader(OrcFile.createReader(fs, path), conf, fileSplit);
+    return new VectorizedOrcRecordReader(OrcFile.createReader(fs,
+        fs.getFileStatus(path), conf), conf, fileSplit);
   }
 
   @Override
@@ -156,7 +157,7 @@ public boolean validateInput(FileSystem fs, HiveConf conf,
     }
     for (FileStatus file : files) {
       try {
-        OrcFile.createReader(fs, file.getPath());
+        OrcFile.createReader(fs, file, conf);
       } catch (IOException e) {
         return false;
       }
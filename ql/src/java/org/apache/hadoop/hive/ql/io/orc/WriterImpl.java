@@ -128,6 +128,8 @@ class WriterImpl implements Writer, MemoryManager.Callback {
   private final MemoryManager memoryManager;
   private final OrcFile.Version version;
   private final Configuration conf;
+  private final boolean[] bloomFilterColumns;
+  private final double bloomFilterFpp;
 
   WriterImpl(FileSystem fs,
              Path path,
@@ -139,7 +141,9 @@ class WriterImpl implements Writer, MemoryManager.Callback {
              int rowIndexStride,
              MemoryManager memoryManager,
              boolean addBlockPadding,
-             OrcFile.Version version) throws IOException {
+             OrcFile.Version version,
+             String bloomFilterColumnNames,
+             double bloomFilterFpp) throws IOException {
     this.fs = fs;
     this.path = path;
     this.conf = conf;
@@ -154,6 +158,18 @@ class WriterImpl implements Writer, MemoryManager.Callback {
     this.memoryManager = memoryManager;
     buildIndex = rowIndexStride > 0;
     codec = createCodec(compress);
+    // readers before 0.13 fail on the BLOOM_FILTER stream
+    if (bloomFilterColumnNames != null &&
+        version.compareTo(OrcFile.Version.V_0_13) < 0) {
+      LOG.warn("Bloom filters need ORC version " +
+          OrcFile.Version.V_0_13.getName() + ", not writing them for " +
+          bloomFilterColumnNames + " in " + path + " of version " +
+          version.getName());
+      bloomFilterColumnNames = null;
+    }
+    this.bloomFilterColumns = getBloomFilterColumns(inspector,
+        bloomFilterColumnNames);
+    this.bloomFilterFpp = bloomFilterFpp;
     treeWriter = createTreeWriter(inspector, streamFactory, false);
     if (buildIndex && rowIndexStride < MIN_ROW_INDEX_STRIDE) {
       throw new IllegalArgumentException("Row stride must be at least " +
@@ -163,6 +179,92 @@ class WriterImpl implements Writer, MemoryManager.Callback {
     memoryManager.addWriter(path, stripeSize, this);
   }
 
+  /**
+   * Find the column ids of the top level columns that should get bloom
+   * filters. The ids are assigned the same way as createTreeWriter does.
+   * @param inspector the object inspector of the rows
+   * @param columnNames comma separated list of column names or null
+   * @return the columns that get bloom filters, indexed by column id
+   */
+  static boolean[] getBloomFilterColumns(ObjectInspector inspector,
+                                         String columnNames) {
+    boolean[] result = new boolean[countColumns(inspector)];
+    if (columnNames == null || columnNames.trim().isEmpty() ||
+        inspector.getCategory() != ObjectInspector.Category.STRUCT) {
+      return result;
+    }
+    List<String> names = new ArrayList<String>();
+    for(String name: columnNames.split(",")) {
+      names.add(name.trim().toLowerCase());
+    }
+    int id = 1;
+    for(StructField field:
+        ((StructObjectInspector) inspector).getAllStructFieldRefs()) {
+      ObjectInspector fieldInspector = field.getFieldObjectInspector();
+      if (names.contains(field.getFieldName().toLowerCase())) {
+        if (isBloomFilterSupported(fieldInspector)) {
+          result[id] = true;
+        } else {
+          LOG.warn("Bloom filters are not supported for column " +
+              field.getFieldName() + " of type " +
+              fieldInspector.getTypeName());
+        }
+      }
+      id += countColumns(fieldInspector);
+    }
+    return result;
+  }
+
+  private static boolean isBloomFilterSupported(ObjectInspector inspector) {
+    if (inspector.getCategory() != ObjectInspector.Category.PRIMITIVE) {
+      return false;
+    }
+    switch (((PrimitiveObjectInspector) inspector).getPrimitiveCategory()) {
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+      case VARCHAR:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static int countColumns(ObjectInspector inspector) {
+    int result = 1;
+    switch (inspector.getCategory()) {
+      case STRUCT:
+        for(StructField field:
+            ((StructObjectInspector) inspector).getAllStructFieldRefs()) {
+          result += countColumns(field.getFieldObjectInspector());
+        }
+        break;
+      case LIST:
+        result += countColumns(((ListObjectInspector) inspector)
+            .getListElementObjectInspector());
+        break;
+      case MAP:
+        result += countColumns(((MapObjectInspector) inspector)
+            .getMapKeyObjectInspector());
+        result += countColumns(((MapObjectInspector) inspector)
+            .getMapValueObjectInspector());
+        break;
+      case UNION:
+        for(ObjectInspector child:
+            ((UnionObjectInspector) inspector).getObjectInspectors()) {
+          result += countColumns(child);
+        }
+        break;
+      default:
+        break;
+    }
+    return result;
+  }
+
   static CompressionCodec createCodec(CompressionKind kind) {
     switch (kind) {
       case NONE:
@@ -376,6 +478,22 @@ public boolean buildIndex() {
       return buildIndex;
     }
 
+    /**
+     * Should a bloom filter be built for the given column?
+     * @param column the column id
+     * @return true if the column gets a bloom filter for each row group
+     */
+    public boolean buildBloomFilter(int column) {
+      return buildIndex && bloomFilterColumns[column];
+    }
+
+    /**
+     * Get the false positive probability of the bloom filters.
+     */
+    public double getBloomFilterFpp() {
+      return bloomFilterFpp;
+    }
+
     /**
      * Is the ORC file compressed?
      * @return are the streams compressed
@@ -419,6 +537,9 @@ private abstract static class TreeWriter {
     private final OrcProto.RowIndex.Builder rowIndex;
     private final OrcProto.RowIndexEntry.Builder rowIndexEntry;
     private final PositionedOutputStream rowIndexStream;
+    protected final BloomFilter bloomFilter;
+    private final OrcProto.BloomFilterIndex.Builder bloomFilterIndex;
+    private final PositionedOutputStream bloomFilterStream;
     private boolean foundNulls;
     private OutStream isPresentOutStream;
     private final List<StripeStatistics.Builder> stripeStatsBuilders;
@@ -459,6 +580,17 @@ private abstract static class TreeWriter {
       } else {
         rowIndexStream = null;
       }
+      if (streamFactory.buildBloomFilter(id)) {
+        bloomFilter = new BloomFilter(streamFactory.getRowIndexStride(),
+            streamFactory.getBloomFilterFpp());
+        bloomFilterIndex = OrcProto.BloomFilterIndex.newBuilder();
+        bloomFilterStream = streamFactory.createStream(id,
+            OrcProto.Stream.Kind.BLOOM_FILTER);
+      } else {
+        bloomFilter = null;
+        bloomFilterIndex = null;
+        bloomFilterStream = null;
+      }
     }
 
     protected OrcProto.RowIndex.Builder getRowIndex() {
@@ -565,6 +697,11 @@ void writeStripe(OrcProto.StripeFooter.Builder builder,
       }
       rowIndex.clear();
       rowIndexEntry.clear();
+      if (bloomFilterStream != null) {
+        bloomFilterIndex.build().writeTo(bloomFilterStream);
+        bloomFilterStream.flush();
+        bloomFilterIndex.clear();
+      }
     }
 
     private void writeStripeStatistics(OrcProto.StripeStatistics.Builder builder,
@@ -603,12 +740,24 @@ void createRowIndexEntry() throws IOException {
       indexStatistics.reset();
       rowIndex.addEntry(rowIndexEntry);
       rowIndexEntry.clear();
+      addBloomFilterEntry();
       recordPosition(rowIndexPosition);
       for(TreeWriter child: childrenWriters) {
         child.createRowIndexEntry();
       }
     }
 
+    /**
+     * Save the bloom filter of the finished row group, if this column has
+     * one, and clear it for the next row group.
+     */
+    void addBloomFilterEntry() {
+      if (bloomFilter != null) {
+        bloomFilterIndex.addBloomFilter(bloomFilter.serialize());
+        bloomFilter.reset();
+      }
+    }
+
     /**
      * Record the current position in each of this column's streams.
      * @param recorder where should the locations be recorded
@@ -626,6 +775,10 @@ void recordPosition(PositionRecorder recorder) throws IOException {
      */
     long estimateMemory() {
       long result = 0;
+      if (bloomFilter != null) {
+        result += (bloomFilterIndex.getBloomFilterCount() + 1) *
+            (bloomFilter.getNumBits() / 8);
+      }
       for (TreeWriter child: childrenWriters) {
         result += child.estimateMemory();
       }
@@ -691,6 +844,9 @@ void write(Object obj) throws IOException {
       if (obj != null) {
         byte val = ((ByteObjectInspector) inspector).get(obj);
         indexStatistics.updateInteger(val);
+        if (bloomFilter != null) {
+          bloomFilter.addLong(val);
+        }
         writer.write(val);
       }
     }
@@ -766,6 +922,9 @@ void write(Object obj) throws IOException {
           val = shortInspector.get(obj);
         }
         indexStatistics.updateInteger(val);
+        if (bloomFilter != null) {
+          bloomFilter.addLong(val);
+        }
         writer.write(val);
       }
     }
@@ -804,6 +963,9 @@ void write(Object obj) throws IOException {
       if (obj != null) {
         float val = ((FloatObjectInspector) inspector).get(obj);
         indexStatistics.updateDouble(val);
+        if (bloomFilter != null) {
+          bloomFilter.addDouble(val);
+        }
         SerializationUtils.writeFloat(stream, val);
       }
     }
@@ -842,6 +1004,9 @@ void write(Object obj) throws IOException {
       if (obj != null) {
         double val = ((DoubleObjectInspector) inspector).get(obj);
         indexStatistics.updateDouble(val);
+        if (bloomFilter != null) {
+          bloomFilter.addDouble(val);
+        }
         SerializationUtils.writeDouble(stream, val);
       }
     }
@@ -922,6 +1087,9 @@ void write(Object obj) throws IOException {
         String val = getStringValue(obj);
         rows.add(dictionary.add(val));
         indexStatistics.updateString(val);
+        if (bloomFilter != null) {
+          bloomFilter.addString(val);
+        }
       }
     }
 
@@ -1042,13 +1210,15 @@ void createRowIndexEntry() throws IOException {
       indexStatistics.reset();
       savedRowIndex.add(rowIndexEntry.build());
       rowIndexEntry.clear();
+      addBloomFilterEntry();
       recordPosition(rowIndexPosition);
       rowIndexValueCount.add(Long.valueOf(rows.size()));
     }
 
     @Override
     long estimateMemory() {
-      return rows.getSizeInBytes() + dictionary.getSizeInBytes();
+      return super.estimateMemory() + rows.getSizeInBytes() +
+          dictionary.getSizeInBytes();
     }
   }
 
@@ -21,13 +21,21 @@
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,17 +51,24 @@
 import org.apache.hadoop.hive.ql.lockmgr.HiveLockObject;
 import org.apache.hadoop.hive.ql.lockmgr.HiveLockObject.HiveLockObjectData;
 import org.apache.hadoop.hive.ql.lockmgr.LockException;
+import org.apache.hadoop.hive.ql.log.PerfLogger;
 import org.apache.hadoop.hive.ql.metadata.DummyPartition;
 import org.apache.hadoop.hive.ql.metadata.Hive;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.metadata.Partition;
 import org.apache.hadoop.hive.ql.metadata.Table;
 import org.apache.hadoop.hive.ql.session.SessionState.LogHelper;
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs.Ids;
 import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+import org.apache.zookeeper.proto.CreateRequest;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -73,9 +88,15 @@ public class ZooKeeperHiveLockManager implements HiveLockManager {
   private int sleepTime;
   private int numRetriesForLock;
   private int numRetriesForUnLock;
+  private int escalationThreshold;
 
   private static String clientIp;
 
+  // A multi() request has to fit in the jute.maxbuffer of the server, which is 1 MB by
+  // default, so larger lists of operations are sent as several transactions
+  static final int MAX_MULTI_OPS = 1000;
+  static final int MAX_MULTI_BYTES = 512 * 1024;
+
   static {
     clientIp = "UNKNOWN";
     try {
@@ -126,6 +147,7 @@ public void setContext(HiveLockManagerCtx ctx) throws LockException {
     sleepTime = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_SLEEP_BETWEEN_RETRIES) * 1000;
     numRetriesForLock = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_NUMRETRIES);
     numRetriesForUnLock = conf.getIntVar(HiveConf.ConfVars.HIVE_UNLOCK_NUMRETRIES);
+    escalationThreshold = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_ESCALATION_THRESHOLD);
 
     try {
       renewZookeeperInstance(sessionTimeout, quorumServers);
@@ -152,6 +174,7 @@ public void refresh() {
     sleepTime = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_SLEEP_BETWEEN_RETRIES) * 1000;
     numRetriesForLock = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_NUMRETRIES);
     numRetriesForUnLock = conf.getIntVar(HiveConf.ConfVars.HIVE_UNLOCK_NUMRETRIES);
+    escalationThreshold = conf.getIntVar(HiveConf.ConfVars.HIVE_LOCK_ESCALATION_THRESHOLD);
   }
 
   private void renewZookeeperInstance(int sessionTimeout, String quorumServers)
@@ -191,20 +214,136 @@ private List<String> getObjectNames(HiveLockObject key) {
     return parents;
   }
 
+  /**
+   * A lock to be created. A shared lock on a table normally does not conflict with other
+   * shared locks on it. A shared table lock that stands for the shared locks on many of the
+   * partitions of the table (escalated) does conflict with the shared table lock of a query
+   * that holds exclusive locks on some of the partitions (intentExclusive), since neither of
+   * the two queries sees the other's partition locks. The flags are stored after the lock
+   * data in the node.
+   **/
+  @VisibleForTesting
+  static class LockRequest {
+    final HiveLockObject key;
+    final HiveLockMode mode;
+    boolean escalated;
+    boolean intentExclusive;
+
+    LockRequest(HiveLockObject key, HiveLockMode mode) {
+      this.key = key;
+      this.mode = mode;
+    }
+
+    String getName() {
+      return key.getName();
+    }
+  }
+
+  private static final String ESCALATED = "ESCALATED";
+  private static final String INTENT_EXCLUSIVE = "INTENT_EXCLUSIVE";
+  private static final String ESCALATED_INTENT_EXCLUSIVE = ESCALATED + "_" + INTENT_EXCLUSIVE;
+
+  private static String getLockFlags(LockRequest request) {
+    if (request.mode == HiveLockMode.EXCLUSIVE) {
+      // an exclusive lock conflicts with everything anyway
+      return null;
+    }
+    if (request.escalated && request.intentExclusive) {
+      return ESCALATED_INTENT_EXCLUSIVE;
+    } else if (request.escalated) {
+      return ESCALATED;
+    } else if (request.intentExclusive) {
+      return INTENT_EXCLUSIVE;
+    }
+    return null;
+  }
+
+  /**
+   * Get the flags stored after the data of a lock node, or an empty string if there are none.
+   **/
+  @VisibleForTesting
+  static String getLockFlags(String data) {
+    if (data == null) {
+      return "";
+    }
+    String last = data.substring(data.lastIndexOf(':') + 1);
+    if (last.equals(ESCALATED) || last.equals(INTENT_EXCLUSIVE)
+        || last.equals(ESCALATED_INTENT_EXCLUSIVE)) {
+      return last;
+    }
+    return "";
+  }
+
+  /**
+   * Whether two shared locks on the same table conflict, given their flags.
+   **/
+  @VisibleForTesting
+  static boolean isSharedConflict(String flags, String otherFlags) {
+    boolean escalated = flags.equals(ESCALATED) || flags.equals(ESCALATED_INTENT_EXCLUSIVE);
+    boolean intent = flags.equals(INTENT_EXCLUSIVE) || flags.equals(ESCALATED_INTENT_EXCLUSIVE);
+    boolean otherEscalated = otherFlags.equals(ESCALATED)
+        || otherFlags.equals(ESCALATED_INTENT_EXCLUSIVE);
+    boolean otherIntent = otherFlags.equals(INTENT_EXCLUSIVE)
+        || otherFlags.equals(ESCALATED_INTENT_EXCLUSIVE);
+    return (escalated && otherIntent) || (intent && otherEscalated);
+  }
+
+  private static String getTableName(String name) {
+    String[] names = name.split("/");
+    if (names.length < 3) {
+      return null;
+    }
+    return names[0] + "/" + names[1];
+  }
+
   /**
    * @param  lockObjects  List of objects and the modes of the locks requested
-   * @param  keepAlive    Whether the lock is to be persisted after the statement
+   * @param  threshold    The number of shared partition locks on a table above which they are
+   *                      replaced by a shared lock on the table, or 0 to never do that
    *
-   * Acuire all the locks. Release all the locks and return null if any lock
-   * could not be acquired.
+   * Turn the requested locks into the locks to be created: sort them, remove the duplicates,
+   * escalate the shared partition locks of tables with many partitions to the table, and mark
+   * the shared table locks that need to conflict with escalated locks.
    **/
-  public List<HiveLock> lock(List<HiveLockObj> lockObjects,
-      boolean keepAlive) throws LockException
-  {
+  @VisibleForTesting
+  static List<LockRequest> getLockRequests(List<HiveLockObj> lockObjects, int threshold) {
+    // Count the shared locks on the partitions of each table
+    Map<String, Integer> numPartitionLocks = new HashMap<String, Integer>();
+    for (HiveLockObj lockObject : lockObjects) {
+      String table = getTableName(lockObject.getName());
+      if (table != null && lockObject.getMode() == HiveLockMode.SHARED) {
+        Integer num = numPartitionLocks.get(table);
+        numPartitionLocks.put(table, num == null ? 1 : num + 1);
+      }
+    }
+    Map<String, HiveLockObject> escalatedTables = new HashMap<String, HiveLockObject>();
+    if (threshold > 0) {
+      for (HiveLockObj lockObject : lockObjects) {
+        String table = getTableName(lockObject.getName());
+        if (table != null && numPartitionLocks.get(table) != null
+            && numPartitionLocks.get(table) > threshold
+            && !escalatedTables.containsKey(table)) {
+          escalatedTables.put(table, new HiveLockObject(table.split("/"),
+              lockObject.getObj().getData()));
+        }
+      }
+    }
+
+    List<HiveLockObj> objects = new ArrayList<HiveLockObj>();
+    for (HiveLockObj lockObject : lockObjects) {
+      String table = getTableName(lockObject.getName());
+      if (table == null || lockObject.getMode() == HiveLockMode.EXCLUSIVE
+          || !escalatedTables.containsKey(table)) {
+        objects.add(lockObject);
+      }
+    }
+    for (HiveLockObject table : escalatedTables.values()) {
+      objects.add(new HiveLockObj(table, HiveLockMode.SHARED));
+    }
+
     // Sort the objects first. You are guaranteed that if a partition is being locked,
     // the table has already been locked
-
-    Collections.sort(lockObjects, new Comparator<HiveLockObj>() {
+    Collections.sort(objects, new Comparator<HiveLockObj>() {
 
     @Override
     public int compare(HiveLockObj o1, HiveLockObj o2) {
@@ -223,39 +362,51 @@ public int compare(HiveLockObj o1, HiveLockObj o2) {
     }
     });
 
-    // walk the list and acquire the locks - if any lock cant be acquired, release all locks, sleep
-    // and retry
-    HiveLockObj prevLockObj = null;
-    List<HiveLock> hiveLocks = new ArrayList<HiveLock>();
+    // Tables with exclusive locks on some of their partitions
+    Set<String> intentTables = new HashSet<String>();
+    for (HiveLockObj lockObject : objects) {
+      String table = getTableName(lockObject.getName());
+      if (table != null && lockObject.getMode() == HiveLockMode.EXCLUSIVE) {
+        intentTables.add(table);
+      }
+    }
 
-    for (HiveLockObj lockObject : lockObjects) {
+    List<LockRequest> requests = new ArrayList<LockRequest>();
+    HiveLockObj prevLockObj = null;
+    for (HiveLockObj lockObject : objects) {
       // No need to acquire a lock twice on the same object
       // It is ensured that EXCLUSIVE locks occur before SHARED locks on the same object
       if ((prevLockObj != null) && (prevLockObj.getName().equals(lockObject.getName()))) {
         prevLockObj = lockObject;
         continue;
       }
-
-      HiveLock lock = null;
-      try {
-        lock = lock(lockObject.getObj(), lockObject.getMode(), keepAlive, true);
-      } catch (LockException e) {
-        console.printError("Error in acquireLocks..." );
-        LOG.error("Error in acquireLocks...", e);
-        lock = null;
-      }
-
-      if (lock == null) {
-        releaseLocks(hiveLocks);
-        return null;
-      }
-
-      hiveLocks.add(lock);
+      LockRequest request = new LockRequest(lockObject.getObj(), lockObject.getMode());
+      request.escalated = escalatedTables.containsKey(lockObject.getName());
+      request.intentExclusive = intentTables.contains(lockObject.getName());
+      requests.add(request);
       prevLockObj = lockObject;
     }
+    return requests;
+  }
 
-    return hiveLocks;
-
+  /**
+   * @param  lockObjects  List of objects and the modes of the locks requested
+   * @param  keepAlive    Whether the lock is to be persisted after the statement
+   *
+   * Acuire all the locks. Release all the locks and return null if any lock
+   * could not be acquired.
+   **/
+  public List<HiveLock> lock(List<HiveLockObj> lockObjects,
+      boolean keepAlive) throws LockException
+  {
+    List<LockRequest> requests = getLockRequests(lockObjects, escalationThreshold);
+    try {
+      return lockRequests(requests, keepAlive);
+    } catch (LockException e) {
+      console.printError("Error in acquireLocks..." );
+      LOG.error("Error in acquireLocks...", e);
+      return null;
+    }
   }
 
   /**
@@ -265,6 +416,13 @@ public int compare(HiveLockObj o1, HiveLockObj o2) {
    **/
   public void releaseLocks(List<HiveLock> hiveLocks) {
     if (hiveLocks != null) {
+      try {
+        releaseLocksPrimitive(hiveLocks);
+        return;
+      } catch (Exception e) {
+        // Some of the locks may have been released already, release the rest one by one
+        LOG.debug("Error when releasing locks together", e);
+      }
       int len = hiveLocks.size();
       for (int pos = len-1; pos >= 0; pos--) {
         HiveLock hiveLock = hiveLocks.get(pos);
@@ -279,6 +437,30 @@ public void releaseLocks(List<HiveLock> hiveLocks) {
     }
   }
 
+  /**
+   * Delete all the lock nodes in as few transactions as possible, and then the nodes of the
+   * objects that have no locks left.
+   **/
+  private void releaseLocksPrimitive(List<HiveLock> hiveLocks)
+      throws KeeperException, InterruptedException {
+    List<Op> ops = new ArrayList<Op>();
+    Set<String> names = new LinkedHashSet<String>();
+    for (HiveLock hiveLock : hiveLocks) {
+      ZooKeeperHiveLock zLock = (ZooKeeperHiveLock) hiveLock;
+      LOG.info(" about to release lock for " + zLock.getHiveLockObject().getName());
+      ops.add(Op.delete(zLock.getPath(), -1));
+      names.add(getLastObjectName(parent, zLock.getHiveLockObject()));
+    }
+    if (ops.isEmpty()) {
+      return;
+    }
+    multi(zooKeeper, ops, new ArrayList<OpResult>());
+
+    // Deleting a node that still has children fails, so there is no need to check
+    // for the children first
+    deleteNodes(names, KeeperException.Code.NOTEMPTY, KeeperException.Code.NONODE);
+  }
+
   /**
    * @param key
    *          The object to be locked
@@ -290,43 +472,36 @@ public void releaseLocks(List<HiveLock> hiveLocks) {
    **/
   public ZooKeeperHiveLock lock(HiveLockObject key, HiveLockMode mode,
       boolean keepAlive) throws LockException {
-    return lock(key, mode, keepAlive, false);
-  }
-
-  /**
-   * @param name
-   *          The name of the zookeeper child
-   * @param data
-   *          The data for the zookeeper child
-   * @param mode
-   *          The mode in which the child needs to be created
-   * @throws KeeperException
-   * @throws InterruptedException
-   **/
-  private String createChild(String name, byte[] data, CreateMode mode)
-      throws KeeperException, InterruptedException {
-    return zooKeeper.create(name, data, Ids.OPEN_ACL_UNSAFE, mode);
+    List<HiveLock> locks = lockRequests(
+        Collections.singletonList(new LockRequest(key, mode)), keepAlive);
+    return locks == null ? null : (ZooKeeperHiveLock) locks.get(0);
   }
 
   private String getLockName(String parent, HiveLockMode mode) {
     return parent + "/" + "LOCK-" + mode + "-";
   }
 
-  private ZooKeeperHiveLock lock (HiveLockObject key, HiveLockMode mode,
-      boolean keepAlive, boolean parentCreated) throws LockException {
+  private List<HiveLock> lockRequests(List<LockRequest> requests, boolean keepAlive)
+      throws LockException {
     int tryNum = 1;
-    ZooKeeperHiveLock ret = null;
+    List<HiveLock> ret = null;
+    long startTime = System.currentTimeMillis();
+    // the lock that was in the way on the last try
+    String conflict = null;
 
     do {
       try {
         if (tryNum > 1) {
-          Thread.sleep(sleepTime);
           prepareRetry();
+          waitForRelease(conflict);
         }
-        ret = lockPrimitive(key, mode, keepAlive, parentCreated);
+        conflict = null;
+        LockAttempt attempt = lockPrimitive(requests, keepAlive);
+        ret = attempt.locks;
         if (ret != null) {
           break;
         }
+        conflict = attempt.conflict;
         tryNum++;
       } catch (Exception e1) {
         tryNum++;
@@ -348,78 +523,332 @@ private ZooKeeperHiveLock lock (HiveLockObject key, HiveLockMode mode,
       }
     } while (tryNum < numRetriesForLock);
 
+    if (ret != null) {
+      PerfLogger.addToHistogram(PerfLogger.LOCK_ACQUIRE, System.currentTimeMillis() - startTime);
+      if (tryNum > 1) {
+        LOG.info("Acquired " + requests.size() + " locks after " + tryNum + " tries. Lock waits: "
+            + PerfLogger.getHistogram(PerfLogger.LOCK_WAIT));
+      }
+    }
     return ret;
   }
 
-  private ZooKeeperHiveLock lockPrimitive(HiveLockObject key,
-      HiveLockMode mode, boolean keepAlive, boolean parentCreated)
+  /**
+   * Wait until the given lock node is deleted or changed, for at most the time between
+   * retries. If there is no such node, wait for the whole time.
+   **/
+  private void waitForRelease(String path) throws KeeperException, InterruptedException {
+    long startTime = System.currentTimeMillis();
+    try {
+      if (path == null) {
+        Thread.sleep(sleepTime);
+        return;
+      }
+      final CountDownLatch released = new CountDownLatch(1);
+      Watcher watcher = new Watcher() {
+        @Override
+        public void process(WatchedEvent event) {
+          released.countDown();
+        }
+      };
+      if (zooKeeper.exists(path, watcher) != null) {
+        released.await(sleepTime, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      PerfLogger.addToHistogram(PerfLogger.LOCK_WAIT, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  /**
+   * The result of one try to acquire a list of locks: either the locks, or the lock that
+   * conflicted with one of them.
+   **/
+  private static class LockAttempt {
+    List<HiveLock> locks;
+    String conflict;
+  }
+
+  private LockAttempt lockPrimitive(List<LockRequest> requests, boolean keepAlive)
       throws KeeperException, InterruptedException {
-    String res;
+    LockAttempt attempt = new LockAttempt();
+
+    // Create the nodes of the objects and all their parents first
+    Set<String> names = new LinkedHashSet<String>();
+    for (LockRequest request : requests) {
+      names.addAll(getObjectNames(request.key));
+    }
+    createNodes(names);
+
+    // Then create all the lock nodes in as few transactions as possible
+    List<Op> ops = new ArrayList<Op>();
+    for (LockRequest request : requests) {
+      HiveLockObjectData lockData = request.key.getData();
+      lockData.setClientIp(clientIp);
+      String data = lockData.toString();
+      String flags = getLockFlags(request);
+      if (flags != null) {
+        data = data + ":" + flags;
+      }
+      ops.add(Op.create(getLockName(getLastObjectName(parent, request.key), request.mode),
+          data.getBytes(), Ids.OPEN_ACL_UNSAFE,
+          keepAlive ? CreateMode.PERSISTENT_SEQUENTIAL : CreateMode.EPHEMERAL_SEQUENTIAL));
+    }
+    List<OpResult> results = new ArrayList<OpResult>();
+    try {
+      multi(zooKeeper, ops, results);
+    } catch (KeeperException e) {
+      // the transactions before the one that failed were committed
+      deleteLocks(getCreatedPaths(results));
+      throw e;
+    }
+    List<String> paths = getCreatedPaths(results);
 
-    // If the parents have already been created, create the last child only
-    List<String> names = new ArrayList<String>();
-    String lastName;
+    try {
+      attempt.conflict = findConflict(requests, paths);
+    } catch (KeeperException e) {
+      deleteLocks(paths);
+      throw e;
+    }
+    if (attempt.conflict != null) {
+      deleteLocks(paths);
+      return attempt;
+    }
 
-    HiveLockObjectData lockData = key.getData();
-    lockData.setClientIp(clientIp);
+    attempt.locks = new ArrayList<HiveLock>();
+    for (int i = 0; i < requests.size(); i++) {
+      attempt.locks.add(new ZooKeeperHiveLock(paths.get(i), requests.get(i).key,
+          requests.get(i).mode));
+    }
+    return attempt;
+  }
 
-    if (parentCreated) {
-      lastName = getLastObjectName(parent, key);
-      names.add(lastName);
-    } else {
-      names = getObjectNames(key);
-      lastName = names.get(names.size() - 1);
+  /**
+   * @return the path of a lock that conflicts with one of the new locks, or null if there is
+   *   none
+   **/
+  private String findConflict(List<LockRequest> requests, List<String> paths)
+      throws KeeperException, InterruptedException {
+    List<String> lastNames = new ArrayList<String>();
+    for (LockRequest request : requests) {
+      lastNames.add(getLastObjectName(parent, request.key));
     }
+    Map<String, List<String>> allChildren = getChildren(lastNames);
+
+    // shared locks whose flags need to be checked, and the requests they may conflict with
+    Map<String, LockRequest> flagged = new LinkedHashMap<String, LockRequest>();
+    for (int i = 0; i < requests.size(); i++) {
+      LockRequest request = requests.get(i);
+      String lastName = lastNames.get(i);
+      HiveLockMode mode = request.mode;
+      int seqNo = getSequenceNumber(paths.get(i), getLockName(lastName, mode));
+      if (seqNo == -1) {
+        return paths.get(i);
+      }
 
-    // Create the parents first
-    for (String name : names) {
-      try {
-        res = createChild(name, new byte[0], CreateMode.PERSISTENT);
-      } catch (KeeperException e) {
-        if (e.code() != KeeperException.Code.NODEEXISTS) {
-          //if the exception is not 'NODEEXISTS', re-throw it
-          throw e;
+      String exLock = getLockName(lastName, HiveLockMode.EXCLUSIVE);
+      String shLock = getLockName(lastName, HiveLockMode.SHARED);
+      boolean checkFlags = getLockFlags(request) != null;
+
+      for (String child : allChildren.get(lastName)) {
+        child = lastName + "/" + child;
+
+        // Is there a conflicting lock on the same object with a lower sequence
+        // number
+        int childSeq = -1;
+        if (child.startsWith(exLock)) {
+          childSeq = getSequenceNumber(child, exLock);
+        } else if (child.startsWith(shLock)) {
+          int shSeq = getSequenceNumber(child, shLock);
+          if ((shSeq >= 0) && (shSeq < seqNo) && checkFlags) {
+            flagged.put(child, request);
+          }
+          if (mode == HiveLockMode.EXCLUSIVE) {
+            childSeq = shSeq;
+          }
+        }
+
+        if ((childSeq >= 0) && (childSeq < seqNo)) {
+          console.printError("conflicting lock present for "
+              + request.key.getDisplayName() + " mode " + mode);
+          return child;
         }
       }
     }
 
-    res = createChild(getLockName(lastName, mode), key.getData().toString()
-        .getBytes(), keepAlive ? CreateMode.PERSISTENT_SEQUENTIAL
-        : CreateMode.EPHEMERAL_SEQUENTIAL);
+    if (!flagged.isEmpty()) {
+      Map<String, byte[]> data = getData(flagged.keySet());
+      for (Map.Entry<String, LockRequest> entry : flagged.entrySet()) {
+        byte[] childData = data.get(entry.getKey());
+        if (childData != null && isSharedConflict(getLockFlags(entry.getValue()),
+            getLockFlags(new String(childData)))) {
+          console.printError("conflicting lock present for "
+              + entry.getValue().key.getDisplayName() + " mode " + entry.getValue().mode);
+          return entry.getKey();
+        }
+      }
+    }
+    return null;
+  }
 
-    int seqNo = getSequenceNumber(res, getLockName(lastName, mode));
-    if (seqNo == -1) {
-      zooKeeper.delete(res, -1);
-      return null;
+  private static List<String> getCreatedPaths(List<OpResult> results) {
+    List<String> paths = new ArrayList<String>();
+    for (OpResult result : results) {
+      paths.add(((OpResult.CreateResult) result).getPath());
+    }
+    return paths;
+  }
+
+  private void deleteLocks(List<String> paths) throws KeeperException, InterruptedException {
+    List<Op> ops = new ArrayList<Op>();
+    for (String path : paths) {
+      ops.add(Op.delete(path, -1));
+    }
+    try {
+      multi(zooKeeper, ops, new ArrayList<OpResult>());
+    } catch (KeeperException.NoNodeException e) {
+      deleteNodes(paths, KeeperException.Code.NONODE);
+    }
+  }
+
+  /**
+   * Run the operations in transactions of at most MAX_MULTI_OPS operations and about
+   * MAX_MULTI_BYTES bytes of paths and data each, adding the results of each transaction to
+   * results. If a transaction fails, the ones before it stay committed and their results are
+   * in results.
+   **/
+  @VisibleForTesting
+  static void multi(ZooKeeper zkpClient, List<Op> ops, List<OpResult> results)
+      throws KeeperException, InterruptedException {
+    int start = 0;
+    while (start < ops.size()) {
+      int end = start + 1;
+      long bytes = getRequestSize(ops.get(start));
+      while (end < ops.size() && end - start < MAX_MULTI_OPS) {
+        bytes += getRequestSize(ops.get(end));
+        if (bytes > MAX_MULTI_BYTES) {
+          break;
+        }
+        end++;
+      }
+      results.addAll(zkpClient.multi(ops.subList(start, end)));
+      start = end;
     }
+  }
 
-    List<String> children = zooKeeper.getChildren(lastName, false);
+  private static int getRequestSize(Op op) {
+    int size = op.getPath().length();
+    if (op.toRequestRecord() instanceof CreateRequest) {
+      size += ((CreateRequest) op.toRequestRecord()).getData().length;
+    }
+    return size;
+  }
 
-    String exLock = getLockName(lastName, HiveLockMode.EXCLUSIVE);
-    String shLock = getLockName(lastName, HiveLockMode.SHARED);
+  /*
+   * The following methods send a batch of requests to ZooKeeper asynchronously and wait for all
+   * the results, so that the batch takes about one round trip instead of one per request.
+   * ZooKeeper runs the requests of a client in order, so a node can be created in the same batch
+   * as its parent.
+   */
 
-    for (String child : children) {
-      child = lastName + "/" + child;
+  /**
+   * Collects the results of a batch of asynchronous requests.
+   **/
+  private static class BatchResult<T> {
+    private final CountDownLatch done;
+    private final Map<String, T> results = new HashMap<String, T>();
+    private final List<KeeperException.Code> ignored;
+    private KeeperException error;
+
+    BatchResult(int size, KeeperException.Code... ignored) {
+      this.done = new CountDownLatch(size);
+      this.ignored = Arrays.asList(ignored);
+    }
 
-      // Is there a conflicting lock on the same object with a lower sequence
-      // number
-      int childSeq = seqNo;
-      if (child.startsWith(exLock)) {
-        childSeq = getSequenceNumber(child, exLock);
+    synchronized void add(int rc, String path, T result) {
+      KeeperException.Code code = KeeperException.Code.get(rc);
+      if (code == KeeperException.Code.OK) {
+        results.put(path, result);
+      } else if (!ignored.contains(code) && error == null) {
+        error = KeeperException.create(code, path);
       }
-      if ((mode == HiveLockMode.EXCLUSIVE) && child.startsWith(shLock)) {
-        childSeq = getSequenceNumber(child, shLock);
+      done.countDown();
+    }
+
+    Map<String, T> get() throws KeeperException, InterruptedException {
+      done.await();
+      synchronized (this) {
+        if (error != null) {
+          throw error;
+        }
+        return results;
       }
+    }
+  }
 
-      if ((childSeq >= 0) && (childSeq < seqNo)) {
-        zooKeeper.delete(res, -1);
-        console.printError("conflicting lock present for "
-            + key.getDisplayName() + " mode " + mode);
-        return null;
+  /* Create the persistent nodes that do not exist yet */
+  private void createNodes(Collection<String> names)
+      throws KeeperException, InterruptedException {
+    final BatchResult<String> result =
+        new BatchResult<String>(names.size(), KeeperException.Code.NODEEXISTS);
+    AsyncCallback.StringCallback callback = new AsyncCallback.StringCallback() {
+      @Override
+      public void processResult(int rc, String path, Object ctx, String name) {
+        result.add(rc, path, name);
       }
+    };
+    for (String name : names) {
+      zooKeeper.create(name, new byte[0], Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT,
+          callback, null);
     }
+    result.get();
+  }
 
-    return new ZooKeeperHiveLock(res, key, mode);
+  private void deleteNodes(Collection<String> names, KeeperException.Code... ignored)
+      throws KeeperException, InterruptedException {
+    final BatchResult<Object> result = new BatchResult<Object>(names.size(), ignored);
+    AsyncCallback.VoidCallback callback = new AsyncCallback.VoidCallback() {
+      @Override
+      public void processResult(int rc, String path, Object ctx) {
+        result.add(rc, path, null);
+      }
+    };
+    for (String name : names) {
+      zooKeeper.delete(name, -1, callback, null);
+    }
+    result.get();
+  }
+
+  private Map<String, List<String>> getChildren(Collection<String> names)
+      throws KeeperException, InterruptedException {
+    Set<String> distinct = new LinkedHashSet<String>(names);
+    final BatchResult<List<String>> result = new BatchResult<List<String>>(distinct.size());
+    AsyncCallback.ChildrenCallback callback = new AsyncCallback.ChildrenCallback() {
+      @Override
+      public void processResult(int rc, String path, Object ctx, List<String> children) {
+        result.add(rc, path, children);
+      }
+    };
+    for (String name : distinct) {
+      zooKeeper.getChildren(name, false, callback, null);
+    }
+    return result.get();
+  }
+
+  /* Get the data of the nodes that still exist */
+  private Map<String, byte[]> getData(Collection<String> names)
+      throws KeeperException, InterruptedException {
+    final BatchResult<byte[]> result =
+        new BatchResult<byte[]>(names.size(), KeeperException.Code.NONODE);
+    AsyncCallback.DataCallback callback = new AsyncCallback.DataCallback() {
+      @Override
+      public void processResult(int rc, String path, Object ctx, byte[] data, Stat stat) {
+        result.add(rc, path, data);
+      }
+    };
+    for (String name : names) {
+      zooKeeper.getData(name, false, callback, null);
+    }
+    return result.get();
   }
 
   /* Remove the lock specified */
@@ -20,6 +20,10 @@
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +37,7 @@
  */
 public class PerfLogger {
   public static final String ACQUIRE_READ_WRITE_LOCKS = "acquireReadWriteLocks";
+  public static final String WAIT_COMPILE = "waitCompile";
   public static final String COMPILE = "compile";
   public static final String PARSE = "parse";
   public static final String ANALYZE = "semanticAnalyze";
@@ -40,6 +45,8 @@ public class PerfLogger {
   public static final String DRIVER_EXECUTE = "Driver.execute";
   public static final String INPUT_SUMMARY = "getInputSummary";
   public static final String GET_SPLITS = "getSplits";
+  public static final String LIST_INPUT_PATHS = "getSplits.listInputPaths";
+  public static final String COMPUTE_SPLITS = "getSplits.computeSplits";
   public static final String RUN_TASKS = "runTasks";
   public static final String SERIALIZE_PLAN = "serializePlan";
   public static final String DESERIALIZE_PLAN = "deserializePlan";
@@ -53,6 +60,8 @@ public class PerfLogger {
   public static final String FAILURE_HOOK = "FailureHook.";
   public static final String DRIVER_RUN = "Driver.run";
   public static final String TIME_TO_SUBMIT = "TimeToSubmit";
+  public static final String LOCK_WAIT = "lockWait";
+  public static final String LOCK_ACQUIRE = "lockAcquire";
 
   protected static final ThreadLocal<PerfLogger> perfLogger = new ThreadLocal<PerfLogger>();
 
@@ -61,6 +70,76 @@ public class PerfLogger {
 
   static final private Log LOG = LogFactory.getLog(PerfLogger.class.getName());
 
+  // Histograms are shared by all the sessions of the process
+  private static final ConcurrentMap<String, Histogram> histograms =
+      new ConcurrentHashMap<String, Histogram>();
+
+  /**
+   * A histogram of durations in milliseconds, with buckets that double in
+   * size: [0, 1), [1, 2), [2, 4), ... It is safe to update it from several
+   * threads.
+   */
+  public static class Histogram {
+    private static final int NUM_BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void add(long value) {
+      value = Math.max(value, 0);
+      int bucket = Math.min(64 - Long.numberOfLeadingZeros(value), NUM_BUCKETS - 1);
+      buckets.incrementAndGet(bucket);
+      count.incrementAndGet();
+      sum.addAndGet(value);
+      long curMax = max.get();
+      while (value > curMax && !max.compareAndSet(curMax, value)) {
+        curMax = max.get();
+      }
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getSum() {
+      return sum.get();
+    }
+
+    public long getMax() {
+      return max.get();
+    }
+
+    /**
+     * @return an upper bound of the given percentile (0-100) of the values,
+     *   which is the upper end of the bucket the percentile falls in
+     */
+    public long getPercentile(double percentile) {
+      long total = count.get();
+      if (total == 0) {
+        return 0;
+      }
+      long rank = (long) Math.ceil(total * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        seen += buckets.get(i);
+        if (seen >= rank) {
+          return Math.min(1L << i, max.get());
+        }
+      }
+      return max.get();
+    }
+
+    @Override
+    public String toString() {
+      long total = count.get();
+      return "count=" + total + " mean=" + (total == 0 ? 0 : sum.get() / total)
+          + " p50<=" + getPercentile(50) + " p90<=" + getPercentile(90)
+          + " p99<=" + getPercentile(99) + " max=" + max.get();
+    }
+  }
+
   public PerfLogger() {
     // Use getPerfLogger to get an instance of PerfLogger
   }
@@ -142,4 +221,24 @@ public Long getStartTime(String method) {
   public Long getEndTime(String method) {
     return endTimes.get(method);
   }
+
+  /**
+   * Add a duration in milliseconds to the process wide histogram of the
+   * given name, such as LOCK_WAIT.
+   */
+  public static void addToHistogram(String name, long duration) {
+    getHistogram(name).add(duration);
+  }
+
+  public static Histogram getHistogram(String name) {
+    Histogram histogram = histograms.get(name);
+    if (histogram == null) {
+      histogram = new Histogram();
+      Histogram old = histograms.putIfAbsent(name, histogram);
+      if (old != null) {
+        histogram = old;
+      }
+    }
+    return histogram;
+  }
 }
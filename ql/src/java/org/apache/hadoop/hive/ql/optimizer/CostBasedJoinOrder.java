@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chooses the order of a chain of inner joins from estimates of the sizes of
+ * the inputs. The inputs are joined left-deep in the order returned by
+ * getJoinOrder(), and the cost of an order is the total size of the results
+ * of the joins, since each of them is written out and read by the next join.
+ *
+ * The number of rows of a join is estimated like JoinStatsRule does: the
+ * product of the rows of the inputs, divided by the larger number of distinct
+ * values of the two columns of each join predicate. If the number of distinct
+ * values of a column is not known, the column is assumed to be a key of its
+ * input.
+ *
+ * Joins of up to dpThreshold inputs are ordered by dynamic programming over
+ * the subsets of the inputs, which finds the cheapest left-deep order. Larger
+ * joins are ordered greedily, by starting with the smallest join of two
+ * inputs and then adding the input that gives the smallest result.
+ *
+ * Either way, an input is only joined to the inputs before it if it has a
+ * predicate with one of them, since a join without a condition is a cartesian
+ * product run by a single reducer, however small its estimate is. If there is
+ * no such order, the order the inputs were added in is kept.
+ */
+public class CostBasedJoinOrder {
+
+  // the sets of inputs are bitmaps, and dynamic programming takes time and
+  // memory exponential in the number of inputs
+  private static final int MAX_INPUTS = 64;
+  private static final int MAX_DP_INPUTS = 16;
+
+  private final int dpThreshold;
+
+  private final List<Double> rows = new ArrayList<Double>();
+  private final List<Double> rowSizes = new ArrayList<Double>();
+
+  // the inputs and the numbers of distinct values of the predicate columns
+  private final List<int[]> predicates = new ArrayList<int[]>();
+  private final List<double[]> distinctValues = new ArrayList<double[]>();
+
+  public CostBasedJoinOrder(int dpThreshold) {
+    this.dpThreshold = dpThreshold;
+  }
+
+  /**
+   * Add an input of the join.
+   *
+   * @param numRows
+   *          the estimated number of rows of the input
+   * @param dataSize
+   *          the estimated size of the input in bytes
+   * @return the position of the input
+   */
+  public int addInput(double numRows, double dataSize) {
+    numRows = Math.max(numRows, 1);
+    rows.add(numRows);
+    rowSizes.add(Math.max(dataSize, 1) / numRows);
+    return rows.size() - 1;
+  }
+
+  /**
+   * Add an equality predicate between a column of one input and a column of
+   * another input.
+   *
+   * @param left
+   *          the position of the first input
+   * @param leftDistinct
+   *          the number of distinct values of its column, or a value less
+   *          than 1 if it is not known
+   * @param right
+   *          the position of the second input
+   * @param rightDistinct
+   *          the number of distinct values of its column, or a value less
+   *          than 1 if it is not known
+   */
+  public void addPredicate(int left, double leftDistinct, int right, double rightDistinct) {
+    predicates.add(new int[] {left, right});
+    distinctValues.add(new double[] {
+        getDistinctValues(left, leftDistinct), getDistinctValues(right, rightDistinct)});
+  }
+
+  private double getDistinctValues(int input, double distinct) {
+    double numRows = rows.get(input);
+    if (distinct < 1 || distinct > numRows) {
+      return numRows;
+    }
+    return distinct;
+  }
+
+  public int getNumInputs() {
+    return rows.size();
+  }
+
+  /**
+   * Estimate the number of rows of the join of a set of inputs.
+   */
+  double getNumRows(long inputs) {
+    double result = 1;
+    for (int i = 0; i < rows.size(); i++) {
+      if (contains(inputs, i)) {
+        result *= rows.get(i);
+      }
+    }
+    for (int i = 0; i < predicates.size(); i++) {
+      int[] predicate = predicates.get(i);
+      if (contains(inputs, predicate[0]) && contains(inputs, predicate[1])) {
+        double[] distinct = distinctValues.get(i);
+        result /= Math.max(distinct[0], distinct[1]);
+      }
+    }
+    return Math.max(result, 1);
+  }
+
+  /**
+   * Estimate the size in bytes of the join of a set of inputs.
+   */
+  double getDataSize(long inputs) {
+    double rowSize = 0;
+    for (int i = 0; i < rowSizes.size(); i++) {
+      if (contains(inputs, i)) {
+        rowSize += rowSizes.get(i);
+      }
+    }
+    return getNumRows(inputs) * rowSize;
+  }
+
+  private static boolean contains(long inputs, int input) {
+    return (inputs & (1L << input)) != 0;
+  }
+
+  /**
+   * Whether the input has a predicate with one of the given inputs.
+   */
+  private boolean isConnected(long inputs, int input) {
+    for (int[] predicate : predicates) {
+      if ((predicate[0] == input && contains(inputs, predicate[1]))
+          || (predicate[1] == input && contains(inputs, predicate[0]))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the cost of joining the inputs in the given order.
+   */
+  public double getCost(int[] order) {
+    double cost = 0;
+    long inputs = 1L << order[0];
+    for (int i = 1; i < order.length; i++) {
+      inputs |= 1L << order[i];
+      cost += getDataSize(inputs);
+    }
+    return cost;
+  }
+
+  /**
+   * Get the order to join the inputs in. The order they were added in is
+   * kept unless another one is estimated to be cheaper.
+   *
+   * @return the positions of the inputs in the order they should be joined
+   */
+  public int[] getJoinOrder() {
+    int numInputs = rows.size();
+    int[] original = new int[numInputs];
+    for (int i = 0; i < numInputs; i++) {
+      original[i] = i;
+    }
+    if (numInputs < 3 || numInputs > MAX_INPUTS) {
+      return original;
+    }
+    int[] order;
+    if (numInputs <= Math.min(dpThreshold, MAX_DP_INPUTS)) {
+      order = getDynamicProgrammingOrder();
+    } else {
+      order = getGreedyOrder();
+    }
+    if (order != null && getCost(order) < getCost(original)) {
+      return order;
+    }
+    return original;
+  }
+
+  /**
+   * Find the cheapest left-deep order. The cheapest order of each set of
+   * inputs is the cheapest order of the set without its last input, followed
+   * by that input.
+   *
+   * @return the order, or null if the inputs cannot all be joined on predicates
+   */
+  private int[] getDynamicProgrammingOrder() {
+    int numInputs = rows.size();
+    int numSets = 1 << numInputs;
+    double[] cost = new double[numSets];
+    int[] last = new int[numSets];
+    Arrays.fill(cost, Double.POSITIVE_INFINITY);
+    for (int i = 0; i < numInputs; i++) {
+      cost[1 << i] = 0;
+      last[1 << i] = i;
+    }
+
+    // a set is always larger than the sets it is built from
+    for (int set = 1; set < numSets; set++) {
+      if (Integer.bitCount(set) < 2) {
+        continue;
+      }
+      double dataSize = getDataSize(set);
+
+      // on ties, prefer the inputs that came last to stay last
+      for (int i = numInputs - 1; i >= 0; i--) {
+        if (!contains(set, i)) {
+          continue;
+        }
+        int rest = set & ~(1 << i);
+        if (cost[rest] == Double.POSITIVE_INFINITY || !isConnected(rest, i)) {
+          continue;
+        }
+        double current = cost[rest] + dataSize;
+        if (current < cost[set]) {
+          cost[set] = current;
+          last[set] = i;
+        }
+      }
+    }
+
+    if (cost[numSets - 1] == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    int[] order = new int[numInputs];
+    int set = numSets - 1;
+    for (int pos = numInputs - 1; pos >= 0; pos--) {
+      order[pos] = last[set];
+      set &= ~(1 << last[set]);
+    }
+    return order;
+  }
+
+  /**
+   * Start with the two inputs that have the smallest join, and then keep
+   * adding the input that gives the smallest join.
+   *
+   * @return the order, or null if the inputs cannot all be joined on predicates
+   */
+  private int[] getGreedyOrder() {
+    int numInputs = rows.size();
+    int[] order = new int[numInputs];
+
+    double smallest = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < numInputs; i++) {
+      for (int j = i + 1; j < numInputs; j++) {
+        if (!isConnected(1L << i, j)) {
+          continue;
+        }
+        double dataSize = getDataSize((1L << i) | (1L << j));
+        if (dataSize < smallest) {
+          smallest = dataSize;
+          order[0] = i;
+          order[1] = j;
+        }
+      }
+    }
+
+    if (smallest == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+
+    long inputs = (1L << order[0]) | (1L << order[1]);
+    for (int pos = 2; pos < numInputs; pos++) {
+      smallest = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < numInputs; i++) {
+        if (contains(inputs, i) || !isConnected(inputs, i)) {
+          continue;
+        }
+        double dataSize = getDataSize(inputs | (1L << i));
+        if (dataSize < smallest) {
+          smallest = dataSize;
+          order[pos] = i;
+        }
+      }
+      if (smallest == Double.POSITIVE_INFINITY) {
+        return null;
+      }
+      inputs |= 1L << order[pos];
+    }
+    return order;
+  }
+}
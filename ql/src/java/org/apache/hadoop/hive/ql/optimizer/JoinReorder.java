@@ -33,8 +33,10 @@
 /**
  * Implementation of rule-based join table reordering optimization. User passes
  * hints to specify which tables are to be streamed and they are moved to have
- * largest tag so that they are processed last. In future, once statistics are
- * implemented, this transformation can also be done based on costs.
+ * largest tag so that they are processed last. With hive.optimize.join.reorder
+ * the joins are also reordered based on statistics before the plan is
+ * generated, and the largest table is streamed as if it had a hint (see
+ * JoinOrderRewriter).
  */
 public class JoinReorder implements Transform {
   /**
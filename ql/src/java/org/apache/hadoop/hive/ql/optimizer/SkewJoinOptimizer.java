@@ -78,9 +78,10 @@
 public class SkewJoinOptimizer implements Transform {
 
   private static final Log LOG = LogFactory.getLog(SkewJoinOptimizer.class.getName());
-  private static ParseContext parseContext;
 
   public static class SkewJoinProc implements NodeProcessor {
+    private ParseContext parseContext;
+
     public SkewJoinProc() {
       super();
     }
@@ -50,7 +50,6 @@
  *
  */
 public final class RewriteCanApplyProcFactory {
-  private static RewriteCanApplyCtx canApplyCtx = null;
 
   private RewriteCanApplyProcFactory(){
     //this prevents the class from getting instantiated
@@ -63,7 +62,7 @@ private static class CheckFilterProc implements NodeProcessor {
     public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx ctx,
         Object... nodeOutputs) throws SemanticException {
       FilterOperator operator = (FilterOperator)nd;
-      canApplyCtx = (RewriteCanApplyCtx)ctx;
+      RewriteCanApplyCtx canApplyCtx = (RewriteCanApplyCtx)ctx;
       FilterDesc conf = (FilterDesc)operator.getConf();
       //The filter operator should have a predicate of ExprNodeGenericFuncDesc type.
       //This represents the comparison operator
@@ -95,6 +94,9 @@ public static CheckFilterProc canApplyOnFilterOperator() {
    */
   private static class CheckGroupByProc implements NodeProcessor {
 
+     // a proc is made for each walk, so the context is not shared between compiles
+     private RewriteCanApplyCtx canApplyCtx;
+
      public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx ctx,
          Object... nodeOutputs) throws SemanticException {
        GroupByOperator operator = (GroupByOperator)nd;
@@ -202,7 +204,7 @@ private static class CheckSelectProc implements NodeProcessor {
      public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx ctx,
          Object... nodeOutputs) throws SemanticException {
        SelectOperator operator = (SelectOperator)nd;
-       canApplyCtx = (RewriteCanApplyCtx)ctx;
+       RewriteCanApplyCtx canApplyCtx = (RewriteCanApplyCtx)ctx;
 
        List<Operator<? extends OperatorDesc>> childrenList = operator.getChildOperators();
        Operator<? extends OperatorDesc> child = childrenList.get(0);
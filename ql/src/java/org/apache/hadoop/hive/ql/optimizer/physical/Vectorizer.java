@@ -34,21 +34,26 @@
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.ql.exec.ColumnInfo;
+import org.apache.hadoop.hive.ql.exec.ExtractOperator;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.exec.FilterOperator;
 import org.apache.hadoop.hive.ql.exec.GroupByOperator;
 import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.OperatorFactory;
+import org.apache.hadoop.hive.ql.exec.PTFOperator;
 import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
 import org.apache.hadoop.hive.ql.exec.SelectOperator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.exec.Task;
 import org.apache.hadoop.hive.ql.exec.UDF;
+import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.mr.MapRedTask;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedInputFormatInterface;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorAggregate;
 import org.apache.hadoop.hive.ql.lib.DefaultGraphWalker;
 import org.apache.hadoop.hive.ql.lib.DefaultRuleDispatcher;
 import org.apache.hadoop.hive.ql.lib.Dispatcher;
@@ -69,12 +74,20 @@
 import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
 import org.apache.hadoop.hive.ql.plan.MapWork;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.PTFDesc;
 import org.apache.hadoop.hive.ql.plan.PartitionDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceWork;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.TableScanDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
+import org.apache.hadoop.hive.ql.plan.ptf.PTFExpressionDef;
+import org.apache.hadoop.hive.ql.plan.ptf.PTFQueryInputDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFunctionDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowTableFunctionDef;
 import org.apache.hadoop.hive.ql.udf.UDFAcos;
 import org.apache.hadoop.hive.ql.udf.UDFAsin;
 import org.apache.hadoop.hive.ql.udf.UDFAtan;
@@ -103,6 +116,7 @@
 import org.apache.hadoop.hive.ql.udf.UDFRadians;
 import org.apache.hadoop.hive.ql.udf.UDFRand;
 import org.apache.hadoop.hive.ql.udf.UDFRegExp;
+import org.apache.hadoop.hive.ql.udf.UDFRegExpReplace;
 import org.apache.hadoop.hive.ql.udf.UDFSecond;
 import org.apache.hadoop.hive.ql.udf.UDFSign;
 import org.apache.hadoop.hive.ql.udf.UDFSin;
@@ -124,9 +138,15 @@
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFAbs;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFBetween;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFBridge;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFCase;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFCoalesce;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFConcat;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFIf;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFIn;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInstr;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFLocate;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFLower;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFNvl;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPDivide;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
@@ -146,8 +166,15 @@
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPPlus;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFPosMod;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFTimestamp;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFToDecimal;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFToUnixTimeStamp;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFUpper;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFWhen;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.binarysortable.BinarySortableSerDe;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 
 public class Vectorizer implements PhysicalPlanResolver {
 
@@ -160,8 +187,15 @@ public class Vectorizer implements PhysicalPlanResolver {
 
   Set<String> supportedAggregationUdfs = new HashSet<String>();
 
+  // Subset of the aggregates that have a vectorized implementation over decimals
+  Set<String> supportedDecimalAggregationUdfs = new HashSet<String>();
+
+  Set<String> supportedWindowFunctions = new HashSet<String>();
+
   private PhysicalContext physicalContext = null;;
 
+  private boolean isReduceVectorizationEnabled = false;
+
   public Vectorizer() {
     supportedDataTypes.add("int");
     supportedDataTypes.add("smallint");
@@ -208,6 +242,7 @@ public Vectorizer() {
 
     supportedGenericUDFs.add(UDFLike.class);
     supportedGenericUDFs.add(UDFRegExp.class);
+    supportedGenericUDFs.add(UDFRegExpReplace.class);
     supportedGenericUDFs.add(UDFSubstr.class);
     supportedGenericUDFs.add(UDFLTrim.class);
     supportedGenericUDFs.add(UDFRTrim.class);
@@ -241,10 +276,19 @@ public Vectorizer() {
     supportedGenericUDFs.add(GenericUDFLower.class);
     supportedGenericUDFs.add(GenericUDFUpper.class);
     supportedGenericUDFs.add(GenericUDFConcat.class);
+    supportedGenericUDFs.add(GenericUDFInstr.class);
+    supportedGenericUDFs.add(GenericUDFLocate.class);
     supportedGenericUDFs.add(GenericUDFAbs.class);
     supportedGenericUDFs.add(GenericUDFBetween.class);
     supportedGenericUDFs.add(GenericUDFIn.class);
 
+    // Conditional expressions
+    supportedGenericUDFs.add(GenericUDFIf.class);
+    supportedGenericUDFs.add(GenericUDFWhen.class);
+    supportedGenericUDFs.add(GenericUDFCase.class);
+    supportedGenericUDFs.add(GenericUDFCoalesce.class);
+    supportedGenericUDFs.add(GenericUDFNvl.class);
+
     // For type casts
     supportedGenericUDFs.add(UDFToLong.class);
     supportedGenericUDFs.add(UDFToInteger.class);
@@ -255,6 +299,7 @@ public Vectorizer() {
     supportedGenericUDFs.add(UDFToDouble.class);
     supportedGenericUDFs.add(UDFToString.class);
     supportedGenericUDFs.add(GenericUDFTimestamp.class);
+    supportedGenericUDFs.add(GenericUDFToDecimal.class);
 
     supportedAggregationUdfs.add("min");
     supportedAggregationUdfs.add("max");
@@ -268,6 +313,23 @@ public Vectorizer() {
     supportedAggregationUdfs.add("stddev");
     supportedAggregationUdfs.add("stddev_pop");
     supportedAggregationUdfs.add("stddev_samp");
+
+    supportedDecimalAggregationUdfs.add("min");
+    supportedDecimalAggregationUdfs.add("max");
+    supportedDecimalAggregationUdfs.add("count");
+    supportedDecimalAggregationUdfs.add("sum");
+    supportedDecimalAggregationUdfs.add("avg");
+
+    supportedWindowFunctions.add("row_number");
+    supportedWindowFunctions.add("rank");
+    supportedWindowFunctions.add("dense_rank");
+    supportedWindowFunctions.add("lead");
+    supportedWindowFunctions.add("lag");
+    supportedWindowFunctions.add("sum");
+    supportedWindowFunctions.add("count");
+    supportedWindowFunctions.add("min");
+    supportedWindowFunctions.add("max");
+    supportedWindowFunctions.add("avg");
   }
 
   class VectorizationDispatcher implements Dispatcher {
@@ -284,6 +346,11 @@ public Object dispatch(Node nd, Stack<Node> stack, Object... nodeOutputs)
         if (ret) {
           vectorizeMRTask((MapRedTask) currTask);
         }
+        ReduceWork reduceWork = ((MapRedTask) currTask).getWork().getReduceWork();
+        if (reduceWork != null && isReduceVectorizationEnabled
+            && validateReduceWork(reduceWork)) {
+          vectorizeReduceWork(reduceWork);
+        }
       }
       return null;
     }
@@ -346,6 +413,120 @@ private void vectorizeMRTask(MapRedTask mrTask) throws SemanticException {
       mapWork.setScratchColumnMap(vnp.getScratchColumnMap());
       return;
     }
+
+    private boolean validateReduceWork(ReduceWork reduceWork) {
+      // Only untagged shuffles (no joins) whose keys and values can be deserialized
+      // straight into column vectors.
+      if (reduceWork.getNeedsTagging() || reduceWork.getTagToValueDesc().size() != 1) {
+        LOG.info("Reduce work with tagged input can not be vectorized");
+        return false;
+      }
+      TableDesc keyDesc = reduceWork.getKeyDesc();
+      TableDesc valueDesc = reduceWork.getTagToValueDesc().get(0);
+      if (!BinarySortableSerDe.class.equals(keyDesc.getDeserializerClass())
+          || !LazyBinarySerDe.class.equals(valueDesc.getDeserializerClass())) {
+        LOG.info("Reduce input serdes " + keyDesc.getSerdeClassName() + ", "
+            + valueDesc.getSerdeClassName() + " are not supported in vector mode");
+        return false;
+      }
+      if (!validateReduceColumnTypes(keyDesc) || !validateReduceColumnTypes(valueDesc)) {
+        LOG.info("Reduce input has a column type that can not be vectorized");
+        return false;
+      }
+      if (!validateReduceOperator(reduceWork.getReducer(), true)) {
+        LOG.info("Reduce operator tree could not be vectorized");
+        return false;
+      }
+      return true;
+    }
+
+    private boolean validateReduceColumnTypes(TableDesc desc) {
+      String columnTypes = desc.getProperties().getProperty(serdeConstants.LIST_COLUMN_TYPES);
+      if (columnTypes == null || columnTypes.trim().isEmpty()) {
+        return true;
+      }
+      for (TypeInfo typeInfo : TypeInfoUtils.getTypeInfosFromTypeString(columnTypes)) {
+        if (!validateDataType(typeInfo.getTypeName())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * A merge-partial GROUP BY may only be the first operator of the reducer, where its
+     * input is sorted on the grouping keys; it emits rows, so its children stay row mode.
+     * The same goes for a windowing PTF, which is fed the value columns by an EXTRACT at
+     * the root of the reducer.
+     * A global aggregation stays row mode: it only merges a row per mapper, and over no
+     * input it must emit each aggregation evaluated over no rows (0 for count), which the
+     * merging vector aggregates do not know about.
+     */
+    private boolean validateReduceOperator(Operator<? extends OperatorDesc> op,
+        boolean isReducer) {
+      switch (op.getType()) {
+        case GROUPBY:
+          GroupByDesc desc = ((GroupByOperator) op).getConf();
+          if (!isReducer || desc.getMode() != GroupByDesc.Mode.MERGEPARTIAL
+              || desc.getGroupKeyNotReductionKey() || desc.getKeys().isEmpty()) {
+            return false;
+          }
+          return validateGroupByOperator((GroupByOperator) op);
+        case EXTRACT:
+          if (!isReducer || !validateExtractOperator((ExtractOperator) op)) {
+            return false;
+          }
+          break;
+        case PTF:
+          return validatePTFOperator((PTFOperator) op);
+        case FILTER:
+        case SELECT:
+        case FILESINK:
+        case LIMIT:
+          if (!validateOperator(op)) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+      if (op.getChildOperators() != null) {
+        for (Operator<? extends OperatorDesc> child : op.getChildOperators()) {
+          if (!validateReduceOperator(child, false)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    private void vectorizeReduceWork(ReduceWork reduceWork) throws SemanticException {
+      LOG.info("Vectorizing reduce task...");
+      VectorizationContext vContext = getReduceVectorizationContext(reduceWork);
+      try {
+        reduceWork.setReducer(vectorizeReduceOperator(reduceWork.getReducer(), vContext));
+      } catch (HiveException e) {
+        throw new SemanticException(e);
+      }
+      reduceWork.setScratchColumnVectorTypes(vContext.getOutputColumnTypeMap());
+      reduceWork.setScratchColumnMap(vContext.getColumnMap());
+      reduceWork.setVectorMode(true);
+    }
+
+    private Operator<? extends OperatorDesc> vectorizeReduceOperator(
+        Operator<? extends OperatorDesc> op, VectorizationContext vContext)
+        throws HiveException {
+      Operator<? extends OperatorDesc> vectorOp = vectorizeOperator(op, vContext);
+      if (op.getType() != OperatorType.GROUPBY && op.getType() != OperatorType.PTF
+          && vectorOp.getChildOperators() != null) {
+        List<Operator<? extends OperatorDesc>> children =
+            new ArrayList<Operator<? extends OperatorDesc>>(vectorOp.getChildOperators());
+        for (Operator<? extends OperatorDesc> child : children) {
+          vectorizeReduceOperator(child, vContext);
+        }
+      }
+      return vectorOp;
+    }
   }
 
   class ValidationNodeProcessor implements NodeProcessor {
@@ -487,6 +668,8 @@ public PhysicalContext resolve(PhysicalContext pctx) throws SemanticException {
       LOG.info("Vectorization is disabled");
       return pctx;
     }
+    isReduceVectorizationEnabled = HiveConf.getBoolVar(pctx.getConf(),
+        HiveConf.ConfVars.HIVE_VECTORIZATION_REDUCE_ENABLED);
     // create dispatcher and graph walker
     Dispatcher disp = new VectorizationDispatcher(pctx);
     TaskGraphWalker ogw = new TaskGraphWalker(disp);
@@ -582,6 +765,99 @@ private boolean validateGroupByOperator(GroupByOperator op) {
     return validateAggregationDesc(op.getConf().getAggregators());
   }
 
+  /**
+   * Only the extraction of the whole value row, and only for windowing PTFs, which read the
+   * batch columns by the value column names.
+   */
+  private boolean validateExtractOperator(ExtractOperator op) {
+    ExprNodeDesc col = op.getConf().getCol();
+    if (!(col instanceof ExprNodeColumnDesc) || !Utilities.ReduceField.VALUE.toString()
+        .equals(((ExprNodeColumnDesc) col).getColumn())) {
+      return false;
+    }
+    for (Operator<? extends OperatorDesc> child : op.getChildOperators()) {
+      if (child.getType() != OperatorType.PTF) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean validatePTFOperator(PTFOperator op) {
+    PTFDesc desc = op.getConf();
+    if (desc.isMapSide() || !(desc.getFuncDef() instanceof WindowTableFunctionDef)) {
+      return false;
+    }
+    WindowTableFunctionDef funcDef = (WindowTableFunctionDef) desc.getFuncDef();
+    if (!(funcDef.getInput() instanceof PTFQueryInputDef)) {
+      // a chain of table functions
+      return false;
+    }
+    if (desc.getLlInfo() != null && desc.getLlInfo().getLeadLagExprs() != null
+        && !desc.getLlInfo().getLeadLagExprs().isEmpty()) {
+      // lead and lag inside expressions need the materialized partition
+      return false;
+    }
+    for (PTFExpressionDef expr : funcDef.getPartition().getExpressions()) {
+      if (!validateExprNodeDesc(expr.getExprNode())) {
+        return false;
+      }
+    }
+    for (PTFExpressionDef expr : funcDef.getOrder().getExpressions()) {
+      if (!validateExprNodeDesc(expr.getExprNode())) {
+        return false;
+      }
+    }
+    for (WindowFunctionDef function : funcDef.getWindowFunctions()) {
+      if (!validateWindowFunction(function)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean validateWindowFunction(WindowFunctionDef function) {
+    String name = function.getName().toLowerCase();
+    if (!supportedWindowFunctions.contains(name) || function.isDistinct()) {
+      return false;
+    }
+    if (name.equals("row_number") || name.equals("rank") || name.equals("dense_rank")) {
+      return true;
+    }
+    List<PTFExpressionDef> args = function.getArgs();
+    if (name.equals("lead") || name.equals("lag")) {
+      if (args == null || args.isEmpty()) {
+        return false;
+      }
+      ExprNodeDesc arg = args.get(0).getExprNode();
+      if (args.size() > 2) {
+        // the default is buffered next to the argument, so it must have the same type
+        ExprNodeDesc defaultArg = args.get(2).getExprNode();
+        if (!defaultArg.getTypeString().equals(arg.getTypeString())
+            || !validateExprNodeDesc(defaultArg)) {
+          return false;
+        }
+      }
+      return validateExprNodeDesc(arg);
+    }
+    if (VectorPTFEvaluatorAggregate.getFrameType(function.getWindowFrame()) == null) {
+      return false;
+    }
+    if (args == null || args.isEmpty()) {
+      return name.equals("count");
+    }
+    if (args.size() > 1) {
+      return false;
+    }
+    ExprNodeDesc arg = args.get(0).getExprNode();
+    String type = arg.getTypeString();
+    if (!name.equals("count")
+        && !VectorizationContext.isIntFamily(type) && !VectorizationContext.isFloatFamily(type)) {
+      return false;
+    }
+    return validateExprNodeDesc(arg);
+  }
+
   private boolean validateExprNodeDesc(List<ExprNodeDesc> descs) {
     return validateExprNodeDesc(descs, VectorExpressionDescriptor.Mode.PROJECTION);
   }
@@ -669,12 +945,21 @@ private boolean validateAggregationDesc(AggregationDesc aggDesc) {
       return false;
     }
     if (aggDesc.getParameters() != null) {
+      if (!aggDesc.getParameters().isEmpty()
+          && VectorizationContext.isDecimalFamily(aggDesc.getParameters().get(0).getTypeString())
+          && !supportedDecimalAggregationUdfs.contains(aggDesc.getGenericUDAFName().toLowerCase())) {
+        return false;
+      }
       return validateExprNodeDesc(aggDesc.getParameters());
     }
     return true;
   }
 
   private boolean validateDataType(String type) {
+    if (VectorizationContext.isDecimalFamily(type)) {
+      // Only decimals whose unscaled values fit in a long are vectorized
+      return DecimalColumnVector.isSupportedType(type);
+    }
     return supportedDataTypes.contains(type.toLowerCase());
   }
 
@@ -698,6 +983,28 @@ private VectorizationContext getVectorizationContext(TableScanOperator op,
     return new VectorizationContext(cmap, columnCount);
   }
 
+  /**
+   * The reduce side batch holds the key columns followed by the value columns, named the
+   * way the reduce operator tree refers to them (KEY.reducesinkkey0, VALUE._col0, ...).
+   * Below an EXTRACT the value columns are referred to by their bare names (_col0, ...).
+   */
+  private VectorizationContext getReduceVectorizationContext(ReduceWork reduceWork) {
+    Map<String, Integer> cmap = new HashMap<String, Integer>();
+    int columnCount = 0;
+    for (String name : Utilities.getColumnNames(reduceWork.getKeyDesc().getProperties())) {
+      cmap.put(Utilities.ReduceField.KEY + "." + name, columnCount++);
+    }
+    TableDesc valueDesc = reduceWork.getTagToValueDesc().get(0);
+    boolean isExtract = reduceWork.getReducer().getType() == OperatorType.EXTRACT;
+    for (String name : Utilities.getColumnNames(valueDesc.getProperties())) {
+      if (isExtract) {
+        cmap.put(name, columnCount);
+      }
+      cmap.put(Utilities.ReduceField.VALUE + "." + name, columnCount++);
+    }
+    return new VectorizationContext(cmap, columnCount);
+  }
+
   Operator<? extends OperatorDesc> vectorizeOperator(Operator<? extends OperatorDesc> op,
       VectorizationContext vContext) throws HiveException {
     Operator<? extends OperatorDesc> vectorOp = null;
@@ -710,6 +1017,8 @@ Operator<? extends OperatorDesc> vectorizeOperator(Operator<? extends OperatorDe
       case FILESINK:
       case REDUCESINK:
       case LIMIT:
+      case EXTRACT:
+      case PTF:
         vectorOp = OperatorFactory.getVectorOperator(op.getConf(), vContext);
         break;
       default:
@@ -721,7 +1030,11 @@ Operator<? extends OperatorDesc> vectorizeOperator(Operator<? extends OperatorDe
       if (op.getParentOperators() != null) {
         vectorOp.setParentOperators(op.getParentOperators());
         for (Operator<? extends OperatorDesc> p : op.getParentOperators()) {
-          p.replaceChild(op, vectorOp);
+          // the root of a reducer keeps the map side reduce sinks as its parents, but they
+          // no longer have it as a child
+          if (p.getChildOperators() != null && p.getChildOperators().contains(op)) {
+            p.replaceChild(op, vectorOp);
+          }
         }
       }
       if (op.getChildOperators() != null) {
@@ -0,0 +1,579 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.StatsSetupConst;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.optimizer.CostBasedJoinOrder;
+import org.apache.hadoop.hive.ql.optimizer.ppr.PartitionPruner;
+import org.apache.hadoop.hive.ql.plan.ColStatistics;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.stats.StatsUtils;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+
+/**
+ * Reorders the inner joins of a query block by rewriting its join expression,
+ * before the join tree is generated from it. The order is chosen by
+ * CostBasedJoinOrder from the statistics of the tables in the metastore: the
+ * rows and data sizes of the tables, or of their partitions that are left
+ * after pruning with the partition predicates of the query, reduced by the
+ * other predicates on the table, and the numbers of distinct values of the
+ * join columns.
+ *
+ * Only the innermost chain of inner joins is reordered, since outer and semi
+ * joins cannot be moved. The chain is left alone if it cannot be reordered
+ * safely or estimated: if the query has hints, selects all columns (whose
+ * order depends on the join order), joins anything but tables, or has join
+ * conditions that are not equalities between two of the tables.
+ */
+class JoinOrderRewriter {
+
+  private static final Log LOG = LogFactory.getLog(JoinOrderRewriter.class.getName());
+
+  // the numbers of distinct values of a column in at most this many
+  // partitions are looked up
+  private static final int MAX_DISTINCT_VALUE_PARTITIONS = 8;
+
+  private final SemanticAnalyzer analyzer;
+  private final HiveConf conf;
+  private final QB qb;
+  private final Map<String, Operator> aliasToOpInfo;
+  private final Map<String, PrunedPartitionList> prunedPartitions;
+
+  // the inputs of the chain of joins, and the conjuncts of its join conditions
+  private final List<String> aliases = new ArrayList<String>();
+  private final List<ASTNode> sources = new ArrayList<ASTNode>();
+  private final List<ASTNode> conditions = new ArrayList<ASTNode>();
+  private final List<Set<String>> conditionAliases = new ArrayList<Set<String>>();
+
+  // the partitions of each alias that are left after pruning
+  private final Map<String, List<Partition>> aliasToPartitions =
+      new HashMap<String, List<Partition>>();
+  private String largestInput;
+  private String largestAlias;
+
+  JoinOrderRewriter(SemanticAnalyzer analyzer, HiveConf conf, QB qb,
+      Map<String, Operator> aliasToOpInfo, Map<String, PrunedPartitionList> prunedPartitions) {
+    this.analyzer = analyzer;
+    this.conf = conf;
+    this.qb = qb;
+    this.aliasToOpInfo = aliasToOpInfo;
+    this.prunedPartitions = prunedPartitions;
+  }
+
+  /**
+   * Get the alias of the input that is estimated to be the largest, which
+   * should be streamed, if the joins were reordered.
+   */
+  String getLargestAlias() {
+    return largestAlias;
+  }
+
+  /**
+   * Reorder the innermost chain of inner joins of the join expression.
+   *
+   * @return the new join expression, or the original one if the joins were
+   *         not reordered
+   */
+  ASTNode rewrite(ASTNode joinExpr) {
+    if (qb.getParseInfo().getHints() != null || selectsAllColumns()) {
+      return joinExpr;
+    }
+
+    // find the topmost join of the chain of inner joins at the bottom of the
+    // left-deep join tree
+    ASTNode chain = null;
+    ASTNode parent = null;
+    for (ASTNode node = joinExpr; isJoin(node); node = (ASTNode) node.getChild(0)) {
+      if (isInnerJoin(node)) {
+        if (chain == null) {
+          chain = node;
+        }
+      } else {
+        chain = null;
+        parent = node;
+      }
+    }
+    if (chain == null || !collect(chain) || aliases.size() < 3) {
+      return joinExpr;
+    }
+
+    int[] order = getJoinOrder();
+    if (order == null) {
+      return joinExpr;
+    }
+    boolean reordered = false;
+    for (int i = 0; i < order.length; i++) {
+      reordered |= order[i] != i;
+    }
+    if (!reordered) {
+      return joinExpr;
+    }
+
+    ASTNode newChain = buildJoins(order);
+    largestAlias = largestInput;
+    StringBuilder newOrder = new StringBuilder();
+    for (int pos : order) {
+      newOrder.append(newOrder.length() == 0 ? "" : ", ").append(aliases.get(pos));
+    }
+    LOG.info("Reordered the joins of " + qb.getId() + " to " + newOrder);
+
+    if (parent == null) {
+      return newChain;
+    }
+    parent.setChild(0, newChain);
+    return joinExpr;
+  }
+
+  private static boolean isJoin(ASTNode node) {
+    switch (node.getToken().getType()) {
+    case HiveParser.TOK_JOIN:
+    case HiveParser.TOK_CROSSJOIN:
+    case HiveParser.TOK_LEFTOUTERJOIN:
+    case HiveParser.TOK_RIGHTOUTERJOIN:
+    case HiveParser.TOK_FULLOUTERJOIN:
+    case HiveParser.TOK_LEFTSEMIJOIN:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isInnerJoin(ASTNode node) {
+    int type = node.getToken().getType();
+    return type == HiveParser.TOK_JOIN || type == HiveParser.TOK_CROSSJOIN;
+  }
+
+  private boolean selectsAllColumns() {
+    QBParseInfo qbp = qb.getParseInfo();
+    for (String dest : qbp.getClauseNames()) {
+      if (containsToken(qbp.getSelForClause(dest), HiveParser.TOK_ALLCOLREF)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsToken(ASTNode node, int type) {
+    if (node == null) {
+      return false;
+    }
+    if (node.getToken().getType() == type) {
+      return true;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      if (containsToken((ASTNode) node.getChild(i), type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collect the inputs and the join conditions of a chain of inner joins.
+   *
+   * @return whether the chain can be reordered
+   */
+  private boolean collect(ASTNode join) {
+    ASTNode left = (ASTNode) join.getChild(0);
+    if (isJoin(left)) {
+      if (!collect(left)) {
+        return false;
+      }
+    } else if (!addSource(left)) {
+      return false;
+    }
+    if (!addSource((ASTNode) join.getChild(1))) {
+      return false;
+    }
+    if (join.getChildCount() > 2) {
+      addConjuncts((ASTNode) join.getChild(2), conditions);
+    }
+
+    // every condition must be a filter on one table, or an equality between
+    // two tables, so that it is still valid wherever it ends up
+    for (int i = conditionAliases.size(); i < conditions.size(); i++) {
+      ASTNode condition = conditions.get(i);
+      Set<String> referenced = new HashSet<String>();
+      if (!getAliases(condition, referenced)) {
+        return false;
+      }
+      if (referenced.size() > 1 && getJoinColumns(condition) == null) {
+        return false;
+      }
+      conditionAliases.add(referenced);
+    }
+    return true;
+  }
+
+  private boolean addSource(ASTNode source) {
+    if (source.getToken().getType() != HiveParser.TOK_TABREF) {
+      return false;
+    }
+    String tableName = BaseSemanticAnalyzer.getUnescapedUnqualifiedTableName(
+        (ASTNode) source.getChild(0)).toLowerCase();
+    String alias = source.getChildCount() == 1 ? tableName
+        : BaseSemanticAnalyzer.unescapeIdentifier(
+            source.getChild(source.getChildCount() - 1).getText().toLowerCase());
+    Table table = qb.getMetaData().getSrcForAlias(alias);
+    if (table == null || table.isNonNative()
+        || qb.getParseInfo().getAliasToLateralViews().containsKey(alias)) {
+      return false;
+    }
+    aliases.add(alias);
+    sources.add(source);
+    return true;
+  }
+
+  private static void addConjuncts(ASTNode condition, List<ASTNode> conjuncts) {
+    if (condition.getToken().getType() == HiveParser.KW_AND) {
+      addConjuncts((ASTNode) condition.getChild(0), conjuncts);
+      addConjuncts((ASTNode) condition.getChild(1), conjuncts);
+    } else {
+      conjuncts.add(condition);
+    }
+  }
+
+  /**
+   * Get the aliases a join condition refers to. Like in the join tree, every
+   * table or column name is taken to be an alias.
+   *
+   * @return false if the condition refers to something else
+   */
+  private boolean getAliases(ASTNode condition, Set<String> referenced) {
+    switch (condition.getToken().getType()) {
+    case HiveParser.TOK_TABLE_OR_COL:
+      String alias = BaseSemanticAnalyzer.unescapeIdentifier(
+          condition.getChild(0).getText().toLowerCase());
+      if (!aliases.contains(alias)) {
+        return false;
+      }
+      referenced.add(alias);
+      return true;
+    case HiveParser.TOK_SUBQUERY_EXPR:
+      return false;
+    default:
+      for (int i = 0; i < condition.getChildCount(); i++) {
+        if (!getAliases((ASTNode) condition.getChild(i), referenced)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Get the two sides of an equality between two tables.
+   *
+   * @return the sides, or null if the condition is something else
+   */
+  private ASTNode[] getJoinColumns(ASTNode condition) {
+    int type = condition.getToken().getType();
+    if (type != HiveParser.EQUAL && type != HiveParser.EQUAL_NS) {
+      return null;
+    }
+    Set<String> left = new HashSet<String>();
+    Set<String> right = new HashSet<String>();
+    ASTNode leftExpr = (ASTNode) condition.getChild(0);
+    ASTNode rightExpr = (ASTNode) condition.getChild(1);
+    if (!getAliases(leftExpr, left) || !getAliases(rightExpr, right)
+        || left.size() != 1 || right.size() != 1 || left.equals(right)) {
+      return null;
+    }
+    return new ASTNode[] {leftExpr, rightExpr};
+  }
+
+  /**
+   * Get the alias of a column reference of the form alias.column.
+   */
+  private String getColumnAlias(ASTNode expr) {
+    if (expr.getToken().getType() != HiveParser.DOT
+        || expr.getChild(0).getType() != HiveParser.TOK_TABLE_OR_COL) {
+      return null;
+    }
+    return BaseSemanticAnalyzer.unescapeIdentifier(
+        expr.getChild(0).getChild(0).getText().toLowerCase());
+  }
+
+  private String getColumnName(ASTNode expr) {
+    return BaseSemanticAnalyzer.unescapeIdentifier(expr.getChild(1).getText().toLowerCase());
+  }
+
+  /**
+   * Estimate the inputs and the join predicates, and choose the order.
+   *
+   * @return the order, or null if some input could not be estimated
+   */
+  private int[] getJoinOrder() {
+    // the where clause is only used for the estimates. Its join conditions
+    // are moved into the join tree wherever the tables end up, if there is
+    // just one destination
+    List<ASTNode> whereConditions = new ArrayList<ASTNode>();
+    QBParseInfo qbp = qb.getParseInfo();
+    Set<String> dests = qbp.getClauseNames();
+    if (dests.size() == 1) {
+      ASTNode where = qbp.getWhrForClause(dests.iterator().next());
+      if (where != null) {
+        addConjuncts((ASTNode) where.getChild(0), whereConditions);
+      }
+    }
+
+    CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(
+        HiveConf.getIntVar(conf, HiveConf.ConfVars.HIVE_OPTIMIZE_JOIN_REORDER_DP_THRESHOLD));
+    double largestSize = -1;
+    for (String alias : aliases) {
+      List<ASTNode> filters = new ArrayList<ASTNode>();
+      for (int i = 0; i < conditions.size(); i++) {
+        if (conditionAliases.get(i).size() == 1 && conditionAliases.get(i).contains(alias)) {
+          filters.add(conditions.get(i));
+        }
+      }
+      filters.addAll(whereConditions);
+      double[] estimate = estimate(alias, filters);
+      if (estimate == null) {
+        LOG.info("Not reordering the joins of " + qb.getId()
+            + " since there are no statistics for " + alias);
+        return null;
+      }
+      joinOrder.addInput(estimate[0], estimate[1]);
+      if (estimate[1] > largestSize) {
+        largestSize = estimate[1];
+        largestInput = alias;
+      }
+    }
+
+    List<ASTNode> predicates = new ArrayList<ASTNode>(conditions);
+    predicates.addAll(whereConditions);
+    for (ASTNode predicate : predicates) {
+      ASTNode[] sides = getJoinColumns(predicate);
+      if (sides == null) {
+        continue;
+      }
+      int[] inputs = new int[2];
+      double[] distinct = new double[2];
+      for (int i = 0; i < 2; i++) {
+        Set<String> referenced = new HashSet<String>();
+        getAliases(sides[i], referenced);
+        String alias = referenced.iterator().next();
+        inputs[i] = aliases.indexOf(alias);
+        if (alias.equals(getColumnAlias(sides[i]))) {
+          distinct[i] = getDistinctValues(alias, getColumnName(sides[i]));
+        }
+      }
+      joinOrder.addPredicate(inputs[0], distinct[0], inputs[1], distinct[1]);
+    }
+    return joinOrder.getJoinOrder();
+  }
+
+  /**
+   * Estimate the rows and the data size of a table after the filters that
+   * can be evaluated on it alone.
+   *
+   * @return the rows and the data size, or null if they are not known
+   */
+  private double[] estimate(String alias, List<ASTNode> conjuncts) {
+    Table table = qb.getMetaData().getSrcForAlias(alias);
+    RowResolver rr = analyzer.getRowResolver(aliasToOpInfo.get(alias));
+
+    List<ExprNodeDesc> partitionFilters = new ArrayList<ExprNodeDesc>();
+    List<ExprNodeDesc> filters = new ArrayList<ExprNodeDesc>();
+    for (ASTNode conjunct : conjuncts) {
+      ExprNodeDesc filter;
+      try {
+        filter = analyzer.genExprNodeDesc(conjunct, rr);
+      } catch (SemanticException e) {
+        // the conjunct refers to other tables
+        continue;
+      }
+      if (table.isPartitioned() && PartitionPruner.onlyContainsPartnCols(table, filter)) {
+        partitionFilters.add(filter);
+      } else {
+        filters.add(filter);
+      }
+    }
+
+    String dbName = table.getDbName();
+    String tableName = table.getTableName();
+    long numRows;
+    long dataSize;
+    if (!table.isPartitioned()) {
+      numRows = StatsUtils.getNumRows(dbName, tableName);
+      dataSize = StatsUtils.getRawDataSize(dbName, tableName);
+      if (dataSize <= 0) {
+        dataSize = StatsUtils.getTotalSize(dbName, tableName);
+      }
+    } else {
+      List<Partition> partitions;
+      try {
+        ExprNodeDesc prunerExpr = null;
+        for (ExprNodeDesc filter : partitionFilters) {
+          prunerExpr = prunerExpr == null ? filter : ExprNodeGenericFuncDesc.newInstance(
+              new GenericUDFOPAnd(), Arrays.asList(prunerExpr, filter));
+        }
+        partitions = PartitionPruner.prune(table, prunerExpr, conf, alias, prunedPartitions)
+            .getNotDeniedPartns();
+      } catch (HiveException e) {
+        // e.g. no partition predicate in strict mode, which is reported later
+        LOG.debug("Could not prune the partitions of " + alias, e);
+        return null;
+      }
+      aliasToPartitions.put(alias, partitions);
+      if (partitions.isEmpty()) {
+        return new double[] {0, 0};
+      }
+      List<String> partNames = new ArrayList<String>();
+      for (Partition partition : partitions) {
+        partNames.add(partition.getName());
+      }
+      numRows = getSum(StatsUtils.getBasicStatForPartitions(table, partNames,
+          StatsSetupConst.ROW_COUNT));
+      dataSize = getSum(StatsUtils.getBasicStatForPartitions(table, partNames,
+          StatsSetupConst.RAW_DATA_SIZE));
+      if (dataSize <= 0) {
+        dataSize = getSum(StatsUtils.getBasicStatForPartitions(table, partNames,
+            StatsSetupConst.TOTAL_SIZE));
+      }
+    }
+    if (numRows <= 0 || dataSize <= 0) {
+      return null;
+    }
+
+    // an equality with a constant leaves the rows of one distinct value.
+    // Other predicates are assumed to leave half of the rows, like in
+    // FilterStatsRule
+    double rows = numRows;
+    for (ExprNodeDesc filter : filters) {
+      double distinct = 0;
+      if (filter instanceof ExprNodeGenericFuncDesc
+          && ((ExprNodeGenericFuncDesc) filter).getGenericUDF() instanceof GenericUDFOPEqual) {
+        List<ExprNodeDesc> children = filter.getChildren();
+        for (int i = 0; i < 2; i++) {
+          if (children.get(i) instanceof ExprNodeColumnDesc
+              && children.get(1 - i) instanceof ExprNodeConstantDesc) {
+            distinct = getDistinctValues(alias, ((ExprNodeColumnDesc) children.get(i)).getColumn());
+          }
+        }
+      }
+      rows /= distinct >= 1 ? distinct : 2;
+    }
+    return new double[] {rows, dataSize * rows / numRows};
+  }
+
+  /**
+   * Sum the statistic of the partitions.
+   *
+   * @return the sum, or -1 if it is not known for some partition
+   */
+  private static long getSum(List<Long> values) {
+    long sum = 0;
+    for (Long value : values) {
+      if (value == null || value < 0) {
+        return -1;
+      }
+      sum += value;
+    }
+    return sum;
+  }
+
+  /**
+   * Get the number of distinct values of a column of a table. For a
+   * partitioned table it is the largest number in a few of its partitions.
+   *
+   * @return the number of distinct values, or 0 if it is not known
+   */
+  private long getDistinctValues(String alias, String column) {
+    Table table = qb.getMetaData().getSrcForAlias(alias);
+    if (table.isPartitionKey(column)) {
+      return 0;
+    }
+    if (!table.isPartitioned()) {
+      ColStatistics cs = StatsUtils.getTableColumnStatsForColumn(
+          table.getDbName(), table.getTableName(), column);
+      return cs == null ? 0 : cs.getCountDistint();
+    }
+    List<Partition> partitions = aliasToPartitions.get(alias);
+    long distinct = 0;
+    for (int i = 0; partitions != null && i < partitions.size()
+        && i < MAX_DISTINCT_VALUE_PARTITIONS; i++) {
+      ColStatistics cs = StatsUtils.getParitionColumnStatsForColumn(
+          table.getDbName(), table.getTableName(), partitions.get(i).getName(), column);
+      if (cs != null) {
+        distinct = Math.max(distinct, cs.getCountDistint());
+      }
+    }
+    return distinct;
+  }
+
+  /**
+   * Build the left-deep chain of joins of the inputs in the given order. Each
+   * condition is put on the first join where all the tables it refers to are
+   * available.
+   */
+  private ASTNode buildJoins(int[] order) {
+    int[] position = new int[aliases.size()];
+    for (int i = 0; i < order.length; i++) {
+      position[order[i]] = i;
+    }
+    List<List<ASTNode>> joinConditions = new ArrayList<List<ASTNode>>();
+    for (int i = 0; i < order.length; i++) {
+      joinConditions.add(new ArrayList<ASTNode>());
+    }
+    for (int i = 0; i < conditions.size(); i++) {
+      int join = 1;
+      for (String alias : conditionAliases.get(i)) {
+        join = Math.max(join, position[aliases.indexOf(alias)]);
+      }
+      joinConditions.get(join).add(conditions.get(i));
+    }
+
+    ASTNode result = sources.get(order[0]);
+    for (int i = 1; i < order.length; i++) {
+      ASTNode join = (ASTNode) ParseDriver.adaptor.create(HiveParser.TOK_JOIN, "TOK_JOIN");
+      join.addChild(result);
+      join.addChild(sources.get(order[i]));
+      ASTNode condition = null;
+      for (ASTNode conjunct : joinConditions.get(i)) {
+        condition = SubQueryUtils.andAST(condition, conjunct);
+      }
+      if (condition != null) {
+        join.addChild(condition);
+      }
+      result = join;
+    }
+    return result;
+  }
+}
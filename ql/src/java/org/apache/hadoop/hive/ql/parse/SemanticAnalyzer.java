@@ -5530,6 +5530,17 @@ private Operator genFileSinkPlan(String dest, QB qb, Operator input)
     }
 
     input = genConversionSelectOperator(dest, qb, input, table_desc, dpCtx);
+
+    // Shuffle and sort the rows on the dynamic partition columns, so that the
+    // file sink only has the files of one partition open at a time. This is
+    // not needed if bucketing or sorting already added a reduce sink.
+    boolean sortedDynPartitions = false;
+    if (dpCtx != null && dpCtx.getNumDPCols() > 0 && rsCtx.getPartnCols() == null &&
+        (lbCtx == null || !lbCtx.isSkewedStoredAsDir()) &&
+        conf.getBoolVar(HiveConf.ConfVars.HIVEOPTSORTDYNAMICPARTITION)) {
+      input = genReduceSinkPlanForDynamicPartitions(dest_tab, input, dpCtx.getNumDPCols());
+      sortedDynPartitions = true;
+    }
     inputRR = opParseCtx.get(input).getRowResolver();
 
     ArrayList<ColumnInfo> vecCol = new ArrayList<ColumnInfo>();
@@ -5569,6 +5580,7 @@ private Operator genFileSinkPlan(String dest, QB qb, Operator input)
       rsCtx.getTotalFiles(),
       rsCtx.getPartnCols(),
       dpCtx);
+    fileSinkDesc.setSortedDynPartitions(sortedDynPartitions);
 
     /* Set List Bucketing context. */
     if (lbCtx != null) {
@@ -6053,6 +6065,25 @@ private Operator genReduceSinkPlanForSortingBucketing(Table tab, Operator input,
 
   }
 
+  /**
+   * Generate the reduce sink that partitions and sorts the rows of a dynamic
+   * partition insert on the dynamic partition columns, which are the last
+   * columns of the input.
+   */
+  private Operator genReduceSinkPlanForDynamicPartitions(Table tab, Operator input,
+      int numDPCols) throws SemanticException {
+    RowResolver inputRR = opParseCtx.get(input).getRowResolver();
+    List<ColumnInfo> columns = inputRR.getColumnInfos();
+    ArrayList<ExprNodeDesc> dpCols = new ArrayList<ExprNodeDesc>();
+    List<Integer> sortOrders = new ArrayList<Integer>();
+    for (ColumnInfo colInfo : columns.subList(columns.size() - numDPCols, columns.size())) {
+      dpCols.add(new ExprNodeColumnDesc(colInfo.getType(), colInfo.getInternalName(),
+          colInfo.getTabAlias(), colInfo.getIsVirtualCol()));
+      sortOrders.add(BaseSemanticAnalyzer.HIVE_COLUMN_ORDER_ASC);
+    }
+    return genReduceSinkPlanForSortingBucketing(tab, input, dpCols, sortOrders, dpCols, -1);
+  }
+
   @SuppressWarnings("nls")
   private Operator genReduceSinkPlan(String dest, QB qb, Operator input,
       int numReducers) throws SemanticException {
@@ -8589,6 +8620,14 @@ public Operator genPlan(QB qb) throws SemanticException {
         QBJoinTree joinTree = genUniqueJoinTree(qb, joinExpr, aliasToOpInfo);
         qb.setQbJoinTree(joinTree);
       } else {
+        JoinOrderRewriter joinOrderRewriter = null;
+        if (conf.getBoolVar(HiveConf.ConfVars.HIVE_OPTIMIZE_JOIN_REORDER)
+            && !unparseTranslator.isEnabled()) {
+          joinOrderRewriter = new JoinOrderRewriter(this, conf, qb, aliasToOpInfo,
+              prunedPartitions);
+          joinExpr = joinOrderRewriter.rewrite(joinExpr);
+          qb.getParseInfo().setJoinExpr(joinExpr);
+        }
         QBJoinTree joinTree = genJoinTree(qb, joinExpr, aliasToOpInfo);
         qb.setQbJoinTree(joinTree);
         /*
@@ -8604,6 +8643,11 @@ public Operator genPlan(QB qb) throws SemanticException {
           }
         }
         mergeJoinTree(qb);
+        if (joinOrderRewriter != null && joinOrderRewriter.getLargestAlias() != null) {
+          // stream the largest table, like a STREAMTABLE hint would
+          qb.getQbJoinTree().setStreamAliases(new ArrayList<String>(
+              Arrays.asList(joinOrderRewriter.getLargestAlias())));
+        }
       }
 
       // if any filters are present in the join tree, push them on top of the
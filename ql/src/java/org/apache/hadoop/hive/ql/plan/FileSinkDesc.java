@@ -78,6 +78,10 @@ public class FileSinkDesc extends AbstractOperatorDesc {
 
   private boolean statsCollectRawDataSize;
 
+  // The rows arrive sorted on the dynamic partition columns, so the writers of a
+  // partition can be closed as soon as the next partition starts.
+  private boolean sortedDynPartitions;
+
   public FileSinkDesc() {
   }
 
@@ -128,6 +132,7 @@ public Object clone() throws CloneNotSupportedException {
     ret.setStatsReliable(statsReliable);
     ret.setMaxStatsKeyPrefixLength(maxStatsKeyPrefixLength);
     ret.setStatsCollectRawDataSize(statsCollectRawDataSize);
+    ret.setSortedDynPartitions(sortedDynPartitions);
     return (Object) ret;
   }
 
@@ -374,6 +379,14 @@ public void setStatsCollectRawDataSize(boolean statsCollectRawDataSize) {
     this.statsCollectRawDataSize = statsCollectRawDataSize;
   }
 
+  public boolean isSortedDynPartitions() {
+    return sortedDynPartitions;
+  }
+
+  public void setSortedDynPartitions(boolean sortedDynPartitions) {
+    this.sortedDynPartitions = sortedDynPartitions;
+  }
+
   public boolean isRemovedReduceSinkBucketSort() {
     return removedReduceSinkBucketSort;
   }
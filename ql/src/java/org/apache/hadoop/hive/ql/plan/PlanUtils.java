@@ -26,6 +26,7 @@
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -73,7 +74,7 @@ public final class PlanUtils {
 
   protected static final Log LOG = LogFactory.getLog("org.apache.hadoop.hive.ql.plan.PlanUtils");
 
-  private static long countForMapJoinDumpFilePrefix = 0;
+  private static final AtomicLong countForMapJoinDumpFilePrefix = new AtomicLong();
 
   /**
    * ExpressionTypes.
@@ -84,7 +85,7 @@ public static enum ExpressionTypes {
   };
 
   public static long getCountForMapJoinDumpFilePrefix() {
-    return countForMapJoinDumpFilePrefix++;
+    return countForMapJoinDumpFilePrefix.getAndIncrement();
   }
 
   @SuppressWarnings("nls")
@@ -20,6 +20,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -63,6 +64,12 @@ public class ReduceWork extends BaseWork {
   // not (e.g.: group by)
   private boolean needsTagging;
 
+  // vectorization of the reduce operator tree; the column map names the key and
+  // value columns ("KEY.reducesinkkey0", "VALUE._col0", ...) and the scratch columns
+  private Map<Integer, String> scratchColumnVectorTypes = null;
+  private Map<String, Integer> scratchColumnMap = null;
+  private boolean vectorMode = false;
+
   /**
    * If the plan has a reducer and correspondingly a reduce-sink, then store the TableDesc pointing
    * to keySerializeInfo of the ReduceSink
@@ -103,6 +110,30 @@ public void setNeedsTagging(boolean needsTagging) {
     this.needsTagging = needsTagging;
   }
 
+  public Map<Integer, String> getScratchColumnVectorTypes() {
+    return scratchColumnVectorTypes;
+  }
+
+  public void setScratchColumnVectorTypes(Map<Integer, String> scratchColumnVectorTypes) {
+    this.scratchColumnVectorTypes = scratchColumnVectorTypes;
+  }
+
+  public Map<String, Integer> getScratchColumnMap() {
+    return scratchColumnMap;
+  }
+
+  public void setScratchColumnMap(Map<String, Integer> scratchColumnMap) {
+    this.scratchColumnMap = scratchColumnMap;
+  }
+
+  public boolean getVectorMode() {
+    return vectorMode;
+  }
+
+  public void setVectorMode(boolean vectorMode) {
+    this.vectorMode = vectorMode;
+  }
+
   @Override
   protected List<Operator<?>> getAllRootOperators() {
     ArrayList<Operator<?>> opList = new ArrayList<Operator<?>>();
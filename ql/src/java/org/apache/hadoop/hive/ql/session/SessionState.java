@@ -32,6 +32,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
@@ -43,6 +44,7 @@
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.ql.MapRedStats;
+import org.apache.hadoop.hive.ql.PlanCache;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.history.HiveHistory;
 import org.apache.hadoop.hive.ql.history.HiveHistoryImpl;
@@ -144,6 +146,14 @@ public class SessionState {
   LineageState ls;
 
   private PerfLogger perfLogger;
+
+  /**
+   * Serializes the compiles of this session when compiles of different sessions run in parallel.
+   */
+  private final ReentrantLock compileLock = new ReentrantLock(true);
+
+  private PlanCache planCache;
+
   /**
    * Get the lineage state stored in this session.
    *
@@ -815,6 +825,20 @@ public void close() throws IOException {
     }
   }
 
+  public ReentrantLock getCompileLock() {
+    return compileLock;
+  }
+
+  /**
+   * @return the cache of the compiled plans of this session
+   */
+  public synchronized PlanCache getPlanCache() {
+    if (planCache == null) {
+      planCache = new PlanCache(HiveConf.getIntVar(conf, HiveConf.ConfVars.HIVE_PLAN_CACHE_SIZE));
+    }
+    return planCache;
+  }
+
   /**
    * @param resetPerfLogger
    * @return  Tries to return an instance of the class whose name is configured in
@@ -23,6 +23,8 @@
 
 import org.apache.hadoop.hive.ql.exec.Description;
 import org.apache.hadoop.hive.ql.exec.UDF;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedExpressions;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.StringRegexpReplaceColScalarScalar;
 import org.apache.hadoop.io.Text;
 
 /**
@@ -34,6 +36,7 @@
     + "match regexp with rep", extended = "Example:\n"
     + "  > SELECT _FUNC_('100-200', '(\\d+)', 'num') FROM src LIMIT 1;\n"
     + "  'num-num'")
+@VectorizedExpressions({StringRegexpReplaceColScalarScalar.class})
 public class UDFRegExpReplace extends UDF {
 
   private final Text lastRegex = new Text();
@@ -32,6 +32,7 @@
 import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
@@ -115,6 +116,13 @@ protected void doIterate(AverageAggregationBuffer<Double> aggregation,
 
     }
 
+    @Override
+    protected void doRemove(AverageAggregationBuffer<Double> aggregation,
+        PrimitiveObjectInspector oi, Object parameter) {
+      aggregation.count--;
+      aggregation.sum -= PrimitiveObjectInspectorUtils.getDouble(parameter, oi);
+    }
+
     @Override
     protected void doMerge(AverageAggregationBuffer<Double> aggregation, Long partialCount,
         ObjectInspector sumFieldOI, Object partialSum) {
@@ -177,6 +185,16 @@ protected void doIterate(AverageAggregationBuffer<HiveDecimal> aggregation,
       }
     }
 
+    @Override
+    protected void doRemove(AverageAggregationBuffer<HiveDecimal> aggregation,
+        PrimitiveObjectInspector oi, Object parameter) {
+      aggregation.count--;
+      if (aggregation.sum != null) {
+        aggregation.sum = aggregation.sum.subtract(
+            PrimitiveObjectInspectorUtils.getHiveDecimal(parameter, oi));
+      }
+    }
+
     @Override
     protected void doMerge(AverageAggregationBuffer<HiveDecimal> aggregation, Long partialCount,
         ObjectInspector sumFieldOI, Object partialSum) {
@@ -228,10 +246,13 @@ public AggregationBuffer getNewAggregationBuffer() throws HiveException {
   };
 
   @SuppressWarnings("unchecked")
-  public static abstract class AbstractGenericUDAFAverageEvaluator<TYPE> extends GenericUDAFEvaluator {
+  public static abstract class AbstractGenericUDAFAverageEvaluator<TYPE> extends GenericUDAFEvaluator
+      implements ISupportRemoveForWindowing {
 
     // For PARTIAL1 and COMPLETE
     private transient PrimitiveObjectInspector inputOI;
+    // For windowing, of the parameters passed to remove()
+    private transient PrimitiveObjectInspector standardInputOI;
     // For PARTIAL2 and FINAL
     private transient StructObjectInspector soi;
     private transient StructField countField;
@@ -248,6 +269,8 @@ public AggregationBuffer getNewAggregationBuffer() throws HiveException {
     protected abstract ObjectInspector getSumFieldWritableObjectInspector();
     protected abstract void doIterate(AverageAggregationBuffer<TYPE> aggregation,
         PrimitiveObjectInspector inputOI, Object parameter);
+    protected abstract void doRemove(AverageAggregationBuffer<TYPE> aggregation,
+        PrimitiveObjectInspector standardInputOI, Object parameter);
     protected abstract void doMerge(AverageAggregationBuffer<TYPE> aggregation, Long partialCount,
         ObjectInspector sumFieldOI, Object partialSum);
     protected abstract void doTerminatePartial(AverageAggregationBuffer<TYPE> aggregation);
@@ -263,6 +286,8 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters)
       // init input
       if (mode == Mode.PARTIAL1 || mode == Mode.COMPLETE) {
         inputOI = (PrimitiveObjectInspector) parameters[0];
+        standardInputOI = (PrimitiveObjectInspector)
+            ObjectInspectorUtils.getStandardObjectInspector(inputOI);
       } else {
         soi = (StructObjectInspector) parameters[0];
         countField = soi.getStructFieldRef("count");
@@ -324,6 +349,14 @@ public void iterate(AggregationBuffer aggregation, Object[] parameters)
       }
     }
 
+    @Override
+    public void remove(AggregationBuffer aggregation, Object[] parameters)
+        throws HiveException {
+      if (parameters[0] != null) {
+        doRemove((AverageAggregationBuffer<TYPE>) aggregation, standardInputOI, parameters[0]);
+      }
+    }
+
     @Override
     public Object terminatePartial(AggregationBuffer aggregation) throws HiveException {
       doTerminatePartial((AverageAggregationBuffer<TYPE>) aggregation);
@@ -79,7 +79,8 @@ public GenericUDAFEvaluator getEvaluator(GenericUDAFParameterInfo paramInfo)
    * GenericUDAFCountEvaluator.
    *
    */
-  public static class GenericUDAFCountEvaluator extends GenericUDAFEvaluator {
+  public static class GenericUDAFCountEvaluator extends GenericUDAFEvaluator
+      implements ISupportRemoveForWindowing {
     private boolean countAllColumns = false;
     private LongObjectInspector partialCountAggOI;
     private LongWritable result;
@@ -144,6 +145,16 @@ public void iterate(AggregationBuffer agg, Object[] parameters)
       }
     }
 
+    @Override
+    public void remove(AggregationBuffer agg, Object[] parameters) throws HiveException {
+      for (Object nextParam : parameters) {
+        if (nextParam == null) {
+          return;
+        }
+      }
+      ((CountAgg) agg).value--;
+    }
+
     @Override
     public void merge(AggregationBuffer agg, Object partial)
       throws HiveException {
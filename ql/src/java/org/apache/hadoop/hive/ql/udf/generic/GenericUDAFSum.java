@@ -28,6 +28,7 @@
 import org.apache.hadoop.hive.serde2.io.DoubleWritable;
 import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
@@ -84,8 +85,10 @@ public GenericUDAFEvaluator getEvaluator(TypeInfo[] parameters)
    * GenericUDAFSumHiveDecimal.
    *
    */
-  public static class GenericUDAFSumHiveDecimal extends GenericUDAFEvaluator {
+  public static class GenericUDAFSumHiveDecimal extends GenericUDAFEvaluator
+      implements ISupportRemoveForWindowing {
     private PrimitiveObjectInspector inputOI;
+    private PrimitiveObjectInspector standardInputOI;
     private HiveDecimalWritable result;
 
     @Override
@@ -94,6 +97,8 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveExc
       super.init(m, parameters);
       result = new HiveDecimalWritable(HiveDecimal.ZERO);
       inputOI = (PrimitiveObjectInspector) parameters[0];
+      standardInputOI = (PrimitiveObjectInspector)
+          ObjectInspectorUtils.getStandardObjectInspector(inputOI);
       return PrimitiveObjectInspectorFactory.writableHiveDecimalObjectInspector;
     }
 
@@ -165,14 +170,25 @@ public Object terminate(AggregationBuffer agg) throws HiveException {
       return result;
     }
 
+    @Override
+    public void remove(AggregationBuffer agg, Object[] parameters) throws HiveException {
+      SumHiveDecimalAgg myagg = (SumHiveDecimalAgg) agg;
+      if (parameters[0] != null && myagg.sum != null) {
+        myagg.sum = myagg.sum.subtract(
+            PrimitiveObjectInspectorUtils.getHiveDecimal(parameters[0], standardInputOI));
+      }
+    }
+
   }
 
   /**
    * GenericUDAFSumDouble.
    *
    */
-  public static class GenericUDAFSumDouble extends GenericUDAFEvaluator {
+  public static class GenericUDAFSumDouble extends GenericUDAFEvaluator
+      implements ISupportRemoveForWindowing {
     private PrimitiveObjectInspector inputOI;
+    private PrimitiveObjectInspector standardInputOI;
     private DoubleWritable result;
 
     @Override
@@ -181,6 +197,8 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveExc
       super.init(m, parameters);
       result = new DoubleWritable(0);
       inputOI = (PrimitiveObjectInspector) parameters[0];
+      standardInputOI = (PrimitiveObjectInspector)
+          ObjectInspectorUtils.getStandardObjectInspector(inputOI);
       return PrimitiveObjectInspectorFactory.writableDoubleObjectInspector;
     }
 
@@ -250,14 +268,24 @@ public Object terminate(AggregationBuffer agg) throws HiveException {
       return result;
     }
 
+    @Override
+    public void remove(AggregationBuffer agg, Object[] parameters) throws HiveException {
+      if (parameters[0] != null) {
+        ((SumDoubleAgg) agg).sum -=
+            PrimitiveObjectInspectorUtils.getDouble(parameters[0], standardInputOI);
+      }
+    }
+
   }
 
   /**
    * GenericUDAFSumLong.
    *
    */
-  public static class GenericUDAFSumLong extends GenericUDAFEvaluator {
+  public static class GenericUDAFSumLong extends GenericUDAFEvaluator
+      implements ISupportRemoveForWindowing {
     private PrimitiveObjectInspector inputOI;
+    private PrimitiveObjectInspector standardInputOI;
     private LongWritable result;
 
     @Override
@@ -266,6 +294,8 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveExc
       super.init(m, parameters);
       result = new LongWritable(0);
       inputOI = (PrimitiveObjectInspector) parameters[0];
+      standardInputOI = (PrimitiveObjectInspector)
+          ObjectInspectorUtils.getStandardObjectInspector(inputOI);
       return PrimitiveObjectInspectorFactory.writableLongObjectInspector;
     }
 
@@ -332,6 +362,14 @@ public Object terminate(AggregationBuffer agg) throws HiveException {
       return result;
     }
 
+    @Override
+    public void remove(AggregationBuffer agg, Object[] parameters) throws HiveException {
+      if (parameters[0] != null) {
+        ((SumLongAgg) agg).sum -=
+            PrimitiveObjectInspectorUtils.getLong(parameters[0], standardInputOI);
+      }
+    }
+
   }
 
 }
@@ -22,6 +22,9 @@
 import org.apache.hadoop.hive.ql.exec.UDFArgumentException;
 import org.apache.hadoop.hive.ql.exec.UDFArgumentLengthException;
 import org.apache.hadoop.hive.ql.exec.UDFArgumentTypeException;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedExpressions;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.StringLocateScalarCol;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.StringLocateScalarColScalar;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
@@ -47,6 +50,7 @@
     + "occurance of substr in str after position pos",
     extended = "Example:\n"
     + "  > SELECT _FUNC_('bar', 'foobarbar', 5) FROM src LIMIT 1;\n" + "  7")
+@VectorizedExpressions({StringLocateScalarCol.class, StringLocateScalarColScalar.class})
 public class GenericUDFLocate extends GenericUDF {
   private transient ObjectInspectorConverters.Converter[] converters;
 
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.udf.generic;
+
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator.AggregationBuffer;
+
+/**
+ * Implemented by the evaluators of aggregations that can take a row back out, so that
+ * windowing can slide a frame over a partition by iterating the rows that enter the frame
+ * and removing the ones that leave it, instead of aggregating every frame from scratch.
+ */
+public interface ISupportRemoveForWindowing {
+
+  /**
+   * Undoes the iterate() of a row. The parameters are copies of the iterated ones made by
+   * ObjectInspectorUtils.copyToStandardObject(), since the originals may have been reused.
+   *
+   * The caller resets the aggregation once no row with all parameters non null is left, so
+   * an implementation does not need to track whether its aggregation became empty.
+   */
+  void remove(AggregationBuffer agg, Object[] parameters) throws HiveException;
+}
@@ -19,7 +19,9 @@
 package org.apache.hadoop.hive.ql.udf.ptf;
 
 import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 import org.apache.hadoop.hive.ql.exec.PTFOperator;
@@ -30,6 +32,7 @@
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.parse.WindowingSpec.BoundarySpec;
 import org.apache.hadoop.hive.ql.parse.WindowingSpec.Direction;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
 import org.apache.hadoop.hive.ql.plan.PTFDesc;
 import org.apache.hadoop.hive.ql.plan.ptf.BoundaryDef;
 import org.apache.hadoop.hive.ql.plan.ptf.PTFExpressionDef;
@@ -38,13 +41,20 @@
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFunctionDef;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowTableFunctionDef;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFCount.GenericUDAFCountEvaluator;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator.AggregationBuffer;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFMax.GenericUDAFMaxEvaluator;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFMin.GenericUDAFMinEvaluator;
+import org.apache.hadoop.hive.ql.udf.generic.ISupportRemoveForWindowing;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils.PrimitiveGrouping;
 
 @SuppressWarnings("deprecation")
 public class WindowingTableFunction extends TableFunctionEvaluator {
@@ -192,6 +202,9 @@ ArrayList<Object> executeFnwithWindow(PTFDesc ptfDesc,
       PTFPartition iPart,
       Order order)
     throws HiveException {
+    if (canSlideWindow(ptfDesc, wFnDef)) {
+      return executeFnwithSlidingWindow(wFnDef, iPart, order);
+    }
     ArrayList<Object> vals = new ArrayList<Object>();
 
     GenericUDAFEvaluator fEval = wFnDef.getWFnEval();
@@ -219,6 +232,256 @@ ArrayList<Object> executeFnwithWindow(PTFDesc ptfDesc,
     return vals;
   }
 
+  /*
+   * The frame of a row can be derived from the frame of the previous row when the function
+   * can drop the rows that leave the frame: sum, count and avg through
+   * ISupportRemoveForWindowing, min and max by keeping the candidate extremes of the frame.
+   * Lead and lag calls in the arguments are evaluated against the frame iterator, so they
+   * need the frame to be iterated for every row.
+   */
+  private boolean canSlideWindow(PTFDesc ptfDesc, WindowFunctionDef wFnDef) {
+    if (wFnDef.isDistinct()) {
+      return false;
+    }
+    List<ExprNodeGenericFuncDesc> llFnDescs =
+        ptfDesc.getLlInfo() == null ? null : ptfDesc.getLlInfo().getLeadLagExprs();
+    if (llFnDescs != null && !llFnDescs.isEmpty()) {
+      return false;
+    }
+    GenericUDAFEvaluator fEval = wFnDef.getWFnEval();
+    List<PTFExpressionDef> args = wFnDef.getArgs();
+    if (fEval instanceof GenericUDAFMaxEvaluator || fEval instanceof GenericUDAFMinEvaluator) {
+      return args != null && args.size() == 1;
+    }
+    if (!(fEval instanceof ISupportRemoveForWindowing)) {
+      return false;
+    }
+    if (!(fEval instanceof GenericUDAFCountEvaluator) && args != null) {
+      // sum and avg skip the values that do not parse as numbers; only numeric arguments
+      // are sure to be taken out the way they were added
+      for (PTFExpressionDef arg : args) {
+        if (!(arg.getOI() instanceof PrimitiveObjectInspector)
+            || PrimitiveObjectInspectorUtils.getPrimitiveGrouping(
+                ((PrimitiveObjectInspector) arg.getOI()).getPrimitiveCategory())
+                != PrimitiveGrouping.NUMERIC_GROUP) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Frames only move forward: as the current row advances, neither the start nor the end of
+   * its frame move back. So instead of aggregating each frame from scratch, which is
+   * O(n * frame size), the rows that enter the frame are added and the rows that leave it
+   * are dropped, once each. Should a frame start or end before the previous one, or not
+   * overlap it, the frame is rebuilt.
+   */
+  ArrayList<Object> executeFnwithSlidingWindow(WindowFunctionDef wFnDef,
+      PTFPartition iPart,
+      Order order)
+    throws HiveException {
+    ArrayList<Object> vals = new ArrayList<Object>();
+    List<PTFExpressionDef> argDefs = wFnDef.getArgs();
+    Object[] args = new Object[argDefs == null ? 0 : argDefs.size()];
+    ObjectInspector[] argOIs = new ObjectInspector[args.length];
+    for (int j = 0; j < args.length; j++) {
+      argOIs[j] = argDefs.get(j).getOI();
+    }
+
+    SlidingFrame frame;
+    if (wFnDef.getWFnEval() instanceof ISupportRemoveForWindowing) {
+      BoundaryDef startB = wFnDef.getWindowFrame().getStart();
+      // nothing ever leaves a frame that starts at the start of the partition
+      boolean dropsRows = startB.getDirection() != Direction.PRECEDING
+          || startB.getAmt() != BoundarySpec.UNBOUNDED_AMOUNT;
+      frame = new InvertibleSlidingFrame(wFnDef.getWFnEval(), argOIs, dropsRows);
+    } else {
+      frame = new ExtremeSlidingFrame(argOIs[0],
+          wFnDef.getWFnEval() instanceof GenericUDAFMaxEvaluator);
+    }
+
+    int frameStart = 0;
+    int frameEnd = 0;
+    for(int i=0; i < iPart.size(); i++) {
+      Range rng = getRange(wFnDef, i, iPart, order);
+      int start = Math.min(rng.start, iPart.size());
+      int end = Math.max(rng.end, start);
+      if (start < frameStart || end < frameEnd || start >= frameEnd) {
+        frame.reset();
+        frameStart = start;
+        frameEnd = start;
+      }
+      for (; frameStart < start; frameStart++) {
+        frame.remove(frameStart);
+      }
+      if (frameEnd < end) {
+        PTFPartitionIterator<Object> rItr = iPart.range(frameEnd, end);
+        while (rItr.hasNext()) {
+          Object row = rItr.next();
+          for (int j = 0; j < args.length; j++) {
+            args[j] = argDefs.get(j).getExprEvaluator().evaluate(row);
+          }
+          frame.add(frameEnd++, args);
+        }
+      }
+      vals.add(ObjectInspectorUtils.copyToStandardObject(frame.evaluate(), wFnDef.getOI()));
+    }
+    return vals;
+  }
+
+  /*
+   * The rows of the current frame, from which the window function value is computed.
+   */
+  static abstract class SlidingFrame {
+    abstract void reset() throws HiveException;
+
+    /*
+     * adds the row at the end of the frame.
+     */
+    abstract void add(int rowIdx, Object[] args) throws HiveException;
+
+    /*
+     * drops the row at the start of the frame.
+     */
+    abstract void remove(int rowIdx) throws HiveException;
+
+    abstract Object evaluate() throws HiveException;
+  }
+
+  static class InvertibleSlidingFrame extends SlidingFrame {
+    GenericUDAFEvaluator fEval;
+    AggregationBuffer aggBuffer;
+    ObjectInspector[] argOIs;
+    /*
+     * copies of the args of the rows in the frame; only kept when rows are dropped.
+     */
+    Deque<Object[]> rowArgs;
+    /*
+     * the rows in the frame with no null args, which are the ones an aggregation counts.
+     */
+    int nonNullRows;
+
+    InvertibleSlidingFrame(GenericUDAFEvaluator fEval, ObjectInspector[] argOIs,
+        boolean dropsRows) throws HiveException {
+      this.fEval = fEval;
+      this.argOIs = argOIs;
+      aggBuffer = fEval.getNewAggregationBuffer();
+      rowArgs = dropsRows ? new ArrayDeque<Object[]>() : null;
+    }
+
+    @Override
+    void reset() throws HiveException {
+      fEval.reset(aggBuffer);
+      if (rowArgs != null) {
+        rowArgs.clear();
+      }
+      nonNullRows = 0;
+    }
+
+    @Override
+    void add(int rowIdx, Object[] args) throws HiveException {
+      fEval.aggregate(aggBuffer, args);
+      if (!hasNull(args)) {
+        nonNullRows++;
+      }
+      if (rowArgs != null) {
+        Object[] copy = new Object[args.length];
+        for (int j = 0; j < args.length; j++) {
+          copy[j] = ObjectInspectorUtils.copyToStandardObject(args[j], argOIs[j]);
+        }
+        rowArgs.addLast(copy);
+      }
+    }
+
+    @Override
+    void remove(int rowIdx) throws HiveException {
+      Object[] args = rowArgs.removeFirst();
+      if (!hasNull(args)) {
+        nonNullRows--;
+      }
+      if (nonNullRows == 0) {
+        // back to the value of an empty aggregation, which may be null rather than 0
+        fEval.reset(aggBuffer);
+      } else {
+        ((ISupportRemoveForWindowing) fEval).remove(aggBuffer, args);
+      }
+    }
+
+    @Override
+    Object evaluate() throws HiveException {
+      return fEval.evaluate(aggBuffer);
+    }
+
+    private static boolean hasNull(Object[] args) {
+      for (Object arg : args) {
+        if (arg == null) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /*
+   * min and max: keeps the rows of the frame that can still become its extreme value. A row
+   * is no longer a candidate once a later row has a value at least as large (small for min),
+   * so the candidates decrease (increase) from the head, which holds the frame's max (min).
+   */
+  static class ExtremeSlidingFrame extends SlidingFrame {
+    ObjectInspector argOI;
+    ObjectInspector standardOI;
+    boolean isMax;
+    Deque<Integer> candidateIdxs = new ArrayDeque<Integer>();
+    Deque<Object> candidates = new ArrayDeque<Object>();
+
+    ExtremeSlidingFrame(ObjectInspector argOI, boolean isMax) {
+      this.argOI = argOI;
+      this.isMax = isMax;
+      standardOI = ObjectInspectorUtils.getStandardObjectInspector(argOI,
+          ObjectInspectorCopyOption.JAVA);
+    }
+
+    @Override
+    void reset() {
+      candidateIdxs.clear();
+      candidates.clear();
+    }
+
+    @Override
+    void add(int rowIdx, Object[] args) {
+      if (args[0] == null) {
+        return;
+      }
+      Object value = ObjectInspectorUtils.copyToStandardObject(args[0], argOI,
+          ObjectInspectorCopyOption.JAVA);
+      while (!candidates.isEmpty()) {
+        int r = ObjectInspectorUtils.compare(candidates.peekLast(), standardOI, value, standardOI);
+        if (isMax ? r > 0 : r < 0) {
+          break;
+        }
+        candidates.removeLast();
+        candidateIdxs.removeLast();
+      }
+      candidates.addLast(value);
+      candidateIdxs.addLast(rowIdx);
+    }
+
+    @Override
+    void remove(int rowIdx) {
+      if (!candidateIdxs.isEmpty() && candidateIdxs.peekFirst() == rowIdx) {
+        candidates.removeFirst();
+        candidateIdxs.removeFirst();
+      }
+    }
+
+    @Override
+    Object evaluate() {
+      return candidates.peekFirst();
+    }
+  }
+
   Range getRange(WindowFunctionDef wFnDef, int currRow, PTFPartition p, Order order) throws HiveException
   {
     BoundaryDef startB = wFnDef.getWindowFrame().getStart();
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the compiles of different sessions only wait for each other without
+ * hive.driver.parallel.compilation.
+ */
+public class TestParallelCompilation {
+
+  private static final String QUERY = "show databases";
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private HiveConf createConf(boolean parallel) {
+    HiveConf conf = new HiveConf(Driver.class);
+    conf.setBoolVar(HiveConf.ConfVars.HIVE_DRIVER_PARALLEL_COMPILATION, parallel);
+    conf.setBoolVar(HiveConf.ConfVars.HIVE_SUPPORT_CONCURRENCY, false);
+    return conf;
+  }
+
+  /**
+   * Run a query on another thread, in the given session or in a new one if it is null.
+   */
+  private Future<List<String>> run(final HiveConf conf, final SessionState session,
+      final String query) {
+    return executor.submit(new Callable<List<String>>() {
+      public List<String> call() throws Exception {
+        if (session == null) {
+          SessionState.start(new HiveConf(conf));
+        } else {
+          SessionState.setCurrentSessionState(session);
+        }
+        Driver driver = new Driver(SessionState.get().getConf());
+        driver.init();
+        try {
+          assertEquals(0, driver.run(query).getResponseCode());
+          ArrayList<String> results = new ArrayList<String>();
+          driver.getResults(results);
+          return results;
+        } finally {
+          driver.close();
+        }
+      }
+    });
+  }
+
+  /**
+   * Hold the compile lock of a session, as a long compile would, while other queries run.
+   */
+  private CompileLockHolder holdCompileLock(HiveConf conf) {
+    SessionState session = SessionState.start(new HiveConf(conf));
+    Driver driver = new Driver(session.getConf());
+    return new CompileLockHolder(session, driver);
+  }
+
+  private static class CompileLockHolder {
+    private final SessionState session;
+    private final Driver driver;
+
+    CompileLockHolder(SessionState session, Driver driver) {
+      this.session = session;
+      this.driver = driver;
+      driver.getCompileLock().lock();
+    }
+
+    void release() {
+      driver.getCompileLock().unlock();
+    }
+  }
+
+  @Test
+  public void testSessionsCompileInParallel() throws Exception {
+    HiveConf conf = createConf(true);
+    CompileLockHolder busy = holdCompileLock(conf);
+    Future<List<String>> sameSession;
+    try {
+      // another session does not wait for the busy one
+      run(conf, null, QUERY).get(60, TimeUnit.SECONDS);
+
+      // but a query of the busy session does
+      sameSession = run(conf, busy.session, QUERY);
+      Thread.sleep(1000);
+      assertFalse(sameSession.isDone());
+    } finally {
+      busy.release();
+    }
+    sameSession.get(60, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testSessionsCompileOneAtATime() throws Exception {
+    HiveConf conf = createConf(false);
+    CompileLockHolder busy = holdCompileLock(conf);
+    Future<List<String>> otherSession;
+    try {
+      otherSession = run(conf, null, QUERY);
+      Thread.sleep(1000);
+      assertFalse(otherSession.isDone());
+    } finally {
+      busy.release();
+    }
+    otherSession.get(60, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testConcurrentSkewJoinCompiles() throws Exception {
+    HiveConf conf = createConf(true);
+    conf.setBoolVar(HiveConf.ConfVars.HIVE_OPTIMIZE_SKEWJOIN_COMPILETIME, true);
+    run(conf, null, "create table if not exists parallel_skew (key string, value string) "
+        + "skewed by (key) on ('1', '2')").get(60, TimeUnit.SECONDS);
+    run(conf, null, "create table if not exists parallel_other (key string, value string)")
+        .get(60, TimeUnit.SECONDS);
+
+    // the skew join optimizer rewrites the join for the skewed keys, with state that used to
+    // be shared by all the compiles
+    String query = "explain select a.key, b.value from parallel_skew a join parallel_other b "
+        + "on a.key = b.key";
+    List<String> expected = maskPaths(run(conf, null, query).get(60, TimeUnit.SECONDS));
+
+    List<Future<List<String>>> plans = new ArrayList<Future<List<String>>>();
+    for (int i = 0; i < 20; i++) {
+      plans.add(run(conf, null, query));
+    }
+    for (Future<List<String>> plan : plans) {
+      assertEquals(expected, maskPaths(plan.get(60, TimeUnit.SECONDS)));
+    }
+  }
+
+  // the scratch directories of each query are different
+  private static List<String> maskPaths(List<String> plan) {
+    List<String> masked = new ArrayList<String>();
+    for (String line : plan) {
+      masked.add(line.replaceAll("file:\\S*", "file:###"));
+    }
+    return masked;
+  }
+}
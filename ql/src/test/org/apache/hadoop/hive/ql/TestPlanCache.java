@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.Schema;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.junit.Test;
+
+public class TestPlanCache {
+
+  private final HiveConf conf = new HiveConf(SessionState.class);
+
+  private PlanCache.CachedPlan add(PlanCache cache, String key) {
+    // a plan which reads no table holds until it is evicted
+    return cache.add(key, new byte[0], new Schema(), new Context(conf, "hive_test"),
+        new HashSet<ReadEntity>(), null);
+  }
+
+  @Test
+  public void testKey() {
+    String key = PlanCache.getKey(conf, "default", "select key from src");
+    conf.setVar(HiveConf.ConfVars.HIVEQUERYID, "hive_20140101000000_1");
+    conf.setVar(HiveConf.ConfVars.HIVESESSIONID, "1");
+    assertEquals(key, PlanCache.getKey(conf, "default", "select key from src"));
+
+    assertFalse(key.equals(PlanCache.getKey(conf, "db", "select key from src")));
+    assertFalse(key.equals(PlanCache.getKey(conf, "default", "select value from src")));
+    conf.setBoolVar(HiveConf.ConfVars.HIVECONVERTJOIN, !conf.getBoolVar(
+        HiveConf.ConfVars.HIVECONVERTJOIN));
+    assertFalse(key.equals(PlanCache.getKey(conf, "default", "select key from src")));
+  }
+
+  @Test
+  public void testCheckout() {
+    PlanCache cache = new PlanCache(10);
+    assertNull(cache.checkout("k", null));
+
+    PlanCache.CachedPlan plan = add(cache, "k");
+    assertNotNull(plan);
+    // the query which compiled the plan has it until it is closed
+    assertNull(cache.checkout("k", null));
+    plan.release();
+    assertSame(plan, cache.checkout("k", null));
+
+    // a second plan of the key is kept for the queries run at the same time
+    PlanCache.CachedPlan other = add(cache, "k");
+    other.release();
+    assertSame(other, cache.checkout("k", null));
+    assertNull(cache.checkout("k", null));
+    assertEquals(2, cache.size());
+
+    cache.remove(plan);
+    plan.release();
+    other.release();
+    assertSame(other, cache.checkout("k", null));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testEviction() {
+    PlanCache cache = new PlanCache(2);
+    add(cache, "a").release();
+    add(cache, "b").release();
+    cache.checkout("a", null).release();
+    add(cache, "c").release();
+
+    assertEquals(2, cache.size());
+    assertNull(cache.checkout("b", null));
+    assertNotNull(cache.checkout("a", null));
+    assertNotNull(cache.checkout("c", null));
+  }
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.Operator.ProgressCounter;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.plan.CollectDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
+import org.apache.hadoop.hive.serde2.objectinspector.InspectableObject;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.mapred.Counters;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Reporter;
+import org.junit.Test;
+
+/**
+ * Tests that a map-side GROUP BY whose hash table is spilled to disk gives the same
+ * aggregations as one that holds all its keys in memory.
+ */
+public class TestGroupByOperatorSpill {
+
+  private static final int NUM_ROWS = 2000;
+  private static final int NUM_KEYS = 200;
+
+  private final ObjectInspector rowOI = ObjectInspectorFactory.getStandardStructObjectInspector(
+      Arrays.asList("col0", "col1", "col2"), Arrays.<ObjectInspector>asList(
+      PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+      PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+      PrimitiveObjectInspectorFactory.javaStringObjectInspector));
+
+  /**
+   * Records the counters the operators increment.
+   */
+  private static class CountingReporter implements Reporter {
+    private final Counters counters = new Counters();
+
+    public void setStatus(String status) {
+    }
+
+    public Counters.Counter getCounter(Enum<?> name) {
+      return counters.findCounter(name);
+    }
+
+    public Counters.Counter getCounter(String group, String name) {
+      return counters.findCounter(group, name);
+    }
+
+    public void incrCounter(Enum<?> key, long amount) {
+      counters.incrCounter(key, amount);
+    }
+
+    public void incrCounter(String group, String counter, long amount) {
+      counters.incrCounter(group, counter, amount);
+    }
+
+    public InputSplit getInputSplit() {
+      throw new UnsupportedOperationException();
+    }
+
+    public float getProgress() {
+      return 0;
+    }
+
+    public void progress() {
+    }
+  }
+
+  private AggregationDesc getAggregation(String name, String column) throws Exception {
+    ArrayList<ExprNodeDesc> params = new ArrayList<ExprNodeDesc>();
+    params.add(TestExecDriver.getStringColumn(column));
+    List<ObjectInspector> paramOIs = new ArrayList<ObjectInspector>();
+    paramOIs.add(PrimitiveObjectInspectorFactory.javaStringObjectInspector);
+    GenericUDAFEvaluator evaluator =
+        FunctionRegistry.getGenericUDAFEvaluator(name, paramOIs, false, false);
+    return new AggregationDesc(name, evaluator, params, false, GenericUDAFEvaluator.Mode.PARTIAL1);
+  }
+
+  // the COUNT_HASH_SPILLED counter of the last aggregation
+  private long numRowsSpilled;
+
+  /**
+   * Run SELECT col0, count(col1), sum(col2) GROUP BY col0 on the map side, and merge the
+   * partial aggregations of each key as the reducer would.
+   */
+  private Map<String, List<Object>> aggregate(boolean spill, float memoryUsage)
+      throws Exception {
+    // keep the hash aggregation on although the table holds few keys
+    return aggregate(spill, memoryUsage, 1.0f);
+  }
+
+  private Map<String, List<Object>> aggregate(boolean spill, float memoryUsage,
+      float minReduction) throws Exception {
+    CountingReporter reporter = new CountingReporter();
+    JobConf conf = new JobConf(TestGroupByOperatorSpill.class);
+    HiveConf.setBoolVar(conf, HiveConf.ConfVars.HIVEMAPAGGRHASHSPILL, spill);
+    HiveConf.setIntVar(conf, HiveConf.ConfVars.HIVEMAPAGGRHASHSPILLPARTITIONS, 4);
+    HiveConf.setFloatVar(conf, HiveConf.ConfVars.HIVEMAPAGGRHASHMINREDUCTION, minReduction);
+    HiveConf.setIntVar(conf, HiveConf.ConfVars.HIVEGROUPBYMAPINTERVAL, NUM_ROWS / 2);
+
+    ArrayList<ExprNodeDesc> keys = new ArrayList<ExprNodeDesc>();
+    keys.add(TestExecDriver.getStringColumn("col0"));
+    ArrayList<AggregationDesc> aggs = new ArrayList<AggregationDesc>();
+    aggs.add(getAggregation("count", "col1"));
+    aggs.add(getAggregation("sum", "col2"));
+    GroupByDesc desc = new GroupByDesc(GroupByDesc.Mode.HASH,
+        new ArrayList<String>(Arrays.asList("_col0", "_col1", "_col2")), keys, aggs, false,
+        memoryUsage, 1.0f, null, false, -1, false);
+
+    CollectOperator collect =
+        (CollectOperator) OperatorFactory.get(new CollectDesc(Integer.MAX_VALUE));
+    GroupByOperator op = (GroupByOperator) OperatorFactory.get(desc, collect);
+    op.initializeCounters();
+    op.assignCounterNameToEnum();
+    op.setReporter(reporter);
+    op.initialize(conf, new ObjectInspector[] {rowOI});
+
+    for (int i = 0; i < NUM_ROWS; i++) {
+      op.process(Arrays.asList("k" + (i % NUM_KEYS), "v" + i, String.valueOf(i % 7)), 0);
+    }
+    op.close(false);
+
+    Map<String, List<Object>> result = new HashMap<String, List<Object>>();
+    InspectableObject row = new InspectableObject();
+    for (collect.retrieve(row); row.o != null; collect.retrieve(row)) {
+      List<?> fields = (List<?>) row.o;
+      String key = fields.get(0).toString();
+      long count = Long.parseLong(fields.get(1).toString());
+      double sum = Double.parseDouble(fields.get(2).toString());
+      List<Object> merged = result.get(key);
+      if (merged != null) {
+        count += (Long) merged.get(0);
+        sum += (Double) merged.get(1);
+      }
+      result.put(key, Arrays.<Object>asList(count, sum));
+    }
+
+    ProgressCounter spilled = op.counterNameToEnum.get(
+        op.getWrappedCounterName(GroupByOperator.counterNameHashSpilled));
+    numRowsSpilled = reporter.getCounter(spilled).getValue();
+    assertEquals(op.numRowsSpilled, numRowsSpilled);
+    return result;
+  }
+
+  @Test
+  public void testSpilledAggregationsMatch() throws Exception {
+    Map<String, List<Object>> expected = aggregate(false, 0.5f);
+    assertEquals(NUM_KEYS, expected.size());
+    assertEquals(Arrays.<Object>asList(10L, 26.0), expected.get("k0"));
+
+    // the hash table holds a few dozen keys, so it is spilled many times and each key is
+    // spilled at least once
+    assertEquals(expected, aggregate(true, 0.000001f));
+    assertTrue(numRowsSpilled >= NUM_KEYS);
+  }
+
+  @Test
+  public void testSpilledCountedWhenHashAggrDisabled() throws Exception {
+    Map<String, List<Object>> expected = aggregate(false, 0.5f);
+
+    // halfway through, the spills and the new entries since add up to more than a tenth of
+    // the rows, so the spilled entries are merged and hash aggregation is turned off
+    assertEquals(expected, aggregate(true, 0.000001f, 0.1f));
+    assertTrue(numRowsSpilled >= NUM_KEYS);
+  }
+
+  @Test
+  public void testNothingSpilledWhenKeysFit() throws Exception {
+    Map<String, List<Object>> result = aggregate(true, 0.5f);
+    assertEquals(NUM_KEYS, result.size());
+    assertEquals(0, numRowsSpilled);
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.junit.Test;
+
+public class TestHeavyKeySampler {
+
+  private static byte[] key(int i) {
+    return ("key" + i).getBytes();
+  }
+
+  @Test
+  public void testHeavyKeys() throws Exception {
+    HeavyKeySampler sampler = new HeavyKeySampler(100, -1);
+    Random random = new Random(12345);
+    for (int i = 0; i < 100000; i++) {
+      int r = random.nextInt(100);
+      // key 0 takes 20% of the rows, key 1 5%, and the rest are spread over 100000 keys
+      byte[] key = r < 20 ? key(0) : r < 25 ? key(1) : key(2 + random.nextInt(100000));
+      sampler.add(key, 0, key.length);
+    }
+    assertEquals(100000, sampler.getTotal());
+
+    List<byte[]> heavyKeys = sampler.getHeavyKeys(0.1f);
+    assertEquals(1, heavyKeys.size());
+    assertTrue(Arrays.equals(key(0), heavyKeys.get(0)));
+
+    heavyKeys = sampler.getHeavyKeys(0.03f);
+    assertEquals(2, heavyKeys.size());
+    assertTrue(Arrays.equals(key(0), heavyKeys.get(0)));
+    assertTrue(Arrays.equals(key(1), heavyKeys.get(1)));
+  }
+
+  @Test
+  public void testCollectStreamedTag() throws Exception {
+    HeavyKeySampler sampler = new HeavyKeySampler(10, 1);
+    byte[] bytes = {5, 6, 7, 0};
+    HiveKey key = new HiveKey();
+    key.set(bytes, 0, bytes.length);
+    key.setDistKeyLength(3);
+    sampler.collect(key, null);
+    bytes[3] = 1;
+    key.set(bytes, 0, bytes.length);
+    sampler.collect(key, null);
+    sampler.collect(key, null);
+    assertEquals(2, sampler.getTotal());
+    assertTrue(Arrays.equals(new byte[] {5, 6, 7}, sampler.getHeavyKeys(0.5f).get(0)));
+  }
+
+  @Test
+  public void testConfiguration() throws Exception {
+    Configuration conf = new Configuration();
+    assertNull(HeavyKeySampler.getSkewKeys(conf));
+
+    List<byte[]> keys = new ArrayList<byte[]>();
+    keys.add(new byte[] {1, 0, -1});
+    keys.add(key(1));
+    HeavyKeySampler.setSkewKeys(conf, keys, 2, 8);
+    Set<ByteBuffer> skewKeys = HeavyKeySampler.getSkewKeys(conf);
+    assertEquals(2, skewKeys.size());
+    assertTrue(skewKeys.contains(ByteBuffer.wrap(new byte[] {1, 0, -1})));
+    byte[] tagged = Arrays.copyOf(key(1), key(1).length + 1);
+    assertTrue(skewKeys.contains(ByteBuffer.wrap(tagged, 0, key(1).length)));
+    assertEquals(2, conf.getInt(HeavyKeySampler.SKEW_KEYS_TAG, -1));
+    assertEquals(8, conf.getInt(HeavyKeySampler.SKEW_KEYS_SALTS, -1));
+  }
+}
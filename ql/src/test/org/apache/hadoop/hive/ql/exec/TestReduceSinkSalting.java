@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.io.DefaultHivePartitioner;
+import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.lib.HashPartitioner;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests how the reduce sink spreads the rows of heavy join keys over the reducers.
+ */
+public class TestReduceSinkSalting {
+
+  private static final int REDUCERS = 10;
+  private static final int SALTS = 4;
+  private static final int STREAMED_TAG = 1;
+  private static final byte[] HEAVY = {1, 2, 3};
+  private static final byte[] LIGHT = {4, 5, 6};
+
+  /**
+   * Records the hash code of each collected key, which the partitioner takes as the reducer.
+   */
+  private static class HashCodeCollector implements OutputCollector<HiveKey, Object> {
+    private final List<Integer> hashCodes = new ArrayList<Integer>();
+
+    @Override
+    public void collect(HiveKey key, Object value) throws IOException {
+      hashCodes.add(key.hashCode());
+    }
+  }
+
+  private JobConf job;
+  private ReduceSinkOperator rs;
+  private HashCodeCollector collector;
+
+  @Before
+  public void setUp() {
+    job = new JobConf();
+    job.setPartitionerClass(DefaultHivePartitioner.class);
+    HiveConf.setIntVar(job, HiveConf.ConfVars.HADOOPNUMREDUCERS, REDUCERS);
+    List<byte[]> keys = new ArrayList<byte[]>();
+    keys.add(HEAVY);
+    HeavyKeySampler.setSkewKeys(job, keys, STREAMED_TAG, SALTS);
+
+    rs = new ReduceSinkOperator();
+    collector = new HashCodeCollector();
+    rs.setOutputCollector(collector);
+  }
+
+  private void collect(byte[] distKey, int hashCode) throws IOException {
+    // the tag follows the distribution key
+    byte[] bytes = Arrays.copyOf(distKey, distKey.length + 1);
+    HiveKey key = new HiveKey();
+    key.set(bytes, 0, bytes.length);
+    key.setDistKeyLength(distKey.length);
+    rs.collect(key, new BytesWritable(), hashCode);
+  }
+
+  private static Set<Integer> partitions(int hashCode) {
+    Set<Integer> partitions = new HashSet<Integer>();
+    for (int i = 0; i < SALTS; i++) {
+      partitions.add(((hashCode & Integer.MAX_VALUE) % REDUCERS + i) % REDUCERS);
+    }
+    return partitions;
+  }
+
+  @Test
+  public void testStreamedTag() throws Exception {
+    rs.initializeSkewKeys(job, STREAMED_TAG);
+    int hashCode = 8;
+    for (int i = 0; i < 1000; i++) {
+      collect(HEAVY, hashCode);
+    }
+    // each row goes to one of the salted partitions, and all of them are used
+    assertEquals(1000, collector.hashCodes.size());
+    assertEquals(partitions(hashCode), new HashSet<Integer>(collector.hashCodes));
+  }
+
+  @Test
+  public void testOtherTag() throws Exception {
+    rs.initializeSkewKeys(job, 0);
+    int hashCode = -7;
+    collect(HEAVY, hashCode);
+    // the row is copied once to each of the partitions of the streamed side
+    assertEquals(SALTS, collector.hashCodes.size());
+    assertEquals(partitions(hashCode), new HashSet<Integer>(collector.hashCodes));
+  }
+
+  @Test
+  public void testLightKey() throws Exception {
+    for (int tag : new int[] {0, STREAMED_TAG}) {
+      rs.initializeSkewKeys(job, tag);
+      collector.hashCodes.clear();
+      collect(LIGHT, 123456789);
+      assertEquals(Arrays.asList(123456789), collector.hashCodes);
+    }
+  }
+
+  @Test
+  public void testOtherPartitioner() throws Exception {
+    job.setPartitionerClass(HashPartitioner.class);
+    for (int tag : new int[] {0, STREAMED_TAG}) {
+      rs.initializeSkewKeys(job, tag);
+      collector.hashCodes.clear();
+      collect(HEAVY, 123456789);
+      assertEquals(Arrays.asList(123456789), collector.hashCodes);
+    }
+  }
+
+  @Test
+  public void testNoSkewKeys() throws Exception {
+    job = new JobConf();
+    job.setPartitionerClass(DefaultHivePartitioner.class);
+    rs.initializeSkewKeys(job, STREAMED_TAG);
+    collect(HEAVY, 123456789);
+    assertEquals(Arrays.asList(123456789), collector.hashCodes);
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.mapjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestMapJoinMemoryReservation {
+
+  @Test
+  public void testSharedBudget() {
+    long before = MapJoinMemoryReservation.getTotalReserved();
+    MapJoinMemoryReservation task1 = new MapJoinMemoryReservation(before + 100);
+    MapJoinMemoryReservation task2 = new MapJoinMemoryReservation(before + 100);
+    assertTrue(task1.reserve(60));
+    // the second task only gets what the first one left
+    assertFalse(task2.reserve(50));
+    assertEquals(0, task2.getReserved());
+    assertTrue(task2.reserve(40));
+    assertEquals(before + 100, MapJoinMemoryReservation.getTotalReserved());
+
+    task1.release(20);
+    assertEquals(40, task1.getReserved());
+    assertTrue(task2.reserve(20));
+    assertEquals(60, task2.getReserved());
+
+    task1.releaseAll();
+    task2.releaseAll();
+    assertEquals(0, task1.getReserved());
+    assertEquals(0, task2.getReserved());
+    assertEquals(before, MapJoinMemoryReservation.getTotalReserved());
+  }
+
+  @Test
+  public void testHeapFraction() {
+    MapJoinMemoryReservation reservation = new MapJoinMemoryReservation(0.5d);
+    long maxHeap = Runtime.getRuntime().maxMemory();
+    assertTrue(reservation.getBudget() > 0);
+    assertTrue(reservation.getBudget() <= maxHeap);
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.mr;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.OperatorFactory;
+import org.apache.hadoop.hive.ql.plan.FetchWork;
+import org.apache.hadoop.hive.ql.plan.FilterDesc;
+import org.apache.hadoop.hive.ql.plan.HashTableSinkDesc;
+import org.apache.hadoop.hive.ql.plan.MapredLocalWork;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.SelectDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.plan.UnionDesc;
+import org.junit.Test;
+
+/**
+ * Tests which local works have their small tables loaded concurrently.
+ */
+public class TestMapredLocalTask {
+
+  private final LinkedHashMap<String, Operator<? extends OperatorDesc>> aliasToWork =
+      new LinkedHashMap<String, Operator<? extends OperatorDesc>>();
+  private final MapredLocalWork work =
+      new MapredLocalWork(aliasToWork, new LinkedHashMap<String, FetchWork>());
+
+  private boolean canLoadConcurrently() {
+    return MapredLocalTask.canLoadConcurrently(work, aliasToWork.keySet());
+  }
+
+  @Test
+  public void testSeparateTables() {
+    Operator<HashTableSinkDesc> sink = OperatorFactory.get(new HashTableSinkDesc());
+    Operator<SelectDesc> select1 = OperatorFactory.get(new SelectDesc(), sink);
+    Operator<FilterDesc> filter1 = OperatorFactory.get(new FilterDesc(), select1);
+    Operator<SelectDesc> select2 = OperatorFactory.get(new SelectDesc(), sink);
+    aliasToWork.put("a", OperatorFactory.get(new TableScanDesc(), filter1));
+    aliasToWork.put("b", OperatorFactory.get(new TableScanDesc(), select2));
+    aliasToWork.put("c", OperatorFactory.get(new TableScanDesc(), sink));
+    assertTrue(canLoadConcurrently());
+  }
+
+  @Test
+  public void testUnionBelowSink() {
+    // the tables of a union share its operator and the ones below it
+    Operator<HashTableSinkDesc> sink = OperatorFactory.get(new HashTableSinkDesc());
+    Operator<SelectDesc> select = OperatorFactory.get(new SelectDesc(), sink);
+    Operator<UnionDesc> union = OperatorFactory.get(new UnionDesc(), select);
+    aliasToWork.put("a", OperatorFactory.get(new TableScanDesc(),
+        OperatorFactory.get(new SelectDesc(), union)));
+    aliasToWork.put("b", OperatorFactory.get(new TableScanDesc(),
+        OperatorFactory.get(new SelectDesc(), union)));
+    aliasToWork.put("c", OperatorFactory.get(new TableScanDesc(), sink));
+    assertFalse(canLoadConcurrently());
+  }
+
+  @Test
+  public void testSeveralChildren() {
+    Operator<HashTableSinkDesc> sink = OperatorFactory.get(new HashTableSinkDesc());
+    aliasToWork.put("a", OperatorFactory.get(new TableScanDesc(),
+        OperatorFactory.get(new SelectDesc(), sink),
+        OperatorFactory.get(new FilterDesc(), sink)));
+    assertFalse(canLoadConcurrently());
+  }
+}
@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.io.ShortWritable;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class TestMapJoinBytesTableContainer {
+
+  private static MapJoinObjectSerDeContext createContext(String columns, String types)
+      throws Exception {
+    return createContext(columns, types, false);
+  }
+
+  private static MapJoinObjectSerDeContext createContext(String columns, String types,
+      boolean hasFilterTag) throws Exception {
+    LazyBinarySerDe serde = new LazyBinarySerDe();
+    Properties props = new Properties();
+    props.put(serdeConstants.LIST_COLUMNS, columns);
+    props.put(serdeConstants.LIST_COLUMN_TYPES, types);
+    serde.initialize(null, props);
+    return new MapJoinObjectSerDeContext(serde, hasFilterTag);
+  }
+
+  private static MapJoinRowContainer rows(Object[]... values) {
+    MapJoinRowContainer result = new MapJoinRowContainer();
+    for (Object[] value : values) {
+      result.add(value);
+    }
+    return result;
+  }
+
+  @Test
+  public void testStringKeys() throws Exception {
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "string"), createContext("v1", "string"));
+    Assert.assertFalse(container.hasLongKeys());
+    for (int i = 0; i < 100; i++) {
+      MapJoinKey key = new MapJoinKey(new Object[] {new Text("key" + (i % 10))});
+      container.putRow(key, new Object[] {new Text("value" + i)});
+    }
+    Assert.assertEquals(10, container.size());
+    MapJoinRowContainer result = container.get(new MapJoinKey(new Object[] {new Text("key3")}));
+    Assert.assertEquals(10, result.size());
+    int i = 3;
+    for (List<Object> row = result.first(); row != null; row = result.next(), i += 10) {
+      Assert.assertEquals(new Text("value" + i), row.get(0));
+    }
+    Assert.assertNull(container.get(new MapJoinKey(new Object[] {new Text("missing")})));
+    container.clear();
+    Assert.assertEquals(0, container.size());
+    Assert.assertNull(container.get(new MapJoinKey(new Object[] {new Text("key3")})));
+  }
+
+  @Test
+  public void testLongKeys() throws Exception {
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, true,
+        createContext("k1", "bigint"), createContext("v1", "string"));
+    Assert.assertTrue(container.hasLongKeys());
+    for (long i = 0; i < 1000; i++) {
+      container.putRow(new MapJoinKey(new Object[] {new LongWritable(i)}),
+          new Object[] {new Text("value" + i)});
+    }
+    container.putRow(new MapJoinKey(new Object[] {null}), new Object[] {new Text("null")});
+    Assert.assertEquals(1001, container.size());
+    for (long i = 0; i < 1000; i++) {
+      Utilities.testEquality(rows(new Object[] {new Text("value" + i)}),
+          container.get(new MapJoinKey(new Object[] {new LongWritable(i)})));
+    }
+    Utilities.testEquality(rows(new Object[] {new Text("null")}),
+        container.get(new MapJoinKey(new Object[] {null})));
+    Assert.assertNull(container.get(new MapJoinKey(new Object[] {new LongWritable(-1)})));
+  }
+
+  @Test
+  public void testEmptyValues() throws Exception {
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "string"), createContext("v1", "string"));
+    MapJoinKey key = new MapJoinKey(new Object[] {new Text("key")});
+    container.putRow(key, new Object[0]);
+    container.putRow(key, new Object[0]);
+    MapJoinRowContainer result = container.get(key);
+    Assert.assertEquals(2, result.size());
+    Assert.assertEquals(0, result.first().size());
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    MapJoinObjectSerDeContext keyContext = createContext("k1", "string");
+    MapJoinObjectSerDeContext valueContext = createContext("v1,v2", "string,bigint");
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        keyContext, valueContext);
+    MapJoinKey key1 = new MapJoinKey(new Object[] {new Text("key1")});
+    MapJoinKey key2 = new MapJoinKey(new Object[] {new Text("key2")});
+    container.put(key1, rows(new Object[] {new Text("a"), new LongWritable(1)},
+        new Object[] {new Text("b"), new LongWritable(2)}));
+    container.put(key2, rows(new Object[] {new Text("c"), new LongWritable(3)}));
+
+    Map<MapJoinKey, MapJoinRowContainer> entries = new HashMap<MapJoinKey, MapJoinRowContainer>();
+    for (Entry<MapJoinKey, MapJoinRowContainer> entry : container.entrySet()) {
+      entries.put(entry.getKey(), entry.getValue());
+    }
+    Assert.assertEquals(2, entries.size());
+    Utilities.testEquality(container.get(key1), entries.get(key1));
+    Utilities.testEquality(container.get(key2), entries.get(key2));
+
+    MapJoinTableContainerSerDe containerSerde = new MapJoinTableContainerSerDe(keyContext,
+        valueContext);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(baos);
+    containerSerde.persist(out, container);
+    out.close();
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    MapJoinTableContainer loaded = containerSerde.load(in);
+    Assert.assertTrue(loaded instanceof MapJoinBytesTableContainer);
+    Assert.assertEquals(2, loaded.size());
+    Utilities.testEquality(container.get(key1), loaded.get(key1));
+    Utilities.testEquality(container.get(key2), loaded.get(key2));
+  }
+
+  @Test
+  public void testBinarySerialization() throws Exception {
+    MapJoinObjectSerDeContext keyContext = createContext("k1", "int");
+    MapJoinObjectSerDeContext valueContext = createContext("v1", "string");
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        keyContext, valueContext);
+    for (int i = 0; i < 50; i++) {
+      container.putRow(new MapJoinKey(new Object[] {new IntWritable(i % 7)}),
+          new Object[] {new Text("value" + i)});
+    }
+    container.putRow(new MapJoinKey(new Object[] {null}), new Object[0]);
+
+    MapJoinTableContainerSerDe containerSerde = new MapJoinTableContainerSerDe(keyContext,
+        valueContext);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    containerSerde.persistBinary(out, container);
+    out.close();
+    MapJoinTableContainer loaded = containerSerde.loadBinary(
+        new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    Assert.assertTrue(loaded instanceof MapJoinBytesTableContainer);
+    Assert.assertTrue(((MapJoinBytesTableContainer) loaded).hasLongKeys());
+    Assert.assertEquals(8, loaded.size());
+    for (int i = 0; i < 7; i++) {
+      MapJoinKey key = new MapJoinKey(new Object[] {new IntWritable(i)});
+      Utilities.testEquality(container.get(key), loaded.get(key));
+    }
+    MapJoinKey nullKey = new MapJoinKey(new Object[] {null});
+    Assert.assertEquals(1, loaded.get(nullKey).size());
+  }
+
+  @Test
+  public void testLazyRows() throws Exception {
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "string"), createContext("v1", "string"));
+    MapJoinKey key = new MapJoinKey(new Object[] {new Text("key")});
+    for (int i = 0; i < 3; i++) {
+      container.putRow(key, new Object[] {new Text("value" + i)});
+    }
+    MapJoinRowContainer result = container.get(key);
+    MapJoinRowContainer copy = result.copy();
+    // the rows are read again on every pass, and a copy is iterated on its own
+    for (int pass = 0; pass < 2; pass++) {
+      List<Object> first = result.first();
+      Assert.assertEquals(new Text("value0"), first.get(0));
+      Assert.assertEquals(new Text("value0"), copy.first().get(0));
+      Assert.assertEquals(new Text("value1"), result.next().get(0));
+      Assert.assertEquals(new Text("value2"), result.next().get(0));
+      Assert.assertNull(result.next());
+      Assert.assertNull(result.next());
+      Assert.assertEquals(new Text("value0"), first.get(0));
+      Assert.assertEquals(new Text("value1"), copy.next().get(0));
+    }
+    Assert.assertEquals(3, result.size());
+    Assert.assertEquals((byte) 0xff, result.getAliasFilter());
+    try {
+      result.add(new Object[] {new Text("value3")});
+      Assert.fail("rows of the table are read only");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLazyAliasFilter() throws Exception {
+    MapJoinBytesTableContainer container = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "string"), createContext("v1,filter", "string,smallint", true));
+    MapJoinKey key = new MapJoinKey(new Object[] {new Text("key")});
+    container.putRow(key, new Object[] {new Text("a"), new ShortWritable((short) 0x3)});
+    container.putRow(key, new Object[] {new Text("b"), new ShortWritable((short) 0x6)});
+    MapJoinRowContainer result = container.get(key);
+    Assert.assertEquals((byte) 0x2, result.getAliasFilter());
+    Assert.assertEquals(new Text("a"), result.first().get(0));
+    Assert.assertEquals((byte) 0x2, result.copy().getAliasFilter());
+  }
+
+  @Test
+  public void testOffHeapMemorySize() throws Exception {
+    MapJoinBytesTableContainer onHeap = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "bigint"), createContext("v1", "string"));
+    MapJoinBytesTableContainer offHeap = new MapJoinBytesTableContainer(4, 0.75f, 64, true,
+        createContext("k1", "bigint"), createContext("v1", "string"));
+    for (long i = 0; i < 100; i++) {
+      MapJoinKey key = new MapJoinKey(new Object[] {new LongWritable(i)});
+      onHeap.putRow(key, new Object[] {new Text("value" + i)});
+      offHeap.putRow(key, new Object[] {new Text("value" + i)});
+    }
+    offHeap.putRow(new MapJoinKey(new Object[] {null}), new Object[] {new Text("null")});
+    Assert.assertEquals(0, onHeap.getOffHeapMemorySize());
+    // every row holds at least the six bytes of its value
+    Assert.assertTrue(offHeap.getOffHeapMemorySize() >= 100 * 6);
+    Assert.assertTrue(offHeap.getOffHeapMemorySize() <= offHeap.getMemorySize());
+  }
+}
@@ -17,8 +17,11 @@
  */
 package org.apache.hadoop.hive.ql.exec.persistence;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Properties;
@@ -76,10 +79,27 @@ public void testSerialization() throws Exception {
     Utilities.testEquality(rowContainer, container.get(key));
   }
   @Test
+  public void testBinarySerialization() throws Exception {
+    container.put(key, rowContainer);
+    // the object stream of setup() has already written its header to baos
+    ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(binaryOut);
+    containerSerde.persistBinary(dataOut, container);
+    dataOut.close();
+    BufferedInputStream bis =
+        new BufferedInputStream(new ByteArrayInputStream(binaryOut.toByteArray()));
+    Assert.assertTrue(MapJoinTableContainerSerDe.isBinaryFormat(bis));
+    container = containerSerde.loadBinary(new DataInputStream(bis));
+    Assert.assertTrue(container instanceof HashMapWrapper);
+    Utilities.testEquality(rowContainer, container.get(key));
+  }
+  @Test
   public void testDummyContainer() throws Exception {
     MapJoinTableContainerSerDe.persistDummyTable(out);
     out.close();
-    in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    Assert.assertFalse(MapJoinTableContainerSerDe.isBinaryFormat(bis));
+    in = new ObjectInputStream(bis);
     container = containerSerde.load(in);
     Assert.assertEquals(0, container.size());
     Assert.assertTrue(container.entrySet().isEmpty());
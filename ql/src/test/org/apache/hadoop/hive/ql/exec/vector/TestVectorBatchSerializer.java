@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDe;
+import org.apache.hadoop.hive.serde2.binarysortable.BinarySortableSerDe;
+import org.apache.hadoop.hive.serde2.io.ByteWritable;
+import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.io.ShortWritable;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.BinaryComparable;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.junit.Test;
+
+/**
+ * Tests that the batch serializers write the same bytes as the row mode SerDes.
+ */
+public class TestVectorBatchSerializer {
+
+  private static final PrimitiveCategory[] CATEGORIES = {
+      PrimitiveCategory.BOOLEAN, PrimitiveCategory.BYTE, PrimitiveCategory.SHORT,
+      PrimitiveCategory.INT, PrimitiveCategory.LONG, PrimitiveCategory.FLOAT,
+      PrimitiveCategory.DOUBLE, PrimitiveCategory.STRING, PrimitiveCategory.LONG,
+      PrimitiveCategory.STRING};
+
+  private static final String TYPES =
+      "boolean,tinyint,smallint,int,bigint,float,double,string,bigint,string";
+
+  private static final int SIZE = 100;
+
+  private final Random random = new Random(12345);
+
+  private ColumnVector makeColumn(PrimitiveCategory category) {
+    ColumnVector col;
+    switch (category) {
+    case FLOAT:
+    case DOUBLE:
+      DoubleColumnVector doubles = new DoubleColumnVector();
+      for (int i = 0; i < SIZE; i++) {
+        doubles.vector[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10);
+      }
+      doubles.vector[0] = -0.0;
+      col = doubles;
+      break;
+    case STRING:
+      BytesColumnVector strings = new BytesColumnVector();
+      strings.initBuffer();
+      for (int i = 0; i < SIZE; i++) {
+        byte[] bytes = new byte[random.nextInt(10)];
+        for (int j = 0; j < bytes.length; j++) {
+          // include the bytes that get escaped
+          bytes[j] = (byte) (random.nextInt(4) - 1);
+        }
+        strings.setVal(i, bytes, 0, bytes.length);
+      }
+      col = strings;
+      break;
+    default:
+      LongColumnVector longs = new LongColumnVector();
+      for (int i = 0; i < SIZE; i++) {
+        longs.vector[i] = random.nextLong() >> random.nextInt(64);
+      }
+      col = longs;
+    }
+    return col;
+  }
+
+  private VectorizedRowBatch makeBatch() {
+    VectorizedRowBatch batch = new VectorizedRowBatch(CATEGORIES.length + 1);
+    for (int c = 0; c < CATEGORIES.length; c++) {
+      ColumnVector col = makeColumn(CATEGORIES[c]);
+      if (c % 3 == 1) {
+        col.noNulls = false;
+        for (int i = 0; i < SIZE; i++) {
+          col.isNull[i] = random.nextInt(4) == 0;
+        }
+      }
+      batch.cols[c + 1] = col;
+    }
+    // a repeating column
+    batch.cols[CATEGORIES.length - 1].isRepeating = true;
+    batch.size = SIZE;
+    return batch;
+  }
+
+  private static Writable getWritable(ColumnVector col, PrimitiveCategory category, int row) {
+    if (col.isRepeating) {
+      row = 0;
+    }
+    if (!col.noNulls && col.isNull[row]) {
+      return null;
+    }
+    switch (category) {
+    case BOOLEAN:
+      return new BooleanWritable(((LongColumnVector) col).vector[row] != 0);
+    case BYTE:
+      return new ByteWritable((byte) ((LongColumnVector) col).vector[row]);
+    case SHORT:
+      return new ShortWritable((short) ((LongColumnVector) col).vector[row]);
+    case INT:
+      return new IntWritable((int) ((LongColumnVector) col).vector[row]);
+    case LONG:
+      return new LongWritable(((LongColumnVector) col).vector[row]);
+    case FLOAT:
+      return new FloatWritable((float) ((DoubleColumnVector) col).vector[row]);
+    case DOUBLE:
+      return new DoubleWritable(((DoubleColumnVector) col).vector[row]);
+    default:
+      BytesColumnVector strings = (BytesColumnVector) col;
+      Text text = new Text();
+      text.set(strings.vector[row], strings.start[row], strings.length[row]);
+      return text;
+    }
+  }
+
+  private void verify(VectorizedRowBatch batch, SerDe serde, VectorBatchSerializer serializer)
+      throws Exception {
+    List<String> names = new ArrayList<String>();
+    List<ObjectInspector> ois = new ArrayList<ObjectInspector>();
+    for (int c = 0; c < CATEGORIES.length; c++) {
+      names.add("_col" + c);
+      ois.add(PrimitiveObjectInspectorFactory.getPrimitiveWritableObjectInspector(
+          CATEGORIES[c]));
+    }
+    ObjectInspector rowOI = ObjectInspectorFactory.getStandardStructObjectInspector(names, ois);
+
+    serializer.serializeBatch(batch);
+    for (int i = 0; i < batch.size; i++) {
+      int row = batch.selectedInUse ? batch.selected[i] : i;
+      List<Object> values = new ArrayList<Object>();
+      for (int c = 0; c < CATEGORIES.length; c++) {
+        values.add(getWritable(batch.cols[c + 1], CATEGORIES[c], row));
+      }
+      BinaryComparable expected = (BinaryComparable) serde.serialize(values, rowOI);
+      int start = serializer.getStart(i);
+      assertArrayEquals("row " + row,
+          Arrays.copyOf(expected.getBytes(), expected.getLength()),
+          Arrays.copyOfRange(serializer.getBytes(), start, start + serializer.getLength(i)));
+    }
+  }
+
+  private static Properties getProperties() {
+    Properties props = new Properties();
+    StringBuilder names = new StringBuilder();
+    for (int c = 0; c < CATEGORIES.length; c++) {
+      names.append(c == 0 ? "" : ",").append("_col").append(c);
+    }
+    props.setProperty(serdeConstants.LIST_COLUMNS, names.toString());
+    props.setProperty(serdeConstants.LIST_COLUMN_TYPES, TYPES);
+    return props;
+  }
+
+  private static int[] getColumns() {
+    int[] columns = new int[CATEGORIES.length];
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = c + 1;
+    }
+    return columns;
+  }
+
+  @Test
+  public void testBinarySortable() throws Exception {
+    Properties props = getProperties();
+    props.setProperty(serdeConstants.SERIALIZATION_SORT_ORDER, "+-+-+-+-++");
+    BinarySortableSerDe serde = new BinarySortableSerDe();
+    serde.initialize(null, props);
+    boolean[] columnSortOrderIsDesc = new boolean[CATEGORIES.length];
+    for (int c = 0; c < CATEGORIES.length; c++) {
+      columnSortOrderIsDesc[c] = c % 2 == 1 && c < 8;
+    }
+    VectorBinarySortableSerializer serializer = new VectorBinarySortableSerializer(
+        getColumns(), CATEGORIES, columnSortOrderIsDesc);
+
+    VectorizedRowBatch batch = makeBatch();
+    verify(batch, serde, serializer);
+
+    // a smaller selection of another batch, reusing the buffer
+    batch = makeBatch();
+    batch.selectedInUse = true;
+    batch.size = 0;
+    for (int i = 0; i < SIZE; i += 3) {
+      batch.selected[batch.size++] = i;
+    }
+    verify(batch, serde, serializer);
+  }
+
+  @Test
+  public void testLazyBinary() throws Exception {
+    LazyBinarySerDe serde = new LazyBinarySerDe();
+    serde.initialize(null, getProperties());
+    VectorLazyBinarySerializer serializer = new VectorLazyBinarySerializer(
+        getColumns(), CATEGORIES);
+
+    VectorizedRowBatch batch = makeBatch();
+    verify(batch, serde, serializer);
+
+    batch = makeBatch();
+    batch.selectedInUse = true;
+    batch.size = 0;
+    for (int i = 1; i < SIZE; i += 2) {
+      batch.selected[batch.size++] = i;
+    }
+    verify(batch, serde, serializer);
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+/**
+ * Unit tests for the string assigners of VectorColumnAssignFactory.
+ */
+public class TestVectorColumnAssignFactory {
+
+  private static String getString(BytesColumnVector col, int i) {
+    return new String(col.vector[i], col.start[i], col.length[i]);
+  }
+
+  private static VectorizedRowBatch createBatch() {
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    batch.cols[0] = new BytesColumnVector();
+    return batch;
+  }
+
+  @Test
+  public void testAssignText() throws Exception {
+    VectorizedRowBatch batch = createBatch();
+    VectorColumnAssign assign = VectorColumnAssignFactory.buildObjectAssign(batch, 0,
+        PrimitiveObjectInspectorFactory.writableStringObjectInspector);
+
+    // a reused Text keeps the larger backing array of its previous value
+    Text text = new Text("a longer value");
+    text.set("short");
+    assign.assignObjectValue(text, 0);
+
+    BytesColumnVector out = (BytesColumnVector) batch.cols[0];
+    assertEquals(5, out.length[0]);
+    assertEquals("short", getString(out, 0));
+  }
+
+  @Test
+  public void testAssignBytesOutsidePad() throws Exception {
+    VectorizedRowBatch batch = createBatch();
+    VectorColumnAssign assign = VectorColumnAssignFactory.buildAssigners(batch)[0];
+
+    // a value too large for the pad is copied on its own, from its start offset
+    int start = 10;
+    int length = BytesColumnVector.DEFAULT_BUFFER_SIZE + 1;
+    byte[] buffer = new byte[start + length + 10];
+    for (int i = 0; i < buffer.length; i++) {
+      buffer[i] = (byte) ('a' + i % 26);
+    }
+    VectorizedRowBatch in = createBatch();
+    ((BytesColumnVector) in.cols[0]).setRef(0, buffer, start, length);
+    in.size = 1;
+    assign.assignVectorValue(in, 0, 0, 0);
+
+    BytesColumnVector out = (BytesColumnVector) batch.cols[0];
+    assertEquals(length, out.length[0]);
+    assertEquals(new String(Arrays.copyOfRange(buffer, start, start + length)),
+        getString(out, 0));
+  }
+}
@@ -46,6 +46,7 @@
 import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
 import org.apache.hadoop.hive.serde2.io.ByteWritable;
 import org.apache.hadoop.hive.serde2.io.DoubleWritable;
 import org.apache.hadoop.hive.serde2.io.ShortWritable;
@@ -241,6 +242,78 @@ public void remove() {
     assertTrue(0 < outputRowCount);
   }
 
+  @Test
+  public void testMergePartialSortedInput() throws HiveException {
+    Map<String, Integer> mapColumnNames = new HashMap<String, Integer>();
+    mapColumnNames.put("Key", 0);
+    mapColumnNames.put("Value", 1);
+    VectorizationContext ctx = new VectorizationContext(mapColumnNames, 2);
+
+    // merging partial counts adds them up
+    GroupByDesc desc = buildKeyGroupByDesc (ctx, "count",
+        "Value", TypeInfoFactory.longTypeInfo,
+        "Key", TypeInfoFactory.longTypeInfo);
+    desc.setMode(GroupByDesc.Mode.MERGEPARTIAL);
+    desc.getAggregators().get(0).setMode(GenericUDAFEvaluator.Mode.FINAL);
+
+    VectorGroupByOperator vgo = new VectorGroupByOperator(ctx, desc);
+
+    FakeCaptureOutputOperator out = FakeCaptureOutputOperator.addCaptureOutputChild(vgo);
+    vgo.initialize(null, null);
+
+    final List<Long> keys = new ArrayList<Long>();
+    final List<Long> counts = new ArrayList<Long>();
+    out.setOutputInspector(new FakeCaptureOutputOperator.OutputInspector() {
+      @Override
+      public void inspectRow(Object row, int tag) throws HiveException {
+        Object[] fields = (Object[]) row;
+        keys.add(((LongWritable) fields[0]).get());
+        counts.add(((LongWritable) fields[1]).get());
+      }
+    });
+
+    FakeVectorRowBatchFromObjectIterables data = new FakeVectorRowBatchFromObjectIterables(
+        2,
+        new String[] {"long", "long"},
+        Arrays.asList(new Object[]{1L, 1L, 2L, 2L, 2L, 3L}),
+        Arrays.asList(new Object[]{1L, 2L, 3L, 4L, 5L, 6L}));
+
+    // groups are emitted as soon as a later key shows up, and in key order
+    vgo.process(data.produceNextBatch(), 0);
+    assertEquals(0, keys.size());
+    vgo.process(data.produceNextBatch(), 0);
+    assertEquals(Arrays.asList(1L), keys);
+    vgo.process(data.produceNextBatch(), 0);
+    assertEquals(Arrays.asList(1L, 2L), keys);
+    vgo.close(false);
+
+    assertEquals(Arrays.asList(1L, 2L, 3L), keys);
+    assertEquals(Arrays.asList(3L, 12L, 6L), counts);
+  }
+
+  @Test
+  public void testMergePartialEmptyInput() throws HiveException {
+    Map<String, Integer> mapColumnNames = new HashMap<String, Integer>();
+    mapColumnNames.put("Key", 0);
+    mapColumnNames.put("Value", 1);
+    VectorizationContext ctx = new VectorizationContext(mapColumnNames, 2);
+
+    GroupByDesc desc = buildKeyGroupByDesc (ctx, "count",
+        "Value", TypeInfoFactory.longTypeInfo,
+        "Key", TypeInfoFactory.longTypeInfo);
+    desc.setMode(GroupByDesc.Mode.MERGEPARTIAL);
+    desc.getAggregators().get(0).setMode(GenericUDAFEvaluator.Mode.FINAL);
+
+    VectorGroupByOperator vgo = new VectorGroupByOperator(ctx, desc);
+
+    FakeCaptureOutputOperator out = FakeCaptureOutputOperator.addCaptureOutputChild(vgo);
+    vgo.initialize(null, null);
+
+    // a reducer that got no rows closes the operator without a batch
+    vgo.close(false);
+    assertEquals(0, out.getCapturedRows().size());
+  }
+
   @Test
   public void testMultiKeyIntStringInt() throws HiveException {
     testMultiKey(
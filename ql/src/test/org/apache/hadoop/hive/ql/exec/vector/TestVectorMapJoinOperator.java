@@ -0,0 +1,403 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.persistence.HashMapWrapper;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinBytesTableContainer;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinKey;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinObjectSerDeContext;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinRowContainer;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.JoinCondDesc;
+import org.apache.hadoop.hive.ql.plan.JoinDesc;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.MapWork;
+import org.apache.hadoop.hive.ql.plan.MapredWork;
+import org.apache.hadoop.hive.ql.plan.PlanUtils;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the batch probe of the vectorized map join operator: the big table
+ * (key bigint, value string) is joined with a small table holding one string column.
+ */
+public class TestVectorMapJoinOperator {
+
+  private static final String FILE_KEY = "file";
+
+  private JobConf conf;
+
+  /**
+   * Probes the given small table and collects the joined rows. Fails if a row goes
+   * through the row-mode join instead of the batch probe.
+   */
+  private static class ValidatorVectorMapJoinOperator extends VectorMapJoinOperator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<List<Object>> rows = new ArrayList<List<Object>>();
+    private final int[] outputColumns = new int[3];
+
+    public ValidatorVectorMapJoinOperator(VectorizationContext vContext, MapJoinDesc desc)
+        throws HiveException {
+      super(vContext, desc);
+      for (int i = 0; i < outputColumns.length; i++) {
+        outputColumns[i] = vContext.getColumnMap().get(desc.getOutputColumnNames().get(i));
+      }
+    }
+
+    void setSmallTable(MapJoinTableContainer smallTable) {
+      mapJoinTables[1] = smallTable;
+    }
+
+    @Override
+    protected void internalForward(Object row, ObjectInspector outputOI) throws HiveException {
+      throw new AssertionError("The batch was joined row by row");
+    }
+
+    @Override
+    public void forward(Object row, ObjectInspector rowInspector) throws HiveException {
+      VectorizedRowBatch batch = (VectorizedRowBatch) row;
+      LongColumnVector keys = (LongColumnVector) batch.cols[outputColumns[0]];
+      BytesColumnVector values = (BytesColumnVector) batch.cols[outputColumns[1]];
+      BytesColumnVector smallValues = (BytesColumnVector) batch.cols[outputColumns[2]];
+      for (int i = 0; i < batch.size; i++) {
+        rows.add(Arrays.<Object>asList(
+            isNull(keys, i) ? null : keys.vector[i],
+            getString(values, i),
+            getString(smallValues, i)));
+      }
+    }
+
+    private static boolean isNull(ColumnVector col, int i) {
+      return !col.noNulls && col.isNull[i];
+    }
+
+    private static String getString(BytesColumnVector col, int i) {
+      if (isNull(col, i)) {
+        return null;
+      }
+      return new String(col.vector[i], col.start[i], col.length[i]);
+    }
+  }
+
+  @Before
+  public void setUp() {
+    conf = new JobConf(TestVectorMapJoinOperator.class);
+  }
+
+  @After
+  public void tearDown() {
+    Utilities.clearWork(conf);
+  }
+
+  private static MapJoinObjectSerDeContext createContext(String columns, String types)
+      throws Exception {
+    LazyBinarySerDe serde = new LazyBinarySerDe();
+    Properties props = new Properties();
+    props.put(serdeConstants.LIST_COLUMNS, columns);
+    props.put(serdeConstants.LIST_COLUMN_TYPES, types);
+    serde.initialize(null, props);
+    return new MapJoinObjectSerDeContext(serde, false);
+  }
+
+  /**
+   * The small table: 1 -> one, 2 -> two-a, two-b, 4 -> four.
+   */
+  private static MapJoinTableContainer fill(MapJoinTableContainer container) {
+    put(container, 1, "one");
+    put(container, 2, "two-a", "two-b");
+    put(container, 4, "four");
+    return container;
+  }
+
+  private static void put(MapJoinTableContainer container, long key, String... values) {
+    MapJoinRowContainer rows = new MapJoinRowContainer();
+    for (String value : values) {
+      rows.add(new Object[] {new Text(value)});
+    }
+    container.put(new MapJoinKey(new Object[] {new LongWritable(key)}), rows);
+  }
+
+  /**
+   * The small tables probed with a MapJoinKey and with an unboxed long key.
+   */
+  private static List<MapJoinTableContainer> smallTables() throws Exception {
+    List<MapJoinTableContainer> tables = new ArrayList<MapJoinTableContainer>();
+    tables.add(fill(new HashMapWrapper()));
+    MapJoinBytesTableContainer bytesTable = new MapJoinBytesTableContainer(4, 0.75f, 64, false,
+        createContext("k1", "bigint"), createContext("v1", "string"));
+    assertEquals(true, bytesTable.hasLongKeys());
+    tables.add(fill(bytesTable));
+    return tables;
+  }
+
+  private ValidatorVectorMapJoinOperator createOperator(int joinType,
+      MapJoinTableContainer smallTable) throws HiveException {
+    Map<String, Integer> columnMap = new HashMap<String, Integer>();
+    columnMap.put("key", 0);
+    columnMap.put("value", 1);
+    VectorizationContext vContext = new VectorizationContext(columnMap, 2);
+    vContext.setFileKey(FILE_KEY);
+
+    ExprNodeDesc bigKey = new ExprNodeColumnDesc(TypeInfoFactory.longTypeInfo, "key", "a", false);
+    ExprNodeDesc bigValue =
+        new ExprNodeColumnDesc(TypeInfoFactory.stringTypeInfo, "value", "a", false);
+    ExprNodeDesc smallKey =
+        new ExprNodeColumnDesc(TypeInfoFactory.longTypeInfo, "skey", "b", false);
+    ExprNodeDesc smallValue =
+        new ExprNodeColumnDesc(TypeInfoFactory.stringTypeInfo, "svalue", "b", false);
+
+    Map<Byte, List<ExprNodeDesc>> keys = new HashMap<Byte, List<ExprNodeDesc>>();
+    keys.put((byte) 0, Arrays.asList(bigKey));
+    keys.put((byte) 1, Arrays.asList(smallKey));
+    Map<Byte, List<ExprNodeDesc>> values = new HashMap<Byte, List<ExprNodeDesc>>();
+    values.put((byte) 0, Arrays.asList(bigKey, bigValue));
+    values.put((byte) 1, Arrays.asList(smallValue));
+    Map<Byte, List<ExprNodeDesc>> filters = new HashMap<Byte, List<ExprNodeDesc>>();
+    filters.put((byte) 0, new ArrayList<ExprNodeDesc>());
+    filters.put((byte) 1, new ArrayList<ExprNodeDesc>());
+
+    List<String> outputColumnNames = Arrays.asList("_col0", "_col1", "_col2");
+    TableDesc keyTableDesc = PlanUtils.getMapJoinKeyTableDesc(
+        PlanUtils.getFieldSchemasFromColumnList(keys.get((byte) 0), "mapjoinkey"));
+    List<TableDesc> valueTableDescs = new ArrayList<TableDesc>();
+    valueTableDescs.add(null);
+    valueTableDescs.add(PlanUtils.getMapJoinValueTableDesc(
+        PlanUtils.getFieldSchemasFromColumnList(values.get((byte) 1), "mapjoinvalue")));
+
+    boolean noOuterJoin = joinType == JoinDesc.INNER_JOIN;
+    MapJoinDesc desc = new MapJoinDesc(keys, keyTableDesc, values, valueTableDescs,
+        valueTableDescs, outputColumnNames, 0,
+        new JoinCondDesc[] {new JoinCondDesc(0, 1, joinType)}, filters, noOuterJoin, null);
+    desc.setTagOrder(new Byte[] {0, 1});
+    // as the planner does for a join without filters
+    desc.setFilterMap(new int[2][]);
+
+    ValidatorVectorMapJoinOperator op = new ValidatorVectorMapJoinOperator(vContext, desc);
+
+    // the output batch is built from the scratch columns recorded in the plan
+    MapWork mapWork = new MapWork();
+    Map<String, Map<Integer, String>> scratchColumnVectorTypes =
+        new HashMap<String, Map<Integer, String>>();
+    scratchColumnVectorTypes.put(FILE_KEY, vContext.getOutputColumnTypeMap());
+    mapWork.setScratchColumnVectorTypes(scratchColumnVectorTypes);
+    Map<String, Map<String, Integer>> scratchColumnMap =
+        new HashMap<String, Map<String, Integer>>();
+    scratchColumnMap.put(FILE_KEY, vContext.getColumnMap());
+    mapWork.setScratchColumnMap(scratchColumnMap);
+    MapredWork work = new MapredWork();
+    work.setMapWork(mapWork);
+    Utilities.setMapRedWork(conf, work, System.getProperty("java.io.tmpdir"));
+
+    ObjectInspector bigTableOI = ObjectInspectorFactory.getStandardStructObjectInspector(
+        Arrays.asList("key", "value"), Arrays.<ObjectInspector>asList(
+        PrimitiveObjectInspectorFactory.writableLongObjectInspector,
+        PrimitiveObjectInspectorFactory.writableStringObjectInspector));
+    ObjectInspector smallTableOI = ObjectInspectorFactory.getStandardStructObjectInspector(
+        Arrays.asList("skey", "svalue"), Arrays.<ObjectInspector>asList(
+        PrimitiveObjectInspectorFactory.writableLongObjectInspector,
+        PrimitiveObjectInspectorFactory.writableStringObjectInspector));
+    op.initialize(conf, new ObjectInspector[] {bigTableOI, smallTableOI});
+    op.setSmallTable(smallTable);
+    return op;
+  }
+
+  /**
+   * Builds a big table batch; a null key is a SQL NULL.
+   */
+  private static VectorizedRowBatch createBatch(Long[] keys, String[] values) {
+    VectorizedRowBatch batch = new VectorizedRowBatch(2);
+    LongColumnVector keyCol = new LongColumnVector();
+    BytesColumnVector valueCol = new BytesColumnVector();
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == null) {
+        keyCol.noNulls = false;
+        keyCol.isNull[i] = true;
+      } else {
+        keyCol.vector[i] = keys[i];
+      }
+      byte[] bytes = values[i].getBytes();
+      valueCol.setRef(i, bytes, 0, bytes.length);
+    }
+    batch.cols[0] = keyCol;
+    batch.cols[1] = valueCol;
+    batch.size = keys.length;
+    return batch;
+  }
+
+  private static List<List<Object>> rows(Object[]... rows) {
+    List<List<Object>> result = new ArrayList<List<Object>>();
+    for (Object[] row : rows) {
+      result.add(Arrays.asList(row));
+    }
+    return result;
+  }
+
+  private List<List<Object>> join(int joinType, MapJoinTableContainer smallTable,
+      VectorizedRowBatch... batches) throws HiveException {
+    ValidatorVectorMapJoinOperator op = createOperator(joinType, smallTable);
+    for (VectorizedRowBatch batch : batches) {
+      op.processOp(batch, 0);
+    }
+    op.close(false);
+    return op.rows;
+  }
+
+  private static final Long[] KEYS = {1L, 2L, 3L, null, 4L};
+  private static final String[] VALUES = {"a", "b", "c", "d", "e"};
+
+  @Test
+  public void testInnerJoin() throws Exception {
+    for (MapJoinTableContainer smallTable : smallTables()) {
+      assertEquals(rows(
+          new Object[] {1L, "a", "one"},
+          new Object[] {2L, "b", "two-a"},
+          new Object[] {2L, "b", "two-b"},
+          new Object[] {4L, "e", "four"}),
+          join(JoinDesc.INNER_JOIN, smallTable, createBatch(KEYS, VALUES)));
+    }
+  }
+
+  @Test
+  public void testLeftOuterJoin() throws Exception {
+    for (MapJoinTableContainer smallTable : smallTables()) {
+      assertEquals(rows(
+          new Object[] {1L, "a", "one"},
+          new Object[] {2L, "b", "two-a"},
+          new Object[] {2L, "b", "two-b"},
+          new Object[] {3L, "c", null},
+          new Object[] {null, "d", null},
+          new Object[] {4L, "e", "four"}),
+          join(JoinDesc.LEFT_OUTER_JOIN, smallTable, createBatch(KEYS, VALUES)));
+    }
+  }
+
+  @Test
+  public void testSelectedInUse() throws Exception {
+    for (MapJoinTableContainer smallTable : smallTables()) {
+      VectorizedRowBatch batch = createBatch(KEYS, VALUES);
+      batch.selectedInUse = true;
+      batch.selected[0] = 1;
+      batch.selected[1] = 2;
+      batch.selected[2] = 4;
+      batch.size = 3;
+      assertEquals(rows(
+          new Object[] {2L, "b", "two-a"},
+          new Object[] {2L, "b", "two-b"},
+          new Object[] {4L, "e", "four"}),
+          join(JoinDesc.INNER_JOIN, smallTable, batch));
+
+      batch = createBatch(KEYS, VALUES);
+      batch.selectedInUse = true;
+      batch.selected[0] = 0;
+      batch.selected[1] = 2;
+      batch.selected[2] = 3;
+      batch.size = 3;
+      assertEquals(rows(
+          new Object[] {1L, "a", "one"},
+          new Object[] {3L, "c", null},
+          new Object[] {null, "d", null}),
+          join(JoinDesc.LEFT_OUTER_JOIN, smallTable, batch));
+    }
+  }
+
+  @Test
+  public void testRepeatingKey() throws Exception {
+    // a full batch with two matches per row fills the output batch twice
+    int size = VectorizedRowBatch.DEFAULT_SIZE;
+    Long[] keys = new Long[size];
+    String[] values = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = 2L;
+      values[i] = "v" + i;
+    }
+    List<List<Object>> expected = new ArrayList<List<Object>>();
+    for (int i = 0; i < size; i++) {
+      expected.add(Arrays.<Object>asList(2L, "v" + i, "two-a"));
+      expected.add(Arrays.<Object>asList(2L, "v" + i, "two-b"));
+    }
+
+    for (MapJoinTableContainer smallTable : smallTables()) {
+      VectorizedRowBatch batch = createBatch(keys, values);
+      batch.cols[0].isRepeating = true;
+      assertEquals(expected, join(JoinDesc.INNER_JOIN, smallTable, batch));
+
+      batch = createBatch(keys, values);
+      batch.cols[0].isRepeating = true;
+      assertEquals(expected, join(JoinDesc.LEFT_OUTER_JOIN, smallTable, batch));
+
+      // a repeating null key matches nothing
+      batch = createBatch(new Long[] {null, null, null}, new String[] {"x", "y", "z"});
+      batch.cols[0].isRepeating = true;
+      assertEquals(rows(), join(JoinDesc.INNER_JOIN, smallTable, batch));
+      batch = createBatch(new Long[] {null, null, null}, new String[] {"x", "y", "z"});
+      batch.cols[0].isRepeating = true;
+      assertEquals(rows(
+          new Object[] {null, "x", null},
+          new Object[] {null, "y", null},
+          new Object[] {null, "z", null}),
+          join(JoinDesc.LEFT_OUTER_JOIN, smallTable, batch));
+    }
+  }
+
+  @Test
+  public void testSeveralBatches() throws Exception {
+    // the joined rows of both input batches share an output batch, and runs of equal keys
+    // are looked up once
+    for (MapJoinTableContainer smallTable : smallTables()) {
+      assertEquals(rows(
+          new Object[] {2L, "a", "two-a"},
+          new Object[] {2L, "a", "two-b"},
+          new Object[] {2L, "b", "two-a"},
+          new Object[] {2L, "b", "two-b"},
+          new Object[] {1L, "c", "one"},
+          new Object[] {4L, "x", "four"},
+          new Object[] {4L, "y", "four"},
+          new Object[] {1L, "z", "one"}),
+          join(JoinDesc.INNER_JOIN, smallTable,
+              createBatch(new Long[] {2L, 2L, 1L, 3L}, new String[] {"a", "b", "c", "d"}),
+              createBatch(new Long[] {4L, 4L, 1L}, new String[] {"x", "y", "z"})));
+    }
+  }
+}
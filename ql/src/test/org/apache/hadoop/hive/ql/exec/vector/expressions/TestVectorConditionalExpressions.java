@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+/**
+ * Test the vectorized CASE and COALESCE expressions.
+ */
+public class TestVectorConditionalExpressions {
+
+  /**
+   * An argument that records the rows it was evaluated on.
+   */
+  private static class RowRecorder extends VectorExpression {
+    private static final long serialVersionUID = 1L;
+    private final int colNum;
+    private final List<Integer> rows = new ArrayList<Integer>();
+
+    RowRecorder(int colNum) {
+      this.colNum = colNum;
+    }
+
+    @Override
+    public void evaluate(VectorizedRowBatch batch) {
+      for (int j = 0; j < batch.size; j++) {
+        rows.add(batch.selectedInUse ? batch.selected[j] : j);
+      }
+    }
+
+    @Override
+    public int getOutputColumn() {
+      return colNum;
+    }
+
+    @Override
+    public String getOutputType() {
+      return "Long";
+    }
+
+    @Override
+    public VectorExpressionDescriptor.Descriptor getDescriptor() {
+      return null;
+    }
+  }
+
+  /*
+   * Columns:
+   *   0: condition 1, 0, NULL, 1, 0
+   *   1: 10, 11, 12, 13, 14
+   *   2: 20, NULL, 22, 23, 24
+   *   3: output
+   */
+  private VectorizedRowBatch getBatch() {
+    VectorizedRowBatch batch = new VectorizedRowBatch(4);
+    LongColumnVector cond = new LongColumnVector();
+    LongColumnVector v1 = new LongColumnVector();
+    LongColumnVector v2 = new LongColumnVector();
+    long[] condValues = {1, 0, 0, 1, 0};
+    for (int i = 0; i < condValues.length; i++) {
+      cond.vector[i] = condValues[i];
+      v1.vector[i] = 10 + i;
+      v2.vector[i] = 20 + i;
+    }
+    cond.noNulls = false;
+    cond.isNull[2] = true;
+    v2.noNulls = false;
+    v2.isNull[1] = true;
+    batch.cols[0] = cond;
+    batch.cols[1] = v1;
+    batch.cols[2] = v2;
+    batch.cols[3] = new LongColumnVector();
+    batch.size = condValues.length;
+    return batch;
+  }
+
+  @Test
+  public void testIf() {
+    VectorizedRowBatch batch = getBatch();
+    RowRecorder thenRows = new RowRecorder(1);
+    RowRecorder elseRows = new RowRecorder(2);
+    CaseWhenExpression expr = new CaseWhenExpression(new int[] {0, 1, 2}, 3, "Long");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(0, "boolean"), thenRows, elseRows});
+    expr.evaluate(batch);
+
+    LongColumnVector outV = (LongColumnVector) batch.cols[3];
+    Assert.assertEquals(10, outV.vector[0]);
+    Assert.assertTrue(outV.isNull[1]);
+    Assert.assertEquals(22, outV.vector[2]);
+    Assert.assertEquals(13, outV.vector[3]);
+    Assert.assertEquals(24, outV.vector[4]);
+    Assert.assertFalse(outV.noNulls);
+    Assert.assertFalse(outV.isRepeating);
+
+    // each branch only sees its own rows
+    Assert.assertEquals("[0, 3]", thenRows.rows.toString());
+    Assert.assertEquals("[1, 2, 4]", elseRows.rows.toString());
+
+    // the selected rows of the batch are left as they were
+    Assert.assertFalse(batch.selectedInUse);
+    Assert.assertEquals(5, batch.size);
+  }
+
+  @Test
+  public void testIfSelectedInUse() {
+    VectorizedRowBatch batch = getBatch();
+    batch.selectedInUse = true;
+    batch.selected[0] = 1;
+    batch.selected[1] = 3;
+    batch.size = 2;
+    RowRecorder thenRows = new RowRecorder(1);
+    RowRecorder elseRows = new RowRecorder(2);
+    CaseWhenExpression expr = new CaseWhenExpression(new int[] {0, 1, 2}, 3, "Long");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(0, "boolean"), thenRows, elseRows});
+    expr.evaluate(batch);
+
+    LongColumnVector outV = (LongColumnVector) batch.cols[3];
+    Assert.assertTrue(outV.isNull[1]);
+    Assert.assertEquals(13, outV.vector[3]);
+    Assert.assertEquals("[3]", thenRows.rows.toString());
+    Assert.assertEquals("[1]", elseRows.rows.toString());
+    Assert.assertTrue(batch.selectedInUse);
+    Assert.assertEquals(2, batch.size);
+    Assert.assertEquals(1, batch.selected[0]);
+    Assert.assertEquals(3, batch.selected[1]);
+  }
+
+  @Test
+  public void testCaseWhenWithoutElse() {
+    VectorizedRowBatch batch = getBatch();
+    CaseWhenExpression expr = new CaseWhenExpression(new int[] {0, 1}, 3, "Long");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(0, "boolean"), new IdentityExpression(1, "bigint")});
+    expr.evaluate(batch);
+
+    LongColumnVector outV = (LongColumnVector) batch.cols[3];
+    Assert.assertEquals(10, outV.vector[0]);
+    Assert.assertTrue(outV.isNull[1]);
+    Assert.assertTrue(outV.isNull[2]);
+    Assert.assertFalse(outV.isNull[3]);
+    Assert.assertEquals(13, outV.vector[3]);
+    Assert.assertTrue(outV.isNull[4]);
+  }
+
+  @Test
+  public void testCoalesce() {
+    VectorizedRowBatch batch = getBatch();
+    RowRecorder secondRows = new RowRecorder(1);
+
+    // coalesce(col2, col1)
+    CoalesceExpression expr = new CoalesceExpression(new int[] {2, 1}, 3, "Long");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(2, "bigint"), secondRows});
+    expr.evaluate(batch);
+
+    LongColumnVector outV = (LongColumnVector) batch.cols[3];
+    Assert.assertEquals(20, outV.vector[0]);
+    Assert.assertEquals(11, outV.vector[1]);
+    Assert.assertEquals(24, outV.vector[4]);
+    Assert.assertTrue(outV.noNulls);
+    Assert.assertEquals("[1]", secondRows.rows.toString());
+
+    // coalesce(col2, NULL)
+    batch = getBatch();
+    expr = new CoalesceExpression(new int[] {2, -1}, 3, "Long");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(2, "bigint"), null});
+    expr.evaluate(batch);
+    outV = (LongColumnVector) batch.cols[3];
+    Assert.assertEquals(20, outV.vector[0]);
+    Assert.assertFalse(outV.noNulls);
+    Assert.assertTrue(outV.isNull[1]);
+  }
+
+  @Test
+  public void testCoalesceStrings() throws UnsupportedEncodingException {
+    VectorizedRowBatch batch = new VectorizedRowBatch(3);
+    BytesColumnVector first = new BytesColumnVector();
+    BytesColumnVector second = new BytesColumnVector();
+    byte[] a = "a".getBytes("UTF-8");
+    byte[] b = "b".getBytes("UTF-8");
+    first.setRef(0, a, 0, a.length);
+    first.noNulls = false;
+    first.isNull[1] = true;
+
+    // a repeating column
+    second.setRef(0, b, 0, b.length);
+    second.isRepeating = true;
+    batch.cols[0] = first;
+    batch.cols[1] = second;
+    batch.cols[2] = new BytesColumnVector();
+    batch.size = 2;
+
+    CoalesceExpression expr = new CoalesceExpression(new int[] {0, 1}, 2, "String");
+    expr.setArgumentExpressions(new VectorExpression[] {
+        new IdentityExpression(0, "string"), new IdentityExpression(1, "string")});
+    expr.evaluate(batch);
+
+    BytesColumnVector outV = (BytesColumnVector) batch.cols[2];
+    Assert.assertEquals("a", new String(outV.vector[0], outV.start[0], outV.length[0], "UTF-8"));
+    Assert.assertEquals("b", new String(outV.vector[1], outV.start[1], outV.length[1], "UTF-8"));
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.DecimalUtil.ArithmeticOperator;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.DecimalUtil.ComparisonOperator;
+import org.junit.Test;
+
+/**
+ * Unit tests for the decimal column vector and the vectorized decimal expressions.
+ */
+public class TestVectorDecimalExpressions {
+
+  @Test
+  public void testDecimalColumnVectorSet() {
+    DecimalColumnVector dcv = new DecimalColumnVector(5, 2);
+
+    // 1.005 rounds half up to 1.01
+    dcv.set(0, 1005, 3);
+    assertEquals(101, dcv.vector[0]);
+
+    // -1.005 rounds half up (away from zero) to -1.01
+    dcv.set(1, -1005, 3);
+    assertEquals(-101, dcv.vector[1]);
+
+    // 12 at scale 0 becomes 12.00
+    dcv.set(2, 12, 0);
+    assertEquals(1200, dcv.vector[2]);
+    assertTrue(dcv.noNulls);
+
+    // 1000 does not fit in decimal(5,2)
+    dcv.set(3, 1000, 0);
+    assertFalse(dcv.noNulls);
+    assertTrue(dcv.isNull[3]);
+
+    dcv.set(4, HiveDecimal.create("-12.345"));
+    assertEquals(-1235, dcv.vector[4]);
+    assertEquals(HiveDecimal.create("-12.35"), dcv.getHiveDecimal(4));
+  }
+
+  @Test
+  public void testDecimalColAddDecimalColumn() {
+    VectorizedRowBatch b = getBatchDecimal2Cols();
+    DecimalColumnVector out = new DecimalColumnVector(7, 3);
+    b.cols[2] = out;
+    new DecimalColArithmeticDecimalColumn(0, 1, 2, ArithmeticOperator.PLUS, "decimal(7,3)")
+        .evaluate(b);
+
+    // 1.20 + 0.345 = 1.545
+    assertEquals(1545, out.vector[0]);
+    // -3.10 + 1.000 = -2.100
+    assertEquals(-2100, out.vector[1]);
+    // 99.99 + 0.001 = 99.991
+    assertEquals(99991, out.vector[2]);
+    assertTrue(out.noNulls);
+    assertFalse(out.isRepeating);
+
+    // A null input gives a null output
+    b.cols[0].noNulls = false;
+    b.cols[0].isNull[1] = true;
+    new DecimalColArithmeticDecimalColumn(0, 1, 2, ArithmeticOperator.PLUS, "decimal(7,3)")
+        .evaluate(b);
+    assertFalse(out.noNulls);
+    assertTrue(out.isNull[1]);
+    assertFalse(out.isNull[0]);
+    assertEquals(1545, out.vector[0]);
+  }
+
+  @Test
+  public void testDecimalColMultiplyDecimalColumnOverflow() {
+    VectorizedRowBatch b = getBatchDecimal2Cols();
+
+    // Only the first product fits in decimal(6,5)
+    DecimalColumnVector out = new DecimalColumnVector(6, 5);
+    b.cols[2] = out;
+    new DecimalColArithmeticDecimalColumn(0, 1, 2, ArithmeticOperator.MULTIPLY, "decimal(6,5)")
+        .evaluate(b);
+
+    // 1.20 * 0.345 = 0.41400
+    assertEquals(41400, out.vector[0]);
+    assertFalse(out.isNull[0]);
+    // -3.10 * 1.000 = -3.10000 does fit
+    assertEquals(-310000, out.vector[1]);
+    assertFalse(out.isNull[1]);
+    // 99.99 * 0.001 = 0.09999
+    assertEquals(9999, out.vector[2]);
+
+    // Multiply by a repeating integer column
+    LongColumnVector lcv = new LongColumnVector();
+    lcv.vector[0] = 1000;
+    lcv.isRepeating = true;
+    b.cols[1] = lcv;
+    new DecimalColArithmeticDecimalColumn(0, 1, 2, ArithmeticOperator.MULTIPLY, "decimal(6,5)")
+        .evaluate(b);
+
+    // 1200.00000 does not fit in decimal(6,5)
+    assertFalse(out.noNulls);
+    assertTrue(out.isNull[0]);
+    assertTrue(out.isNull[1]);
+    assertTrue(out.isNull[2]);
+  }
+
+  @Test
+  public void testFilterDecimalColCompareDecimalColumn() {
+    VectorizedRowBatch b = getBatchDecimal2Cols();
+    new FilterDecimalColCompareDecimalColumn(0, 1, ComparisonOperator.GREATER).evaluate(b);
+
+    // 1.20 > 0.345 and 99.99 > 0.001, but -3.10 < 1.000
+    assertEquals(2, b.size);
+    assertTrue(b.selectedInUse);
+    assertEquals(0, b.selected[0]);
+    assertEquals(2, b.selected[1]);
+
+    b = getBatchDecimal2Cols();
+    b.cols[2] = new LongColumnVector();
+    new DecimalColCompareDecimalColumn(0, 1, 2, ComparisonOperator.LESS_EQUAL).evaluate(b);
+    LongColumnVector out = (LongColumnVector) b.cols[2];
+    assertEquals(0, out.vector[0]);
+    assertEquals(1, out.vector[1]);
+    assertEquals(0, out.vector[2]);
+  }
+
+  @Test
+  public void testCastDecimal() {
+    VectorizedRowBatch b = getBatchDecimal2Cols();
+
+    b.cols[2] = new LongColumnVector();
+    new CastDecimalToLong(0, 2).evaluate(b);
+    LongColumnVector lcv = (LongColumnVector) b.cols[2];
+    assertEquals(1, lcv.vector[0]);
+    assertEquals(-3, lcv.vector[1]);
+    assertEquals(99, lcv.vector[2]);
+
+    b.cols[2] = new DoubleColumnVector();
+    new CastDecimalToDouble(0, 2).evaluate(b);
+    DoubleColumnVector dcv = (DoubleColumnVector) b.cols[2];
+    assertEquals(1.2, dcv.vector[0], 0.000001);
+    assertEquals(-3.1, dcv.vector[1], 0.000001);
+    assertEquals(99.99, dcv.vector[2], 0.000001);
+
+    // decimal(5,2) to decimal(3,1) rounds, and 99.99 rounds up to 100.0 which does not fit
+    DecimalColumnVector out = new DecimalColumnVector(3, 1);
+    b.cols[2] = out;
+    new CastLongToDecimal(0, 2, "decimal(3,1)").evaluate(b);
+    assertEquals(12, out.vector[0]);
+    assertEquals(-31, out.vector[1]);
+    assertFalse(out.noNulls);
+    assertFalse(out.isNull[0]);
+    assertTrue(out.isNull[2]);
+
+    DoubleColumnVector in = new DoubleColumnVector();
+    in.vector[0] = 0.125;
+    in.vector[1] = -2.5;
+    in.vector[2] = Double.NaN;
+    b.cols[0] = in;
+    out = new DecimalColumnVector(5, 2);
+    b.cols[2] = out;
+    new CastDoubleToDecimal(0, 2, "decimal(5,2)").evaluate(b);
+    assertEquals(13, out.vector[0]);
+    assertEquals(-250, out.vector[1]);
+    assertTrue(out.isNull[2]);
+  }
+
+  private VectorizedRowBatch getBatchDecimal2Cols() {
+    VectorizedRowBatch b = new VectorizedRowBatch(3);
+    DecimalColumnVector v0 = new DecimalColumnVector(5, 2);
+    b.cols[0] = v0;
+    v0.vector[0] = 120;
+    v0.vector[1] = -310;
+    v0.vector[2] = 9999;
+    DecimalColumnVector v1 = new DecimalColumnVector(4, 3);
+    b.cols[1] = v1;
+    v1.vector[0] = 345;
+    v1.vector[1] = 1000;
+    v1.vector[2] = 1;
+    b.size = 3;
+    return b;
+  }
+}
@@ -1830,4 +1830,110 @@ private VectorizedRowBatch makeTrimBatch() {
     b.size = 5;
     return b;
   }
- }
+
+  @Test
+  public void testStringInstrColScalar() throws UnsupportedEncodingException {
+    VectorizedRowBatch batch = makeStringBatch();
+    VectorExpression expr = new StringInstrColScalar(0, "e".getBytes("UTF-8"), 2);
+    expr.evaluate(batch);
+    LongColumnVector outV = (LongColumnVector) batch.cols[2];
+    Assert.assertEquals(2, outV.vector[0]);
+    Assert.assertEquals(3, outV.vector[1]);
+    Assert.assertFalse(outV.noNulls);
+    Assert.assertTrue(outV.isNull[2]);
+
+    // not found
+    batch = makeStringBatch();
+    expr = new StringInstrColScalar(0, "blue".getBytes("UTF-8"), 2);
+    expr.evaluate(batch);
+    outV = (LongColumnVector) batch.cols[2];
+    Assert.assertEquals(0, outV.vector[0]);
+    Assert.assertEquals(0, outV.vector[1]);
+
+    // repeating
+    batch = makeStringBatch();
+    batch.cols[0].isRepeating = true;
+    batch.cols[0].noNulls = true;
+    expr = new StringInstrColScalar(0, "d".getBytes("UTF-8"), 2);
+    expr.evaluate(batch);
+    outV = (LongColumnVector) batch.cols[2];
+    Assert.assertTrue(outV.isRepeating);
+    Assert.assertEquals(3, outV.vector[0]);
+  }
+
+  @Test
+  public void testStringLocateScalarCol() throws UnsupportedEncodingException {
+    VectorizedRowBatch batch = makeStringBatch();
+    VectorExpression expr = new StringLocateScalarCol("e".getBytes("UTF-8"), 0, 2);
+    expr.evaluate(batch);
+    LongColumnVector outV = (LongColumnVector) batch.cols[2];
+    Assert.assertEquals(2, outV.vector[0]);
+    Assert.assertEquals(3, outV.vector[1]);
+    Assert.assertTrue(outV.isNull[2]);
+
+    // start the search at the 4th byte
+    batch = makeStringBatch();
+    expr = new StringLocateScalarColScalar("e".getBytes("UTF-8"), 0, 4, 2);
+    expr.evaluate(batch);
+    outV = (LongColumnVector) batch.cols[2];
+    Assert.assertEquals(0, outV.vector[0]);
+    Assert.assertEquals(4, outV.vector[1]);
+
+    // a start position before the string never matches
+    batch = makeStringBatch();
+    expr = new StringLocateScalarColScalar("e".getBytes("UTF-8"), 0, 0, 2);
+    expr.evaluate(batch);
+    outV = (LongColumnVector) batch.cols[2];
+    Assert.assertEquals(0, outV.vector[0]);
+    Assert.assertEquals(0, outV.vector[1]);
+  }
+
+  @Test
+  public void testStringRegexpReplace() throws UnsupportedEncodingException {
+
+    // literal pattern and replacement
+    VectorizedRowBatch batch = makeStringBatch();
+    VectorExpression expr = new StringRegexpReplaceColScalarScalar(0,
+        "e".getBytes("UTF-8"), "EE".getBytes("UTF-8"), 1);
+    expr.evaluate(batch);
+    BytesColumnVector outV = (BytesColumnVector) batch.cols[1];
+    Assert.assertEquals("rEEd", getString(outV, 0));
+    Assert.assertEquals("grEEEEn", getString(outV, 1));
+    Assert.assertFalse(outV.noNulls);
+    Assert.assertTrue(outV.isNull[2]);
+
+    // regular expression
+    batch = makeStringBatch();
+    expr = new StringRegexpReplaceColScalarScalar(0,
+        "e+".getBytes("UTF-8"), "X".getBytes("UTF-8"), 1);
+    expr.evaluate(batch);
+    outV = (BytesColumnVector) batch.cols[1];
+    Assert.assertEquals("rXd", getString(outV, 0));
+    Assert.assertEquals("grXn", getString(outV, 1));
+
+    // group references, only on the selected rows
+    batch = makeStringBatch();
+    batch.selectedInUse = true;
+    batch.selected[0] = 1;
+    batch.size = 1;
+    expr = new StringRegexpReplaceColScalarScalar(0,
+        "(r)(e)".getBytes("UTF-8"), "$2$1".getBytes("UTF-8"), 1);
+    expr.evaluate(batch);
+    outV = (BytesColumnVector) batch.cols[1];
+    Assert.assertEquals("geren", getString(outV, 1));
+
+    // multi-byte characters
+    batch = makeStringBatch();
+    ((BytesColumnVector) batch.cols[0]).setRef(0, multiByte, 0, 10);
+    expr = new StringRegexpReplaceColScalarScalar(0,
+        ".".getBytes("UTF-8"), "x".getBytes("UTF-8"), 1);
+    expr.evaluate(batch);
+    outV = (BytesColumnVector) batch.cols[1];
+    Assert.assertEquals("xxxx", getString(outV, 0));
+  }
+
+  private static String getString(BytesColumnVector v, int i)
+      throws UnsupportedEncodingException {
+    return new String(v.vector[i], v.start[i], v.length[i], "UTF-8");
+  }
+}
@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriter;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorAggregate.AggregationType;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorAggregate.FrameType;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.LongWritable;
+import org.junit.Test;
+
+/**
+ * Unit tests for the window functions of the vectorized PTF operator.
+ */
+public class TestVectorPTFEvaluators {
+
+  private static LongColumnVector longColumn(Long... values) {
+    LongColumnVector column = new LongColumnVector(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        column.noNulls = false;
+        column.isNull[i] = true;
+      } else {
+        column.vector[i] = values[i];
+      }
+    }
+    return column;
+  }
+
+  private static VectorPTFColumnBuffer.LongBuffer longBuffer(Long... values) {
+    VectorPTFColumnBuffer.LongBuffer buffer = new VectorPTFColumnBuffer.LongBuffer();
+    buffer.append(longColumn(values), null, false, 0, values.length);
+    return buffer;
+  }
+
+  private static VectorExpressionWriter longWriter() throws HiveException {
+    return VectorExpressionWriterFactory.genVectorExpressionWritable(
+        PrimitiveObjectInspectorFactory.writableLongObjectInspector);
+  }
+
+  private static VectorExpressionWriter doubleWriter() throws HiveException {
+    return VectorExpressionWriterFactory.genVectorExpressionWritable(
+        PrimitiveObjectInspectorFactory.writableDoubleObjectInspector);
+  }
+
+  private static void assertLongResults(VectorPTFEvaluator evaluator, Long... expected)
+      throws HiveException {
+    for (int i = 0; i < expected.length; i++) {
+      Object value = evaluator.writeValue(i);
+      if (expected[i] == null) {
+        assertNull("row " + i, value);
+      } else {
+        assertEquals("row " + i, expected[i].longValue(), ((LongWritable) value).get());
+      }
+    }
+  }
+
+  @Test
+  public void testColumnBufferAppendAndDiscard() {
+    LongColumnVector column = longColumn(10L, null, 30L, 40L, 50L);
+    int[] selected = new int[] {0, 1, 3, 4};
+    VectorPTFColumnBuffer.LongBuffer buffer =
+        (VectorPTFColumnBuffer.LongBuffer) VectorPTFColumnBuffer.create(column);
+    buffer.append(column, selected, true, 0, 4);
+    assertEquals(4, buffer.size());
+    assertEquals(10L, buffer.get(0));
+    assertTrue(buffer.isNull(1));
+    assertEquals(40L, buffer.get(2));
+
+    buffer.discard(2);
+    assertEquals(2, buffer.size());
+    assertEquals(40L, buffer.get(0));
+    assertEquals(50L, buffer.get(1));
+
+    column.isRepeating = true;
+    buffer.append(column, null, false, 0, 3);
+    assertEquals(5, buffer.size());
+    assertEquals(10L, buffer.get(4));
+    assertFalse(buffer.isNull(4));
+
+    buffer.discard(10);
+    assertEquals(0, buffer.size());
+  }
+
+  @Test
+  public void testRankAndDenseRank() throws HiveException {
+    VectorPTFColumnBuffer.LongBuffer peerStarts = longBuffer(1L, 0L, 1L, 1L, 0L, 0L, 1L);
+    VectorPTFEvaluator rank = new VectorPTFEvaluatorRank(peerStarts, false, longWriter());
+    VectorPTFEvaluator denseRank = new VectorPTFEvaluatorRank(peerStarts, true, longWriter());
+    VectorPTFEvaluator rowNumber = new VectorPTFEvaluatorRowNumber(longWriter());
+    for (VectorPTFEvaluator evaluator : new VectorPTFEvaluator[] {rank, denseRank, rowNumber}) {
+      evaluator.startPartition();
+      evaluator.evaluate(0, 3);
+      evaluator.evaluate(3, 7);
+      assertEquals(7, evaluator.getReadyCount());
+    }
+    assertLongResults(rank, 1L, 1L, 3L, 4L, 4L, 4L, 7L);
+    assertLongResults(denseRank, 1L, 1L, 2L, 3L, 3L, 3L, 4L);
+    assertLongResults(rowNumber, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+  }
+
+  @Test
+  public void testLagAcrossDiscards() throws HiveException {
+    VectorPTFColumnBuffer.LongBuffer argument = longBuffer(1L, 2L, 3L);
+    VectorPTFEvaluator lag = new VectorPTFEvaluatorLeadLag(false, 2, argument, null,
+        longWriter());
+    lag.startPartition();
+    lag.evaluate(0, 3);
+    assertEquals(3, lag.getReadyCount());
+    assertLongResults(lag, null, null, 1L);
+
+    // the operator emits the ready rows and drops them from every buffer
+    argument.discard(3);
+    lag.discard(3);
+    argument.append(longColumn(4L, 5L), null, false, 0, 2);
+    lag.evaluate(0, 2);
+    assertEquals(2, lag.getReadyCount());
+    assertLongResults(lag, 2L, 3L);
+  }
+
+  @Test
+  public void testLeadWithDefault() throws HiveException {
+    VectorPTFColumnBuffer.LongBuffer argument = longBuffer(1L, 2L, 3L);
+    VectorPTFColumnBuffer.LongBuffer defaultValue = longBuffer(0L, 0L, -3L);
+    VectorPTFEvaluator lead = new VectorPTFEvaluatorLeadLag(true, 1, argument, defaultValue,
+        longWriter());
+    lead.startPartition();
+    lead.evaluate(0, 3);
+    assertEquals(2, lead.getReadyCount());
+    assertLongResults(lead, 2L, 3L);
+
+    argument.discard(2);
+    defaultValue.discard(2);
+    lead.discard(2);
+    argument.append(longColumn(4L), null, false, 0, 1);
+    defaultValue.append(longColumn(-4L), null, false, 0, 1);
+    lead.evaluate(1, 2);
+    assertEquals(1, lead.getReadyCount());
+
+    // the last row takes its own default
+    lead.finishPartition();
+    assertEquals(2, lead.getReadyCount());
+    assertLongResults(lead, 4L, -4L);
+  }
+
+  @Test
+  public void testRunningRowsAndRangeSum() throws HiveException {
+    VectorPTFColumnBuffer.LongBuffer argument = longBuffer(1L, 2L, 3L, 4L);
+    VectorPTFColumnBuffer.LongBuffer peerStarts = longBuffer(1L, 0L, 1L, 1L);
+
+    VectorPTFEvaluator rows = new VectorPTFEvaluatorAggregate(AggregationType.SUM,
+        FrameType.RUNNING_ROWS, argument, peerStarts, longWriter());
+    rows.startPartition();
+    rows.evaluate(0, 4);
+    assertEquals(4, rows.getReadyCount());
+    assertLongResults(rows, 1L, 3L, 6L, 10L);
+
+    // peers share the sum up to their last row
+    VectorPTFEvaluator range = new VectorPTFEvaluatorAggregate(AggregationType.SUM,
+        FrameType.RUNNING_RANGE, argument, peerStarts, longWriter());
+    range.startPartition();
+    range.evaluate(0, 2);
+    assertEquals(0, range.getReadyCount());
+    range.evaluate(2, 4);
+    assertEquals(3, range.getReadyCount());
+    range.finishPartition();
+    assertEquals(4, range.getReadyCount());
+    assertLongResults(range, 3L, 3L, 6L, 10L);
+  }
+
+  @Test
+  public void testWholePartitionAggregates() throws HiveException {
+    VectorPTFColumnBuffer.LongBuffer argument = longBuffer(1L, null, 3L);
+    VectorPTFColumnBuffer.LongBuffer peerStarts = longBuffer(1L, 1L, 1L);
+
+    VectorPTFEvaluator count = new VectorPTFEvaluatorAggregate(AggregationType.COUNT,
+        FrameType.WHOLE_PARTITION, argument, peerStarts, longWriter());
+    VectorPTFEvaluator countStar = new VectorPTFEvaluatorAggregate(AggregationType.COUNT,
+        FrameType.WHOLE_PARTITION, null, peerStarts, longWriter());
+    VectorPTFEvaluator max = new VectorPTFEvaluatorAggregate(AggregationType.MAX,
+        FrameType.WHOLE_PARTITION, argument, peerStarts, longWriter());
+    VectorPTFEvaluator avg = new VectorPTFEvaluatorAggregate(AggregationType.AVG,
+        FrameType.WHOLE_PARTITION, argument, peerStarts, doubleWriter());
+    for (VectorPTFEvaluator evaluator : new VectorPTFEvaluator[] {count, countStar, max, avg}) {
+      evaluator.startPartition();
+      evaluator.evaluate(0, 3);
+      assertEquals(0, evaluator.getReadyCount());
+      evaluator.finishPartition();
+      assertEquals(3, evaluator.getReadyCount());
+    }
+    assertLongResults(count, 2L, 2L, 2L);
+    assertLongResults(countStar, 3L, 3L, 3L);
+    assertLongResults(max, 3L, 3L, 3L);
+    assertEquals(2.0, ((DoubleWritable) avg.writeValue(1)).get(), 0.0);
+
+    VectorPTFEvaluator sumOfNulls = new VectorPTFEvaluatorAggregate(AggregationType.SUM,
+        FrameType.WHOLE_PARTITION, longBuffer(null, null), peerStarts, longWriter());
+    sumOfNulls.startPartition();
+    sumOfNulls.evaluate(0, 2);
+    sumOfNulls.finishPartition();
+    assertLongResults(sumOfNulls, null, null);
+  }
+}
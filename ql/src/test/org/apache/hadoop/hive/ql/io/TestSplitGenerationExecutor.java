@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.junit.Test;
+
+public class TestSplitGenerationExecutor {
+
+  private static class SleepTask implements Callable<Integer> {
+    private final int value;
+
+    SleepTask(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+      // the earlier tasks finish last
+      Thread.sleep((20 - value) * 5);
+      if (value < 0) {
+        throw new IOException("bad task " + value);
+      }
+      return value;
+    }
+  }
+
+  private static List<SleepTask> tasks(int... values) {
+    List<SleepTask> result = new ArrayList<SleepTask>();
+    for (int value : values) {
+      result.add(new SleepTask(value));
+    }
+    return result;
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    Configuration conf = new Configuration();
+    for (int threads : new int[]{1, 4}) {
+      HiveConf.setIntVar(conf, HiveConf.ConfVars.HIVE_SPLIT_GENERATION_THREADS,
+          threads);
+      List<Integer> results = SplitGenerationExecutor.run(conf,
+          tasks(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+      assertEquals(10, results.size());
+      for (int i = 0; i < results.size(); ++i) {
+        assertEquals(i, results.get(i).intValue());
+      }
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    Configuration conf = new Configuration();
+    HiveConf.setIntVar(conf, HiveConf.ConfVars.HIVE_SPLIT_GENERATION_THREADS, 4);
+    try {
+      SplitGenerationExecutor.run(conf, tasks(0, 1, -2, 3));
+      fail("expected an IOException");
+    } catch (IOException e) {
+      assertEquals("bad task -2", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io.orc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestBloomFilter {
+
+  @Test
+  public void testNoFalseNegatives() throws Exception {
+    BloomFilter bf = new BloomFilter(10000, 0.05);
+    for(int i=0; i < 10000; ++i) {
+      bf.addLong(i * 7919L);
+      bf.addDouble(i / 3.0);
+      bf.addString("row " + i);
+    }
+    for(int i=0; i < 10000; ++i) {
+      assertTrue(bf.testLong(i * 7919L));
+      assertTrue(bf.testDouble(i / 3.0));
+      assertTrue(bf.testString("row " + i));
+    }
+  }
+
+  @Test
+  public void testSignedZero() throws Exception {
+    BloomFilter bf = new BloomFilter(100, 0.05);
+    bf.addDouble(-0.0);
+    assertTrue(bf.testDouble(0.0));
+    bf = new BloomFilter(100, 0.05);
+    bf.addDouble(0.0);
+    assertTrue(bf.testDouble(-0.0));
+  }
+
+  @Test
+  public void testFalsePositiveRate() throws Exception {
+    BloomFilter bf = new BloomFilter(10000, 0.05);
+    for(long i=0; i < 10000; ++i) {
+      bf.addLong(i);
+    }
+    int falsePositives = 0;
+    for(long i=10000; i < 110000; ++i) {
+      if (bf.testLong(i)) {
+        falsePositives += 1;
+      }
+    }
+    // allow some slack over the requested 5%
+    assertTrue("false positives " + falsePositives, falsePositives < 7000);
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    BloomFilter bf = new BloomFilter(1000, 0.05);
+    bf.addString("hello");
+    bf.addLong(42);
+    OrcProto.BloomFilter proto = OrcProto.BloomFilter.parseFrom(
+        bf.serialize().build().toByteArray());
+    BloomFilter copy = new BloomFilter(proto);
+    assertEquals(bf.getNumBits(), copy.getNumBits());
+    assertEquals(bf.getNumHashFunctions(), copy.getNumHashFunctions());
+    assertTrue(copy.testString("hello"));
+    assertTrue(copy.testLong(42));
+
+    bf.reset();
+    assertFalse(bf.testString("hello"));
+    assertFalse(bf.testLong(42));
+  }
+}
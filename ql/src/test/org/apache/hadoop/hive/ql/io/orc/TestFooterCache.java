@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.io.orc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+public class TestFooterCache {
+
+  public static class Row {
+    long x;
+    String y;
+
+    Row(long x, String y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  Path workDir = new Path(System.getProperty("test.tmp.dir",
+      "target" + File.separator + "test" + File.separator + "tmp"));
+
+  Configuration conf;
+  FileSystem fs;
+  Path testFilePath;
+
+  @Rule
+  public TestName testCaseName = new TestName();
+
+  @Before
+  public void openFileSystem() throws Exception {
+    conf = new Configuration();
+    fs = FileSystem.getLocal(conf);
+    testFilePath = new Path(workDir, "TestFooterCache." +
+        testCaseName.getMethodName() + ".orc");
+    fs.delete(testFilePath, false);
+  }
+
+  private FileStatus writeFile(int rows) throws Exception {
+    return writeFile(testFilePath, rows);
+  }
+
+  private FileStatus writeFile(Path path, int rows) throws Exception {
+    ObjectInspector inspector;
+    synchronized (TestFooterCache.class) {
+      inspector = ObjectInspectorFactory.getReflectionObjectInspector
+          (Row.class, ObjectInspectorFactory.ObjectInspectorOptions.JAVA);
+    }
+    fs.delete(path, false);
+    Writer writer = OrcFile.createWriter(path,
+        OrcFile.writerOptions(conf).inspector(inspector));
+    for(int i=0; i < rows; ++i) {
+      writer.addRow(new Row(i, "row " + i));
+    }
+    writer.close();
+    return fs.getFileStatus(path);
+  }
+
+  @Test
+  public void testHitsAndMisses() throws Exception {
+    FooterCache cache = new FooterCache(10);
+    FileStatus file = writeFile(1000);
+    Reader reader = cache.createReader(fs, file);
+    assertEquals(1000, reader.getNumberOfRows());
+    assertEquals(0, cache.getHits());
+    assertEquals(1, cache.getMisses());
+
+    reader = cache.createReader(fs, file);
+    assertEquals(1000, reader.getNumberOfRows());
+    assertEquals(1, reader.getMetadata().getStripeStatistics().size());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+
+    // a rewritten file must not be served from the cache
+    file = writeFile(2000);
+    reader = cache.createReader(fs, file);
+    assertEquals(2000, reader.getNumberOfRows());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    FileStatus file = writeFile(100);
+    Path otherPath = testFilePath.suffix(".other");
+    FileStatus other = writeFile(otherPath, 100);
+    // room for exactly one file
+    FooterCache cache = new FooterCache(1);
+    cache.createReader(fs, file);
+    cache.createReader(fs, other);
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(1, cache.getEvictions());
+    cache.createReader(fs, other);
+    assertEquals(1, cache.getHits());
+    cache.createReader(fs, file);
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getEvictions());
+    fs.delete(otherPath, false);
+  }
+
+  @Test
+  public void testStripeStatistics() throws Exception {
+    FooterCache cache = new FooterCache(10);
+    FileStatus file = writeFile(1000);
+    Reader reader = cache.createReader(fs, file);
+    assertEquals(1000, reader.getNumberOfRows());
+    // the stripe statistics are only parsed when they are asked for
+    assertEquals(0, cache.getStripeStatisticsCount());
+    assertEquals(1, reader.getMetadata().getStripeStatistics().size());
+    assertEquals(1, cache.getStripeStatisticsCount());
+
+    // and are shared with the next reader of the file
+    reader = cache.createReader(fs, file);
+    assertEquals(1000, reader.getMetadata().getStripeStatistics().get(0)
+        .getColumnStatistics()[1].getNumberOfValues());
+    assertEquals(1, cache.getStripeStatisticsCount());
+    assertEquals(1, cache.getEntryCount());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    conf.setInt("hive.exec.orc.footer.cache.entries", 0);
+    assertEquals(null, FooterCache.getInstance(conf));
+    FileStatus file = writeFile(10);
+    assertEquals(10, OrcFile.createReader(fs, file, conf).getNumberOfRows());
+  }
+}
@@ -1511,6 +1511,47 @@ public void testMemoryManagement() throws Exception {
     assertEquals(2500, reader.getNumberOfRows());
   }
 
+  /**
+   * Bloom filters are only written to files of version 0.13 and later,
+   * since older readers fail on the BLOOM_FILTER stream.
+   */
+  @Test
+  public void testBloomFilterVersion() throws Exception {
+    ObjectInspector inspector;
+    synchronized (TestOrcFile.class) {
+      inspector = ObjectInspectorFactory.getReflectionObjectInspector
+          (InnerStruct.class,
+              ObjectInspectorFactory.ObjectInspectorOptions.JAVA);
+    }
+    for(OrcFile.Version version: OrcFile.Version.values()) {
+      fs.delete(testFilePath, false);
+      Writer writer = OrcFile.createWriter(testFilePath,
+                                           OrcFile.writerOptions(conf)
+                                           .inspector(inspector)
+                                           .compress(CompressionKind.NONE)
+                                           .version(version)
+                                           .bloomFilterColumns("int1"));
+      for(int i=0; i < 3000; ++i) {
+        writer.addRow(new InnerStruct(i, Integer.toHexString(i)));
+      }
+      writer.close();
+      Reader reader = OrcFile.createReader(fs, testFilePath);
+      RecordReader rows = reader.rows(null);
+      OrcProto.StripeFooter footer = ((RecordReaderImpl) rows)
+          .readStripeFooter(reader.getStripes().iterator().next());
+      boolean hasBloomFilter = false;
+      for(OrcProto.Stream stream: footer.getStreamsList()) {
+        if (stream.getKind() == OrcProto.Stream.Kind.BLOOM_FILTER) {
+          assertEquals(1, stream.getColumn());
+          hasBloomFilter = true;
+        }
+      }
+      assertEquals(version.getName(),
+          version.compareTo(OrcFile.Version.V_0_13) >= 0, hasBloomFilter);
+      rows.close();
+    }
+  }
+
   @Test
   public void testPredicatePushdown() throws Exception {
     ObjectInspector inspector;
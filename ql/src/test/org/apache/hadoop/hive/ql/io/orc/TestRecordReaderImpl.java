@@ -223,6 +223,68 @@ public void testIn() throws Exception {
         RecordReaderImpl.evaluatePredicate(createIntStats(12L, 18L), pred));
   }
 
+  @Test
+  public void testBloomFilter() throws Exception {
+    BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+    for(long i=0; i < 1000; i += 2) {
+      bloomFilter.addLong(i);
+    }
+    PredicateLeaf pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.EQUALS, PredicateLeaf.Type.INTEGER,
+            "x", 20L, null);
+    assertEquals(TruthValue.YES_NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.INT, bloomFilter));
+    // a value that is in range, but was never added
+    pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.EQUALS, PredicateLeaf.Type.INTEGER,
+            "x", 10000L, null);
+    assertEquals(TruthValue.NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.INT, bloomFilter));
+    // literals that don't match the column type can't be tested
+    pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.EQUALS, PredicateLeaf.Type.STRING,
+            "x", "10000", null);
+    assertEquals(TruthValue.YES_NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.INT, bloomFilter));
+    // other operators are left alone
+    pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.LESS_THAN, PredicateLeaf.Type.INTEGER,
+            "x", 10000L, null);
+    assertEquals(TruthValue.YES_NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.INT, bloomFilter));
+  }
+
+  @Test
+  public void testBloomFilterIn() throws Exception {
+    BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+    bloomFilter.addString("alpha");
+    bloomFilter.addString("beta");
+    List<Object> args = new ArrayList<Object>();
+    args.add("gamma");
+    args.add("delta");
+    PredicateLeaf pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.IN, PredicateLeaf.Type.STRING,
+            "x", null, args);
+    assertEquals(TruthValue.NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.STRING, bloomFilter));
+    args.add("beta");
+    pred = TestSearchArgumentImpl.createPredicateLeaf
+        (PredicateLeaf.Operator.IN, PredicateLeaf.Type.STRING,
+            "x", null, args);
+    assertEquals(TruthValue.YES_NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.YES_NO_NULL, pred,
+            OrcProto.Type.Kind.STRING, bloomFilter));
+    // the statistics already excluded the row group
+    assertEquals(TruthValue.NO_NULL,
+        RecordReaderImpl.evaluateBloomFilter(TruthValue.NO_NULL, pred,
+            OrcProto.Type.Kind.STRING, bloomFilter));
+  }
+
   @Test
   public void testBetween() throws Exception {
     List<Object> args = new ArrayList<Object>();
@@ -20,16 +20,26 @@
 
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.lockmgr.HiveLockMode;
+import org.apache.hadoop.hive.ql.lockmgr.HiveLockObj;
 import org.apache.hadoop.hive.ql.lockmgr.HiveLockObject;
+import org.apache.hadoop.hive.ql.lockmgr.HiveLockObject.HiveLockObjectData;
+import org.apache.hadoop.hive.ql.lockmgr.zookeeper.ZooKeeperHiveLockManager.LockRequest;
+import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.ZooDefs.Ids;
 import org.apache.zookeeper.ZooKeeper;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.google.common.base.Joiner;
 
@@ -97,4 +107,164 @@ public void testGetQuorumServers() {
     conf.setVar(HiveConf.ConfVars.HIVE_ZOOKEEPER_CLIENT_PORT, "9999");
     Assert.assertEquals("node1:5666,node2:9999,node3:9999", ZooKeeperHiveLockManager.getQuorumServers(conf));
   }
+
+  private static HiveLockObj lockObj(String name, HiveLockMode mode) {
+    HiveLockObjectData data = new HiveLockObjectData("query1", "0", "IMPLICIT", "select 1");
+    return new HiveLockObj(new HiveLockObject(name.split("/"), data), mode);
+  }
+
+  /*
+   * The locks a query reading the given number of partitions of db/t takes.
+   */
+  private static List<HiveLockObj> readPartitions(int numPartitions) {
+    List<HiveLockObj> lockObjects = new ArrayList<HiveLockObj>();
+    lockObjects.add(lockObj("db", HiveLockMode.SHARED));
+    lockObjects.add(lockObj("db/t", HiveLockMode.SHARED));
+    for (int i = 0; i < numPartitions; i++) {
+      lockObjects.add(lockObj("db/t/ds=" + i, HiveLockMode.SHARED));
+    }
+    return lockObjects;
+  }
+
+  @Test
+  public void testLockRequestsSortedAndDeduped() {
+    List<HiveLockObj> lockObjects = new ArrayList<HiveLockObj>();
+    lockObjects.add(lockObj("db/t/ds=1", HiveLockMode.SHARED));
+    lockObjects.add(lockObj("db/t", HiveLockMode.SHARED));
+    lockObjects.add(lockObj("db/t/ds=1", HiveLockMode.EXCLUSIVE));
+    lockObjects.add(lockObj("db", HiveLockMode.SHARED));
+
+    List<LockRequest> requests = ZooKeeperHiveLockManager.getLockRequests(lockObjects, 0);
+    Assert.assertEquals(3, requests.size());
+    Assert.assertEquals("db", requests.get(0).getName());
+    Assert.assertEquals("db/t", requests.get(1).getName());
+    Assert.assertEquals(HiveLockMode.SHARED, requests.get(1).mode);
+    Assert.assertFalse(requests.get(1).escalated);
+    // the table of an exclusively locked partition is marked
+    Assert.assertTrue(requests.get(1).intentExclusive);
+    Assert.assertEquals("db/t/ds=1", requests.get(2).getName());
+    Assert.assertEquals(HiveLockMode.EXCLUSIVE, requests.get(2).mode);
+  }
+
+  @Test
+  public void testLockEscalation() {
+    // at the threshold, the partitions are locked one by one
+    List<LockRequest> requests =
+        ZooKeeperHiveLockManager.getLockRequests(readPartitions(3), 3);
+    Assert.assertEquals(5, requests.size());
+    Assert.assertFalse(requests.get(1).escalated);
+
+    // above it, the table is locked instead
+    requests = ZooKeeperHiveLockManager.getLockRequests(readPartitions(4), 3);
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals("db", requests.get(0).getName());
+    Assert.assertEquals("db/t", requests.get(1).getName());
+    Assert.assertEquals(HiveLockMode.SHARED, requests.get(1).mode);
+    Assert.assertTrue(requests.get(1).escalated);
+    Assert.assertFalse(requests.get(1).intentExclusive);
+
+    // escalation is off by default
+    requests = ZooKeeperHiveLockManager.getLockRequests(readPartitions(4), 0);
+    Assert.assertEquals(6, requests.size());
+  }
+
+  @Test
+  public void testLockEscalationKeepsExclusiveLocks() {
+    List<HiveLockObj> lockObjects = readPartitions(4);
+    lockObjects.add(lockObj("db/t/ds=9", HiveLockMode.EXCLUSIVE));
+
+    List<LockRequest> requests = ZooKeeperHiveLockManager.getLockRequests(lockObjects, 3);
+    Assert.assertEquals(3, requests.size());
+    Assert.assertEquals("db/t", requests.get(1).getName());
+    Assert.assertTrue(requests.get(1).escalated);
+    Assert.assertTrue(requests.get(1).intentExclusive);
+    Assert.assertEquals("db/t/ds=9", requests.get(2).getName());
+    Assert.assertEquals(HiveLockMode.EXCLUSIVE, requests.get(2).mode);
+  }
+
+  @Test
+  public void testLockFlags() {
+    Assert.assertEquals("", ZooKeeperHiveLockManager.getLockFlags(
+        "query1:0:IMPLICIT:select 1:10.0.0.1"));
+    Assert.assertEquals("", ZooKeeperHiveLockManager.getLockFlags(
+        "query1:0:IMPLICIT:select 1:fe80::1"));
+    Assert.assertEquals("ESCALATED", ZooKeeperHiveLockManager.getLockFlags(
+        "query1:0:IMPLICIT:select 1:10.0.0.1:ESCALATED"));
+
+    Assert.assertTrue(ZooKeeperHiveLockManager.isSharedConflict("ESCALATED", "INTENT_EXCLUSIVE"));
+    Assert.assertTrue(ZooKeeperHiveLockManager.isSharedConflict("INTENT_EXCLUSIVE", "ESCALATED"));
+    Assert.assertTrue(ZooKeeperHiveLockManager.isSharedConflict("ESCALATED",
+        "ESCALATED_INTENT_EXCLUSIVE"));
+    Assert.assertFalse(ZooKeeperHiveLockManager.isSharedConflict("ESCALATED", "ESCALATED"));
+    Assert.assertFalse(ZooKeeperHiveLockManager.isSharedConflict("INTENT_EXCLUSIVE",
+        "INTENT_EXCLUSIVE"));
+    Assert.assertFalse(ZooKeeperHiveLockManager.isSharedConflict("ESCALATED", ""));
+  }
+
+  private static int size(Iterable<Op> ops) {
+    int size = 0;
+    for (Op op : ops) {
+      size++;
+    }
+    return size;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMultiSplitsManyOps() throws Exception {
+    List<Op> ops = new ArrayList<Op>();
+    for (int i = 0; i < 2500; i++) {
+      ops.add(Op.delete(TABLE_LOCK_PATH + i, -1));
+    }
+    ZooKeeperHiveLockManager.multi(zooKeeper, ops, new ArrayList<OpResult>());
+
+    ArgumentCaptor<Iterable> batches = ArgumentCaptor.forClass(Iterable.class);
+    verify(zooKeeper, times(3)).multi(batches.capture());
+    Assert.assertEquals(1000, size(batches.getAllValues().get(0)));
+    Assert.assertEquals(1000, size(batches.getAllValues().get(1)));
+    Assert.assertEquals(500, size(batches.getAllValues().get(2)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMultiSplitsLargeData() throws Exception {
+    // lock data carries the query string, which can be long
+    byte[] data = new byte[200 * 1024];
+    List<Op> ops = new ArrayList<Op>();
+    for (int i = 0; i < 5; i++) {
+      ops.add(Op.create(TABLE_LOCK_PATH, data, Ids.OPEN_ACL_UNSAFE,
+          CreateMode.EPHEMERAL_SEQUENTIAL));
+    }
+    ZooKeeperHiveLockManager.multi(zooKeeper, ops, new ArrayList<OpResult>());
+
+    ArgumentCaptor<Iterable> batches = ArgumentCaptor.forClass(Iterable.class);
+    verify(zooKeeper, times(3)).multi(batches.capture());
+    Assert.assertEquals(2, size(batches.getAllValues().get(0)));
+    Assert.assertEquals(2, size(batches.getAllValues().get(1)));
+    Assert.assertEquals(1, size(batches.getAllValues().get(2)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMultiKeepsResultsOfCommittedBatches() throws Exception {
+    List<Op> ops = new ArrayList<Op>();
+    for (int i = 0; i < 1500; i++) {
+      ops.add(Op.delete(TABLE_LOCK_PATH + i, -1));
+    }
+    List<OpResult> firstResults = new ArrayList<OpResult>();
+    for (int i = 0; i < 1000; i++) {
+      firstResults.add(new OpResult.DeleteResult());
+    }
+    when(zooKeeper.multi(any(Iterable.class))).thenReturn(firstResults)
+        .thenThrow(new KeeperException.NoNodeException());
+
+    List<OpResult> results = new ArrayList<OpResult>();
+    try {
+      ZooKeeperHiveLockManager.multi(zooKeeper, ops, results);
+      Assert.fail("the second batch should fail");
+    } catch (KeeperException.NoNodeException e) {
+      // expected
+    }
+    Assert.assertEquals(1000, results.size());
+  }
 }
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.optimizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestCostBasedJoinOrder {
+
+  /**
+   * A fact table written first, joined to two dimensions, one of which is
+   * filtered down to a few rows.
+   */
+  private static CostBasedJoinOrder getStarJoin(int dpThreshold) {
+    CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(dpThreshold);
+    int fact = joinOrder.addInput(1000000000, 100000000000.0);
+    int customer = joinOrder.addInput(1000000, 100000000);
+    int date = joinOrder.addInput(7, 700);
+    joinOrder.addPredicate(fact, 1000000, customer, 1000000);
+    joinOrder.addPredicate(fact, 3650, date, 3650);
+    return joinOrder;
+  }
+
+  @Test
+  public void testSelectiveDimensionFirst() {
+    for (int dpThreshold : new int[] {10, 0}) {
+      CostBasedJoinOrder joinOrder = getStarJoin(dpThreshold);
+      int[] order = joinOrder.getJoinOrder();
+      assertArrayEquals(new int[] {0, 2, 1}, order);
+      assertTrue(joinOrder.getCost(order) < joinOrder.getCost(new int[] {0, 1, 2}));
+    }
+  }
+
+  @Test
+  public void testCartesianProductAvoided() {
+    // a JOIN b JOIN c ON (a.x = c.x AND b.y = c.y) starts with a product
+    for (int dpThreshold : new int[] {10, 0}) {
+      CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(dpThreshold);
+      int a = joinOrder.addInput(100000, 1000000);
+      int b = joinOrder.addInput(100000, 1000000);
+      int c = joinOrder.addInput(1000, 10000);
+      joinOrder.addPredicate(a, 0, c, 0);
+      joinOrder.addPredicate(b, 0, c, 0);
+      int[] order = joinOrder.getJoinOrder();
+      assertTrue(order[0] == c || order[1] == c);
+    }
+  }
+
+  @Test
+  public void testChainNotBrokenByProduct() {
+    // a JOIN b ON (a.x = b.x) JOIN c ON (b.y = c.y), where the product of
+    // the two small tables a and c looks cheapest
+    for (int dpThreshold : new int[] {10, 0}) {
+      CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(dpThreshold);
+      int a = joinOrder.addInput(10, 100);
+      int b = joinOrder.addInput(1000000000, 10000000000.0);
+      int c = joinOrder.addInput(10, 100);
+      joinOrder.addPredicate(a, 10, b, 10);
+      joinOrder.addPredicate(b, 10, c, 10);
+      int[] order = joinOrder.getJoinOrder();
+      assertTrue(joinOrder.getCost(new int[] {a, c, b}) < joinOrder.getCost(order));
+      assertTrue(order[0] == b || order[1] == b);
+    }
+  }
+
+  @Test
+  public void testProductWrittenKept() {
+    // a JOIN b ON (a.x = b.x) JOIN c has no order without a product
+    for (int dpThreshold : new int[] {10, 0}) {
+      CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(dpThreshold);
+      int a = joinOrder.addInput(1000000, 10000000);
+      int b = joinOrder.addInput(1000000, 10000000);
+      int c = joinOrder.addInput(10, 100);
+      joinOrder.addPredicate(a, 0, b, 0);
+      assertArrayEquals(new int[] {a, b, c}, joinOrder.getJoinOrder());
+    }
+  }
+
+  @Test
+  public void testOriginalOrderKept() {
+    // all the orders cost the same
+    CostBasedJoinOrder joinOrder = new CostBasedJoinOrder(10);
+    for (int i = 0; i < 4; i++) {
+      joinOrder.addInput(1000, 10000);
+    }
+    for (int i = 1; i < 4; i++) {
+      joinOrder.addPredicate(0, 0, i, 0);
+    }
+    assertArrayEquals(new int[] {0, 1, 2, 3}, joinOrder.getJoinOrder());
+
+    // two inputs are never reordered
+    joinOrder = new CostBasedJoinOrder(10);
+    joinOrder.addInput(1000000, 10000000);
+    joinOrder.addInput(10, 100);
+    joinOrder.addPredicate(0, 0, 1, 0);
+    assertArrayEquals(new int[] {0, 1}, joinOrder.getJoinOrder());
+  }
+
+  @Test
+  public void testDynamicProgrammingNotWorseThanGreedy() {
+    // a chain of joins, each of which grows the result
+    for (int numInputs = 3; numInputs < 9; numInputs++) {
+      CostBasedJoinOrder dp = new CostBasedJoinOrder(10);
+      CostBasedJoinOrder greedy = new CostBasedJoinOrder(0);
+      for (int i = 0; i < numInputs; i++) {
+        long numRows = 1000L * ((i * 7) % numInputs + 1);
+        dp.addInput(numRows, numRows * 10);
+        greedy.addInput(numRows, numRows * 10);
+      }
+      for (int i = 1; i < numInputs; i++) {
+        dp.addPredicate(i - 1, 100 * i, i, 50 * i);
+        greedy.addPredicate(i - 1, 100 * i, i, 50 * i);
+      }
+      int[] dpOrder = dp.getJoinOrder();
+      int[] greedyOrder = greedy.getJoinOrder();
+      assertEquals(numInputs, dpOrder.length);
+      assertTrue(dp.getCost(dpOrder) <= greedy.getCost(greedyOrder));
+    }
+  }
+
+  @Test
+  public void testNumRows() {
+    CostBasedJoinOrder joinOrder = getStarJoin(10);
+
+    // fact JOIN date: 1000000000 * 7 / 3650
+    assertEquals(1917808.2, joinOrder.getNumRows(5L), 0.1);
+
+    // the distinct values are never more than the rows
+    assertEquals(1000000000.0, joinOrder.getNumRows(7L) * 3650 / 7, 1.0);
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.udf.ptf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFCount;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFSum;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.io.LongWritable;
+import org.junit.Test;
+
+/**
+ * Unit tests for the frames that windowing slides over a partition.
+ */
+public class TestWindowingSlidingFrame {
+
+  private static final ObjectInspector[] LONG_OIS = new ObjectInspector[] {
+      PrimitiveObjectInspectorFactory.writableLongObjectInspector};
+
+  private static Object[] row(Long value) {
+    return new Object[] {value == null ? null : new LongWritable(value)};
+  }
+
+  private static GenericUDAFEvaluator init(GenericUDAFEvaluator eval) throws Exception {
+    eval.init(GenericUDAFEvaluator.Mode.COMPLETE, LONG_OIS);
+    return eval;
+  }
+
+  @Test
+  public void testSumDropsRowsLeavingTheFrame() throws Exception {
+    GenericUDAFEvaluator sum = init(new GenericUDAFSum().getEvaluator(
+        new TypeInfo[] {TypeInfoFactory.longTypeInfo}));
+    WindowingTableFunction.SlidingFrame frame =
+        new WindowingTableFunction.InvertibleSlidingFrame(sum, LONG_OIS, true);
+    frame.reset();
+
+    frame.add(0, row(1L));
+    frame.add(1, row(2L));
+    assertEquals(3L, ((LongWritable) frame.evaluate()).get());
+    frame.remove(0);
+    frame.add(2, row(null));
+    assertEquals(2L, ((LongWritable) frame.evaluate()).get());
+
+    // a frame left with nulls only sums to null, as an empty one does
+    frame.remove(1);
+    assertNull(frame.evaluate());
+    frame.add(3, row(4L));
+    assertEquals(4L, ((LongWritable) frame.evaluate()).get());
+  }
+
+  @Test
+  public void testCountDropsRowsLeavingTheFrame() throws Exception {
+    GenericUDAFEvaluator count = init(new GenericUDAFCount().getEvaluator(
+        new TypeInfo[] {TypeInfoFactory.longTypeInfo}));
+    WindowingTableFunction.SlidingFrame frame =
+        new WindowingTableFunction.InvertibleSlidingFrame(count, LONG_OIS, true);
+    frame.reset();
+
+    frame.add(0, row(1L));
+    frame.add(1, row(null));
+    frame.add(2, row(3L));
+    assertEquals(2L, ((LongWritable) frame.evaluate()).get());
+    frame.remove(0);
+    frame.remove(1);
+    assertEquals(1L, ((LongWritable) frame.evaluate()).get());
+    frame.remove(2);
+    assertEquals(0L, ((LongWritable) frame.evaluate()).get());
+  }
+
+  @Test
+  public void testMaxAndMinKeepCandidates() throws Exception {
+    WindowingTableFunction.SlidingFrame max =
+        new WindowingTableFunction.ExtremeSlidingFrame(LONG_OIS[0], true);
+    WindowingTableFunction.SlidingFrame min =
+        new WindowingTableFunction.ExtremeSlidingFrame(LONG_OIS[0], false);
+    Long[] values = new Long[] {5L, 3L, null, 4L, 1L, 2L};
+    // frame of 3 rows ending at the current row
+    Long[] expectedMax = new Long[] {5L, 5L, 5L, 4L, 4L, 4L};
+    Long[] expectedMin = new Long[] {5L, 3L, 3L, 3L, 1L, 1L};
+    for (int i = 0; i < values.length; i++) {
+      if (i >= 3) {
+        max.remove(i - 3);
+        min.remove(i - 3);
+      }
+      max.add(i, row(values[i]));
+      min.add(i, row(values[i]));
+      assertEquals("row " + i, expectedMax[i], max.evaluate());
+      assertEquals("row " + i, expectedMin[i], min.evaluate());
+    }
+    max.reset();
+    assertNull(max.evaluate());
+  }
+}
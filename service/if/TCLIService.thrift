@@ -48,6 +48,9 @@ enum TProtocolVersion {
 
   // V4 add decimal precision/scale, char type
   HIVE_CLI_SERVICE_PROTOCOL_V4
+
+  // V5 adds column-oriented result sets
+  HIVE_CLI_SERVICE_PROTOCOL_V5
 }
 
 enum TTypeId {
@@ -301,14 +304,56 @@ struct TStringValue {
   1: optional string value
 }
 
+// The values of a column in a result set, one list per
+// Thrift type. Bit i of the nulls bitmap (bit i % 8 of byte
+// i / 8) is set if the i-th value is NULL, in which case the
+// list holds a placeholder. Trailing zero bytes may be left out.
+struct TBoolColumn {
+  1: required list<bool> values
+  2: required binary nulls
+}
+
+struct TByteColumn {
+  1: required list<byte> values
+  2: required binary nulls
+}
+
+struct TI16Column {
+  1: required list<i16> values
+  2: required binary nulls
+}
+
+struct TI32Column {
+  1: required list<i32> values
+  2: required binary nulls
+}
+
+struct TI64Column {
+  1: required list<i64> values
+  2: required binary nulls
+}
+
+struct TDoubleColumn {
+  1: required list<double> values
+  2: required binary nulls
+}
+
+struct TStringColumn {
+  1: required list<string> values
+  2: required binary nulls
+}
+
+// Note that Hive's type system is richer than Thrift's,
+// so in some cases we have to map multiple Hive types
+// to the same Thrift type. See TColumnValue.
 union TColumn {
-  1: list<TBoolValue> boolColumn
-  2: list<TByteValue> byteColumn
-  3: list<TI16Value> i16Column
-  4: list<TI32Value> i32Column
-  5: list<TI64Value> i64Column
-  6: list<TDoubleValue> doubleColumn
-  7: list<TStringValue> stringColumn
+  1: TBoolColumn   boolColumn
+  2: TByteColumn   byteColumn
+  3: TI16Column    i16Column
+  4: TI32Column    i32Column
+  5: TI64Column    i64Column
+  6: TDoubleColumn doubleColumn
+  7: TStringColumn stringColumn
 }
 
 // A single column value in a result set.
@@ -337,6 +382,9 @@ struct TRowSet {
   // The starting row offset of this rowset.
   1: required i64 startRowOffset
   2: required list<TRow> rows
+
+  // Set instead of the rows from HIVE_CLI_SERVICE_PROTOCOL_V5 on,
+  // one column per column of the result set schema.
   3: optional list<TColumn> columns
 }
 
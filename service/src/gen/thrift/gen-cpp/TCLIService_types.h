@@ -21,7 +21,8 @@ struct TProtocolVersion {
     HIVE_CLI_SERVICE_PROTOCOL_V1 = 0,
     HIVE_CLI_SERVICE_PROTOCOL_V2 = 1,
     HIVE_CLI_SERVICE_PROTOCOL_V3 = 2,
-    HIVE_CLI_SERVICE_PROTOCOL_V4 = 3
+    HIVE_CLI_SERVICE_PROTOCOL_V4 = 3,
+    HIVE_CLI_SERVICE_PROTOCOL_V5 = 4
   };
 };
 
@@ -1057,6 +1058,314 @@ class TStringValue {
 
 void swap(TStringValue &a, TStringValue &b);
 
+
+class TBoolColumn {
+ public:
+
+  static const char* ascii_fingerprint; // = "F9058324D96DB7F974D8ACDC01C54219";
+  static const uint8_t binary_fingerprint[16]; // = {0xF9,0x05,0x83,0x24,0xD9,0x6D,0xB7,0xF9,0x74,0xD8,0xAC,0xDC,0x01,0xC5,0x42,0x19};
+
+  TBoolColumn() : nulls() {
+  }
+
+  virtual ~TBoolColumn() throw() {}
+
+  std::vector<bool>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<bool> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TBoolColumn & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TBoolColumn &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TBoolColumn & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TBoolColumn &a, TBoolColumn &b);
+
+
+class TByteColumn {
+ public:
+
+  static const char* ascii_fingerprint; // = "1CB300106BAA463A70BB2A2395900F48";
+  static const uint8_t binary_fingerprint[16]; // = {0x1C,0xB3,0x00,0x10,0x6B,0xAA,0x46,0x3A,0x70,0xBB,0x2A,0x23,0x95,0x90,0x0F,0x48};
+
+  TByteColumn() : nulls() {
+  }
+
+  virtual ~TByteColumn() throw() {}
+
+  std::vector<int8_t>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<int8_t> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TByteColumn & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TByteColumn &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TByteColumn & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TByteColumn &a, TByteColumn &b);
+
+
+class TI16Column {
+ public:
+
+  static const char* ascii_fingerprint; // = "6574CDB1F121C8DB47FB257A3F104BDB";
+  static const uint8_t binary_fingerprint[16]; // = {0x65,0x74,0xCD,0xB1,0xF1,0x21,0xC8,0xDB,0x47,0xFB,0x25,0x7A,0x3F,0x10,0x4B,0xDB};
+
+  TI16Column() : nulls() {
+  }
+
+  virtual ~TI16Column() throw() {}
+
+  std::vector<int16_t>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<int16_t> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TI16Column & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TI16Column &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TI16Column & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TI16Column &a, TI16Column &b);
+
+
+class TI32Column {
+ public:
+
+  static const char* ascii_fingerprint; // = "CCCCE89C7E9DA10280F5663700677313";
+  static const uint8_t binary_fingerprint[16]; // = {0xCC,0xCC,0xE8,0x9C,0x7E,0x9D,0xA1,0x02,0x80,0xF5,0x66,0x37,0x00,0x67,0x73,0x13};
+
+  TI32Column() : nulls() {
+  }
+
+  virtual ~TI32Column() throw() {}
+
+  std::vector<int32_t>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<int32_t> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TI32Column & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TI32Column &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TI32Column & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TI32Column &a, TI32Column &b);
+
+
+class TI64Column {
+ public:
+
+  static const char* ascii_fingerprint; // = "925353917FC0AF87976A2338011F5A31";
+  static const uint8_t binary_fingerprint[16]; // = {0x92,0x53,0x53,0x91,0x7F,0xC0,0xAF,0x87,0x97,0x6A,0x23,0x38,0x01,0x1F,0x5A,0x31};
+
+  TI64Column() : nulls() {
+  }
+
+  virtual ~TI64Column() throw() {}
+
+  std::vector<int64_t>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<int64_t> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TI64Column & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TI64Column &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TI64Column & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TI64Column &a, TI64Column &b);
+
+
+class TDoubleColumn {
+ public:
+
+  static const char* ascii_fingerprint; // = "8FF1C050A8D7FD247AEB23CD71539C09";
+  static const uint8_t binary_fingerprint[16]; // = {0x8F,0xF1,0xC0,0x50,0xA8,0xD7,0xFD,0x24,0x7A,0xEB,0x23,0xCD,0x71,0x53,0x9C,0x09};
+
+  TDoubleColumn() : nulls() {
+  }
+
+  virtual ~TDoubleColumn() throw() {}
+
+  std::vector<double>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<double> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TDoubleColumn & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TDoubleColumn &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TDoubleColumn & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TDoubleColumn &a, TDoubleColumn &b);
+
+
+class TStringColumn {
+ public:
+
+  static const char* ascii_fingerprint; // = "BE556BF7091B2DABBA1863D5E458B15F";
+  static const uint8_t binary_fingerprint[16]; // = {0xBE,0x55,0x6B,0xF7,0x09,0x1B,0x2D,0xAB,0xBA,0x18,0x63,0xD5,0xE4,0x58,0xB1,0x5F};
+
+  TStringColumn() : nulls() {
+  }
+
+  virtual ~TStringColumn() throw() {}
+
+  std::vector<std::string>  values;
+  std::string nulls;
+
+  void __set_values(const std::vector<std::string> & val) {
+    values = val;
+  }
+
+  void __set_nulls(const std::string& val) {
+    nulls = val;
+  }
+
+  bool operator == (const TStringColumn & rhs) const
+  {
+    if (!(values == rhs.values))
+      return false;
+    if (!(nulls == rhs.nulls))
+      return false;
+    return true;
+  }
+  bool operator != (const TStringColumn &rhs) const {
+    return !(*this == rhs);
+  }
+
+  bool operator < (const TStringColumn & ) const;
+
+  uint32_t read(::apache::thrift::protocol::TProtocol* iprot);
+  uint32_t write(::apache::thrift::protocol::TProtocol* oprot) const;
+
+};
+
+void swap(TStringColumn &a, TStringColumn &b);
+
 typedef struct _TColumn__isset {
   _TColumn__isset() : boolColumn(false), byteColumn(false), i16Column(false), i32Column(false), i64Column(false), doubleColumn(false), stringColumn(false) {}
   bool boolColumn;
@@ -1071,49 +1380,49 @@ typedef struct _TColumn__isset {
 class TColumn {
  public:
 
-  static const char* ascii_fingerprint; // = "B39B4E4E565DB31DC891D62FDC3208DC";
-  static const uint8_t binary_fingerprint[16]; // = {0xB3,0x9B,0x4E,0x4E,0x56,0x5D,0xB3,0x1D,0xC8,0x91,0xD6,0x2F,0xDC,0x32,0x08,0xDC};
+  static const char* ascii_fingerprint; // = "ECBD4B0D1E86758B70DA1DC6115DBB4B";
+  static const uint8_t binary_fingerprint[16]; // = {0xEC,0xBD,0x4B,0x0D,0x1E,0x86,0x75,0x8B,0x70,0xDA,0x1D,0xC6,0x11,0x5D,0xBB,0x4B};
 
   TColumn() {
   }
 
   virtual ~TColumn() throw() {}
 
-  std::vector<TBoolValue>  boolColumn;
-  std::vector<TByteValue>  byteColumn;
-  std::vector<TI16Value>  i16Column;
-  std::vector<TI32Value>  i32Column;
-  std::vector<TI64Value>  i64Column;
-  std::vector<TDoubleValue>  doubleColumn;
-  std::vector<TStringValue>  stringColumn;
+  TBoolColumn boolColumn;
+  TByteColumn byteColumn;
+  TI16Column i16Column;
+  TI32Column i32Column;
+  TI64Column i64Column;
+  TDoubleColumn doubleColumn;
+  TStringColumn stringColumn;
 
   _TColumn__isset __isset;
 
-  void __set_boolColumn(const std::vector<TBoolValue> & val) {
+  void __set_boolColumn(const TBoolColumn& val) {
     boolColumn = val;
   }
 
-  void __set_byteColumn(const std::vector<TByteValue> & val) {
+  void __set_byteColumn(const TByteColumn& val) {
     byteColumn = val;
   }
 
-  void __set_i16Column(const std::vector<TI16Value> & val) {
+  void __set_i16Column(const TI16Column& val) {
     i16Column = val;
   }
 
-  void __set_i32Column(const std::vector<TI32Value> & val) {
+  void __set_i32Column(const TI32Column& val) {
     i32Column = val;
   }
 
-  void __set_i64Column(const std::vector<TI64Value> & val) {
+  void __set_i64Column(const TI64Column& val) {
     i64Column = val;
   }
 
-  void __set_doubleColumn(const std::vector<TDoubleValue> & val) {
+  void __set_doubleColumn(const TDoubleColumn& val) {
     doubleColumn = val;
   }
 
-  void __set_stringColumn(const std::vector<TStringValue> & val) {
+  void __set_stringColumn(const TStringColumn& val) {
     stringColumn = val;
   }
 
@@ -1284,8 +1593,8 @@ typedef struct _TRowSet__isset {
 class TRowSet {
  public:
 
-  static const char* ascii_fingerprint; // = "698727A24268879440EE0DAFE68FC1C5";
-  static const uint8_t binary_fingerprint[16]; // = {0x69,0x87,0x27,0xA2,0x42,0x68,0x87,0x94,0x40,0xEE,0x0D,0xAF,0xE6,0x8F,0xC1,0xC5};
+  static const char* ascii_fingerprint; // = "DDEB7243128C0869B0A0AB1ECEB32DE0";
+  static const uint8_t binary_fingerprint[16]; // = {0xDD,0xEB,0x72,0x43,0x12,0x8C,0x08,0x69,0xB0,0xA0,0xAB,0x1E,0xCE,0xB3,0x2D,0xE0};
 
   TRowSet() : startRowOffset(0) {
   }
@@ -3268,8 +3577,8 @@ typedef struct _TFetchResultsResp__isset {
 class TFetchResultsResp {
  public:
 
-  static const char* ascii_fingerprint; // = "29891EA4D71B4283E8715DA5B95F2763";
-  static const uint8_t binary_fingerprint[16]; // = {0x29,0x89,0x1E,0xA4,0xD7,0x1B,0x42,0x83,0xE8,0x71,0x5D,0xA5,0xB9,0x5F,0x27,0x63};
+  static const char* ascii_fingerprint; // = "3E8F07364C5904DC8A49D410CBA83E69";
+  static const uint8_t binary_fingerprint[16]; // = {0x3E,0x8F,0x07,0x36,0x4C,0x59,0x04,0xDC,0x8A,0x49,0xD4,0x10,0xCB,0xA8,0x3E,0x69};
 
   TFetchResultsResp() : hasMoreRows(0) {
   }
@@ -33,13 +33,13 @@
 
 public class TColumn extends org.apache.thrift.TUnion<TColumn, TColumn._Fields> {
   private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("TColumn");
-  private static final org.apache.thrift.protocol.TField BOOL_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("boolColumn", org.apache.thrift.protocol.TType.LIST, (short)1);
-  private static final org.apache.thrift.protocol.TField BYTE_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("byteColumn", org.apache.thrift.protocol.TType.LIST, (short)2);
-  private static final org.apache.thrift.protocol.TField I16_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i16Column", org.apache.thrift.protocol.TType.LIST, (short)3);
-  private static final org.apache.thrift.protocol.TField I32_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i32Column", org.apache.thrift.protocol.TType.LIST, (short)4);
-  private static final org.apache.thrift.protocol.TField I64_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i64Column", org.apache.thrift.protocol.TType.LIST, (short)5);
-  private static final org.apache.thrift.protocol.TField DOUBLE_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("doubleColumn", org.apache.thrift.protocol.TType.LIST, (short)6);
-  private static final org.apache.thrift.protocol.TField STRING_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("stringColumn", org.apache.thrift.protocol.TType.LIST, (short)7);
+  private static final org.apache.thrift.protocol.TField BOOL_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("boolColumn", org.apache.thrift.protocol.TType.STRUCT, (short)1);
+  private static final org.apache.thrift.protocol.TField BYTE_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("byteColumn", org.apache.thrift.protocol.TType.STRUCT, (short)2);
+  private static final org.apache.thrift.protocol.TField I16_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i16Column", org.apache.thrift.protocol.TType.STRUCT, (short)3);
+  private static final org.apache.thrift.protocol.TField I32_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i32Column", org.apache.thrift.protocol.TType.STRUCT, (short)4);
+  private static final org.apache.thrift.protocol.TField I64_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("i64Column", org.apache.thrift.protocol.TType.STRUCT, (short)5);
+  private static final org.apache.thrift.protocol.TField DOUBLE_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("doubleColumn", org.apache.thrift.protocol.TType.STRUCT, (short)6);
+  private static final org.apache.thrift.protocol.TField STRING_COLUMN_FIELD_DESC = new org.apache.thrift.protocol.TField("stringColumn", org.apache.thrift.protocol.TType.STRUCT, (short)7);
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -121,26 +121,19 @@ public String getFieldName() {
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
     tmpMap.put(_Fields.BOOL_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("boolColumn", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TBoolValue.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TBoolColumn.class)));
     tmpMap.put(_Fields.BYTE_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("byteColumn", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TByteValue.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TByteColumn.class)));
     tmpMap.put(_Fields.I16_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("i16Column", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI16Value.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI16Column.class)));
     tmpMap.put(_Fields.I32_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("i32Column", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI32Value.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI32Column.class)));
     tmpMap.put(_Fields.I64_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("i64Column", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI64Value.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TI64Column.class)));
     tmpMap.put(_Fields.DOUBLE_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("doubleColumn", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TDoubleValue.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TDoubleColumn.class)));
     tmpMap.put(_Fields.STRING_COLUMN, new org.apache.thrift.meta_data.FieldMetaData("stringColumn", org.apache.thrift.TFieldRequirementType.DEFAULT, 
-        new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
-            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TStringValue.class))));
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TStringColumn.class)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(TColumn.class, metaDataMap);
   }
@@ -160,43 +153,43 @@ public TColumn deepCopy() {
     return new TColumn(this);
   }
 
-  public static TColumn boolColumn(List<TBoolValue> value) {
+  public static TColumn boolColumn(TBoolColumn value) {
     TColumn x = new TColumn();
     x.setBoolColumn(value);
     return x;
   }
 
-  public static TColumn byteColumn(List<TByteValue> value) {
+  public static TColumn byteColumn(TByteColumn value) {
     TColumn x = new TColumn();
     x.setByteColumn(value);
     return x;
   }
 
-  public static TColumn i16Column(List<TI16Value> value) {
+  public static TColumn i16Column(TI16Column value) {
     TColumn x = new TColumn();
     x.setI16Column(value);
     return x;
   }
 
-  public static TColumn i32Column(List<TI32Value> value) {
+  public static TColumn i32Column(TI32Column value) {
     TColumn x = new TColumn();
     x.setI32Column(value);
     return x;
   }
 
-  public static TColumn i64Column(List<TI64Value> value) {
+  public static TColumn i64Column(TI64Column value) {
     TColumn x = new TColumn();
     x.setI64Column(value);
     return x;
   }
 
-  public static TColumn doubleColumn(List<TDoubleValue> value) {
+  public static TColumn doubleColumn(TDoubleColumn value) {
     TColumn x = new TColumn();
     x.setDoubleColumn(value);
     return x;
   }
 
-  public static TColumn stringColumn(List<TStringValue> value) {
+  public static TColumn stringColumn(TStringColumn value) {
     TColumn x = new TColumn();
     x.setStringColumn(value);
     return x;
@@ -207,40 +200,40 @@ public static TColumn stringColumn(List<TStringValue> value) {
   protected void checkType(_Fields setField, Object value) throws ClassCastException {
     switch (setField) {
       case BOOL_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TBoolColumn) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TBoolValue> for field 'boolColumn', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TBoolColumn for field 'boolColumn', but got " + value.getClass().getSimpleName());
       case BYTE_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TByteColumn) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TByteValue> for field 'byteColumn', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TByteColumn for field 'byteColumn', but got " + value.getClass().getSimpleName());
       case I16_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TI16Column) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TI16Value> for field 'i16Column', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TI16Column for field 'i16Column', but got " + value.getClass().getSimpleName());
       case I32_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TI32Column) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TI32Value> for field 'i32Column', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TI32Column for field 'i32Column', but got " + value.getClass().getSimpleName());
       case I64_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TI64Column) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TI64Value> for field 'i64Column', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TI64Column for field 'i64Column', but got " + value.getClass().getSimpleName());
       case DOUBLE_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TDoubleColumn) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TDoubleValue> for field 'doubleColumn', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TDoubleColumn for field 'doubleColumn', but got " + value.getClass().getSimpleName());
       case STRING_COLUMN:
-        if (value instanceof List) {
+        if (value instanceof TStringColumn) {
           break;
         }
-        throw new ClassCastException("Was expecting value of type List<TStringValue> for field 'stringColumn', but got " + value.getClass().getSimpleName());
+        throw new ClassCastException("Was expecting value of type TStringColumn for field 'stringColumn', but got " + value.getClass().getSimpleName());
       default:
         throw new IllegalArgumentException("Unknown field id " + setField);
     }
@@ -253,19 +246,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
       switch (setField) {
         case BOOL_COLUMN:
           if (field.type == BOOL_COLUMN_FIELD_DESC.type) {
-            List<TBoolValue> boolColumn;
-            {
-              org.apache.thrift.protocol.TList _list46 = iprot.readListBegin();
-              boolColumn = new ArrayList<TBoolValue>(_list46.size);
-              for (int _i47 = 0; _i47 < _list46.size; ++_i47)
-              {
-                TBoolValue _elem48; // optional
-                _elem48 = new TBoolValue();
-                _elem48.read(iprot);
-                boolColumn.add(_elem48);
-              }
-              iprot.readListEnd();
-            }
+            TBoolColumn boolColumn;
+            boolColumn = new TBoolColumn();
+            boolColumn.read(iprot);
             return boolColumn;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -273,19 +256,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case BYTE_COLUMN:
           if (field.type == BYTE_COLUMN_FIELD_DESC.type) {
-            List<TByteValue> byteColumn;
-            {
-              org.apache.thrift.protocol.TList _list49 = iprot.readListBegin();
-              byteColumn = new ArrayList<TByteValue>(_list49.size);
-              for (int _i50 = 0; _i50 < _list49.size; ++_i50)
-              {
-                TByteValue _elem51; // optional
-                _elem51 = new TByteValue();
-                _elem51.read(iprot);
-                byteColumn.add(_elem51);
-              }
-              iprot.readListEnd();
-            }
+            TByteColumn byteColumn;
+            byteColumn = new TByteColumn();
+            byteColumn.read(iprot);
             return byteColumn;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -293,19 +266,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case I16_COLUMN:
           if (field.type == I16_COLUMN_FIELD_DESC.type) {
-            List<TI16Value> i16Column;
-            {
-              org.apache.thrift.protocol.TList _list52 = iprot.readListBegin();
-              i16Column = new ArrayList<TI16Value>(_list52.size);
-              for (int _i53 = 0; _i53 < _list52.size; ++_i53)
-              {
-                TI16Value _elem54; // optional
-                _elem54 = new TI16Value();
-                _elem54.read(iprot);
-                i16Column.add(_elem54);
-              }
-              iprot.readListEnd();
-            }
+            TI16Column i16Column;
+            i16Column = new TI16Column();
+            i16Column.read(iprot);
             return i16Column;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -313,19 +276,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case I32_COLUMN:
           if (field.type == I32_COLUMN_FIELD_DESC.type) {
-            List<TI32Value> i32Column;
-            {
-              org.apache.thrift.protocol.TList _list55 = iprot.readListBegin();
-              i32Column = new ArrayList<TI32Value>(_list55.size);
-              for (int _i56 = 0; _i56 < _list55.size; ++_i56)
-              {
-                TI32Value _elem57; // optional
-                _elem57 = new TI32Value();
-                _elem57.read(iprot);
-                i32Column.add(_elem57);
-              }
-              iprot.readListEnd();
-            }
+            TI32Column i32Column;
+            i32Column = new TI32Column();
+            i32Column.read(iprot);
             return i32Column;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -333,19 +286,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case I64_COLUMN:
           if (field.type == I64_COLUMN_FIELD_DESC.type) {
-            List<TI64Value> i64Column;
-            {
-              org.apache.thrift.protocol.TList _list58 = iprot.readListBegin();
-              i64Column = new ArrayList<TI64Value>(_list58.size);
-              for (int _i59 = 0; _i59 < _list58.size; ++_i59)
-              {
-                TI64Value _elem60; // optional
-                _elem60 = new TI64Value();
-                _elem60.read(iprot);
-                i64Column.add(_elem60);
-              }
-              iprot.readListEnd();
-            }
+            TI64Column i64Column;
+            i64Column = new TI64Column();
+            i64Column.read(iprot);
             return i64Column;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -353,19 +296,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case DOUBLE_COLUMN:
           if (field.type == DOUBLE_COLUMN_FIELD_DESC.type) {
-            List<TDoubleValue> doubleColumn;
-            {
-              org.apache.thrift.protocol.TList _list61 = iprot.readListBegin();
-              doubleColumn = new ArrayList<TDoubleValue>(_list61.size);
-              for (int _i62 = 0; _i62 < _list61.size; ++_i62)
-              {
-                TDoubleValue _elem63; // optional
-                _elem63 = new TDoubleValue();
-                _elem63.read(iprot);
-                doubleColumn.add(_elem63);
-              }
-              iprot.readListEnd();
-            }
+            TDoubleColumn doubleColumn;
+            doubleColumn = new TDoubleColumn();
+            doubleColumn.read(iprot);
             return doubleColumn;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -373,19 +306,9 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
           }
         case STRING_COLUMN:
           if (field.type == STRING_COLUMN_FIELD_DESC.type) {
-            List<TStringValue> stringColumn;
-            {
-              org.apache.thrift.protocol.TList _list64 = iprot.readListBegin();
-              stringColumn = new ArrayList<TStringValue>(_list64.size);
-              for (int _i65 = 0; _i65 < _list64.size; ++_i65)
-              {
-                TStringValue _elem66; // optional
-                _elem66 = new TStringValue();
-                _elem66.read(iprot);
-                stringColumn.add(_elem66);
-              }
-              iprot.readListEnd();
-            }
+            TStringColumn stringColumn;
+            stringColumn = new TStringColumn();
+            stringColumn.read(iprot);
             return stringColumn;
           } else {
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
@@ -403,81 +326,32 @@ protected Object standardSchemeReadValue(org.apache.thrift.protocol.TProtocol ip
   protected void standardSchemeWriteValue(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
     switch (setField_) {
       case BOOL_COLUMN:
-        List<TBoolValue> boolColumn = (List<TBoolValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, boolColumn.size()));
-          for (TBoolValue _iter67 : boolColumn)
-          {
-            _iter67.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TBoolColumn boolColumn = (TBoolColumn)value_;
+        boolColumn.write(oprot);
         return;
       case BYTE_COLUMN:
-        List<TByteValue> byteColumn = (List<TByteValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, byteColumn.size()));
-          for (TByteValue _iter68 : byteColumn)
-          {
-            _iter68.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TByteColumn byteColumn = (TByteColumn)value_;
+        byteColumn.write(oprot);
         return;
       case I16_COLUMN:
-        List<TI16Value> i16Column = (List<TI16Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i16Column.size()));
-          for (TI16Value _iter69 : i16Column)
-          {
-            _iter69.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI16Column i16Column = (TI16Column)value_;
+        i16Column.write(oprot);
         return;
       case I32_COLUMN:
-        List<TI32Value> i32Column = (List<TI32Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i32Column.size()));
-          for (TI32Value _iter70 : i32Column)
-          {
-            _iter70.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI32Column i32Column = (TI32Column)value_;
+        i32Column.write(oprot);
         return;
       case I64_COLUMN:
-        List<TI64Value> i64Column = (List<TI64Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i64Column.size()));
-          for (TI64Value _iter71 : i64Column)
-          {
-            _iter71.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI64Column i64Column = (TI64Column)value_;
+        i64Column.write(oprot);
         return;
       case DOUBLE_COLUMN:
-        List<TDoubleValue> doubleColumn = (List<TDoubleValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, doubleColumn.size()));
-          for (TDoubleValue _iter72 : doubleColumn)
-          {
-            _iter72.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TDoubleColumn doubleColumn = (TDoubleColumn)value_;
+        doubleColumn.write(oprot);
         return;
       case STRING_COLUMN:
-        List<TStringValue> stringColumn = (List<TStringValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, stringColumn.size()));
-          for (TStringValue _iter73 : stringColumn)
-          {
-            _iter73.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TStringColumn stringColumn = (TStringColumn)value_;
+        stringColumn.write(oprot);
         return;
       default:
         throw new IllegalStateException("Cannot write union with unknown field " + setField_);
@@ -490,109 +364,39 @@ protected Object tupleSchemeReadValue(org.apache.thrift.protocol.TProtocol iprot
     if (setField != null) {
       switch (setField) {
         case BOOL_COLUMN:
-          List<TBoolValue> boolColumn;
-          {
-            org.apache.thrift.protocol.TList _list74 = iprot.readListBegin();
-            boolColumn = new ArrayList<TBoolValue>(_list74.size);
-            for (int _i75 = 0; _i75 < _list74.size; ++_i75)
-            {
-              TBoolValue _elem76; // optional
-              _elem76 = new TBoolValue();
-              _elem76.read(iprot);
-              boolColumn.add(_elem76);
-            }
-            iprot.readListEnd();
-          }
+          TBoolColumn boolColumn;
+          boolColumn = new TBoolColumn();
+          boolColumn.read(iprot);
           return boolColumn;
         case BYTE_COLUMN:
-          List<TByteValue> byteColumn;
-          {
-            org.apache.thrift.protocol.TList _list77 = iprot.readListBegin();
-            byteColumn = new ArrayList<TByteValue>(_list77.size);
-            for (int _i78 = 0; _i78 < _list77.size; ++_i78)
-            {
-              TByteValue _elem79; // optional
-              _elem79 = new TByteValue();
-              _elem79.read(iprot);
-              byteColumn.add(_elem79);
-            }
-            iprot.readListEnd();
-          }
+          TByteColumn byteColumn;
+          byteColumn = new TByteColumn();
+          byteColumn.read(iprot);
           return byteColumn;
         case I16_COLUMN:
-          List<TI16Value> i16Column;
-          {
-            org.apache.thrift.protocol.TList _list80 = iprot.readListBegin();
-            i16Column = new ArrayList<TI16Value>(_list80.size);
-            for (int _i81 = 0; _i81 < _list80.size; ++_i81)
-            {
-              TI16Value _elem82; // optional
-              _elem82 = new TI16Value();
-              _elem82.read(iprot);
-              i16Column.add(_elem82);
-            }
-            iprot.readListEnd();
-          }
+          TI16Column i16Column;
+          i16Column = new TI16Column();
+          i16Column.read(iprot);
           return i16Column;
         case I32_COLUMN:
-          List<TI32Value> i32Column;
-          {
-            org.apache.thrift.protocol.TList _list83 = iprot.readListBegin();
-            i32Column = new ArrayList<TI32Value>(_list83.size);
-            for (int _i84 = 0; _i84 < _list83.size; ++_i84)
-            {
-              TI32Value _elem85; // optional
-              _elem85 = new TI32Value();
-              _elem85.read(iprot);
-              i32Column.add(_elem85);
-            }
-            iprot.readListEnd();
-          }
+          TI32Column i32Column;
+          i32Column = new TI32Column();
+          i32Column.read(iprot);
           return i32Column;
         case I64_COLUMN:
-          List<TI64Value> i64Column;
-          {
-            org.apache.thrift.protocol.TList _list86 = iprot.readListBegin();
-            i64Column = new ArrayList<TI64Value>(_list86.size);
-            for (int _i87 = 0; _i87 < _list86.size; ++_i87)
-            {
-              TI64Value _elem88; // optional
-              _elem88 = new TI64Value();
-              _elem88.read(iprot);
-              i64Column.add(_elem88);
-            }
-            iprot.readListEnd();
-          }
+          TI64Column i64Column;
+          i64Column = new TI64Column();
+          i64Column.read(iprot);
           return i64Column;
         case DOUBLE_COLUMN:
-          List<TDoubleValue> doubleColumn;
-          {
-            org.apache.thrift.protocol.TList _list89 = iprot.readListBegin();
-            doubleColumn = new ArrayList<TDoubleValue>(_list89.size);
-            for (int _i90 = 0; _i90 < _list89.size; ++_i90)
-            {
-              TDoubleValue _elem91; // optional
-              _elem91 = new TDoubleValue();
-              _elem91.read(iprot);
-              doubleColumn.add(_elem91);
-            }
-            iprot.readListEnd();
-          }
+          TDoubleColumn doubleColumn;
+          doubleColumn = new TDoubleColumn();
+          doubleColumn.read(iprot);
           return doubleColumn;
         case STRING_COLUMN:
-          List<TStringValue> stringColumn;
-          {
-            org.apache.thrift.protocol.TList _list92 = iprot.readListBegin();
-            stringColumn = new ArrayList<TStringValue>(_list92.size);
-            for (int _i93 = 0; _i93 < _list92.size; ++_i93)
-            {
-              TStringValue _elem94; // optional
-              _elem94 = new TStringValue();
-              _elem94.read(iprot);
-              stringColumn.add(_elem94);
-            }
-            iprot.readListEnd();
-          }
+          TStringColumn stringColumn;
+          stringColumn = new TStringColumn();
+          stringColumn.read(iprot);
           return stringColumn;
         default:
           throw new IllegalStateException("setField wasn't null, but didn't match any of the case statements!");
@@ -606,81 +410,32 @@ protected Object tupleSchemeReadValue(org.apache.thrift.protocol.TProtocol iprot
   protected void tupleSchemeWriteValue(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
     switch (setField_) {
       case BOOL_COLUMN:
-        List<TBoolValue> boolColumn = (List<TBoolValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, boolColumn.size()));
-          for (TBoolValue _iter95 : boolColumn)
-          {
-            _iter95.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TBoolColumn boolColumn = (TBoolColumn)value_;
+        boolColumn.write(oprot);
         return;
       case BYTE_COLUMN:
-        List<TByteValue> byteColumn = (List<TByteValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, byteColumn.size()));
-          for (TByteValue _iter96 : byteColumn)
-          {
-            _iter96.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TByteColumn byteColumn = (TByteColumn)value_;
+        byteColumn.write(oprot);
         return;
       case I16_COLUMN:
-        List<TI16Value> i16Column = (List<TI16Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i16Column.size()));
-          for (TI16Value _iter97 : i16Column)
-          {
-            _iter97.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI16Column i16Column = (TI16Column)value_;
+        i16Column.write(oprot);
         return;
       case I32_COLUMN:
-        List<TI32Value> i32Column = (List<TI32Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i32Column.size()));
-          for (TI32Value _iter98 : i32Column)
-          {
-            _iter98.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI32Column i32Column = (TI32Column)value_;
+        i32Column.write(oprot);
         return;
       case I64_COLUMN:
-        List<TI64Value> i64Column = (List<TI64Value>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, i64Column.size()));
-          for (TI64Value _iter99 : i64Column)
-          {
-            _iter99.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TI64Column i64Column = (TI64Column)value_;
+        i64Column.write(oprot);
         return;
       case DOUBLE_COLUMN:
-        List<TDoubleValue> doubleColumn = (List<TDoubleValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, doubleColumn.size()));
-          for (TDoubleValue _iter100 : doubleColumn)
-          {
-            _iter100.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TDoubleColumn doubleColumn = (TDoubleColumn)value_;
+        doubleColumn.write(oprot);
         return;
       case STRING_COLUMN:
-        List<TStringValue> stringColumn = (List<TStringValue>)value_;
-        {
-          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, stringColumn.size()));
-          for (TStringValue _iter101 : stringColumn)
-          {
-            _iter101.write(oprot);
-          }
-          oprot.writeListEnd();
-        }
+        TStringColumn stringColumn = (TStringColumn)value_;
+        stringColumn.write(oprot);
         return;
       default:
         throw new IllegalStateException("Cannot write union with unknown field " + setField_);
@@ -724,99 +479,99 @@ public _Fields fieldForId(int fieldId) {
   }
 
 
-  public List<TBoolValue> getBoolColumn() {
+  public TBoolColumn getBoolColumn() {
     if (getSetField() == _Fields.BOOL_COLUMN) {
-      return (List<TBoolValue>)getFieldValue();
+      return (TBoolColumn)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'boolColumn' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setBoolColumn(List<TBoolValue> value) {
+  public void setBoolColumn(TBoolColumn value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.BOOL_COLUMN;
     value_ = value;
   }
 
-  public List<TByteValue> getByteColumn() {
+  public TByteColumn getByteColumn() {
     if (getSetField() == _Fields.BYTE_COLUMN) {
-      return (List<TByteValue>)getFieldValue();
+      return (TByteColumn)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'byteColumn' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setByteColumn(List<TByteValue> value) {
+  public void setByteColumn(TByteColumn value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.BYTE_COLUMN;
     value_ = value;
   }
 
-  public List<TI16Value> getI16Column() {
+  public TI16Column getI16Column() {
     if (getSetField() == _Fields.I16_COLUMN) {
-      return (List<TI16Value>)getFieldValue();
+      return (TI16Column)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'i16Column' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setI16Column(List<TI16Value> value) {
+  public void setI16Column(TI16Column value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.I16_COLUMN;
     value_ = value;
   }
 
-  public List<TI32Value> getI32Column() {
+  public TI32Column getI32Column() {
     if (getSetField() == _Fields.I32_COLUMN) {
-      return (List<TI32Value>)getFieldValue();
+      return (TI32Column)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'i32Column' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setI32Column(List<TI32Value> value) {
+  public void setI32Column(TI32Column value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.I32_COLUMN;
     value_ = value;
   }
 
-  public List<TI64Value> getI64Column() {
+  public TI64Column getI64Column() {
     if (getSetField() == _Fields.I64_COLUMN) {
-      return (List<TI64Value>)getFieldValue();
+      return (TI64Column)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'i64Column' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setI64Column(List<TI64Value> value) {
+  public void setI64Column(TI64Column value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.I64_COLUMN;
     value_ = value;
   }
 
-  public List<TDoubleValue> getDoubleColumn() {
+  public TDoubleColumn getDoubleColumn() {
     if (getSetField() == _Fields.DOUBLE_COLUMN) {
-      return (List<TDoubleValue>)getFieldValue();
+      return (TDoubleColumn)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'doubleColumn' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setDoubleColumn(List<TDoubleValue> value) {
+  public void setDoubleColumn(TDoubleColumn value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.DOUBLE_COLUMN;
     value_ = value;
   }
 
-  public List<TStringValue> getStringColumn() {
+  public TStringColumn getStringColumn() {
     if (getSetField() == _Fields.STRING_COLUMN) {
-      return (List<TStringValue>)getFieldValue();
+      return (TStringColumn)getFieldValue();
     } else {
       throw new RuntimeException("Cannot get field 'stringColumn' because union is currently set to " + getFieldDesc(getSetField()).name);
     }
   }
 
-  public void setStringColumn(List<TStringValue> value) {
+  public void setStringColumn(TStringColumn value) {
     if (value == null) throw new NullPointerException();
     setField_ = _Fields.STRING_COLUMN;
     value_ = value;
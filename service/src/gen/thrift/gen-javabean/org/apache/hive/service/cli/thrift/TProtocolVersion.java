@@ -15,7 +15,8 @@ public enum TProtocolVersion implements org.apache.thrift.TEnum {
   HIVE_CLI_SERVICE_PROTOCOL_V1(0),
   HIVE_CLI_SERVICE_PROTOCOL_V2(1),
   HIVE_CLI_SERVICE_PROTOCOL_V3(2),
-  HIVE_CLI_SERVICE_PROTOCOL_V4(3);
+  HIVE_CLI_SERVICE_PROTOCOL_V4(3),
+  HIVE_CLI_SERVICE_PROTOCOL_V5(4);
 
   private final int value;
 
@@ -44,6 +45,8 @@ public static TProtocolVersion findByValue(int value) {
         return HIVE_CLI_SERVICE_PROTOCOL_V3;
       case 3:
         return HIVE_CLI_SERVICE_PROTOCOL_V4;
+      case 4:
+        return HIVE_CLI_SERVICE_PROTOCOL_V5;
       default:
         return null;
     }
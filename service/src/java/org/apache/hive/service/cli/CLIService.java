@@ -39,6 +39,7 @@
 import org.apache.hive.service.ServiceException;
 import org.apache.hive.service.auth.HiveAuthFactory;
 import org.apache.hive.service.cli.session.SessionManager;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 /**
  * CLIService.
@@ -46,6 +47,12 @@
  */
 public class CLIService extends CompositeService implements ICLIService {
 
+  /**
+   * The newest protocol version the server speaks.
+   */
+  public static final TProtocolVersion SERVER_VERSION =
+      TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5;
+
   private final Log LOG = LogFactory.getLog(CLIService.class.getName());
 
   private HiveConf hiveConf;
@@ -107,6 +114,23 @@ public synchronized void stop() {
   }
 
 
+  public SessionHandle openSession(TProtocolVersion protocol, String username, String password,
+      Map<String, String> configuration) throws HiveSQLException {
+    SessionHandle sessionHandle = sessionManager.openSession(protocol, username, password,
+        configuration, false, null);
+    LOG.info(sessionHandle + ": openSession()");
+    return sessionHandle;
+  }
+
+  public SessionHandle openSessionWithImpersonation(TProtocolVersion protocol, String username,
+      String password, Map<String, String> configuration, String delegationToken)
+      throws HiveSQLException {
+    SessionHandle sessionHandle = sessionManager.openSession(protocol, username, password,
+        configuration, true, delegationToken);
+    LOG.info(sessionHandle + ": openSession()");
+    return sessionHandle;
+  }
+
   /* (non-Javadoc)
    * @see org.apache.hive.service.cli.ICLIService#openSession(java.lang.String, java.lang.String, java.util.Map)
    */
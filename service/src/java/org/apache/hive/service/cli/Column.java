@@ -0,0 +1,349 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.hive.service.cli.thrift.TBoolColumn;
+import org.apache.hive.service.cli.thrift.TByteColumn;
+import org.apache.hive.service.cli.thrift.TColumn;
+import org.apache.hive.service.cli.thrift.TDoubleColumn;
+import org.apache.hive.service.cli.thrift.TI16Column;
+import org.apache.hive.service.cli.thrift.TI32Column;
+import org.apache.hive.service.cli.thrift.TI64Column;
+import org.apache.hive.service.cli.thrift.TStringColumn;
+
+/**
+ * Column. The values of one column of a {@link ColumnBasedSet}, in an array of the Thrift
+ * type of the column, with a bitmap of the NULLs. A NULL takes a placeholder in the array.
+ *
+ */
+public class Column {
+
+  private static final int DEFAULT_SIZE = 100;
+
+  private final TColumn._Fields type;
+  private BitSet nulls;
+  private int size;
+
+  private boolean[] boolVars;
+  private byte[] byteVars;
+  private short[] shortVars;
+  private int[] intVars;
+  private long[] longVars;
+  private double[] doubleVars;
+  private List<String> stringVars;
+
+  public Column(Type type) {
+    switch (type) {
+    case BOOLEAN_TYPE:
+      this.type = TColumn._Fields.BOOL_COLUMN;
+      boolVars = new boolean[DEFAULT_SIZE];
+      break;
+    case TINYINT_TYPE:
+      this.type = TColumn._Fields.BYTE_COLUMN;
+      byteVars = new byte[DEFAULT_SIZE];
+      break;
+    case SMALLINT_TYPE:
+      this.type = TColumn._Fields.I16_COLUMN;
+      shortVars = new short[DEFAULT_SIZE];
+      break;
+    case INT_TYPE:
+      this.type = TColumn._Fields.I32_COLUMN;
+      intVars = new int[DEFAULT_SIZE];
+      break;
+    case BIGINT_TYPE:
+      this.type = TColumn._Fields.I64_COLUMN;
+      longVars = new long[DEFAULT_SIZE];
+      break;
+    case FLOAT_TYPE:
+    case DOUBLE_TYPE:
+      this.type = TColumn._Fields.DOUBLE_COLUMN;
+      doubleVars = new double[DEFAULT_SIZE];
+      break;
+    default:
+      this.type = TColumn._Fields.STRING_COLUMN;
+      stringVars = new ArrayList<String>();
+      break;
+    }
+    nulls = new BitSet();
+  }
+
+  public Column(TColumn tColumn) {
+    type = tColumn.getSetField();
+    switch (type) {
+    case BOOL_COLUMN:
+      TBoolColumn boolColumn = tColumn.getBoolColumn();
+      boolVars = new boolean[boolColumn.getValuesSize()];
+      for (Boolean value : boolColumn.getValues()) {
+        boolVars[size++] = value;
+      }
+      nulls = toBitSet(boolColumn.getNulls());
+      break;
+    case BYTE_COLUMN:
+      TByteColumn byteColumn = tColumn.getByteColumn();
+      byteVars = new byte[byteColumn.getValuesSize()];
+      for (Byte value : byteColumn.getValues()) {
+        byteVars[size++] = value;
+      }
+      nulls = toBitSet(byteColumn.getNulls());
+      break;
+    case I16_COLUMN:
+      TI16Column i16Column = tColumn.getI16Column();
+      shortVars = new short[i16Column.getValuesSize()];
+      for (Short value : i16Column.getValues()) {
+        shortVars[size++] = value;
+      }
+      nulls = toBitSet(i16Column.getNulls());
+      break;
+    case I32_COLUMN:
+      TI32Column i32Column = tColumn.getI32Column();
+      intVars = new int[i32Column.getValuesSize()];
+      for (Integer value : i32Column.getValues()) {
+        intVars[size++] = value;
+      }
+      nulls = toBitSet(i32Column.getNulls());
+      break;
+    case I64_COLUMN:
+      TI64Column i64Column = tColumn.getI64Column();
+      longVars = new long[i64Column.getValuesSize()];
+      for (Long value : i64Column.getValues()) {
+        longVars[size++] = value;
+      }
+      nulls = toBitSet(i64Column.getNulls());
+      break;
+    case DOUBLE_COLUMN:
+      TDoubleColumn doubleColumn = tColumn.getDoubleColumn();
+      doubleVars = new double[doubleColumn.getValuesSize()];
+      for (Double value : doubleColumn.getValues()) {
+        doubleVars[size++] = value;
+      }
+      nulls = toBitSet(doubleColumn.getNulls());
+      break;
+    default:
+      TStringColumn stringColumn = tColumn.getStringColumn();
+      stringVars = stringColumn.getValues();
+      size = stringVars.size();
+      nulls = toBitSet(stringColumn.getNulls());
+      break;
+    }
+  }
+
+  private Column(TColumn._Fields type, BitSet nulls, int size) {
+    this.type = type;
+    this.nulls = nulls;
+    this.size = size;
+  }
+
+  /**
+   * Appends a value, converted the same way as in {@link ColumnValue}.
+   */
+  public void addValue(Type type, Object field) {
+    if (field == null) {
+      nulls.set(size);
+    }
+    int capacity = Math.max(DEFAULT_SIZE, size * 2);
+    switch (this.type) {
+    case BOOL_COLUMN:
+      if (size == boolVars.length) {
+        boolVars = Arrays.copyOf(boolVars, capacity);
+      }
+      boolVars[size] = field != null && (Boolean) field;
+      break;
+    case BYTE_COLUMN:
+      if (size == byteVars.length) {
+        byteVars = Arrays.copyOf(byteVars, capacity);
+      }
+      byteVars[size] = field == null ? 0 : (Byte) field;
+      break;
+    case I16_COLUMN:
+      if (size == shortVars.length) {
+        shortVars = Arrays.copyOf(shortVars, capacity);
+      }
+      shortVars[size] = field == null ? 0 : (Short) field;
+      break;
+    case I32_COLUMN:
+      if (size == intVars.length) {
+        intVars = Arrays.copyOf(intVars, capacity);
+      }
+      intVars[size] = field == null ? 0 : (Integer) field;
+      break;
+    case I64_COLUMN:
+      if (size == longVars.length) {
+        longVars = Arrays.copyOf(longVars, capacity);
+      }
+      longVars[size] = field == null ? 0 : (Long) field;
+      break;
+    case DOUBLE_COLUMN:
+      if (size == doubleVars.length) {
+        doubleVars = Arrays.copyOf(doubleVars, capacity);
+      }
+      if (field == null) {
+        doubleVars[size] = 0;
+      } else {
+        doubleVars[size] = type == Type.FLOAT_TYPE ? (Float) field : (Double) field;
+      }
+      break;
+    default:
+      // char, varchar, date, timestamp, decimal, binary and the complex types are sent as
+      // their string form
+      stringVars.add(field == null ? "" : field.toString());
+      break;
+    }
+    size++;
+  }
+
+  /**
+   * Returns the value at the index, null for NULL.
+   */
+  public Object get(int index) {
+    if (nulls.get(index)) {
+      return null;
+    }
+    switch (type) {
+    case BOOL_COLUMN:
+      return boolVars[index];
+    case BYTE_COLUMN:
+      return byteVars[index];
+    case I16_COLUMN:
+      return shortVars[index];
+    case I32_COLUMN:
+      return intVars[index];
+    case I64_COLUMN:
+      return longVars[index];
+    case DOUBLE_COLUMN:
+      return doubleVars[index];
+    default:
+      return stringVars.get(index);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a column with the first numRows values, and removes them from this column.
+   */
+  public Column extractSubset(int numRows) {
+    Column subset = new Column(type, nulls.get(0, numRows), numRows);
+    switch (type) {
+    case BOOL_COLUMN:
+      subset.boolVars = Arrays.copyOf(boolVars, numRows);
+      boolVars = Arrays.copyOfRange(boolVars, numRows, size);
+      break;
+    case BYTE_COLUMN:
+      subset.byteVars = Arrays.copyOf(byteVars, numRows);
+      byteVars = Arrays.copyOfRange(byteVars, numRows, size);
+      break;
+    case I16_COLUMN:
+      subset.shortVars = Arrays.copyOf(shortVars, numRows);
+      shortVars = Arrays.copyOfRange(shortVars, numRows, size);
+      break;
+    case I32_COLUMN:
+      subset.intVars = Arrays.copyOf(intVars, numRows);
+      intVars = Arrays.copyOfRange(intVars, numRows, size);
+      break;
+    case I64_COLUMN:
+      subset.longVars = Arrays.copyOf(longVars, numRows);
+      longVars = Arrays.copyOfRange(longVars, numRows, size);
+      break;
+    case DOUBLE_COLUMN:
+      subset.doubleVars = Arrays.copyOf(doubleVars, numRows);
+      doubleVars = Arrays.copyOfRange(doubleVars, numRows, size);
+      break;
+    default:
+      subset.stringVars = new ArrayList<String>(stringVars.subList(0, numRows));
+      stringVars.subList(0, numRows).clear();
+      break;
+    }
+    nulls = nulls.get(numRows, Math.max(numRows, nulls.length()));
+    size -= numRows;
+    return subset;
+  }
+
+  public TColumn toTColumn() {
+    ByteBuffer nullMasks = ByteBuffer.wrap(toBinary(nulls));
+    switch (type) {
+    case BOOL_COLUMN:
+      List<Boolean> bools = new ArrayList<Boolean>(size);
+      for (int i = 0; i < size; i++) {
+        bools.add(boolVars[i]);
+      }
+      return TColumn.boolColumn(new TBoolColumn(bools, nullMasks));
+    case BYTE_COLUMN:
+      List<Byte> bytes = new ArrayList<Byte>(size);
+      for (int i = 0; i < size; i++) {
+        bytes.add(byteVars[i]);
+      }
+      return TColumn.byteColumn(new TByteColumn(bytes, nullMasks));
+    case I16_COLUMN:
+      List<Short> shorts = new ArrayList<Short>(size);
+      for (int i = 0; i < size; i++) {
+        shorts.add(shortVars[i]);
+      }
+      return TColumn.i16Column(new TI16Column(shorts, nullMasks));
+    case I32_COLUMN:
+      List<Integer> ints = new ArrayList<Integer>(size);
+      for (int i = 0; i < size; i++) {
+        ints.add(intVars[i]);
+      }
+      return TColumn.i32Column(new TI32Column(ints, nullMasks));
+    case I64_COLUMN:
+      List<Long> longs = new ArrayList<Long>(size);
+      for (int i = 0; i < size; i++) {
+        longs.add(longVars[i]);
+      }
+      return TColumn.i64Column(new TI64Column(longs, nullMasks));
+    case DOUBLE_COLUMN:
+      List<Double> doubles = new ArrayList<Double>(size);
+      for (int i = 0; i < size; i++) {
+        doubles.add(doubleVars[i]);
+      }
+      return TColumn.doubleColumn(new TDoubleColumn(doubles, nullMasks));
+    default:
+      return TColumn.stringColumn(new TStringColumn(stringVars, nullMasks));
+    }
+  }
+
+  /**
+   * Bit i of the bitmap is bit i % 8 of byte i / 8. Trailing zero bytes are left out.
+   */
+  private static byte[] toBinary(BitSet bitset) {
+    byte[] bytes = new byte[(bitset.length() + 7) / 8];
+    for (int i = bitset.nextSetBit(0); i >= 0; i = bitset.nextSetBit(i + 1)) {
+      bytes[i / 8] |= 1 << (i % 8);
+    }
+    return bytes;
+  }
+
+  private static BitSet toBitSet(byte[] bytes) {
+    BitSet bitset = new BitSet();
+    for (int i = 0; i < bytes.length * 8; i++) {
+      if ((bytes[i / 8] & (1 << (i % 8))) != 0) {
+        bitset.set(i);
+      }
+    }
+    return bitset;
+  }
+}
@@ -204,4 +204,39 @@ public TColumnValue toTColumnValue() {
     return new TColumnValue(tColumnValue);
   }
 
+  /**
+   * Same as newColumnValue(type, value).toTColumnValue(), without the copies.
+   */
+  public static TColumnValue toTColumnValue(Type type, Object value) {
+    ColumnValue columnValue = newColumnValue(type, value);
+    return columnValue == null ? NULL : columnValue.tColumnValue;
+  }
+
+  /**
+   * Returns the Java object carried by the value, null when the value is not set.
+   */
+  public static Object toJavaObject(TColumnValue value) {
+    if (value.getSetField() == null) {
+      return null;
+    }
+    switch (value.getSetField()) {
+    case BOOL_VAL:
+      return value.getBoolVal().isSetValue() ? value.getBoolVal().isValue() : null;
+    case BYTE_VAL:
+      return value.getByteVal().isSetValue() ? value.getByteVal().getValue() : null;
+    case I16_VAL:
+      return value.getI16Val().isSetValue() ? value.getI16Val().getValue() : null;
+    case I32_VAL:
+      return value.getI32Val().isSetValue() ? value.getI32Val().getValue() : null;
+    case I64_VAL:
+      return value.getI64Val().isSetValue() ? value.getI64Val().getValue() : null;
+    case DOUBLE_VAL:
+      return value.getDoubleVal().isSetValue() ? value.getDoubleVal().getValue() : null;
+    case STRING_VAL:
+      return value.getStringVal().isSetValue() ? value.getStringVal().getValue() : null;
+    default:
+      return null;
+    }
+  }
+
 }
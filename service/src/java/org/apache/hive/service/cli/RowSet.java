@@ -18,107 +18,26 @@
 
 package org.apache.hive.service.cli;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.apache.hive.service.cli.thrift.TRow;
 import org.apache.hive.service.cli.thrift.TRowSet;
 
 /**
- * RowSet.
+ * RowSet. Iterating it returns the values of each row, as the Java objects carried by the
+ * Thrift values: Boolean, Byte, Short, Integer, Long, Double or String, null for NULL.
  *
  */
-public class RowSet {
-
-  private long startOffset = 0;
-  private boolean hasMoreResults = false;
-  private List<Row> rows;
-
-  public RowSet() {
-    rows = new ArrayList<Row>();
-  }
-
-  public RowSet(TRowSet tRowSet) {
-    this();
-    startOffset = tRowSet.getStartRowOffset();
-    for (TRow tRow : tRowSet.getRows()) {
-      rows.add(new Row(tRow));
-    }
-  }
-
-  public RowSet(List<Row> rows, long startOffset) {
-    this();
-    this.rows.addAll(rows);
-    this.startOffset = startOffset;
-  }
-
-  public RowSet addRow(Row row) {
-    rows.add(row);
-    return this;
-  }
-
-  public RowSet addRow(TableSchema schema, Object[] fields) {
-    return addRow(new Row(schema, fields));
-  }
-
-  public RowSet extractSubset(int maxRows) {
-    int numRows = rows.size();
-    maxRows = (maxRows <= numRows) ? maxRows : numRows;
-    RowSet result = new RowSet(rows.subList(0, maxRows), startOffset);
-    rows = new ArrayList<Row>(rows.subList(maxRows, numRows));
-    startOffset += result.getSize();
-    return result;
-  }
-
-  public long getStartOffset() {
-    return startOffset;
-  }
-
-  public RowSet setStartOffset(long startOffset) {
-    this.startOffset = startOffset;
-    return this;
-  }
-
-  public boolean getHasMoreResults() {
-    return hasMoreResults;
-  }
-
-  public RowSet setHasMoreResults(boolean hasMoreResults) {
-    this.hasMoreResults = hasMoreResults;
-    return this;
-  }
+public interface RowSet extends Iterable<Object[]> {
 
-  public int getSize() {
-    return rows.size();
-  }
+  RowSet addRow(Object[] fields);
 
-  public TRowSet toTRowSet() {
-    TRowSet tRowSet = new TRowSet();
-    tRowSet.setStartRowOffset(startOffset);
-    List<TRow> tRows = new ArrayList<TRow>();
-    for (Row row : rows) {
-      tRows.add(row.toTRow());
-    }
-    tRowSet.setRows(tRows);
+  RowSet extractSubset(int maxRows);
 
-    /*
-    //List<Boolean> booleanColumn = new ArrayList<Boolean>();
-    //List<Byte> byteColumn = new ArrayList<Byte>();
-    //List<Short> shortColumn = new ArrayList<Short>();
-    List<Integer> integerColumn = new ArrayList<Integer>();
+  int numColumns();
 
-    integerColumn.add(1);
-    //integerColumn.add(null);
-    integerColumn.add(3);
-    //integerColumn.add(null);
+  int getSize();
 
+  long getStartOffset();
 
-    TColumnUnion column = TColumnUnion.i32Column(integerColumn);
-    List<TColumnUnion> columns = new ArrayList<TColumnUnion>();
-    columns.add(column);
-    tRowSet.setColumns(columns);
-    */
+  RowSet setStartOffset(long startOffset);
 
-    return tRowSet;
-  }
+  TRowSet toTRowSet();
 }
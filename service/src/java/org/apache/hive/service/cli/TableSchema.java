@@ -69,6 +69,14 @@ public int getSize() {
     return columns.size();
   }
 
+  public Type[] toTypes() {
+    Type[] types = new Type[columns.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = columns.get(i).getType();
+    }
+    return types;
+  }
+
   public void clear() {
     columns.clear();
   }
@@ -29,6 +29,7 @@
 import org.apache.hive.service.cli.OperationState;
 import org.apache.hive.service.cli.OperationType;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.Type;
 import org.apache.hive.service.cli.session.HiveSession;
@@ -56,11 +57,12 @@ public class GetFunctionsOperation extends MetadataOperation {
   private final String schemaName;
   private final String functionName;
 
-  private final RowSet rowSet = new RowSet();
+  private final RowSet rowSet;
 
   public GetFunctionsOperation(HiveSession parentSession,
       String catalogName, String schemaName, String functionName) {
     super(parentSession, OperationType.GET_FUNCTIONS);
+    rowSet = RowSetFactory.create(RESULT_SET_SCHEMA, getProtocolVersion());
     this.catalogName = catalogName;
     this.schemaName = schemaName;
     this.functionName = functionName;
@@ -89,7 +91,7 @@ public void run() throws HiveSQLException {
                   : DatabaseMetaData.functionNoTable), // FUNCTION_TYPE
              functionInfo.getClass().getCanonicalName()
           };
-          rowSet.addRow(RESULT_SET_SCHEMA, rowData);
+          rowSet.addRow(rowData);
         }
       }
       setState(OperationState.FINISHED);
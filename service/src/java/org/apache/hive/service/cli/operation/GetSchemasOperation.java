@@ -24,6 +24,7 @@
 import org.apache.hive.service.cli.OperationState;
 import org.apache.hive.service.cli.OperationType;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.session.HiveSession;
 
@@ -54,12 +55,12 @@ protected GetSchemasOperation(HiveSession parentSession,
   @Override
   public void run() throws HiveSQLException {
     setState(OperationState.RUNNING);
-    rowSet = new RowSet();
+    rowSet = RowSetFactory.create(RESULT_SET_SCHEMA, getProtocolVersion());
     try {
       IMetaStoreClient metastoreClient = getParentSession().getMetaStoreClient();
       String schemaPattern = convertSchemaPattern(schemaName);
       for (String dbName : metastoreClient.getDatabases(schemaPattern)) {
-        rowSet.addRow(RESULT_SET_SCHEMA, new Object[] {dbName, DEFAULT_HIVE_CATALOG});
+        rowSet.addRow(new Object[] {dbName, DEFAULT_HIVE_CATALOG});
       }
       setState(OperationState.FINISHED);
     } catch (Exception e) {
@@ -25,6 +25,7 @@
 import org.apache.hive.service.cli.OperationState;
 import org.apache.hive.service.cli.OperationType;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.session.HiveSession;
 
@@ -55,10 +56,9 @@ protected GetTableTypesOperation(HiveSession parentSession) {
   public void run() throws HiveSQLException {
     setState(OperationState.RUNNING);
     try {
-      rowSet = new RowSet();
+      rowSet = RowSetFactory.create(RESULT_SET_SCHEMA, getProtocolVersion());
       for (TableType type : TableType.values()) {
-        rowSet.addRow(RESULT_SET_SCHEMA,
-            new String[] {tableTypeMapping.mapToClientType(type.toString())});
+        rowSet.addRow(new String[] {tableTypeMapping.mapToClientType(type.toString())});
       }
       setState(OperationState.FINISHED);
     } catch (Exception e) {
@@ -29,6 +29,7 @@
 import org.apache.hive.service.cli.OperationState;
 import org.apache.hive.service.cli.OperationType;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.session.HiveSession;
 
@@ -42,7 +43,7 @@ public class GetTablesOperation extends MetadataOperation {
   private final String schemaName;
   private final String tableName;
   private final List<String> tableTypes = new ArrayList<String>();
-  private final RowSet rowSet = new RowSet();
+  private final RowSet rowSet;
   private final TableTypeMapping tableTypeMapping;
 
 
@@ -57,6 +58,7 @@ protected GetTablesOperation(HiveSession parentSession,
       String catalogName, String schemaName, String tableName,
       List<String> tableTypes) {
     super(parentSession, OperationType.GET_TABLES);
+    rowSet = RowSetFactory.create(RESULT_SET_SCHEMA, getProtocolVersion());
     this.catalogName = catalogName;
     this.schemaName = schemaName;
     this.tableName = tableName;
@@ -91,7 +93,7 @@ public void run() throws HiveSQLException {
               };
           if (tableTypes.isEmpty() || tableTypes.contains(
                 tableTypeMapping.mapToClientType(table.getTableType()))) {
-            rowSet.addRow(RESULT_SET_SCHEMA, rowData);
+            rowSet.addRow(rowData);
           }
         }
       }
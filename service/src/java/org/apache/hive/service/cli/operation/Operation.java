@@ -28,6 +28,7 @@
 import org.apache.hive.service.cli.RowSet;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.session.HiveSession;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 
 
@@ -58,6 +59,10 @@ public HiveSession getParentSession() {
     return parentSession;
   }
 
+  protected final TProtocolVersion getProtocolVersion() {
+    return parentSession.getProtocolVersion();
+  }
+
   public OperationHandle getHandle() {
     return opHandle;
   }
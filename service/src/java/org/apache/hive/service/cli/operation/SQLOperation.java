@@ -52,6 +52,7 @@
 import org.apache.hive.service.cli.HiveSQLException;
 import org.apache.hive.service.cli.OperationState;
 import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.session.HiveSession;
 
@@ -212,29 +213,20 @@ public TableSchema getResultSetSchema() throws HiveSQLException {
   @Override
   public RowSet getNextRowSet(FetchOrientation orientation, long maxRows) throws HiveSQLException {
     assertState(OperationState.FINISHED);
-    ArrayList<String> rows = new ArrayList<String>();
+    List<Object> rows = new ArrayList<Object>();
     driver.setMaxRows((int)maxRows);
 
     try {
       driver.getResults(rows);
 
-      getSerDe();
-      StructObjectInspector soi = (StructObjectInspector) serde.getObjectInspector();
-      List<? extends StructField> fieldRefs = soi.getAllStructFieldRefs();
-      RowSet rowSet = new RowSet();
-
-      Object[] deserializedFields = new Object[fieldRefs.size()];
-      Object rowObj;
-      ObjectInspector fieldOI;
-
-      for (String rowString : rows) {
-        rowObj = serde.deserialize(new BytesWritable(rowString.getBytes()));
-        for (int i = 0; i < fieldRefs.size(); i++) {
-          StructField fieldRef = fieldRefs.get(i);
-          fieldOI = fieldRef.getFieldObjectInspector();
-          deserializedFields[i] = convertLazyToJava(soi.getStructFieldData(rowObj, fieldRef), fieldOI);
+      RowSet rowSet = RowSetFactory.create(getResultSetSchema(), getProtocolVersion());
+      for (Object row : rows) {
+        if (row instanceof Object[]) {
+          // the fetch task has converted the row already, see HiveSessionImpl
+          rowSet.addRow((Object[]) row);
+        } else {
+          rowSet.addRow(deserialize((String) row));
         }
-        rowSet.addRow(resultSchema, deserializedFields);
       }
       return rowSet;
     } catch (IOException e) {
@@ -246,6 +238,24 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows) throws H
     }
   }
 
+  /**
+   * Reads back a row the driver returned as text, e.g. the output of EXPLAIN.
+   */
+  private Object[] deserialize(String rowString) throws Exception {
+    getSerDe();
+    StructObjectInspector soi = (StructObjectInspector) serde.getObjectInspector();
+    List<? extends StructField> fieldRefs = soi.getAllStructFieldRefs();
+
+    Object rowObj = serde.deserialize(new BytesWritable(rowString.getBytes()));
+    Object[] deserializedFields = new Object[fieldRefs.size()];
+    for (int i = 0; i < fieldRefs.size(); i++) {
+      StructField fieldRef = fieldRefs.get(i);
+      ObjectInspector fieldOI = fieldRef.getFieldObjectInspector();
+      deserializedFields[i] = convertLazyToJava(soi.getStructFieldData(rowObj, fieldRef), fieldOI);
+    }
+    return deserializedFields;
+  }
+
   /**
    * Convert a LazyObject to a standard Java object in compliance with JDBC 3.0 (see JDBC 3.0
    * Specification, Table B-3: Mapping from JDBC Types to Java Object Types).
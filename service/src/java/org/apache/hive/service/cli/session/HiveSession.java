@@ -33,6 +33,7 @@
 import org.apache.hive.service.cli.SessionHandle;
 import org.apache.hive.service.cli.TableSchema;
 import org.apache.hive.service.cli.operation.OperationManager;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 public interface HiveSession {
   /**
@@ -54,6 +55,11 @@ public interface HiveSession {
 
   public SessionHandle getSessionHandle();
 
+  /**
+   * Get the protocol version agreed with the client when the session was opened
+   */
+  public TProtocolVersion getProtocolVersion();
+
   public String getUsername();
 
   public String getPassword();
@@ -32,6 +32,8 @@
 import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.ql.exec.FetchFormatter;
+import org.apache.hadoop.hive.ql.exec.ListSinkOperator;
 import org.apache.hadoop.hive.ql.history.HiveHistory;
 import org.apache.hadoop.hive.ql.session.SessionState;
 import org.apache.hive.common.util.HiveVersionInfo;
@@ -52,6 +54,7 @@
 import org.apache.hive.service.cli.operation.GetTypeInfoOperation;
 import org.apache.hive.service.cli.operation.MetadataOperation;
 import org.apache.hive.service.cli.operation.OperationManager;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 /**
  * HiveSession
@@ -60,6 +63,7 @@
 public class HiveSessionImpl implements HiveSession {
 
   private final SessionHandle sessionHandle = new SessionHandle();
+  private final TProtocolVersion protocol;
   private String username;
   private final String password;
   private final Map<String, String> sessionConf = new HashMap<String, String>();
@@ -76,10 +80,16 @@ public class HiveSessionImpl implements HiveSession {
   private IMetaStoreClient metastoreClient = null;
   private final Set<OperationHandle> opHandleSet = new HashSet<OperationHandle>();
 
-  public HiveSessionImpl(String username, String password, Map<String, String> sessionConf) {
+  public HiveSessionImpl(TProtocolVersion protocol, String username, String password,
+      Map<String, String> sessionConf) {
+    this.protocol = protocol;
     this.username = username;
     this.password = password;
 
+    // the fetch task hands over the rows as Java objects, not as text
+    hiveConf.set(ListSinkOperator.OUTPUT_FORMATTER,
+        FetchFormatter.ThriftFormatter.class.getName());
+
     if (sessionConf != null) {
       for (Map.Entry<String, String> entry : sessionConf.entrySet()) {
         hiveConf.set(entry.getKey(), entry.getValue());
@@ -123,6 +133,10 @@ public SessionHandle getSessionHandle() {
     return sessionHandle;
   }
 
+  public TProtocolVersion getProtocolVersion() {
+    return protocol;
+  }
+
   public String getUsername() {
     return username;
   }
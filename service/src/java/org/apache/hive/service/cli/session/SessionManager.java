@@ -35,6 +35,7 @@
 import org.apache.hive.service.cli.HiveSQLException;
 import org.apache.hive.service.cli.SessionHandle;
 import org.apache.hive.service.cli.operation.OperationManager;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 /**
  * SessionManager.
@@ -102,17 +103,24 @@ public SessionHandle openSession(String username, String password, Map<String, S
 
   public SessionHandle openSession(String username, String password, Map<String, String> sessionConf,
           boolean withImpersonation, String delegationToken) throws HiveSQLException {
+    return openSession(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V1, username, password,
+        sessionConf, withImpersonation, delegationToken);
+  }
+
+  public SessionHandle openSession(TProtocolVersion protocol, String username, String password,
+          Map<String, String> sessionConf, boolean withImpersonation, String delegationToken)
+          throws HiveSQLException {
     if (username == null) {
       username = threadLocalUserName.get();
     }
     HiveSession session;
     if (withImpersonation) {
-      HiveSessionImplwithUGI hiveSessionUgi = new HiveSessionImplwithUGI(username, password,
-        sessionConf, delegationToken);
+      HiveSessionImplwithUGI hiveSessionUgi = new HiveSessionImplwithUGI(protocol, username,
+        password, sessionConf, delegationToken);
       session = HiveSessionProxy.getProxy(hiveSessionUgi, hiveSessionUgi.getSessionUgi());
       hiveSessionUgi.setProxySession(session);
     } else {
-      session = new HiveSessionImpl(username, password, sessionConf);
+      session = new HiveSessionImpl(protocol, username, password, sessionConf);
     }
     session.setSessionManager(this);
     session.setOperationManager(operationManager);
@@ -0,0 +1,339 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli.thrift;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.metrics.Metrics;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
+import org.apache.thrift.transport.TNonblockingSocket;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+/**
+ * A Thrift server that only uses a worker thread while a connection is being opened or a call
+ * is in flight. Between calls, the connections wait in a selector.
+ *
+ * Unlike the nonblocking Thrift servers, this keeps the usual blocking transports, such as the
+ * SASL transports, for each connection: when a call arrives, the connection is switched back
+ * to blocking mode and handed to a worker, which reads, processes and answers the call
+ * through the same transports and processor as {@link org.apache.thrift.server.TThreadPoolServer}
+ * would, and then parks the connection in the selector again.
+ */
+public class TSelectorThreadPoolServer extends TServer {
+
+  private static final Log LOG = LogFactory.getLog(TSelectorThreadPoolServer.class.getName());
+
+  public static final String OPEN_CONNECTIONS = "hs2_thrift_open_connections";
+  public static final String IDLE_CONNECTIONS = "hs2_thrift_idle_connections";
+  public static final String ACTIVE_CALLS = "hs2_thrift_active_calls";
+  public static final String CALL_QUEUE_SIZE = "hs2_thrift_call_queue_size";
+  public static final String CALL_SCOPE = "hs2_thrift_call";
+
+  public static class Args extends AbstractServerArgs<Args> {
+    public int maxWorkerThreads = Integer.MAX_VALUE;
+
+    public Args(TNonblockingServerSocket transport) {
+      super(transport);
+    }
+
+    public Args maxWorkerThreads(int n) {
+      maxWorkerThreads = n;
+      return this;
+    }
+  }
+
+  private final TNonblockingServerSocket serverSocket;
+  private final ThreadPoolExecutor executorService;
+  private final ConcurrentLinkedQueue<Connection> toPark = new ConcurrentLinkedQueue<Connection>();
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final AtomicInteger idleConnections = new AtomicInteger();
+  private final AtomicInteger activeCalls = new AtomicInteger();
+  private Selector selector;
+  private volatile boolean stopped;
+
+  public TSelectorThreadPoolServer(Args args) {
+    super(args);
+    serverSocket = (TNonblockingServerSocket) serverTransport_;
+    // the calls queue up rather than be refused, but there is at most one per connection
+    executorService = new ThreadPoolExecutor(args.maxWorkerThreads, args.maxWorkerThreads,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    executorService.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void serve() {
+    try {
+      selector = Selector.open();
+      serverSocket.listen();
+      serverSocket.registerSelector(selector);
+    } catch (IOException e) {
+      LOG.error("Error opening the server socket", e);
+      return;
+    } catch (TTransportException e) {
+      LOG.error("Error opening the server socket", e);
+      return;
+    }
+
+    stopped = false;
+    setServing(true);
+    List<Connection> ready = new ArrayList<Connection>();
+    while (!stopped) {
+      try {
+        selector.select();
+        if (stopped) {
+          break;
+        }
+        Connection connection;
+        while ((connection = toPark.poll()) != null) {
+          park(connection);
+        }
+        while (true) {
+          processSelectedKeys(ready);
+          if (ready.isEmpty()) {
+            break;
+          }
+          // deregister the channels of the cancelled keys, so they can block again
+          selector.selectNow();
+          for (Connection readyConnection : ready) {
+            dispatch(readyConnection);
+          }
+          ready.clear();
+        }
+      } catch (IOException e) {
+        LOG.error("Error in the selector thread", e);
+      }
+    }
+
+    closeAll();
+    executorService.shutdown();
+    setServing(false);
+  }
+
+  private void processSelectedKeys(List<Connection> ready) {
+    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+    while (keys.hasNext()) {
+      SelectionKey key = keys.next();
+      keys.remove();
+      if (!key.isValid()) {
+        continue;
+      }
+      if (key.isAcceptable()) {
+        accept();
+      } else if (key.isReadable()) {
+        key.cancel();
+        idleConnections.decrementAndGet();
+        ready.add((Connection) key.attachment());
+      }
+    }
+  }
+
+  private void accept() {
+    SocketChannel channel = null;
+    try {
+      channel = ((TNonblockingSocket) serverSocket.accept()).getSocketChannel();
+      channel.configureBlocking(true);
+      Connection connection = new Connection(channel);
+      openConnections.incrementAndGet();
+      dispatch(connection);
+    } catch (Exception e) {
+      LOG.warn("Error accepting a connection", e);
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException ioe) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private void dispatch(Connection connection) {
+    try {
+      connection.channel.configureBlocking(true);
+      executorService.execute(connection);
+    } catch (Exception e) {
+      LOG.warn("Error dispatching a connection", e);
+      connection.close();
+    }
+    updateMetrics();
+  }
+
+  private void park(Connection connection) {
+    try {
+      connection.channel.configureBlocking(false);
+      connection.channel.register(selector, SelectionKey.OP_READ, connection);
+      idleConnections.incrementAndGet();
+    } catch (IOException e) {
+      LOG.warn("Error parking a connection", e);
+      connection.close();
+    }
+    updateMetrics();
+  }
+
+  private void closeAll() {
+    for (SelectionKey key : selector.keys()) {
+      if (key.attachment() instanceof Connection) {
+        ((Connection) key.attachment()).close();
+      }
+    }
+    Connection connection;
+    while ((connection = toPark.poll()) != null) {
+      connection.close();
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      LOG.warn("Error closing the selector", e);
+    }
+    serverSocket.close();
+  }
+
+  @Override
+  public void stop() {
+    stopped = true;
+    if (selector != null) {
+      selector.wakeup();
+    }
+  }
+
+  private void updateMetrics() {
+    try {
+      Metrics.set(OPEN_CONNECTIONS, Long.valueOf(openConnections.get()));
+      Metrics.set(IDLE_CONNECTIONS, Long.valueOf(idleConnections.get()));
+      Metrics.set(ACTIVE_CALLS, Long.valueOf(activeCalls.get()));
+      Metrics.set(CALL_QUEUE_SIZE, Long.valueOf(executorService.getQueue().size()));
+    } catch (IOException e) {
+      // metrics are best effort
+    }
+  }
+
+  /**
+   * A TSocket on the accepted channel, which tells how much input it has buffered.
+   */
+  private static class ChannelSocket extends TSocket {
+    ChannelSocket(Socket socket) throws TTransportException {
+      super(socket);
+    }
+
+    int available() throws IOException {
+      return inputStream_.available();
+    }
+  }
+
+  private class Connection implements Runnable {
+    private final SocketChannel channel;
+    private final ChannelSocket socket;
+    private TTransport inputTransport;
+    private TTransport outputTransport;
+    private TProcessor processor;
+    private TProtocol inputProtocol;
+    private TProtocol outputProtocol;
+    private boolean closed;
+
+    Connection(SocketChannel channel) throws TTransportException {
+      this.channel = channel;
+      this.socket = new ChannelSocket(channel.socket());
+    }
+
+    public void run() {
+      activeCalls.incrementAndGet();
+      updateMetrics();
+      try {
+        if (processor == null) {
+          // a handshake, such as the SASL negotiation, holds the worker until it is done
+          processor = processorFactory_.getProcessor(socket);
+          inputTransport = inputTransportFactory_.getTransport(socket);
+          outputTransport = outputTransportFactory_.getTransport(socket);
+          inputProtocol = inputProtocolFactory_.getProtocol(inputTransport);
+          outputProtocol = outputProtocolFactory_.getProtocol(outputTransport);
+        } else {
+          do {
+            Metrics.startScope(CALL_SCOPE);
+            try {
+              if (!processor.process(inputProtocol, outputProtocol)) {
+                close();
+                return;
+              }
+            } finally {
+              Metrics.endScope(CALL_SCOPE);
+            }
+          } while (hasBufferedInput());
+        }
+        if (stopped) {
+          close();
+          return;
+        }
+        toPark.add(this);
+        selector.wakeup();
+      } catch (TTransportException e) {
+        // the client went away
+        close();
+      } catch (Throwable t) {
+        LOG.error("Error occurred during processing of message.", t);
+        close();
+      } finally {
+        activeCalls.decrementAndGet();
+        updateMetrics();
+      }
+    }
+
+    /**
+     * Whether the next call has already been read from the socket, so that the selector would
+     * not see it.
+     */
+    private boolean hasBufferedInput() throws IOException {
+      return inputTransport.getBytesRemainingInBuffer() > 0 || socket.available() > 0;
+    }
+
+    synchronized void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (inputTransport != null) {
+        inputTransport.close();
+      }
+      if (outputTransport != null) {
+        outputTransport.close();
+      }
+      socket.close();
+      openConnections.decrementAndGet();
+      updateMetrics();
+    }
+  }
+}
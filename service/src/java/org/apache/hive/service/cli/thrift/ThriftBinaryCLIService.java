@@ -26,6 +26,7 @@
 import org.apache.thrift.TProcessorFactory;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TServerSocket;
 import org.apache.thrift.transport.TTransportFactory;
 
@@ -64,6 +65,26 @@ public void run() {
       minWorkerThreads = hiveConf.getIntVar(ConfVars.HIVE_SERVER2_THRIFT_MIN_WORKER_THREADS);
       maxWorkerThreads = hiveConf.getIntVar(ConfVars.HIVE_SERVER2_THRIFT_MAX_WORKER_THREADS);
 
+      if (hiveConf.getVar(ConfVars.HIVE_SERVER2_THRIFT_SERVER_TYPE).equalsIgnoreCase("selector")) {
+        if (hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_USE_SSL)) {
+          throw new IllegalArgumentException(ConfVars.HIVE_SERVER2_THRIFT_SERVER_TYPE.varname +
+              " selector does not support SSL connections");
+        }
+        TSelectorThreadPoolServer.Args sargs =
+            new TSelectorThreadPoolServer.Args(new TNonblockingServerSocket(serverAddress))
+        .processorFactory(processorFactory)
+        .transportFactory(transportFactory)
+        .protocolFactory(new TBinaryProtocol.Factory())
+        .maxWorkerThreads(maxWorkerThreads);
+
+        server = new TSelectorThreadPoolServer(sargs);
+
+        LOG.info("ThriftBinaryCLIService listening on " + serverAddress + " with a selector");
+
+        server.serve();
+        return;
+      }
+
       TServerSocket serverSocket = null;
       if (!hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_USE_SSL)) {
         serverSocket = HiveAuthFactory.getServerSocket(hiveHost, portNum);
@@ -118,6 +118,7 @@ public TOpenSessionResp OpenSession(TOpenSessionReq req) throws TException {
     try {
       SessionHandle sessionHandle = getSessionHandle(req);
       resp.setSessionHandle(sessionHandle.toTSessionHandle());
+      resp.setServerProtocolVersion(getProtocolVersion(req));
       // TODO: set real configuration map
       resp.setConfiguration(new HashMap<String, String>());
       resp.setStatus(OK_STATUS);
@@ -137,10 +138,24 @@ private String getUserName(TOpenSessionReq req) {
     }
   }
 
+  /**
+   * Returns the older of the client's and the server's protocol versions, which the session
+   * speaks. A client newer than the server sends a version the server does not know.
+   */
+  private TProtocolVersion getProtocolVersion(TOpenSessionReq req) {
+    TProtocolVersion clientVersion = req.getClient_protocol();
+    if (clientVersion == null
+        || clientVersion.getValue() > CLIService.SERVER_VERSION.getValue()) {
+      return CLIService.SERVER_VERSION;
+    }
+    return clientVersion;
+  }
+
   SessionHandle getSessionHandle(TOpenSessionReq req)
       throws HiveSQLException, LoginException, IOException {
 
     String userName = getUserName(req);
+    TProtocolVersion protocol = getProtocolVersion(req);
 
     SessionHandle sessionHandle = null;
     if (
@@ -157,10 +172,10 @@ SessionHandle getSessionHandle(TOpenSessionReq req)
       } catch (UnsupportedOperationException e) {
         // The delegation token is not applicable in the given deployment mode
       }
-      sessionHandle = cliService.openSessionWithImpersonation(userName, req.getPassword(),
-          req.getConfiguration(), delegationTokenStr);
+      sessionHandle = cliService.openSessionWithImpersonation(protocol, userName,
+          req.getPassword(), req.getConfiguration(), delegationTokenStr);
     } else {
-      sessionHandle = cliService.openSession(userName, req.getPassword(),
+      sessionHandle = cliService.openSession(protocol, userName, req.getPassword(),
           req.getConfiguration());
     }
     return sessionHandle;
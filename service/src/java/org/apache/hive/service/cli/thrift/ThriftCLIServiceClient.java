@@ -28,6 +28,7 @@
 import org.apache.hive.service.cli.HiveSQLException;
 import org.apache.hive.service.cli.OperationHandle;
 import org.apache.hive.service.cli.OperationState;
+import org.apache.hive.service.cli.RowBasedSet;
 import org.apache.hive.service.cli.RowSet;
 import org.apache.hive.service.cli.SessionHandle;
 import org.apache.hive.service.cli.TableSchema;
@@ -372,7 +373,8 @@ public RowSet fetchResults(OperationHandle opHandle, FetchOrientation orientatio
       req.setMaxRows(maxRows);
       TFetchResultsResp resp = cliService.FetchResults(req);
       checkStatus(resp.getStatus());
-      return new RowSet(resp.getResults());
+      // openSession() leaves the default client protocol, whose results are row based
+      return new RowBasedSet(resp.getResults());
     } catch (HiveSQLException e) {
       throw e;
     } catch (Exception e) {
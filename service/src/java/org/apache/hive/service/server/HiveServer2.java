@@ -22,6 +22,7 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hive.common.LogUtils;
 import org.apache.hadoop.hive.common.LogUtils.LogInitializationException;
+import org.apache.hadoop.hive.common.metrics.Metrics;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hive.common.util.HiveStringUtils;
 import org.apache.hive.service.CompositeService;
@@ -49,6 +50,16 @@ public HiveServer2() {
 
   @Override
   public synchronized void init(HiveConf hiveConf) {
+    if (hiveConf.getBoolVar(HiveConf.ConfVars.HIVE_SERVER2_METRICS_ENABLED)) {
+      try {
+        Metrics.init();
+      } catch (Exception e) {
+        // log exception, but ignore inability to start
+        LOG.error("error in Metrics init: " + e.getClass().getName() + " "
+            + e.getMessage(), e);
+      }
+    }
+
     cliService = new CLIService();
     addService(cliService);
 
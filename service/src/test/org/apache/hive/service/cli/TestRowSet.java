@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Iterator;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hive.service.cli.thrift.TI64Column;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
+import org.apache.hive.service.cli.thrift.TRowSet;
+import org.junit.Test;
+
+/**
+ * TestRowSet.
+ *
+ */
+public class TestRowSet {
+
+  private static final TableSchema SCHEMA = new TableSchema()
+      .addPrimitiveColumn("b", Type.BOOLEAN_TYPE, null)
+      .addPrimitiveColumn("i", Type.INT_TYPE, null)
+      .addPrimitiveColumn("f", Type.FLOAT_TYPE, null)
+      .addPrimitiveColumn("d", Type.DATE_TYPE, null)
+      .addPrimitiveColumn("dec", Type.DECIMAL_TYPE, null)
+      .addStringColumn("s", null);
+
+  private static RowSet createRows(TProtocolVersion version) {
+    RowSet rowSet = RowSetFactory.create(SCHEMA, version);
+    rowSet.addRow(new Object[] {true, 1, 1.5f, Date.valueOf("2013-01-01"),
+        HiveDecimal.create(new BigDecimal("1.25")), "one"});
+    rowSet.addRow(new Object[] {null, null, null, null, null, null});
+    rowSet.addRow(new Object[] {false, 3, -2.0f, Date.valueOf("2013-03-03"),
+        HiveDecimal.create(new BigDecimal("-3")), "three"});
+    return rowSet;
+  }
+
+  private static void assertRows(RowSet rowSet) {
+    Iterator<Object[]> rows = rowSet.iterator();
+    assertTrue(rows.hasNext());
+    assertArrayEquals(new Object[] {true, 1, 1.5d, "2013-01-01", "1.25", "one"}, rows.next());
+    assertArrayEquals(new Object[] {null, null, null, null, null, null}, rows.next());
+    assertArrayEquals(new Object[] {false, 3, -2.0d, "2013-03-03", "-3", "three"}, rows.next());
+    assertFalse(rows.hasNext());
+  }
+
+  @Test
+  public void testRowBased() {
+    RowSet rowSet = createRows(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V4);
+    TRowSet tRowSet = rowSet.toTRowSet();
+    assertEquals(3, tRowSet.getRowsSize());
+    assertFalse(tRowSet.isSetColumns());
+    assertRows(RowSetFactory.create(tRowSet, TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V4));
+  }
+
+  @Test
+  public void testColumnBased() {
+    RowSet rowSet = createRows(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5);
+    TRowSet tRowSet = rowSet.toTRowSet();
+    assertEquals(0, tRowSet.getRowsSize());
+    assertEquals(SCHEMA.getSize(), tRowSet.getColumnsSize());
+    assertTrue(tRowSet.getColumns().get(1).isSetI32Column());
+    assertTrue(tRowSet.getColumns().get(2).isSetDoubleColumn());
+    assertTrue(tRowSet.getColumns().get(4).isSetStringColumn());
+    assertRows(RowSetFactory.create(tRowSet, TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5));
+  }
+
+  @Test
+  public void testExtractSubset() {
+    for (TProtocolVersion version : new TProtocolVersion[] {
+        TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V4,
+        TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5}) {
+      RowSet rowSet = createRows(version);
+      RowSet first = rowSet.extractSubset(2);
+      assertEquals(2, first.getSize());
+      assertEquals(0, first.getStartOffset());
+      assertEquals(1, rowSet.getSize());
+      assertEquals(2, rowSet.getStartOffset());
+
+      RowSet rest = RowSetFactory.create(rowSet.extractSubset(100).toTRowSet(), version);
+      assertEquals(1, rest.getSize());
+      assertEquals(2, rest.getStartOffset());
+      assertEquals("three", rest.iterator().next()[5]);
+      assertEquals(0, rowSet.getSize());
+    }
+  }
+
+  @Test
+  public void testNullBitmap() {
+    TableSchema schema = new TableSchema().addPrimitiveColumn("l", Type.BIGINT_TYPE, null);
+    RowSet rowSet = RowSetFactory.create(schema, TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5);
+    for (long i = 0; i < 20; i++) {
+      rowSet.addRow(new Object[] {i == 0 || i == 9 || i == 12 ? null : i});
+    }
+    TI64Column column = rowSet.toTRowSet().getColumns().get(0).getI64Column();
+    assertEquals(20, column.getValuesSize());
+    assertArrayEquals(new byte[] {0x01, 0x12}, column.getNulls());
+
+    RowSet first = rowSet.extractSubset(10);
+    assertEquals(10, first.getSize());
+    TI64Column rest = rowSet.toTRowSet().getColumns().get(0).getI64Column();
+    assertEquals(10, rest.getValuesSize());
+    assertArrayEquals(new byte[] {0x04}, rest.getNulls());
+
+    Iterator<Object[]> rows = RowSetFactory.create(rowSet.toTRowSet(),
+        TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5).iterator();
+    assertEquals(10L, rows.next()[0]);
+    assertEquals(11L, rows.next()[0]);
+    assertEquals(null, rows.next()[0]);
+    assertEquals(13L, rows.next()[0]);
+  }
+}